@@ -0,0 +1,265 @@
+package es.org.cxn.backapp.config;
+
+/*-
+ * #%L
+ * CXN-back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Círculo Xadrez Narón
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the email outbox dispatcher.
+ *
+ * <p>
+ * Example properties:
+ * </p>
+ *
+ * <pre>
+ * mail.outbox.enabled=true
+ * mail.outbox.poll-interval=30
+ * mail.outbox.batch-size=50
+ * mail.outbox.concurrency=4
+ * mail.outbox.max-attempts=6
+ * mail.outbox.initial-backoff=30
+ * mail.outbox.max-backoff=3600
+ * </pre>
+ *
+ * <p>
+ * Durations are in seconds.
+ * </p>
+ */
+@Configuration
+@ConfigurationProperties(prefix = "mail.outbox")
+public class EmailOutboxProperties {
+
+    /**
+     * Whether the dispatcher runs. When disabled, emails stay queued.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Seconds between outbox polls when no commit wakes the dispatcher up.
+     */
+    private long pollInterval = 30;
+
+    /**
+     * Maximum number of emails read from the outbox per poll.
+     */
+    private int batchSize = 50;
+
+    /**
+     * Maximum number of emails sent at the same time.
+     */
+    private int concurrency = 4;
+
+    /**
+     * Attempts after which an email is marked as failed.
+     */
+    private int maxAttempts = 6;
+
+    /**
+     * Seconds to wait before the first retry. Doubles on each failure.
+     */
+    private long initialBackoff = 30;
+
+    /**
+     * Maximum seconds to wait between retries.
+     */
+    private long maxBackoff = 3600;
+
+    /**
+     * Seconds an email claimed for sending stays reserved for the instance that
+     * claimed it. If that instance stops before recording the result, another
+     * one sends the email once the lease expires.
+     */
+    private long lease = 300;
+
+    /**
+     * Seconds sent and failed emails are kept before they are deleted.
+     */
+    private long retention = 604_800;
+
+    /**
+     * Gets the maximum number of emails read per poll.
+     *
+     * @return the batch size.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Gets the maximum number of emails sent at the same time.
+     *
+     * @return the concurrency.
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Gets the seconds to wait before the first retry.
+     *
+     * @return the initial backoff.
+     */
+    public long getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    /**
+     * Gets the seconds a claimed email stays reserved.
+     *
+     * @return the claim lease.
+     */
+    public long getLease() {
+        return lease;
+    }
+
+    /**
+     * Gets the number of attempts after which an email fails.
+     *
+     * @return the maximum attempts.
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Gets the maximum seconds between retries.
+     *
+     * @return the maximum backoff.
+     */
+    public long getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    /**
+     * Gets the seconds between outbox polls.
+     *
+     * @return the poll interval.
+     */
+    public long getPollInterval() {
+        return pollInterval;
+    }
+
+    /**
+     * Gets the seconds sent and failed emails are kept.
+     *
+     * @return the retention.
+     */
+    public long getRetention() {
+        return retention;
+    }
+
+    /**
+     * Checks whether the dispatcher runs.
+     *
+     * @return {@code true} if enabled.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets the maximum number of emails read per poll.
+     *
+     * @param value the batch size.
+     */
+    public void setBatchSize(final int value) {
+        this.batchSize = value;
+    }
+
+    /**
+     * Sets the maximum number of emails sent at the same time.
+     *
+     * @param value the concurrency.
+     */
+    public void setConcurrency(final int value) {
+        this.concurrency = value;
+    }
+
+    /**
+     * Sets whether the dispatcher runs.
+     *
+     * @param value {@code true} to enable it.
+     */
+    public void setEnabled(final boolean value) {
+        this.enabled = value;
+    }
+
+    /**
+     * Sets the seconds to wait before the first retry.
+     *
+     * @param value the initial backoff.
+     */
+    public void setInitialBackoff(final long value) {
+        this.initialBackoff = value;
+    }
+
+    /**
+     * Sets the seconds a claimed email stays reserved.
+     *
+     * @param value the claim lease.
+     */
+    public void setLease(final long value) {
+        this.lease = value;
+    }
+
+    /**
+     * Sets the number of attempts after which an email fails.
+     *
+     * @param value the maximum attempts.
+     */
+    public void setMaxAttempts(final int value) {
+        this.maxAttempts = value;
+    }
+
+    /**
+     * Sets the maximum seconds between retries.
+     *
+     * @param value the maximum backoff.
+     */
+    public void setMaxBackoff(final long value) {
+        this.maxBackoff = value;
+    }
+
+    /**
+     * Sets the seconds between outbox polls.
+     *
+     * @param value the poll interval.
+     */
+    public void setPollInterval(final long value) {
+        this.pollInterval = value;
+    }
+
+    /**
+     * Sets the seconds sent and failed emails are kept.
+     *
+     * @param value the retention.
+     */
+    public void setRetention(final long value) {
+        this.retention = value;
+    }
+}
@@ -43,6 +43,9 @@ import org.springframework.context.annotation.Configuration;
  * <pre>
  * jwt.secret=your-secret-key
  * jwt.expiration=3600
+ * jwt.cache-maximum-size=10000
+ * jwt.cache-ttl=300
+ * jwt.stateless-claims=false
  * </pre>
  *
  * <p>
@@ -68,6 +71,27 @@ public class JwtProperties {
      */
     private int expiration;
 
+    /**
+     * Maximum number of verified tokens kept in memory. Zero disables the
+     * verified-token cache.
+     */
+    private long cacheMaximumSize = 10_000;
+
+    /**
+     * Maximum time in seconds a verified token stays cached, regardless of its
+     * own expiration.
+     */
+    private long cacheTtl = 300;
+
+    /**
+     * Whether generated tokens embed DNI, roles, enabled state and token version
+     * so the principal can be rebuilt without loading the user. Token versions
+     * are cached per instance, so with several instances a role change or
+     * disable made on one of them reaches the others only after
+     * {@link #cacheTtl} seconds.
+     */
+    private boolean statelessClaims;
+
     /**
      * Default constructor for JwtProperties.
      * <p>
@@ -79,6 +103,33 @@ public class JwtProperties {
         // Default constructor
     }
 
+    /**
+     * Gets the maximum number of verified tokens kept in memory.
+     *
+     * @return the maximum cache size, zero if the cache is disabled.
+     */
+    public long getCacheMaximumSize() {
+        return cacheMaximumSize;
+    }
+
+    /**
+     * Gets the maximum time a verified token stays cached.
+     *
+     * @return the cache time to live in seconds.
+     */
+    public long getCacheTtl() {
+        return cacheTtl;
+    }
+
+    /**
+     * Checks whether tokens carry the claims needed to rebuild the principal.
+     *
+     * @return {@code true} if stateless claims mode is enabled.
+     */
+    public boolean isStatelessClaims() {
+        return statelessClaims;
+    }
+
     /**
      * Gets the expiration time of the JWT token.
      *
@@ -97,6 +148,33 @@ public class JwtProperties {
         return secret;
     }
 
+    /**
+     * Sets the maximum number of verified tokens kept in memory.
+     *
+     * @param size the maximum cache size, zero disables the cache.
+     */
+    public void setCacheMaximumSize(final long size) {
+        cacheMaximumSize = size;
+    }
+
+    /**
+     * Sets the maximum time a verified token stays cached.
+     *
+     * @param ttl the cache time to live in seconds.
+     */
+    public void setCacheTtl(final long ttl) {
+        cacheTtl = ttl;
+    }
+
+    /**
+     * Enables or disables stateless claims mode.
+     *
+     * @param stateless {@code true} to embed principal claims in tokens.
+     */
+    public void setStatelessClaims(final boolean stateless) {
+        statelessClaims = stateless;
+    }
+
     /**
      * Sets the expiration time of the JWT token.
      *
@@ -0,0 +1,119 @@
+package es.org.cxn.backapp.config;
+
+/*-
+ * #%L
+ * CXN-back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Círculo Xadrez Narón
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the HTTP client used to call the Lichess API.
+ *
+ * <p>
+ * Example properties:
+ * </p>
+ *
+ * <pre>
+ * lichess.api.base-url=https://lichess.org
+ * lichess.api.connect-timeout=5s
+ * lichess.api.read-timeout=10s
+ * </pre>
+ */
+@Configuration
+@ConfigurationProperties(prefix = "lichess.api")
+public class LichessApiProperties {
+
+    /**
+     * Base URL of the Lichess API.
+     */
+    private String baseUrl = "https://lichess.org";
+
+    /**
+     * Maximum time to open a connection to Lichess.
+     */
+    private Duration connectTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Maximum time to wait for a response from Lichess.
+     */
+    private Duration readTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Gets the base URL of the Lichess API.
+     *
+     * @return the base URL.
+     */
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Gets the maximum time to open a connection.
+     *
+     * @return the connect timeout.
+     */
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * Gets the maximum time to wait for a response.
+     *
+     * @return the read timeout.
+     */
+    public Duration getReadTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * Sets the base URL of the Lichess API.
+     *
+     * @param value the base URL.
+     */
+    public void setBaseUrl(final String value) {
+        this.baseUrl = value;
+    }
+
+    /**
+     * Sets the maximum time to open a connection.
+     *
+     * @param value the connect timeout.
+     */
+    public void setConnectTimeout(final Duration value) {
+        this.connectTimeout = value;
+    }
+
+    /**
+     * Sets the maximum time to wait for a response.
+     *
+     * @param value the read timeout.
+     */
+    public void setReadTimeout(final Duration value) {
+        this.readTimeout = value;
+    }
+}
@@ -0,0 +1,196 @@
+package es.org.cxn.backapp.config;
+
+/*-
+ * #%L
+ * CXN-back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Círculo Xadrez Narón
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the S3-compatible image store, used when
+ * {@code storage.backend=s3}.
+ *
+ * <p>
+ * Example properties:
+ * </p>
+ *
+ * <pre>
+ * storage.s3.endpoint=https://s3.eu-west-3.amazonaws.com
+ * storage.s3.region=eu-west-3
+ * storage.s3.bucket=cxn-images
+ * storage.s3.access-key=...
+ * storage.s3.secret-key=...
+ * storage.s3.path-style=true
+ * </pre>
+ *
+ * <p>
+ * Path-style addressing ({@code endpoint/bucket/key}) suits MinIO and most
+ * self-hosted stores; disable it for virtual-hosted addressing
+ * ({@code bucket.endpoint/key}).
+ * </p>
+ */
+@Configuration
+@ConfigurationProperties(prefix = "storage.s3")
+public class S3StorageProperties {
+
+    /**
+     * Base URL of the store.
+     */
+    private String endpoint = "";
+
+    /**
+     * Region of the store, part of the request signatures.
+     */
+    private String region = "us-east-1";
+
+    /**
+     * Bucket holding the images.
+     */
+    private String bucket = "";
+
+    /**
+     * Access key identifier.
+     */
+    private String accessKey = "";
+
+    /**
+     * Secret access key.
+     */
+    private String secretKey = "";
+
+    /**
+     * Whether the bucket is addressed in the path rather than the host name.
+     */
+    private boolean pathStyle = true;
+
+    /**
+     * Gets the access key identifier.
+     *
+     * @return the access key.
+     */
+    public String getAccessKey() {
+        return accessKey;
+    }
+
+    /**
+     * Gets the bucket holding the images.
+     *
+     * @return the bucket.
+     */
+    public String getBucket() {
+        return bucket;
+    }
+
+    /**
+     * Gets the base URL of the store.
+     *
+     * @return the endpoint.
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * Gets the region of the store.
+     *
+     * @return the region.
+     */
+    public String getRegion() {
+        return region;
+    }
+
+    /**
+     * Gets the secret access key.
+     *
+     * @return the secret key.
+     */
+    public String getSecretKey() {
+        return secretKey;
+    }
+
+    /**
+     * Checks whether the bucket is addressed in the path.
+     *
+     * @return {@code true} for path-style addressing.
+     */
+    public boolean isPathStyle() {
+        return pathStyle;
+    }
+
+    /**
+     * Sets the access key identifier.
+     *
+     * @param value the access key.
+     */
+    public void setAccessKey(final String value) {
+        this.accessKey = value;
+    }
+
+    /**
+     * Sets the bucket holding the images.
+     *
+     * @param value the bucket.
+     */
+    public void setBucket(final String value) {
+        this.bucket = value;
+    }
+
+    /**
+     * Sets the base URL of the store.
+     *
+     * @param value the endpoint.
+     */
+    public void setEndpoint(final String value) {
+        this.endpoint = value;
+    }
+
+    /**
+     * Sets whether the bucket is addressed in the path.
+     *
+     * @param value {@code true} for path-style addressing.
+     */
+    public void setPathStyle(final boolean value) {
+        this.pathStyle = value;
+    }
+
+    /**
+     * Sets the region of the store.
+     *
+     * @param value the region.
+     */
+    public void setRegion(final String value) {
+        this.region = value;
+    }
+
+    /**
+     * Sets the secret access key.
+     *
+     * @param value the secret key.
+     */
+    public void setSecretKey(final String value) {
+        this.secretKey = value;
+    }
+}
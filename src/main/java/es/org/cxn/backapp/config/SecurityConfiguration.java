@@ -52,9 +52,11 @@ import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
-import es.org.cxn.backapp.AppURL;
 import es.org.cxn.backapp.filter.JwtRequestFilter;
+import es.org.cxn.backapp.filter.UnprotectedRoutes;
 import es.org.cxn.backapp.security.DefaultJwtUtils;
+import es.org.cxn.backapp.security.VerifiedTokenCache;
+import jakarta.servlet.DispatcherType;
 
 /**
  * Security configuration for the application.
@@ -69,7 +71,8 @@ import es.org.cxn.backapp.security.DefaultJwtUtils;
  * <li>Stateless session management.</li>
  * <li>CORS configuration.</li>
  * <li>Custom JWT authentication filter.</li>
- * <li>Access control for API endpoints.</li>
+ * <li>Access control for API endpoints, permitting the routes of
+ * {@link UnprotectedRoutes}.</li>
  * </ul>
  *
  * @author Santiago Paz
@@ -96,15 +99,23 @@ public class SecurityConfiguration {
      */
     private final UserDetailsService userDetailsService;
 
+    /**
+     * Cache of verified tokens shared with the JWT filter.
+     */
+    private final VerifiedTokenCache tokenCache;
+
     /**
      * Constructor for SecurityConfiguration.
      *
      * @param jwtUtils           Utility class for handling JWT tokens.
      * @param userDetailsService Service for loading user details.
+     * @param tokenCache         Cache of verified tokens.
      */
-    public SecurityConfiguration(final DefaultJwtUtils jwtUtils, final UserDetailsService userDetailsService) {
+    public SecurityConfiguration(final DefaultJwtUtils jwtUtils, final UserDetailsService userDetailsService,
+            final VerifiedTokenCache tokenCache) {
         this.jwtUtils = jwtUtils;
         this.userDetailsService = userDetailsService;
+        this.tokenCache = tokenCache;
     }
 
     /**
@@ -153,15 +164,15 @@ public class SecurityConfiguration {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .cors(withDefaults()).headers(headers -> headers.frameOptions(FrameOptionsConfig::sameOrigin))
                 .addFilterBefore(jwtRequestFilter(), UsernamePasswordAuthenticationFilter.class)
-                .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/h2-console/**", AppURL.SIGN_UP_URL, AppURL.SIGN_IN_URL, "/swagger-ui/**",
-                                "/v3/api-docs/**", AppURL.CHESS_QUESTION_URL, AppURL.PARTICIPANTS_URL,
-                                "/api/activities", "/api/activities/*/image", "/api/address/**")
-                        .permitAll().requestMatchers(HttpMethod.GET, "/api/*/lichessAuth").permitAll()
-                        .requestMatchers("/api/ott/my-generate-url").permitAll()
-                        .requestMatchers("/api/ott/my-generate-url/password/reset").permitAll()
-                        .requestMatchers(HttpMethod.POST, "/api/lichessAuth").authenticated().anyRequest()
-                        .authenticated())
+                .authorizeHttpRequests(auth -> {
+                    // Async dispatches, as those of streamed responses, continue a request
+                    // already authorized, and the stateless JWT is not reloaded for them.
+                    auth.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll();
+                    UnprotectedRoutes.routes()
+                            .forEach(route -> auth.requestMatchers(route.method(), route.pattern()).permitAll());
+                    auth.requestMatchers(HttpMethod.POST, "/api/lichessAuth").authenticated().anyRequest()
+                            .authenticated();
+                })
                 .oneTimeTokenLogin((OneTimeTokenLoginConfigurer<HttpSecurity> ott) -> {
                     ott.tokenGeneratingUrl("/api/ott/my-generate-url");
                     ott.showDefaultSubmitPage(false);
@@ -176,7 +187,7 @@ public class SecurityConfiguration {
      */
     @Bean
     public JwtRequestFilter jwtRequestFilter() {
-        return new JwtRequestFilter(jwtUtils, userDetailsService);
+        return new JwtRequestFilter(jwtUtils, userDetailsService, tokenCache);
     }
 
     /**
@@ -0,0 +1,122 @@
+package es.org.cxn.backapp.controller;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.time.Duration;
+
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import es.org.cxn.backapp.service.dto.StoredImageDto;
+import es.org.cxn.backapp.service.impl.storage.ImageVariant;
+
+/**
+ * Builds the responses serving stored images.
+ * <p>
+ * The body is the image file resource, so it is copied to the response when
+ * written instead of being read into memory first. Spring MVC answers
+ * {@code If-None-Match} and {@code If-Modified-Since} with 304 Not Modified from
+ * the entity tag and modification time, and {@code Range} requests with 206
+ * Partial Content.
+ * </p>
+ * <p>
+ * The image endpoints take a {@code variant} parameter, {@code thumb},
+ * {@code medium} or {@code original} (the default), choosing the size the
+ * image is served in.
+ * </p>
+ *
+ * @author Santi
+ */
+public final class StoredImageResponses {
+
+    /**
+     * How long clients may reuse an image addressed by a versioned URL before
+     * revalidating it.
+     */
+    public static final Duration MAX_AGE = Duration.ofDays(30);
+
+    private StoredImageResponses() {
+        super();
+    }
+
+    /**
+     * Reads the image variant request parameter.
+     *
+     * @param parameter the parameter value.
+     * @return the requested variant.
+     * @throws ResponseStatusException with HTTP status 400 (BAD REQUEST) if no
+     *                                 variant has that name.
+     */
+    public static ImageVariant variant(final String parameter) {
+        final var variant = ImageVariant.fromParameter(parameter);
+        if (variant == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown image variant: " + parameter);
+        }
+        return variant;
+    }
+
+    /**
+     * Builds the 200 OK response of a stored image whose URL stays the same when
+     * the image is replaced. Clients keep the file but revalidate it on every use,
+     * which costs a 304 Not Modified while it is unchanged.
+     *
+     * @param image the stored image.
+     * @return the response serving the image file.
+     */
+    public static ResponseEntity<Resource> of(final StoredImageDto image) {
+        return of(image, CacheControl.noCache().cachePrivate());
+    }
+
+    /**
+     * Builds the 200 OK response of a stored image addressed by a URL that
+     * changes with the image, which clients may reuse for {@link #MAX_AGE}
+     * without revalidating.
+     *
+     * @param image the stored image.
+     * @return the response serving the image file.
+     */
+    public static ResponseEntity<Resource> ofVersioned(final StoredImageDto image) {
+        return of(image, CacheControl.maxAge(MAX_AGE).cachePrivate());
+    }
+
+    /**
+     * Builds the 200 OK response of a stored image, with its validators and cache
+     * policy.
+     *
+     * @param image        the stored image.
+     * @param cacheControl the cache policy.
+     * @return the response serving the image file.
+     */
+    private static ResponseEntity<Resource> of(final StoredImageDto image, final CacheControl cacheControl) {
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(image.contentType())).eTag(image.etag())
+                .lastModified(image.lastModified()).cacheControl(cacheControl).body(image.resource());
+    }
+}
@@ -30,7 +30,7 @@ package es.org.cxn.backapp.controller.entity;
 import java.util.Objects;
 import java.util.stream.Stream;
 
-import org.apache.tika.Tika;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -40,11 +40,13 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
+import es.org.cxn.backapp.controller.StoredImageResponses;
 import es.org.cxn.backapp.model.form.requests.AddActivityRequestData;
 import es.org.cxn.backapp.model.form.responses.CreatedActivityResponse;
 import es.org.cxn.backapp.service.ActivitiesService;
@@ -141,22 +143,21 @@ public class ActivitiesController {
     /**
      * Handles the HTTP GET request to retrieve the image of an activity by title.
      *
-     * @param title The title of the activity whose image is to be retrieved.
-     * @return A {@link ResponseEntity} containing the image as a byte array and the
-     *         appropriate content type.
+     * @param title   The title of the activity whose image is to be retrieved.
+     * @param variant The size to serve the image in: {@code thumb},
+     *                {@code medium} or {@code original}.
+     * @return A {@link ResponseEntity} serving the image file with its content
+     *         type, entity tag and cache policy, see
+     *         {@link StoredImageResponses}.
      * @throws ResponseStatusException if the image is not found, resulting in an
      *                                 HTTP 404 (Not Found) response.
      */
     @GetMapping("/{title}/image")
-    public ResponseEntity<byte[]> getActivityImage(@PathVariable final String title) {
+    public ResponseEntity<Resource> getActivityImage(@PathVariable final String title,
+            @RequestParam(defaultValue = "original") final String variant) {
         try {
-            final byte[] image = activitiesService.getActivityImage(title);
-
-            // Detect content type using Apache Tika
-            final Tika tika = new Tika();
-            final String contentType = tika.detect(image);
-
-            return ResponseEntity.ok().contentType(MediaType.parseMediaType(contentType)).body(image);
+            return StoredImageResponses
+                    .of(activitiesService.getActivityImage(title, StoredImageResponses.variant(variant)));
 
         } catch (ActivityNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
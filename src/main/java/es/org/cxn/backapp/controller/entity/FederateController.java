@@ -29,10 +29,17 @@ import java.util.Objects;
  * #L%
  */
 
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -51,6 +58,8 @@ import es.org.cxn.backapp.model.form.responses.FederateStateResponse;
 import es.org.cxn.backapp.model.form.responses.user.DniImagesResponse;
 import es.org.cxn.backapp.service.FederateStateService;
 import es.org.cxn.backapp.service.UserService;
+import es.org.cxn.backapp.service.dto.StoredImageDto;
+import es.org.cxn.backapp.service.dto.UserDniImageFilesDto;
 import es.org.cxn.backapp.service.dto.UserDniImagesDto;
 import es.org.cxn.backapp.service.exceptions.FederateStateServiceException;
 import es.org.cxn.backapp.service.exceptions.PaymentsServiceException;
@@ -297,7 +306,7 @@ public class FederateController {
      * @throws ResponseStatusException if the user is not found or an error occurs
      *                                 while retrieving the images.
      */
-    @GetMapping("/dni")
+    @GetMapping(value = "/dni", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<DniImagesResponse> getOwnDniImage() {
         final var authName = SecurityContextHolder.getContext().getAuthentication().getName();
         try {
@@ -322,7 +331,7 @@ public class FederateController {
      *                                 images.
      */
     @PreAuthorize("hasRole('ADMIN') or hasRole('PRESIDENTE') or " + "hasRole('SECRETARIO')")
-    @GetMapping("/dni/{userDni}")
+    @GetMapping(value = "/dni/{userDni}", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<DniImagesResponse> getUserDniImage(final @PathVariable String userDni) {
         try {
             final UserDniImagesDto dniImagesServiceDto = federateStateService.getDniImages(userDni);
@@ -334,6 +343,76 @@ public class FederateController {
         }
     }
 
+    /**
+     * Streams the authenticated user's DNI images as a {@code multipart/mixed}
+     * response, chosen with {@code Accept: multipart/mixed}. The {@code frontDni}
+     * and {@code backDni} parts are copied from the image files with their media
+     * types, with no Base64 encoding.
+     *
+     * @return ResponseEntity with the front and back DNI image parts.
+     * @throws ResponseStatusException if the user is not found or an error occurs
+     *                                 while opening the images.
+     */
+    @GetMapping(value = "/dni", produces = MediaType.MULTIPART_MIXED_VALUE)
+    public ResponseEntity<MultiValueMap<String, HttpEntity<Resource>>> getOwnDniImageParts() {
+        final var authName = SecurityContextHolder.getContext().getAuthentication().getName();
+        try {
+            final var userEntity = userService.findByEmail(authName);
+            return dniImageParts(federateStateService.getDniImageFiles(userEntity.getDni()));
+        } catch (FederateStateServiceException | UserServiceException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Streams the DNI images of a user as a {@code multipart/mixed} response, for
+     * the review of federate requests. Chosen with
+     * {@code Accept: multipart/mixed}.
+     *
+     * @param userDni The DNI of the user whose images are to be retrieved.
+     * @return ResponseEntity with the front and back DNI image parts.
+     * @throws ResponseStatusException if an error occurs while opening the images.
+     */
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PRESIDENTE') or " + "hasRole('SECRETARIO')")
+    @GetMapping(value = "/dni/{userDni}", produces = MediaType.MULTIPART_MIXED_VALUE)
+    public ResponseEntity<MultiValueMap<String, HttpEntity<Resource>>> getUserDniImageParts(
+            final @PathVariable String userDni) {
+        try {
+            return dniImageParts(federateStateService.getDniImageFiles(userDni));
+        } catch (FederateStateServiceException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Builds the multipart response of DNI images. Identity documents are never
+     * stored by caches.
+     *
+     * @param images the opened DNI images.
+     * @return the response with a part per image.
+     */
+    private static ResponseEntity<MultiValueMap<String, HttpEntity<Resource>>> dniImageParts(
+            final UserDniImageFilesDto images) {
+        final MultiValueMap<String, HttpEntity<Resource>> parts = new LinkedMultiValueMap<>();
+        parts.add("frontDni", dniImagePart(images.frontImage()));
+        parts.add("backDni", dniImagePart(images.backImage()));
+        return ResponseEntity.ok().contentType(MediaType.MULTIPART_MIXED).cacheControl(CacheControl.noStore())
+                .body(parts);
+    }
+
+    /**
+     * Builds the part of a DNI image.
+     *
+     * @param image the opened image.
+     * @return the part, with the image media type and size.
+     */
+    private static HttpEntity<Resource> dniImagePart(final StoredImageDto image) {
+        final var headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(image.contentType()));
+        headers.setContentLength(image.size());
+        return new HttpEntity<>(image.resource(), headers);
+    }
+
     /**
      * Updates the DNI documents (front and back) for the currently authenticated
      * user.
@@ -36,16 +36,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.env.Environment;
 import org.springframework.core.io.ClassPathResource;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -53,21 +50,21 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
+import es.org.cxn.backapp.model.LichessTimeControl;
+import es.org.cxn.backapp.model.form.responses.lichess.LichessLeaderboardEntryResponse;
+import es.org.cxn.backapp.model.form.responses.lichess.LichessLeaderboardResponse;
 import es.org.cxn.backapp.model.form.responses.lichess.LichessProfileListResponse;
 import es.org.cxn.backapp.model.form.responses.lichess.LichessProfileResponse;
+import es.org.cxn.backapp.model.form.responses.lichess.LichessRefreshStatusResponse;
 import es.org.cxn.backapp.service.LichessService;
 import es.org.cxn.backapp.service.dto.LichessProfileDto;
 import es.org.cxn.backapp.service.dto.LichessSaveProfileDto;
-import es.org.cxn.backapp.service.dto.LichessSaveProfileDto.SaveGameStatistics;
 import es.org.cxn.backapp.service.exceptions.LichessServiceException;
+import es.org.cxn.backapp.service.impl.lichess.LichessApiClient;
+import es.org.cxn.backapp.service.impl.lichess.LichessLeaderboard;
+import es.org.cxn.backapp.service.impl.lichess.LichessProfileRefresher;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -130,14 +127,36 @@ public class LichessController {
      */
     private final LichessService lichessService;
 
+    /**
+     * Client of the Lichess API.
+     */
+    private final LichessApiClient lichessApiClient;
+
+    /**
+     * Scheduled refresher of the linked Lichess profiles.
+     */
+    private final LichessProfileRefresher lichessProfileRefresher;
+
+    /**
+     * Cached club leaderboard of the Lichess profiles.
+     */
+    private final LichessLeaderboard lichessLeaderboard;
+
     /**
      * Main Constructor.
      *
      * @param lichessServ The provided service instance.
+     * @param apiClient   The Lichess API client.
+     * @param refresher   The Lichess profiles refresher.
+     * @param leaderboard The Lichess club leaderboard.
      * @param env         The Spring environment.
      */
-    public LichessController(final LichessService lichessServ, final Environment env) {
+    public LichessController(final LichessService lichessServ, final LichessApiClient apiClient,
+            final LichessProfileRefresher refresher, final LichessLeaderboard leaderboard, final Environment env) {
         lichessService = lichessServ;
+        lichessApiClient = apiClient;
+        lichessProfileRefresher = refresher;
+        lichessLeaderboard = leaderboard;
         environment = env;
     }
 
@@ -230,44 +249,75 @@ public class LichessController {
         }
     }
 
-    private LichessSaveProfileDto getLichessProfileAsDto(final String accessToken, final String userDni)
-            throws LichessServiceException {
-        final String lichessApiUrl = "https://lichess.org/api/account";
-
-        final RestTemplate restTemplate = new RestTemplate();
-        final HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setBearerAuth(accessToken);
+    /**
+     * Gets the outcome of the scheduled refresh of the linked Lichess profiles:
+     * when it last ran and how many profiles could not be fetched.
+     *
+     * @return the refresh status.
+     */
+    @GetMapping("/lichessRefreshStatus")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PRESIDENTE')")
+    public ResponseEntity<LichessRefreshStatusResponse> getLichessRefreshStatus() {
+        return ResponseEntity.ok(new LichessRefreshStatusResponse(lichessProfileRefresher.getStatus()));
+    }
 
-        final HttpEntity<String> entity = new HttpEntity<>(headers);
+    /**
+     * Reads the time control of a leaderboard request.
+     *
+     * @param timeControl the time control parameter.
+     * @return the time control.
+     * @throws ResponseStatusException with 400 status if the time control is
+     *                                 unknown.
+     */
+    private static LichessTimeControl leaderboardTimeControl(final String timeControl) {
+        final var result = LichessTimeControl.fromParameter(timeControl);
+        if (result == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown time control: " + timeControl);
+        }
+        return result;
+    }
 
-        try {
-            final ResponseEntity<String> response = restTemplate.exchange(lichessApiUrl, HttpMethod.GET, entity,
-                    String.class);
-            final var statusCode = response.getStatusCode();
-            if (statusCode.equals(HttpStatus.OK)) {
-                // Convertir la respuesta en JSON a un objeto de Java
-                final ObjectMapper objectMapper = new ObjectMapper();
-                final JsonNode rootNode = objectMapper.readTree(response.getBody());
-
-                // Extraer y mapear los campos necesarios al DTO
-                final String identifier = rootNode.path("id").asText();
-                final String username = rootNode.path("username").asText();
-                // Obtener estadísticas de diferentes modalidades
-                final SaveGameStatistics blitz = mapSaveGameStatistics(rootNode.path("perfs").path("blitz"));
-                final SaveGameStatistics bullet = mapSaveGameStatistics(rootNode.path("perfs").path("bullet"));
-                final SaveGameStatistics classical = mapSaveGameStatistics(rootNode.path("perfs").path("classical"));
-                final SaveGameStatistics rapid = mapSaveGameStatistics(rootNode.path("perfs").path("rapid"));
-                final SaveGameStatistics puzzle = mapSaveGameStatistics(rootNode.path("perfs").path("puzzle"));
-                // Crear el DTO con la información mapeada
-                return new LichessSaveProfileDto(userDni, identifier, username, LocalDateTime.now(), blitz, bullet,
-                        classical, rapid, puzzle);
-            } else {
-                throw new LichessServiceException("Error al obtener el perfil de Lichess.");
-            }
-        } catch (RestClientException | JsonProcessingException e) {
-            throw new LichessServiceException("Error en la llamada a la API de Lichess.", e);
+    /**
+     * Gets the top of the club leaderboard of a time control, served from memory.
+     * The response carries the entity tag and last modification of the whole
+     * leaderboard, so conditional requests are answered with 304 Not Modified.
+     *
+     * @param timeControl the time control: blitz, bullet, classical, rapid or
+     *                    puzzle.
+     * @param limit       the maximum number of users, 10 by default.
+     * @return the top users of the leaderboard.
+     */
+    @GetMapping("/lichessLeaderboard/{timeControl}")
+    public ResponseEntity<LichessLeaderboardResponse> getLichessLeaderboard(final @PathVariable String timeControl,
+            final @RequestParam(defaultValue = "10") int limit) {
+        final var control = leaderboardTimeControl(timeControl);
+        if (limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The limit must be positive.");
         }
+        final var leaderboard = lichessLeaderboard.top(control, limit);
+        final var builder = ResponseEntity.ok().eTag(leaderboard.etag()).cacheControl(CacheControl.noCache());
+        if (leaderboard.lastModified() != null) {
+            builder.lastModified(leaderboard.lastModified());
+        }
+        return builder.body(new LichessLeaderboardResponse(leaderboard));
+    }
+
+    /**
+     * Gets the position of a user in the club leaderboard of a time control.
+     *
+     * @param timeControl the time control: blitz, bullet, classical, rapid or
+     *                    puzzle.
+     * @param userDni     the user's DNI.
+     * @return the user's leaderboard entry, or 404 if the user is not ranked in
+     *         the time control.
+     */
+    @GetMapping("/lichessLeaderboard/{timeControl}/rank/{userDni}")
+    public ResponseEntity<LichessLeaderboardEntryResponse> getLichessLeaderboardRank(
+            final @PathVariable String timeControl, final @PathVariable String userDni) {
+        final var entry = lichessLeaderboard.rank(leaderboardTimeControl(timeControl), userDni)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "The user is not ranked in " + timeControl + "."));
+        return ResponseEntity.ok(new LichessLeaderboardEntryResponse(entry));
     }
 
     /**
@@ -361,7 +411,7 @@ public class LichessController {
         final String accessToken = requestAccessToken(authorizationCode, codeVerifier, redirectUri, clientId,
                 userEmail);
 
-        final LichessSaveProfileDto dto = getLichessProfileAsDto(accessToken, userEmail);
+        final LichessSaveProfileDto dto = lichessApiClient.getAccount(accessToken, userEmail);
         lichessService.saveLichessProfile(dto);
 
         try {
@@ -387,17 +437,6 @@ public class LichessController {
         return environment.matchesProfiles("prod");
     }
 
-    /**
-     * Utility method to check if the response was successful.
-     *
-     * @param response the HTTP response
-     * @return true if the response status code is in the 2xx range, false otherwise
-     */
-    private boolean isResponseSuccessful(final ResponseEntity<String> response) {
-        final var statusCode = response.getStatusCode();
-        return statusCode.is2xxSuccessful();
-    }
-
     /**
      * Load response template for error case from file.
      *
@@ -434,48 +473,10 @@ public class LichessController {
         }
     }
 
-    /**
-     * Logs an error if the token retrieval failed.
-     *
-     * @param response the HTTP response
-     */
-    private void logError(final ResponseEntity<String> response) {
-        if (LOGGER.isErrorEnabled()) {
-            LOGGER.error("Failed to retrieve access token. Status code: {}", response.getStatusCode());
-        }
-    }
-
-    /**
-     * Logs an exception if an error occurs during parsing.
-     *
-     * @param exception The IO Exception.
-     */
-    private void logException(final IOException exception) {
-        if (LOGGER.isErrorEnabled()) {
-            LOGGER.error("Error parsing the token response", exception);
-        }
-    }
-
-    /**
-     * Maps the statistics of a game mode to a GameStatistics object.
-     *
-     * @param node The JSON node containing the statistics of a game mode
-     * @return A GameStatistics object with the mapped data
-     */
-    private SaveGameStatistics mapSaveGameStatistics(final JsonNode node) {
-        final int gameAmount = node.path("games").asInt();
-        final int gameRating = node.path("rating").asInt();
-        final int gameRd = node.path("rd").asInt();
-        final int prog = node.path("prog").asInt();
-        final boolean prov = node.path("prov").asBoolean();
-
-        return new SaveGameStatistics(gameAmount, gameRating, gameRd, prog, prov);
-    }
-
     /**
      * Sends a request to Lichess to exchange the authorization code for an access
-     * token. This method handles the construction of the request, parsing the
-     * response, and saving the token information.
+     * token through the {@link LichessApiClient}, and saves the token
+     * information.
      *
      * @param code         the authorization code received from Lichess
      * @param codeVerifier the code verifier used in the PKCE flow
@@ -483,56 +484,26 @@ public class LichessController {
      * @param clientId     the client ID of the application
      * @param userEmail    the email of the authenticated user
      * @return the access token if the exchange was successful, null otherwise
-     * @throws LichessServiceException if an error occurs during the token request
-     *                                 or parsing the response
+     * @throws LichessServiceException if the token information cannot be saved
      */
     private String requestAccessToken(final String code, final String codeVerifier, final String redirectUri,
             final String clientId, final String userEmail) throws LichessServiceException {
-
-        final RestTemplate restTemplate = new RestTemplate();
-
-        // Use MultiValueMap interface for body
-        final MultiValueMap<String, String> body = new LinkedMultiValueMap<>();
-        body.add("grant_type", "authorization_code");
-        body.add("code", code);
-        body.add("code_verifier", codeVerifier);
-        body.add("redirect_uri", redirectUri);
-        body.add("client_id", clientId);
-
-        // Use MultiValueMap for headers
-        final MultiValueMap<String, String> headers = new HttpHeaders();
-        headers.set("Content-Type", "application/x-www-form-urlencoded");
-
-        final HttpEntity<MultiValueMap<String, String>> requestEntity = new HttpEntity<>(body, headers);
-
-        String accessToken = null;
-
+        final LichessApiClient.AccessToken token;
         try {
-            final ResponseEntity<String> response = restTemplate.exchange("https://lichess.org/api/token",
-                    HttpMethod.POST, requestEntity, String.class);
-
-            // Use the encapsulated method to check the status
-            if (isResponseSuccessful(response)) {
-                final ObjectMapper objectMapper = new ObjectMapper();
-                final JsonNode root = objectMapper.readTree(response.getBody());
-
-                accessToken = root.path("access_token").asText();
-                final String tokenType = root.path("token_type").asText();
-                final int expiresIn = root.path("expires_in").asInt();
-
-                // Calculate expiration date
-                final LocalDateTime expirationDate = LocalDateTime.now().plusSeconds(expiresIn);
-
-                // Save token information
-                lichessService.saveAuthToken(tokenType, accessToken, expirationDate, userEmail);
-            } else {
-                logError(response);
+            token = lichessApiClient.requestAccessToken(code, codeVerifier, redirectUri, clientId);
+        } catch (LichessServiceException e) {
+            if (LOGGER.isErrorEnabled()) {
+                LOGGER.error("Failed to retrieve access token.", e);
             }
-        } catch (IOException e) {
-            logException(e);
+            return null;
         }
 
-        return accessToken;
+        // Calculate expiration date
+        final LocalDateTime expirationDate = LocalDateTime.now().plusSeconds(token.expiresIn());
+
+        // Save token information
+        lichessService.saveAuthToken(token.tokenType(), token.accessToken(), expirationDate, userEmail);
+        return token.accessToken();
     }
 
     /**
@@ -591,7 +562,7 @@ public class LichessController {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
         }
         try {
-            final LichessSaveProfileDto dto = getLichessProfileAsDto(accessToken, userEmail);
+            final LichessSaveProfileDto dto = lichessApiClient.getAccount(accessToken, userEmail);
             lichessService.saveLichessProfile(dto);
             final LichessProfileDto lichessProfile = lichessService.getLichessProfile(userEmail);
             final LichessProfileResponse response = fromLichessProfileServiceDtoToControllerResponse(lichessProfile);
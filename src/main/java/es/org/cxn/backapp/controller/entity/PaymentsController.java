@@ -36,6 +36,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -46,13 +47,17 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
 import es.org.cxn.backapp.model.PaymentsEntity;
 import es.org.cxn.backapp.model.form.requests.payments.CreatePaymentRequest;
 import es.org.cxn.backapp.model.form.responses.payments.PaymentResponse;
+import es.org.cxn.backapp.model.persistence.payments.PaymentsCategory;
+import es.org.cxn.backapp.model.persistence.payments.PaymentsState;
 import es.org.cxn.backapp.service.PaymentsService;
+import es.org.cxn.backapp.service.dto.MembershipFeeRunDto;
 import es.org.cxn.backapp.service.dto.PaymentDetails;
 import es.org.cxn.backapp.service.exceptions.PaymentsServiceException;
 import jakarta.validation.Valid;
@@ -65,6 +70,16 @@ import jakarta.validation.Valid;
 @RequestMapping("/api/payments")
 public class PaymentsController {
 
+    /**
+     * Default number of users per page of the filtered payments listing.
+     */
+    private static final String DEFAULT_PAGE_SIZE = "50";
+
+    /**
+     * Maximum number of users per page of the filtered payments listing.
+     */
+    private static final int MAX_PAGE_SIZE = 500;
+
     /**
      * Service for manage payments.
      */
@@ -124,16 +139,56 @@ public class PaymentsController {
         }
     }
 
+    /**
+     * Generates the membership fee of a season for every enabled member. Repeating
+     * the request only bills the members left, so an interrupted run can be
+     * resumed.
+     *
+     * @param year The season to bill.
+     * @return A ResponseEntity with the number of generated payments.
+     * @throws ResponseStatusException if the notification emails cannot be queued.
+     */
+    @PostMapping("/membershipFees/{year}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PRESIDENTE') or hasRole('TESORERO')")
+    public ResponseEntity<MembershipFeeRunDto> generateMembershipFees(@PathVariable final int year) {
+        try {
+            return new ResponseEntity<>(paymentsService.generateMembershipFees(year), HttpStatus.CREATED);
+        } catch (PaymentsServiceException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage(), e);
+        }
+    }
+
     /**
      * Retrieves from all users all payment information.
+     * <p>
+     * Without parameters every user is returned, including those without
+     * payments. When a filter or a page is given, only a page of the users having
+     * matching payments is returned, ordered by DNI, each with their matching
+     * payments.
+     * </p>
      *
+     * @param state    Only payments in this state, optional.
+     * @param category Only payments of this category, optional.
+     * @param page     The zero based page of users, optional.
+     * @param size     The number of users per page, {@value #DEFAULT_PAGE_SIZE} by
+     *                 default.
      * @return A List with all users basic info with their payments info list.
      */
     @GetMapping("/getAll")
     @PreAuthorize("hasRole('ADMIN') or hasRole('PRESIDENTE') or hasRole('TESORERO')")
-    public ResponseEntity<Map<String, List<PaymentDetails>>> getAllUsersPayments() {
-
-        final var usersPaymentsList = paymentsService.getAllUsersWithPayments();
+    public ResponseEntity<Map<String, List<PaymentDetails>>> getAllUsersPayments(
+            @RequestParam(required = false) final PaymentsState state,
+            @RequestParam(required = false) final PaymentsCategory category,
+            @RequestParam(required = false) final Integer page,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) final int size) {
+        if (state == null && category == null && page == null) {
+            return new ResponseEntity<>(paymentsService.getAllUsersWithPayments(), HttpStatus.OK);
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE || page != null && page < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid page request.");
+        }
+        final var usersPaymentsList = paymentsService.getUsersWithPayments(state, category,
+                PageRequest.of(page == null ? 0 : page, size));
 
         return new ResponseEntity<>(usersPaymentsList, HttpStatus.OK);
 
@@ -27,14 +27,25 @@ package es.org.cxn.backapp.controller.entity;
  * #L%
  */
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
+import org.springframework.core.io.Resource;
 import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -47,18 +58,30 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import es.org.cxn.backapp.controller.StoredImageResponses;
+import es.org.cxn.backapp.model.FederateState;
 import es.org.cxn.backapp.model.UserEntity;
+import es.org.cxn.backapp.model.UserRoleName;
 import es.org.cxn.backapp.model.form.requests.UserChangeEmailRequest;
 import es.org.cxn.backapp.model.form.requests.UserChangeKindMemberRequest;
 import es.org.cxn.backapp.model.form.requests.UserChangePasswordRequest;
 import es.org.cxn.backapp.model.form.requests.UserUpdateRequestForm;
 import es.org.cxn.backapp.model.form.responses.user.ProfileImageResponse;
 import es.org.cxn.backapp.model.form.responses.user.UserDataResponse;
+import es.org.cxn.backapp.model.form.responses.user.UserDirectoryResponse;
 import es.org.cxn.backapp.model.form.responses.user.UserListDataResponse;
+import es.org.cxn.backapp.model.form.responses.user.UserRosterFormat;
+import es.org.cxn.backapp.model.form.responses.user.UserRosterWriter;
 import es.org.cxn.backapp.model.form.responses.user.UserUpdateResponseForm;
+import es.org.cxn.backapp.model.persistence.user.UserType;
 import es.org.cxn.backapp.service.UserProfileImageService;
 import es.org.cxn.backapp.service.UserService;
+import es.org.cxn.backapp.service.dto.UserDirectoryFilterDto;
+import es.org.cxn.backapp.service.dto.UserDirectorySort;
 import es.org.cxn.backapp.service.dto.UserServiceUpdateDto;
 import es.org.cxn.backapp.service.exceptions.UserServiceException;
 
@@ -96,6 +119,29 @@ import es.org.cxn.backapp.service.exceptions.UserServiceException;
 @RequestMapping("/api/user")
 public class UserController {
 
+    /**
+     * Default number of users per page of the user directory.
+     */
+    private static final String DEFAULT_DIRECTORY_LIMIT = "50";
+
+    /**
+     * Maximum number of users per page of the user directory.
+     */
+    private static final int MAX_DIRECTORY_LIMIT = 200;
+
+    /**
+     * File name of the roster export, without extension.
+     */
+    private static final String ROSTER_FILE_NAME = "members";
+
+    /**
+     * Roles allowed to read the profile image of any user, the same that can list
+     * the users.
+     */
+    private static final Set<String> PROFILE_IMAGE_READER_ROLES = Set.of(UserRoleName.ROLE_ADMIN.name(),
+            UserRoleName.ROLE_PRESIDENTE.name(), UserRoleName.ROLE_SECRETARIO.name(),
+            UserRoleName.ROLE_TESORERO.name());
+
     /**
      * The user service to handle business logic related to user operations.
      */
@@ -106,6 +152,11 @@ public class UserController {
      */
     private final UserProfileImageService userProfileImageService;
 
+    /**
+     * The object mapper serializing the rows of the NDJSON roster export.
+     */
+    private final ObjectMapper objectMapper;
+
     /**
      * Constructs a new {@code UserController} instance with the specified services.
      *
@@ -114,11 +165,16 @@ public class UserController {
      * @param usrProfileImageServ the {@link UserProfileImageService} instance used
      *                            for managing user profile image operations. Must
      *                            not be {@code null}.
-     * @throws NullPointerException if {@code service} or
-     *                              {@code usrProfileImageServ} is {@code null}.
+     * @param mapper              the {@link ObjectMapper} serializing the rows of
+     *                            the NDJSON roster export. Must not be
+     *                            {@code null}.
+     * @throws NullPointerException if {@code service}, {@code usrProfileImageServ}
+     *                              or {@code mapper} is {@code null}.
      */
-    public UserController(final UserService service, final UserProfileImageService usrProfileImageServ) {
+    public UserController(final UserService service, final UserProfileImageService usrProfileImageServ,
+            final ObjectMapper mapper) {
         super();
+        objectMapper = Objects.requireNonNull(mapper, "Received a null pointer as object mapper.");
         userService = Objects.requireNonNull(service, "Received a null pointer as user service");
         userProfileImageService = Objects.requireNonNull(usrProfileImageServ,
                 "Received a null pointer as user profile image service.");
@@ -270,15 +326,101 @@ public class UserController {
     @GetMapping("/getAll")
     @PreAuthorize("hasRole('ADMIN') or hasRole('PRESIDENTE') or hasRole('TESORERO') or " + "hasRole('SECRETARIO')")
     public ResponseEntity<UserListDataResponse> getAllUserData() {
-        final var users = userService.getAll();
+        final var users = userService.getAllSummaries();
         HttpHeaders headers = new HttpHeaders();
         headers.setCacheControl(CacheControl.noCache().mustRevalidate());
         headers.setPragma("no-cache");
         headers.setExpires(0);
-        final var response = UserListDataResponse.fromUserEntities(users);
+        final var response = UserListDataResponse.fromUserSummaries(users);
         return new ResponseEntity<>(response, headers, HttpStatus.OK);
     }
 
+    /**
+     * Exports the member roster, with roles, address, teams and federate state.
+     *
+     * <p>
+     * Requires the user to have one of the following roles: ADMIN, PRESIDENTE,
+     * TESORERO, SECRETARIO. The users are written to the response as they are
+     * read from the database, so the memory used does not depend on the number of
+     * members.
+     *
+     * @param format The format of the export, NDJSON by default.
+     * @return the roster, streamed as an attachment.
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PRESIDENTE') or hasRole('TESORERO') or " + "hasRole('SECRETARIO')")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "NDJSON") final UserRosterFormat format) {
+        final StreamingResponseBody body = outputStream -> {
+            final var writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            final var roster = new UserRosterWriter(format, writer, objectMapper);
+            roster.writeHeader();
+            try {
+                userService.forEachSummary(summary -> {
+                    try {
+                        roster.write(new UserDataResponse(summary));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.parseMediaType(format.getMediaType()), StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(ROSTER_FILE_NAME + "." + format.getExtension()).build().toString())
+                .body(body);
+    }
+
+    /**
+     * Retrieves a page of the user directory.
+     *
+     * <p>
+     * Requires the user to have one of the following roles: ADMIN, PRESIDENTE,
+     * TESORERO, SECRETARIO. Pages are keyset paginated: the first one is requested
+     * without cursor, and each following one with the cursor returned by the
+     * previous page.
+     *
+     * @param sort          The order of the directory, by DNI by default.
+     * @param cursor        The cursor returned with the previous page, optional.
+     * @param limit         The number of users per page,
+     *                      {@value #DEFAULT_DIRECTORY_LIMIT} by default and
+     *                      {@value #MAX_DIRECTORY_LIMIT} at most.
+     * @param kindMember    Only users of this kind of member, optional.
+     * @param role          Only users with this role, optional.
+     * @param enabled       Only enabled or disabled users, optional.
+     * @param federateState Only users in this federate state, optional.
+     * @param team          Only users assigned to this team, optional.
+     * @return a {@link UserDirectoryResponse} with the users of the page.
+     * @throws ResponseStatusException with HTTP status 400 (BAD REQUEST) if the
+     *                                 limit or the cursor are not valid.
+     */
+    @GetMapping("/directory")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PRESIDENTE') or hasRole('TESORERO') or " + "hasRole('SECRETARIO')")
+    public ResponseEntity<UserDirectoryResponse> getUserDirectory(
+            @RequestParam(defaultValue = "DNI") final UserDirectorySort sort,
+            @RequestParam(required = false) final String cursor,
+            @RequestParam(defaultValue = DEFAULT_DIRECTORY_LIMIT) final int limit,
+            @RequestParam(required = false) final UserType kindMember,
+            @RequestParam(required = false) final UserRoleName role,
+            @RequestParam(required = false) final Boolean enabled,
+            @RequestParam(required = false) final FederateState federateState,
+            @RequestParam(required = false) final String team) {
+        if (limit < 1 || limit > MAX_DIRECTORY_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid page limit.");
+        }
+        final var filter = new UserDirectoryFilterDto(kindMember, role, enabled, federateState, team);
+        try {
+            final var page = userService.getDirectoryPage(filter, sort, cursor, limit);
+            return new ResponseEntity<>(UserDirectoryResponse.fromPage(page), HttpStatus.OK);
+        } catch (UserServiceException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
     /**
      * Retrieves the authenticated user's data.
      *
@@ -352,6 +494,55 @@ public class UserController {
         }
     }
 
+    /**
+     * Serves a stored profile image file by the digest of its content.
+     *
+     * <p>
+     * The profile image responses address this endpoint with the digest of the
+     * image, which changes with the image, so clients cache the file for
+     * {@link StoredImageResponses#MAX_AGE}. Users can only read their own profile
+     * image, unless they have one of the roles that can list the users.
+     * </p>
+     *
+     * @param digest  the SHA-256 digest of the image content.
+     * @param variant the size to serve the image in: {@code thumb},
+     *                {@code medium} or {@code original}.
+     * @return the image file, or 304 Not Modified if the client copy is current.
+     * @throws ResponseStatusException with HTTP status 403 (FORBIDDEN) if the image
+     *                                 is not the profile image of the
+     *                                 authenticated user, or 404 (NOT FOUND) if no
+     *                                 user has a stored profile image with the
+     *                                 digest.
+     */
+    @GetMapping("/profileImage/{digest}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Resource> getStoredProfileImage(@PathVariable final String digest,
+            @RequestParam(defaultValue = "original") final String variant) {
+        final var authentication = SecurityContextHolder.getContext().getAuthentication();
+        try {
+            if (!canReadAnyProfileImage(authentication) && !userProfileImageService
+                    .hasStoredProfileImage(userService.findByEmail(authentication.getName()).getDni(), digest)) {
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not allowed to read this profile image.");
+            }
+            return StoredImageResponses.ofVersioned(
+                    userProfileImageService.getStoredProfileImage(digest, StoredImageResponses.variant(variant)));
+        } catch (UserServiceException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Checks whether an authenticated user can read the profile image of any user.
+     *
+     * @param authentication the authenticated user.
+     * @return {@code true} if the user has one of the roles that can list the
+     *         users.
+     */
+    private static boolean canReadAnyProfileImage(final Authentication authentication) {
+        return authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority)
+                .anyMatch(PROFILE_IMAGE_READER_ROLES::contains);
+    }
+
     /**
      * Updates the authenticated user's data.
      *
@@ -400,9 +591,9 @@ public class UserController {
             // Puedes agregar más validaciones aquí (por ejemplo, tipos MIME permitidos)
 
             // Llama al servicio para guardar la URL o archivo en tu sistema
-            final var updatedUser = userProfileImageService.saveProfileImageFile(userEntity.getDni(), profileImage);
+            userProfileImageService.saveProfileImageFile(userEntity.getDni(), profileImage);
 
-            return new ResponseEntity<>(new ProfileImageResponse(updatedUser.getProfileImage()), HttpStatus.OK);
+            return new ResponseEntity<>(userProfileImageService.getProfileImage(userEntity.getDni()), HttpStatus.OK);
 
         } catch (UserServiceException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
@@ -31,6 +31,7 @@ import java.util.List;
 
 import java.util.Objects;
 
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -39,11 +40,13 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
+import es.org.cxn.backapp.controller.StoredImageResponses;
 import es.org.cxn.backapp.model.form.requests.member_resources.AddBookRequestDto;
 import es.org.cxn.backapp.model.form.responses.member_resources.BookResponse;
 import es.org.cxn.backapp.service.BookService;
@@ -128,24 +131,26 @@ public class BookController {
      * Endpoint to retrieve the cover image of a book by its ISBN.
      * <p>
      * This method accepts a book's ISBN as a path variable, fetches the cover image
-     * for that book from the service layer, and returns the image as a byte array
-     * in the HTTP response. If the image cannot be found or an error occurs, it
-     * throws a {@link ResponseStatusException} with a
+     * for that book from the service layer, and serves the image file in the HTTP
+     * response, see {@link StoredImageResponses}. If the image cannot be found or
+     * an error occurs, it throws a {@link ResponseStatusException} with a
      * {@link HttpStatus#BAD_REQUEST} status.
      * </p>
      *
-     * @param isbn The ISBN of the book whose cover image is to be retrieved.
-     * @return A {@link ResponseEntity} containing the cover image as a byte array
-     *         in the response body with an {@link HttpStatus#OK} status.
+     * @param isbn    The ISBN of the book whose cover image is to be retrieved.
+     * @param variant The size to serve the image in: {@code thumb},
+     *                {@code medium} or {@code original}.
+     * @return A {@link ResponseEntity} serving the cover image file with an
+     *         {@link HttpStatus#OK} status.
      * @throws ResponseStatusException if there is an error fetching the image
      *                                 (e.g., book not found or other service
      *                                 exceptions).
      */
     @GetMapping("/{isbn}/coverImage")
-    public ResponseEntity<byte[]> getBookImage(@PathVariable final String isbn) {
+    public ResponseEntity<Resource> getBookImage(@PathVariable final String isbn,
+            @RequestParam(defaultValue = "original") final String variant) {
         try {
-            final var image = bookService.findImage(isbn);
-            return new ResponseEntity<>(image, HttpStatus.OK);
+            return StoredImageResponses.of(bookService.findImage(isbn, StoredImageResponses.variant(variant)));
         } catch (BookServiceException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
         }
@@ -38,7 +38,6 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import es.org.cxn.backapp.AppURL;
 import es.org.cxn.backapp.exceptions.DisabledUserException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -52,12 +51,14 @@ import jakarta.servlet.http.HttpServletResponse;
  *
  * The filter performs the following: - Validates if the authenticated user is
  * enabled. - Clears the security context and throws an exception if the user is
- * disabled. - Skips filtering for specific URLs such as `/h2-console` or
- * authentication-related endpoints.
+ * disabled. - Skips filtering for the unprotected routes of
+ * {@link UnprotectedRoutes}.
  *
- * Dependencies: - {@link UserDetailsService} to load user details and verify if
- * the user is enabled. - {@link SecurityContextHolder} to manage the security
- * context.
+ * Requests authenticated by {@link JwtRequestFilter} already had their enabled
+ * state checked on the single principal load, and carry it in their
+ * {@link UserDetails} principal, so for them this check reads a field and never
+ * queries. Dependencies: - {@link UserDetailsService} to load user details only
+ * for authentications whose principal is not a {@link UserDetails}.
  *
  * Exclusions: - Certain endpoints are excluded from this filter via the
  * {@link #shouldNotFilter(HttpServletRequest)} method.
@@ -88,8 +89,8 @@ public class EnableUserRequestFilter extends OncePerRequestFilter {
 
     /**
      * Filters requests to check if the authenticated user is enabled. If the user
-     * is disabled, clears the security context and throws an
-     * {@link IllegalStateException}.
+     * is disabled, clears the security context and throws a
+     * {@link DisabledUserException}.
      *
      * @param request     the HTTP request.
      * @param response    the HTTP response.
@@ -101,39 +102,33 @@ public class EnableUserRequestFilter extends OncePerRequestFilter {
     @Override
     protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
             final FilterChain filterChain) throws ServletException, IOException {
-        LOGGER.info("EnableUserRequestFilter: Processing request.");
         final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.isAuthenticated()
-                && !(authentication instanceof AnonymousAuthenticationToken)) {
-            final String email = authentication.getName();
-            LOGGER.info("Authentication detected for user: {}", email);
-
-            if (authentication.getPrincipal() instanceof UserDetails userDetails) {
-                if (!userDetails.isEnabled()) {
-                    LOGGER.warn("User '{}' is disabled. Clearing security context.", email);
-                    SecurityContextHolder.clearContext();
-                    throw new DisabledUserException("User is disabled.");
-                }
-            } else {
-                // Fallback to loading from UserDetailsService if not available
-                final boolean isUserEnabled = userDetailsService.loadUserByUsername(email).isEnabled();
-                if (!isUserEnabled) {
-                    LOGGER.warn("User '{}' is disabled. Clearing security context.", email);
-                    SecurityContextHolder.clearContext();
-                    throw new DisabledUserException("User is disabled.");
-                }
-            }
-            LOGGER.info("User '{}' is enabled. Proceeding with request.", email);
-        } else {
-            LOGGER.info("No valid authentication found. Proceeding without user validation.");
+                && !(authentication instanceof AnonymousAuthenticationToken) && !isEnabled(authentication)) {
+            LOGGER.warn("User '{}' is disabled. Clearing security context.", authentication.getName());
+            SecurityContextHolder.clearContext();
+            throw new DisabledUserException("User is disabled.");
         }
-        LOGGER.info("Request processing completed. Passing to the next filter.");
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Reads the enabled state of the authenticated user, from the principal when
+     * it is a {@link UserDetails}.
+     *
+     * @param authentication the current authentication.
+     * @return {@code true} if the user is enabled; {@code false} otherwise.
+     */
+    private boolean isEnabled(final Authentication authentication) {
+        if (authentication.getPrincipal() instanceof UserDetails userDetails) {
+            return userDetails.isEnabled();
+        }
+        return userDetailsService.loadUserByUsername(authentication.getName()).isEnabled();
+    }
+
     /**
      * Determines whether this filter should not apply to a given request. Excludes
-     * requests to specific endpoints such as `/h2-console`, `/sign-up`, and others.
+     * the unprotected routes of {@link UnprotectedRoutes}.
      *
      * @param request the current HTTP request.
      * @return {@code true} if the request should not be filtered; {@code false}
@@ -143,18 +138,6 @@ public class EnableUserRequestFilter extends OncePerRequestFilter {
      */
     @Override
     protected boolean shouldNotFilter(final HttpServletRequest request) throws ServletException {
-        final var requestURI = request.getRequestURI();
-        final var httpMethod = request.getMethod();
-        LOGGER.info("La URI en shouldNotFilter de ENABLE USER es: {}", requestURI);
-        final var value = requestURI.startsWith("/h2-console") || requestURI.startsWith(AppURL.SIGN_UP_URL)
-                || requestURI.startsWith(AppURL.SIGN_IN_URL) || requestURI.startsWith("/api/address/getCountries")
-                || requestURI.startsWith("/getAllLichessProfiles")
-                || (requestURI.matches(AppURL.CHESS_QUESTION_URL) && "POST".equals(httpMethod))
-                || (requestURI.matches("/api/[^/]+/lichessAuth") && "GET".equals(httpMethod))
-                || requestURI.startsWith(AppURL.PARTICIPANTS_URL) && "POST".equals(httpMethod);
-
-        LOGGER.info("El valor devuelto por shouldNotFilter es: {}", value);
-
-        return value;
+        return UnprotectedRoutes.isUnprotected(request.getRequestURI(), request.getMethod());
     }
 }
@@ -27,6 +27,7 @@ package es.org.cxn.backapp.filter;
  */
 
 import java.io.IOException;
+import java.util.Optional;
 
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -35,8 +36,11 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import es.org.cxn.backapp.AppURL;
+import es.org.cxn.backapp.exceptions.DisabledUserException;
 import es.org.cxn.backapp.security.DefaultJwtUtils;
+import es.org.cxn.backapp.security.MyPrincipalUser;
+import es.org.cxn.backapp.security.ValidatedToken;
+import es.org.cxn.backapp.security.VerifiedTokenCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -57,10 +61,14 @@ import jakarta.servlet.http.HttpServletResponse;
  * </p>
  * <ol>
  * <li>Check for Bearer token in Authorization header</li>
- * <li>Validate token signature and structure</li>
- * <li>Extract username from valid token</li>
- * <li>Load UserDetails from service</li>
- * <li>Validate token against user-specific details</li>
+ * <li>Return the cached principal if the token was already verified</li>
+ * <li>Parse and verify the token once into a {@link ValidatedToken}</li>
+ * <li>Rebuild the principal from the token claims when it carries them
+ * (stateless mode), checking only its token version</li>
+ * <li>Otherwise load UserDetails from service using the token subject</li>
+ * <li>Validate the parsed token against user-specific details</li>
+ * <li>Cache the principal in {@link VerifiedTokenCache}</li>
+ * <li>Reject disabled users with a {@link DisabledUserException}</li>
  * <li>Set authentication in security context</li>
  * </ol>
  *
@@ -86,17 +94,78 @@ public class JwtRequestFilter extends OncePerRequestFilter {
      */
     private final UserDetailsService userDetailsService;
 
+    /**
+     * Cache of tokens already verified, with their loaded principal.
+     */
+    private final VerifiedTokenCache tokenCache;
+
     /**
      * Constructs a JWT authentication filter with required dependencies.
      *
      * @param jwtUtils           JWT utilities for token validation and processing
      * @param userDetailsService User details service for loading security
      *                           principals
+     * @param tokenCache         Cache of verified tokens and their principals
      */
-    public JwtRequestFilter(final DefaultJwtUtils jwtUtils, final UserDetailsService userDetailsService) {
+    public JwtRequestFilter(final DefaultJwtUtils jwtUtils, final UserDetailsService userDetailsService,
+            final VerifiedTokenCache tokenCache) {
         super();
         this.jwtUtils = jwtUtils;
         this.userDetailsService = userDetailsService;
+        this.tokenCache = tokenCache;
+    }
+
+    /**
+     * Accepts a principal rebuilt from token claims if its token version is still
+     * the current one for the user, without loading the user.
+     *
+     * @param jwt       the compact token.
+     * @param token     the verified token.
+     * @param principal the principal rebuilt from the token claims.
+     * @return the principal, or an empty optional if the token was revoked.
+     */
+    private Optional<UserDetails> resolveStatelessUser(final String jwt, final ValidatedToken token,
+            final MyPrincipalUser principal) {
+        if (!token.isValidFor(principal)
+                || !tokenCache.isCurrentVersion(principal.getDni(), principal.getTokenVersion())) {
+            return Optional.empty();
+        }
+        tokenCache.put(jwt, token, principal);
+        return Optional.of(principal);
+    }
+
+    /**
+     * Resolves the user for a token, from the cache when possible.
+     *
+     * @param jwt the compact token.
+     * @return the user the token belongs to, or an empty optional if the token is
+     *         not valid.
+     */
+    private Optional<UserDetails> resolveUser(final String jwt) {
+        final Optional<MyPrincipalUser> cached = tokenCache.get(jwt);
+        if (cached.isPresent()) {
+            return Optional.of(cached.get());
+        }
+
+        final Optional<ValidatedToken> validatedToken = jwtUtils.validate(jwt);
+        if (validatedToken.isEmpty() || validatedToken.get().subject() == null) {
+            return Optional.empty();
+        }
+
+        final ValidatedToken token = validatedToken.get();
+        final Optional<MyPrincipalUser> fromClaims = jwtUtils.principalFromClaims(token);
+        if (fromClaims.isPresent()) {
+            return resolveStatelessUser(jwt, token, fromClaims.get());
+        }
+
+        final UserDetails userDetails = this.userDetailsService.loadUserByUsername(token.subject());
+        if (!token.isValidFor(userDetails)) {
+            return Optional.empty();
+        }
+        if (userDetails instanceof MyPrincipalUser principal) {
+            tokenCache.put(jwt, token, principal);
+        }
+        return Optional.of(userDetails);
     }
 
     /**
@@ -107,6 +176,7 @@ public class JwtRequestFilter extends OncePerRequestFilter {
      * @param chain    Filter chain
      * @throws ServletException if request processing fails
      * @throws IOException      if I/O error occurs
+     * @throws DisabledUserException if the token belongs to a disabled user
      *
      *                          <p>
      *                          The filter:
@@ -114,9 +184,14 @@ public class JwtRequestFilter extends OncePerRequestFilter {
      *                          <ul>
      *                          <li>Extracts Bearer token from Authorization
      *                          header</li>
-     *                          <li>Validates token using
-     *                          {@link DefaultJwtUtils#isTokenValid(String)}</li>
-     *                          <li>Loads user details if token is valid</li>
+     *                          <li>Reuses the principal of an already verified
+     *                          token from {@link VerifiedTokenCache}</li>
+     *                          <li>Otherwise validates token once using
+     *                          {@link DefaultJwtUtils#validate(String)} and loads
+     *                          user details if token is valid</li>
+     *                          <li>Clears the context and throws
+     *                          {@link DisabledUserException} if the user is
+     *                          disabled</li>
      *                          <li>Sets authentication context using
      *                          {@link SecurityContextHolder}</li>
      *                          <li>Continues filter chain regardless of
@@ -129,56 +204,31 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
         final String authorizationHeader = request.getHeader("Authorization");
 
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
             final String jwt = authorizationHeader.substring(BEARER_PREFIX_LENGTH);
+            final Optional<UserDetails> user = resolveUser(jwt);
 
-            if (jwtUtils.isTokenValid(jwt)) {
-                final String username = jwtUtils.extractUsername(jwt);
-
-                if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    final UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-
-                    if (jwtUtils.validateToken(jwt, userDetails)) {
-                        final UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                                userDetails, null, userDetails.getAuthorities());
-                        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                        SecurityContextHolder.getContext().setAuthentication(authentication);
-                    }
+            if (user.isPresent()) {
+                final UserDetails userDetails = user.get();
+                if (!userDetails.isEnabled()) {
+                    SecurityContextHolder.clearContext();
+                    throw new DisabledUserException("User is disabled.");
                 }
+                final UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                        userDetails, null, userDetails.getAuthorities());
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
             }
         }
         chain.doFilter(request, response);
     }
 
-    /**
-     * Checks if the request method is unprotected for the specified URI.
-     *
-     * @param requestURI the request URI.
-     * @param httpMethod the HTTP method.
-     * @return {@code true} if the method is unprotected; {@code false} otherwise.
-     */
-    private boolean isUnprotectedMethod(final String requestURI, final String httpMethod) {
-        return (AppURL.CHESS_QUESTION_URL.equals(requestURI) && "POST".equals(httpMethod))
-                || (requestURI.matches("/api/[^/]+/lichessAuth") && "GET".equals(httpMethod))
-                || (AppURL.PARTICIPANTS_URL.equals(requestURI) && "POST".equals(httpMethod));
-    }
-
-    /**
-     * Checks if the request URI is unprotected.
-     *
-     * @param requestURI the request URI.
-     * @return {@code true} if the URI is unprotected; {@code false} otherwise.
-     */
-    private boolean isUnprotectedUri(final String requestURI) {
-        return requestURI.startsWith("/h2-console") || requestURI.startsWith(AppURL.SIGN_UP_URL)
-                || requestURI.startsWith(AppURL.SIGN_IN_URL) || requestURI.startsWith("/api/address/getCountries")
-                || requestURI.startsWith("/getAllLichessProfiles") || requestURI.startsWith("/api/ott/my-generate-url");
-    }
-
     /**
      * Determines whether the request should bypass the filter.
      * <p>
-     * Requests are skipped if they match specific unprotected URIs or methods.
+     * Requests are skipped if they match an unprotected route of
+     * {@link UnprotectedRoutes}.
      * </p>
      *
      * @param request the HTTP request.
@@ -187,12 +237,7 @@ public class JwtRequestFilter extends OncePerRequestFilter {
      */
     @Override
     protected boolean shouldNotFilter(final HttpServletRequest request) {
-        final String requestURI = request.getRequestURI();
-        final String httpMethod = request.getMethod();
-
-        final boolean shouldSkip = isUnprotectedUri(requestURI) || isUnprotectedMethod(requestURI, httpMethod);
-        logger.debug("Skipping JWT filter: ");
-        return shouldSkip;
+        return UnprotectedRoutes.isUnprotected(request.getRequestURI(), request.getMethod());
     }
 
 }
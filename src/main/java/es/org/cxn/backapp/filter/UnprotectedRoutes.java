@@ -0,0 +1,215 @@
+package es.org.cxn.backapp.filter;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.List;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import es.org.cxn.backapp.AppURL;
+
+/**
+ * Registry of the public routes of the application.
+ * <p>
+ * It is the single place where routes open to unauthenticated users are
+ * declared. {@code SecurityConfiguration} permits every route of
+ * {@link #routes()}, and the request filters skip the anonymous ones, which
+ * never need an authenticated user. Patterns are compiled once into
+ * {@link PathPattern}s. A request is first checked against the method and
+ * literal prefix of each pattern, and its path is parsed only when some route
+ * can match, so most protected requests are classified without allocating.
+ * </p>
+ */
+public final class UnprotectedRoutes {
+
+    /**
+     * A public route.
+     *
+     * @param method    the HTTP method, or {@code null} for any method.
+     * @param pattern   the path pattern.
+     * @param anonymous {@code true} if the route never uses the authenticated
+     *                  user, so filters can skip authentication for it;
+     *                  {@code false} if it is public but may still use the user
+     *                  when a token is sent.
+     */
+    public record Route(HttpMethod method, String pattern, boolean anonymous) {
+    }
+
+    /**
+     * A route with its compiled pattern.
+     *
+     * @param method        the HTTP method, or {@code null} for any method.
+     * @param literalPrefix the literal start of the pattern, checked before
+     *                      parsing the request path.
+     * @param pattern       the compiled path pattern.
+     */
+    private record CompiledRoute(HttpMethod method, String literalPrefix, PathPattern pattern) {
+
+        /**
+         * Compiles a route.
+         *
+         * @param route the route.
+         * @return the compiled route.
+         */
+        static CompiledRoute of(final Route route) {
+            final String text = route.pattern();
+            int end = 0;
+            while (end < text.length() && text.charAt(end) != '*' && text.charAt(end) != '{') {
+                end++;
+            }
+            if (end < text.length() && end > 0 && text.charAt(end - 1) == '/') {
+                // "/a/**" also matches "/a".
+                end--;
+            }
+            return new CompiledRoute(route.method(), text.substring(0, end),
+                    PathPatternParser.defaultInstance.parse(text));
+        }
+
+        /**
+         * Tells whether the method and the cheap literal prefix allow a match.
+         *
+         * @param requestURI the request URI.
+         * @param httpMethod the HTTP method.
+         * @return {@code true} if the pattern has to be tested.
+         */
+        boolean isCandidate(final String requestURI, final String httpMethod) {
+            return (method == null || method.matches(httpMethod)) && requestURI.startsWith(literalPrefix);
+        }
+    }
+
+    /**
+     * The public routes.
+     */
+    private static final List<Route> ROUTES = List.of(new Route(null, "/h2-console/**", true),
+            new Route(null, "/swagger-ui/**", true), new Route(null, "/v3/api-docs/**", true),
+            new Route(null, AppURL.SIGN_UP_URL, true), new Route(null, AppURL.SIGN_IN_URL, true),
+            new Route(null, "/api/address/getCountries", true), new Route(null, "/api/ott/my-generate-url", true),
+            new Route(null, "/api/ott/my-generate-url/password/reset", true),
+            new Route(HttpMethod.POST, AppURL.CHESS_QUESTION_URL, true),
+            new Route(HttpMethod.POST, AppURL.PARTICIPANTS_URL, true),
+            new Route(HttpMethod.GET, "/api/*/lichessAuth", true),
+            new Route(HttpMethod.GET, "/api/lichessLeaderboard/*", true),
+            new Route(null, AppURL.CHESS_QUESTION_URL, false),
+            new Route(null, AppURL.PARTICIPANTS_URL, false), new Route(null, "/api/activities", false),
+            new Route(null, "/api/activities/*/image", false), new Route(null, "/api/address/**", false));
+
+    /**
+     * Compiled anonymous routes open to any method.
+     */
+    private static final CompiledRoute[] ANONYMOUS_ANY_METHOD = ROUTES.stream()
+            .filter(route -> route.anonymous() && route.method() == null).map(CompiledRoute::of)
+            .toArray(CompiledRoute[]::new);
+
+    /**
+     * Compiled anonymous routes restricted to one method.
+     */
+    private static final CompiledRoute[] ANONYMOUS_BY_METHOD = ROUTES.stream()
+            .filter(route -> route.anonymous() && route.method() != null).map(CompiledRoute::of)
+            .toArray(CompiledRoute[]::new);
+
+    /**
+     * Compiled anonymous routes, any method ones first.
+     */
+    private static final CompiledRoute[] ANONYMOUS = ROUTES.stream().filter(Route::anonymous)
+            .sorted((first, second) -> Boolean.compare(first.method() != null, second.method() != null))
+            .map(CompiledRoute::of).toArray(CompiledRoute[]::new);
+
+    /**
+     * Utility class, not instantiable.
+     */
+    private UnprotectedRoutes() {
+        // Utility class.
+    }
+
+    /**
+     * Returns every public route, for the security configuration to permit.
+     *
+     * @return the public routes.
+     */
+    public static List<Route> routes() {
+        return ROUTES;
+    }
+
+    /**
+     * Checks whether the request is for an anonymous route.
+     *
+     * @param requestURI the request URI.
+     * @param httpMethod the HTTP method.
+     * @return {@code true} if the route is unprotected; {@code false} otherwise.
+     */
+    public static boolean isUnprotected(final String requestURI, final String httpMethod) {
+        return matches(ANONYMOUS, requestURI, httpMethod);
+    }
+
+    /**
+     * Checks if the request method is unprotected for the specified URI.
+     *
+     * @param requestURI the request URI.
+     * @param httpMethod the HTTP method.
+     * @return {@code true} if the method is unprotected; {@code false} otherwise.
+     */
+    public static boolean isUnprotectedMethod(final String requestURI, final String httpMethod) {
+        return matches(ANONYMOUS_BY_METHOD, requestURI, httpMethod);
+    }
+
+    /**
+     * Checks if the request URI is unprotected for any method.
+     *
+     * @param requestURI the request URI.
+     * @return {@code true} if the URI is unprotected; {@code false} otherwise.
+     */
+    public static boolean isUnprotectedUri(final String requestURI) {
+        return matches(ANONYMOUS_ANY_METHOD, requestURI, null);
+    }
+
+    /**
+     * Tests the request against compiled routes. The request path is parsed only
+     * once, and only if the method and literal prefix of some route allow a match.
+     *
+     * @param routes     the compiled routes.
+     * @param requestURI the request URI.
+     * @param httpMethod the HTTP method.
+     * @return {@code true} if one of the routes matches.
+     */
+    private static boolean matches(final CompiledRoute[] routes, final String requestURI, final String httpMethod) {
+        PathContainer path = null;
+        for (final CompiledRoute route : routes) {
+            if (route.isCandidate(requestURI, httpMethod)) {
+                if (path == null) {
+                    path = PathContainer.parsePath(requestURI);
+                }
+                if (route.pattern().matches(path)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
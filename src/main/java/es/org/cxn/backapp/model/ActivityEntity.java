@@ -70,6 +70,14 @@ public interface ActivityEntity extends java.io.Serializable {
      */
     String getImageSrc();
 
+    /**
+     * Gets the media type of the activity image, detected when it was stored.
+     *
+     * @return The media type, or {@code null} for images stored before it was
+     *         recorded.
+     */
+    String getImageContentType();
+
     /**
      * Gets the start date and time of the activity.
      *
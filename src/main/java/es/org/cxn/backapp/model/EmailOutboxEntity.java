@@ -0,0 +1,112 @@
+package es.org.cxn.backapp.model;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import es.org.cxn.backapp.model.persistence.mail.EmailOutboxState;
+
+/**
+ * An email waiting in the outbox to be delivered.
+ * <p>
+ * Emails are stored in the outbox in the same transaction as the change that
+ * produced them, and delivered once that transaction commits.
+ * </p>
+ */
+public interface EmailOutboxEntity extends Serializable {
+
+    /**
+     * Returns the number of failed delivery attempts.
+     *
+     * @return The number of failed delivery attempts.
+     */
+    int getAttempts();
+
+    /**
+     * Returns the HTML body.
+     *
+     * @return The HTML body.
+     */
+    String getBody();
+
+    /**
+     * Returns when the email was queued.
+     *
+     * @return The queue date.
+     */
+    LocalDateTime getCreatedAt();
+
+    /**
+     * Returns the identifier.
+     *
+     * @return The identifier.
+     */
+    Long getIdentifier();
+
+    /**
+     * Returns the error of the last failed attempt.
+     *
+     * @return The last error, or {@code null} if no attempt failed.
+     */
+    String getLastError();
+
+    /**
+     * Returns when the next delivery attempt is due.
+     *
+     * @return The next attempt date.
+     */
+    LocalDateTime getNextAttemptAt();
+
+    /**
+     * Returns the recipient address.
+     *
+     * @return The recipient address.
+     */
+    String getRecipient();
+
+    /**
+     * Returns when the email was delivered.
+     *
+     * @return The delivery date, or {@code null} if not delivered yet.
+     */
+    LocalDateTime getSentAt();
+
+    /**
+     * Returns the delivery state.
+     *
+     * @return The delivery state.
+     */
+    EmailOutboxState getState();
+
+    /**
+     * Returns the subject.
+     *
+     * @return The subject.
+     */
+    String getSubject();
+}
@@ -0,0 +1,120 @@
+package es.org.cxn.backapp.model;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.function.Function;
+
+import es.org.cxn.backapp.service.dto.LichessProfileDto;
+import es.org.cxn.backapp.service.dto.LichessProfileDto.GameStatistics;
+
+/**
+ * Lichess rating categories the club leaderboard is kept for.
+ */
+public enum LichessTimeControl {
+
+    /**
+     * Blitz games.
+     */
+    BLITZ("blitz", LichessProfileDto::blitz),
+
+    /**
+     * Bullet games.
+     */
+    BULLET("bullet", LichessProfileDto::bullet),
+
+    /**
+     * Classical games.
+     */
+    CLASSICAL("classical", LichessProfileDto::classical),
+
+    /**
+     * Rapid games.
+     */
+    RAPID("rapid", LichessProfileDto::rapid),
+
+    /**
+     * Puzzles.
+     */
+    PUZZLE("puzzle", LichessProfileDto::puzzle);
+
+    /**
+     * The name of the time control in request paths.
+     */
+    private final String parameter;
+
+    /**
+     * Reads the statistics of this time control from a profile.
+     */
+    private final Function<LichessProfileDto, GameStatistics> statistics;
+
+    /**
+     * Constructs a {@code LichessTimeControl} enum constant.
+     *
+     * @param parameter  the name of the time control in request paths.
+     * @param statistics reads the statistics of the time control from a profile.
+     */
+    LichessTimeControl(final String parameter, final Function<LichessProfileDto, GameStatistics> statistics) {
+        this.parameter = parameter;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Finds the time control named by a request parameter, ignoring case.
+     *
+     * @param value the parameter value.
+     * @return the time control, or {@code null} if none has that name.
+     */
+    public static LichessTimeControl fromParameter(final String value) {
+        LichessTimeControl result = null;
+        for (final LichessTimeControl timeControl : values()) {
+            if (timeControl.parameter.equalsIgnoreCase(value)) {
+                result = timeControl;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the name of the time control in request paths.
+     *
+     * @return the parameter name.
+     */
+    public String getParameter() {
+        return parameter;
+    }
+
+    /**
+     * Reads the statistics of this time control from a profile.
+     *
+     * @param profile the Lichess profile.
+     * @return the statistics, or {@code null} if the profile has none.
+     */
+    public GameStatistics statisticsOf(final LichessProfileDto profile) {
+        return statistics.apply(profile);
+    }
+}
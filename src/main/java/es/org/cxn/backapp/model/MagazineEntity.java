@@ -57,6 +57,14 @@ public interface MagazineEntity extends Serializable {
      */
     String getCoverSrc();
 
+    /**
+     * Get the magazine cover image media type, detected when it was stored.
+     *
+     * @return the media type, or {@code null} for covers stored before it was
+     *         recorded.
+     */
+    String getCoverContentType();
+
     /**
      * Get the magazine description.
      *
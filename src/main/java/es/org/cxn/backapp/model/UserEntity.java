@@ -148,6 +148,14 @@ public interface UserEntity extends Serializable {
      */
     PersistentTeamEntity getTeamPreferred();
 
+    /**
+     * Gets the security version of the user, increased whenever its roles,
+     * enabled state or credentials change.
+     *
+     * @return the current token version.
+     */
+    int getTokenVersion();
+
     /**
      * Get the unsubscribe initial action date time.
      *
@@ -199,6 +207,13 @@ public interface UserEntity extends Serializable {
      */
     void setEnabled(boolean value);
 
+    /**
+     * Sets the security version of the user.
+     *
+     * @param tokenVersion the new token version.
+     */
+    void setTokenVersion(int tokenVersion);
+
     /**
      * Set user federate state.
      *
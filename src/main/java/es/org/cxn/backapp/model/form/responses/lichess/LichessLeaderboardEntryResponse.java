@@ -0,0 +1,52 @@
+package es.org.cxn.backapp.model.form.responses.lichess;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import es.org.cxn.backapp.service.dto.LichessLeaderboardEntryDto;
+
+/**
+ * Represents a user in the club leaderboard of a Lichess time control.
+ *
+ * @param rank             the position, shared by users with the same rating.
+ * @param completeUserName the user's complete name.
+ * @param username         the Lichess username.
+ * @param rating           the rating in the time control.
+ * @param games            the games played in the time control.
+ * @param provisional      whether the rating is provisional.
+ */
+public record LichessLeaderboardEntryResponse(int rank, String completeUserName, String username, Integer rating,
+        Integer games, Boolean provisional) {
+
+    /**
+     * Builds the response from the service entry, leaving the DNI out.
+     *
+     * @param dto the leaderboard entry.
+     */
+    public LichessLeaderboardEntryResponse(final LichessLeaderboardEntryDto dto) {
+        this(dto.rank(), dto.completeUserName(), dto.username(), dto.rating(), dto.games(), dto.provisional());
+    }
+}
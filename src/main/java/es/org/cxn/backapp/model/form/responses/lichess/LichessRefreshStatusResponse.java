@@ -0,0 +1,55 @@
+package es.org.cxn.backapp.model.form.responses.lichess;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.time.LocalDateTime;
+
+import es.org.cxn.backapp.service.dto.LichessRefreshStatusDto;
+
+/**
+ * Represents the outcome of the scheduled refresh of the linked Lichess
+ * profiles.
+ *
+ * @param lastRefreshAt  when the last refresh finished, {@code null} if none
+ *                       has run yet.
+ * @param refreshed      the profiles updated by the last refresh.
+ * @param failed         the profiles the last refresh could not fetch.
+ * @param totalFailures  the profiles that could not be fetched since startup.
+ * @param totalRefreshes the refreshes run since startup.
+ */
+public record LichessRefreshStatusResponse(LocalDateTime lastRefreshAt, int refreshed, int failed,
+        long totalFailures, long totalRefreshes) {
+
+    /**
+     * Builds the response from the service status.
+     *
+     * @param dto the refresh status.
+     */
+    public LichessRefreshStatusResponse(final LichessRefreshStatusDto dto) {
+        this(dto.lastRefreshAt(), dto.refreshed(), dto.failed(), dto.totalFailures(), dto.totalRefreshes());
+    }
+}
@@ -38,7 +38,8 @@ import es.org.cxn.backapp.model.persistence.PersistentProfileImageEntity;
  *
  * @param imageExtension the extension of the image (e.g., "jpg", "png").
  * @param stored         indicates whether the image is stored.
- * @param url            the URL where the image can be accessed.
+ * @param url            the URL where the image can be accessed; for stored
+ *                       images, the versioned address of the image file.
  * @param file           optional data representing the image file content.
  */
 public record ProfileImageResponse(String imageExtension, Boolean stored, String url, String file) {
@@ -69,4 +70,19 @@ public record ProfileImageResponse(String imageExtension, Boolean stored, String
                 imageFileData);
     }
 
+    /**
+     * Creates a ProfileImageResponse for a stored image, pointing to the endpoint
+     * serving its file instead of the storage path.
+     *
+     * @param profileImageEntity the entity containing profile image data. Must not
+     *                           be null.
+     * @param fileUrl            the address of the image file.
+     * @return the response.
+     */
+    public static ProfileImageResponse ofStoredFile(final PersistentProfileImageEntity profileImageEntity,
+            final String fileUrl) {
+        return new ProfileImageResponse(profileImageEntity.getExtension().name(), profileImageEntity.isStored(),
+                fileUrl, null);
+    }
+
 }
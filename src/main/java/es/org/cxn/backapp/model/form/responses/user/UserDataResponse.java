@@ -40,6 +40,7 @@ import es.org.cxn.backapp.model.UserRoleName;
 import es.org.cxn.backapp.model.form.responses.user.address.AddressResponse;
 import es.org.cxn.backapp.model.persistence.PersistentRoleEntity;
 import es.org.cxn.backapp.model.persistence.user.UserType;
+import es.org.cxn.backapp.service.dto.UserSummaryDto;
 
 /**
  * Represents the form used for responding to authenticated user data requests.
@@ -129,6 +130,22 @@ public record UserDataResponse(String dni, String name, String firstSurname, Str
         this.unsubscribeDate = unsubscribeDate;
     }
 
+    /**
+     * Constructs a {@code UserDataResponse} from a given {@link UserSummaryDto},
+     * the projection read by the users listing.
+     *
+     * @param summary The {@code UserSummaryDto} from which to create the response.
+     */
+    public UserDataResponse(final UserSummaryDto summary) {
+        this(summary.dni(), summary.name(), summary.firstSurname(), summary.secondSurname(), summary.gender(),
+                summary.birthDate(), summary.email(), summary.kindMember(),
+                new AddressResponse(summary.postalCode(), summary.apartmentNumber(), summary.building(),
+                        summary.street(), summary.city(), summary.countryName(), summary.subCountryName()),
+                summary.roles(), summary.assignedTeamName(), summary.preferredTeamName(), summary.federateState(),
+                Optional.ofNullable(summary.unsubscribeDate())
+                        .map(dateTime -> dateTime.toLocalDate().format(DATE_FORMATTER)).orElse(null));
+    }
+
     /**
      * Constructs a {@code UserDataResponse} from a given {@link UserEntity}.
      * <p>
@@ -0,0 +1,60 @@
+package es.org.cxn.backapp.model.form.responses.user;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.List;
+
+import es.org.cxn.backapp.service.dto.UserDirectoryPageDto;
+
+/**
+ * Represents a page of the user directory sent to the client.
+ *
+ * @param users      The users of the page.
+ * @param nextCursor The cursor to request the next page with, {@code null} on
+ *                   the last page.
+ * @author Santiago Paz Perez.
+ */
+public record UserDirectoryResponse(List<UserDataResponse> users, String nextCursor) {
+
+    /**
+     * Canonical constructor, keeping an unmodifiable copy of the users.
+     */
+    public UserDirectoryResponse {
+        users = List.copyOf(users);
+    }
+
+    /**
+     * Constructs the response from a page of the user directory.
+     *
+     * @param page the page of the user directory.
+     * @return UserDirectoryResponse object.
+     */
+    public static UserDirectoryResponse fromPage(final UserDirectoryPageDto page) {
+        return new UserDirectoryResponse(page.users().stream().map(UserDataResponse::new).toList(),
+                page.nextCursor());
+    }
+}
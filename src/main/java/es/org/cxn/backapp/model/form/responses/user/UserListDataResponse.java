@@ -33,6 +33,7 @@ import java.util.Collections;
 import java.util.List;
 
 import es.org.cxn.backapp.model.UserEntity;
+import es.org.cxn.backapp.service.dto.UserSummaryDto;
 
 /**
  * Represents the form used for response authenticating user.
@@ -61,6 +62,16 @@ public record UserListDataResponse(List<UserDataResponse> usersList) {
         this.usersList = Collections.unmodifiableList(usersList);
     }
 
+    /**
+     * Constructs a DTO for user data response from the users listing projection.
+     *
+     * @param users the summaries of the users.
+     * @return UserListDataResponse object.
+     */
+    public static UserListDataResponse fromUserSummaries(final Collection<UserSummaryDto> users) {
+        return new UserListDataResponse(users.stream().map(UserDataResponse::new).toList());
+    }
+
     /**
      * Constructs a DTO for user data response with fields values.
      *
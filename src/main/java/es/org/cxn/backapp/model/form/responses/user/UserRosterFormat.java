@@ -0,0 +1,78 @@
+package es.org.cxn.backapp.model.form.responses.user;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+/**
+ * The formats the member roster can be exported in.
+ *
+ * @author Santiago Paz Perez.
+ */
+public enum UserRosterFormat {
+
+    /**
+     * One JSON object per line.
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    /**
+     * Comma separated values with a header row.
+     */
+    CSV("text/csv", "csv");
+
+    /**
+     * The media type of the export.
+     */
+    private final String mediaType;
+
+    /**
+     * The file extension of the export.
+     */
+    private final String extension;
+
+    UserRosterFormat(final String type, final String fileExtension) {
+        mediaType = type;
+        extension = fileExtension;
+    }
+
+    /**
+     * Gets the media type of the export.
+     *
+     * @return the media type.
+     */
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Gets the file extension of the export.
+     *
+     * @return the file extension, without dot.
+     */
+    public String getExtension() {
+        return extension;
+    }
+}
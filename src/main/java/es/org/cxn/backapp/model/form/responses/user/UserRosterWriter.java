@@ -0,0 +1,173 @@
+package es.org.cxn.backapp.model.form.responses.user;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import es.org.cxn.backapp.model.UserRoleName;
+import es.org.cxn.backapp.model.form.responses.user.address.AddressResponse;
+
+/**
+ * Writes the member roster one user at a time, in one of the
+ * {@link UserRosterFormat formats}, so the export never holds more than the
+ * current row.
+ *
+ * @author Santiago Paz Perez.
+ */
+public final class UserRosterWriter {
+
+    /**
+     * The header of the CSV export.
+     */
+    private static final List<String> CSV_HEADER = List.of("dni", "name", "firstSurname", "secondSurname", "gender",
+            "birthDate", "email", "kindMember", "postalCode", "apartmentNumber", "building", "street", "city",
+            "countryName", "subCountryName", "roles", "assignedTeamName", "preferredTeamName", "federateState",
+            "unsubscribeDate");
+
+    /**
+     * Separator of the roles inside the roles column of the CSV export.
+     */
+    private static final String CSV_ROLE_SEPARATOR = "|";
+
+    /**
+     * Characters that make a spreadsheet read a CSV cell as a formula when it
+     * starts with them.
+     */
+    private static final String CSV_FORMULA_STARTS = "=+-@\t\r";
+
+    /**
+     * The format written.
+     */
+    private final UserRosterFormat format;
+
+    /**
+     * The writer the roster is written to.
+     */
+    private final Writer out;
+
+    /**
+     * The JSON writer of the NDJSON rows, neither closing nor flushing the output
+     * after each row.
+     */
+    private final ObjectWriter jsonWriter;
+
+    /**
+     * Creates a roster writer.
+     *
+     * @param rosterFormat the format to write.
+     * @param writer       the writer the roster is written to.
+     * @param objectMapper the mapper serializing the NDJSON rows.
+     */
+    public UserRosterWriter(final UserRosterFormat rosterFormat, final Writer writer,
+            final ObjectMapper objectMapper) {
+        format = Objects.requireNonNull(rosterFormat, "Roster format must not be null.");
+        out = Objects.requireNonNull(writer, "Roster writer must not be null.");
+        jsonWriter = Objects.requireNonNull(objectMapper, "Object mapper must not be null.").writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Writes what precedes the rows: the header row for CSV, nothing for NDJSON.
+     *
+     * @throws IOException if the roster cannot be written.
+     */
+    public void writeHeader() throws IOException {
+        if (format == UserRosterFormat.CSV) {
+            writeCsvRow(CSV_HEADER);
+        }
+    }
+
+    /**
+     * Writes the row of a user.
+     *
+     * @param user the user data.
+     * @throws IOException if the roster cannot be written.
+     */
+    public void write(final UserDataResponse user) throws IOException {
+        if (format == UserRosterFormat.CSV) {
+            final AddressResponse address = user.userAddress();
+            writeCsvRow(List.of(text(user.dni()), text(user.name()), text(user.firstSurname()),
+                    text(user.secondSurname()), text(user.gender()), text(user.birthDate()), text(user.email()),
+                    text(user.kindMember()), text(address.postalCode()), text(address.apartmentNumber()),
+                    text(address.building()), text(address.street()), text(address.city()),
+                    text(address.countryName()), text(address.subCountryName()),
+                    user.userRoles().stream().map(UserRoleName::name)
+                            .collect(Collectors.joining(CSV_ROLE_SEPARATOR)),
+                    text(user.assignedTeamName()), text(user.preferredTeamName()), text(user.federateState()),
+                    text(user.unsubscribeDate())));
+        } else {
+            jsonWriter.writeValue(out, user);
+            out.write('\n');
+        }
+    }
+
+    private void writeCsvRow(final List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write(csvField(values.get(i)));
+        }
+        out.write("\r\n");
+    }
+
+    /**
+     * Quotes a CSV field when it contains a separator, a quote or a line break,
+     * doubling its quotes. A field that a spreadsheet would read as a formula is
+     * prefixed with an apostrophe, so it is shown as text.
+     *
+     * @param field the field value.
+     * @return the field as written in the CSV.
+     */
+    private static String csvField(final String field) {
+        final String value;
+        if (!field.isEmpty() && CSV_FORMULA_STARTS.indexOf(field.charAt(0)) >= 0) {
+            value = '\'' + field;
+        } else {
+            value = field;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String text(final Object value) {
+        return value == null ? "" : value.toString();
+    }
+}
@@ -115,6 +115,12 @@ public class PersistentActivityEntity implements ActivityEntity {
     @Column(name = "image_src", nullable = true, unique = false)
     private String imageSrc;
 
+    /**
+     * Media type of the image, detected when it was stored.
+     */
+    @Column(name = "image_content_type", nullable = true, unique = false)
+    private String imageContentType;
+
     /**
      * Default constructor for PersistentActivityEntity.
      */
@@ -116,6 +116,12 @@ public class PersistentBookEntity implements BookEntity, Comparable<PersistentBo
     @Column(name = "cover_src", nullable = true)
     private String coverSrc;
 
+    /**
+     * Media type of the cover image, detected when it was stored.
+     */
+    @Column(name = "cover_content_type", nullable = true)
+    private String coverContentType;
+
     /**
      * The authors who wrote this book. This is a many-to-many relationship with the
      * PersistentAuthorEntity.
@@ -78,9 +78,9 @@ public class PersistentFederateStateEntity implements FederateStateEntity {
      * The maximum length allowed for the URL of the DNI images. This constant
      * defines the maximum allowed length for the URLs of the front and back images
      * of the user's DNI. These URLs are stored in the database and must conform to
-     * a standard length, which is set to 150 characters for this system.
+     * a standard length, which is set to 255 characters for this system.
      */
-    private static final int IMAGE_URL_LENGTH = 150;
+    private static final int IMAGE_URL_LENGTH = 255;
 
     /**
      * Serial uid for serialization.
@@ -128,6 +128,12 @@ public class PersistentMagazineEntity implements MagazineEntity, Comparable<Pers
     @Column(name = "cover_src", nullable = true)
     private String coverSrc;
 
+    /**
+     * Media type of the cover image, detected when it was stored.
+     */
+    @Column(name = "cover_content_type", nullable = true)
+    private String coverContentType;
+
     /**
      * The authors who wrote this magazine. This is a many-to-many relationship with
      * the PersistentAuthorEntity.
@@ -0,0 +1,140 @@
+package es.org.cxn.backapp.model.persistence.mail;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.Serial;
+import java.time.LocalDateTime;
+
+import es.org.cxn.backapp.model.EmailOutboxEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * JPA entity for an email in the outbox. Maps to the {@code email_outbox}
+ * table.
+ *
+ * @see EmailOutboxEntity
+ */
+@Entity(name = "EmailOutbox")
+@Table(name = "email_outbox")
+@Data
+@AllArgsConstructor
+@Builder
+public class PersistentEmailOutboxEntity implements EmailOutboxEntity {
+
+    /**
+     * Serial UID.
+     */
+    @Serial
+    private static final long serialVersionUID = -2305893162702384671L;
+
+    /**
+     * Maximum length of the last error message.
+     */
+    public static final int LAST_ERROR_MAX_LENGTH = 500;
+
+    /**
+     * Entity's identifier.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false, unique = true)
+    private Long identifier;
+
+    /**
+     * Recipient address.
+     */
+    @Column(name = "recipient", nullable = false)
+    private String recipient;
+
+    /**
+     * Subject.
+     */
+    @Column(name = "subject", nullable = false)
+    private String subject;
+
+    /**
+     * Rendered HTML body.
+     */
+    @Lob
+    @Column(name = "body", nullable = false, columnDefinition = "TEXT")
+    private String body;
+
+    /**
+     * Delivery state.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "state", nullable = false)
+    private EmailOutboxState state;
+
+    /**
+     * Number of failed delivery attempts.
+     */
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    /**
+     * When the email was queued.
+     */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * When the next delivery attempt is due.
+     */
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    /**
+     * When the email was delivered.
+     */
+    @Column(name = "sent_at", nullable = true)
+    private LocalDateTime sentAt;
+
+    /**
+     * Error of the last failed attempt.
+     */
+    @Column(name = "last_error", nullable = true, length = LAST_ERROR_MAX_LENGTH)
+    private String lastError;
+
+    /**
+     * Default constructor, required by JPA.
+     */
+    public PersistentEmailOutboxEntity() {
+        // Default constructor
+    }
+}
@@ -143,6 +143,14 @@ public class PersistentUserEntity implements UserEntity {
     @Builder.Default
     private boolean enabled = Boolean.TRUE;
 
+    /**
+     * Security version of the user. Increased whenever roles, enabled state or
+     * credentials change, so stateless tokens carrying an older version are
+     * rejected.
+     */
+    @Column(name = "token_version", nullable = false, unique = false)
+    private int tokenVersion;
+
     /**
      * Roles associated with this user.
      */
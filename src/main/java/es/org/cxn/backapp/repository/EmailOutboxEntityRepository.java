@@ -0,0 +1,110 @@
+package es.org.cxn.backapp.repository;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import es.org.cxn.backapp.model.persistence.mail.EmailOutboxState;
+import es.org.cxn.backapp.model.persistence.mail.PersistentEmailOutboxEntity;
+
+/**
+ * Spring-JPA repository for {@link PersistentEmailOutboxEntity}.
+ *
+ * @author Santiago Paz.
+ */
+public interface EmailOutboxEntityRepository extends JpaRepository<PersistentEmailOutboxEntity, Long> {
+
+    /**
+     * JPQL literal of {@link EmailOutboxState#PENDING}.
+     */
+    String PENDING = "es.org.cxn.backapp.model.persistence.mail.EmailOutboxState.PENDING";
+
+    /**
+     * JPQL literal of {@link EmailOutboxState#SENDING}.
+     */
+    String SENDING = "es.org.cxn.backapp.model.persistence.mail.EmailOutboxState.SENDING";
+
+    /**
+     * JPQL literal of {@link EmailOutboxState#SENT}.
+     */
+    String SENT = "es.org.cxn.backapp.model.persistence.mail.EmailOutboxState.SENT";
+
+    /**
+     * JPQL literal of {@link EmailOutboxState#FAILED}.
+     */
+    String FAILED = "es.org.cxn.backapp.model.persistence.mail.EmailOutboxState.FAILED";
+
+    /**
+     * Claims a due email for sending: pending, or sending with an expired claim.
+     * The check and the update are a single statement, so when several
+     * dispatchers race for the same email only one of them claims it.
+     *
+     * @param identifier the email identifier.
+     * @param now        the current date.
+     * @param leaseUntil when the claim expires.
+     * @return {@code 1} if the email was claimed, {@code 0} if it was not due.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.state = " + SENDING + ", e.nextAttemptAt = :leaseUntil"
+            + " WHERE e.identifier = :identifier AND e.state IN (" + PENDING + ", " + SENDING + ")"
+            + " AND e.nextAttemptAt <= :now")
+    int claim(@Param("identifier") Long identifier, @Param("now") LocalDateTime now,
+            @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Deletes the sent and failed emails queued before a date.
+     *
+     * @param before the date.
+     * @return the number of emails deleted.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM EmailOutbox e WHERE e.state IN (" + SENT + ", " + FAILED + ") AND e.createdAt < :before")
+    int deleteFinishedBefore(@Param("before") LocalDateTime before);
+
+    /**
+     * Finds the emails of some states whose next attempt is due, oldest first.
+     *
+     * @param states the delivery states.
+     * @param now    the current date.
+     * @param limit  the maximum number of emails to return.
+     * @return the due emails.
+     */
+    @Query("SELECT e FROM EmailOutbox e WHERE e.state IN :states AND e.nextAttemptAt <= :now ORDER BY e.identifier")
+    List<PersistentEmailOutboxEntity> findDue(@Param("states") Collection<EmailOutboxState> states,
+            @Param("now") LocalDateTime now, Limit limit);
+}
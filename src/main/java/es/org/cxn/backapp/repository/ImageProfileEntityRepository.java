@@ -27,6 +27,8 @@ package es.org.cxn.backapp.repository;
  * #L%
  */
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import es.org.cxn.backapp.model.persistence.PersistentProfileImageEntity;
@@ -41,4 +43,12 @@ import es.org.cxn.backapp.model.persistence.PersistentProfileImageEntity;
  */
 public interface ImageProfileEntityRepository extends JpaRepository<PersistentProfileImageEntity, String> {
 
+    /**
+     * Finds the stored profile images whose path ends with a suffix.
+     *
+     * @param suffix the end of the path.
+     * @return the stored profile images whose path ends with the suffix.
+     */
+    List<PersistentProfileImageEntity> findByStoredTrueAndUrlEndingWith(String suffix);
+
 }
@@ -0,0 +1,137 @@
+package es.org.cxn.backapp.repository;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.List;
+
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Repository of the columns holding the paths of stored image files. The image
+ * store counts the references to its files through it, to find the files no
+ * row points to any more.
+ */
+@Repository
+public class ImageReferenceRepository {
+
+    /**
+     * A column holding the paths of stored image files.
+     */
+    public enum ImageColumn {
+
+        /**
+         * The image of an activity.
+         */
+        ACTIVITY_IMAGE("activities", "image_src", ""),
+
+        /**
+         * The cover of a book.
+         */
+        BOOK_COVER("book", "cover_src", ""),
+
+        /**
+         * The cover of a magazine.
+         */
+        MAGAZINE_COVER("magazine", "cover_src", ""),
+
+        /**
+         * The profile image of a user, when it is stored rather than an external
+         * URL.
+         */
+        PROFILE_IMAGE("user_profile_image", "url", " AND stored = TRUE"),
+
+        /**
+         * The front of the DNI of a federated user.
+         */
+        DNI_FRONT("user_federative_data", "dni_front_image_url", ""),
+
+        /**
+         * The back of the DNI of a federated user.
+         */
+        DNI_BACK("user_federative_data", "dni_back_image_url", "");
+
+        /**
+         * The table.
+         */
+        private final String table;
+
+        /**
+         * The column.
+         */
+        private final String column;
+
+        /**
+         * Extra condition of the rows whose column is a stored file path.
+         */
+        private final String condition;
+
+        ImageColumn(final String tableName, final String columnName, final String rowCondition) {
+            this.table = tableName;
+            this.column = columnName;
+            this.condition = rowCondition;
+        }
+    }
+
+    /**
+     * The entity manager.
+     */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Finds the distinct image paths held by a column.
+     *
+     * @param imageColumn the column.
+     * @return the paths.
+     */
+    @Transactional(readOnly = true)
+    public List<String> findPaths(final ImageColumn imageColumn) {
+        final List<?> paths = entityManager.createNativeQuery("SELECT DISTINCT " + imageColumn.column + " FROM "
+                + imageColumn.table + " WHERE " + imageColumn.column + " IS NOT NULL" + imageColumn.condition,
+                String.class).getResultList();
+        return paths.stream().map(String.class::cast).toList();
+    }
+
+    /**
+     * Replaces an image path in every row of a column holding it.
+     *
+     * @param imageColumn the column.
+     * @param oldPath     the path to replace.
+     * @param newPath     the new path.
+     * @return the number of rows updated.
+     */
+    @Transactional
+    public int replacePath(final ImageColumn imageColumn, final String oldPath, final String newPath) {
+        return entityManager.createNativeQuery("UPDATE " + imageColumn.table + " SET " + imageColumn.column
+                + " = :newPath WHERE " + imageColumn.column + " = :oldPath" + imageColumn.condition)
+                .setParameter("newPath", newPath).setParameter("oldPath", oldPath).executeUpdate();
+    }
+}
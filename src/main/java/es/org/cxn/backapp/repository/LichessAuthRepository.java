@@ -27,9 +27,15 @@ package es.org.cxn.backapp.repository;
  * #L%
  */
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import es.org.cxn.backapp.model.persistence.PersistentLichessAuthEntity;
+import es.org.cxn.backapp.service.dto.LichessLinkedAccountDto;
 
 /**
  * Spring-JPA repository for {@link PersistentLichessAuthEntity}.
@@ -41,4 +47,14 @@ import es.org.cxn.backapp.model.persistence.PersistentLichessAuthEntity;
  */
 public interface LichessAuthRepository extends JpaRepository<PersistentLichessAuthEntity, String> {
 
+    /**
+     * Reads the users whose Lichess token is still valid, with their email, in a
+     * single query.
+     *
+     * @param now the current time.
+     * @return the linked accounts with a token expiring after {@code now}.
+     */
+    @Query("SELECT new es.org.cxn.backapp.service.dto.LichessLinkedAccountDto(a.userDni, u.email, a.accessToken)"
+            + " FROM PersistentLichessAuthEntity a JOIN a.user u WHERE a.expirationDate > :now")
+    List<LichessLinkedAccountDto> findLinkedAccounts(@Param("now") LocalDateTime now);
 }
@@ -27,9 +27,14 @@ package es.org.cxn.backapp.repository;
  * #L%
  */
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import es.org.cxn.backapp.model.persistence.PersistentLichessProfileEntity;
+import es.org.cxn.backapp.service.dto.LichessProfileDto;
+import es.org.cxn.backapp.service.dto.LichessRankedProfileDto;
 
 /**
  * Spring-JPA repository for.
@@ -41,4 +46,38 @@ import es.org.cxn.backapp.model.persistence.PersistentLichessProfileEntity;
  */
 public interface LichessEntityRepository extends JpaRepository<PersistentLichessProfileEntity, String> {
 
+    /**
+     * The columns of the {@link LichessProfileDto} projection constructor.
+     */
+    String PROFILE_COLUMNS = "u.profile.name, u.profile.firstSurname, u.profile.secondSurname, p.identifier,"
+            + " p.username, p.updatedAt, p.blitzGames, p.blitzRating, p.blitzRd, p.blitzProg, p.blitzProv,"
+            + " p.bulletGames, p.bulletRating, p.bulletRd, p.bulletProg, p.bulletProv, p.classicalGames,"
+            + " p.classicalRating, p.classicalRd, p.classicalProg, p.classicalProv, p.rapidGames, p.rapidRating,"
+            + " p.rapidRd, p.rapidProg, p.rapidProv, p.puzzleGames, p.puzzleRating, p.puzzleRd, p.puzzleProg,"
+            + " p.puzzleProv";
+
+    /**
+     * Joins each stored profile with its user, dropping profiles without one.
+     */
+    String PROFILES_JOIN = " FROM PersistentLichessProfileEntity p JOIN UserEntity u ON u.dni = p.userDni";
+
+    /**
+     * Reads every stored Lichess profile with the complete name of its user in a
+     * single query.
+     *
+     * @return the profiles of the users that exist.
+     */
+    @Query("SELECT new es.org.cxn.backapp.service.dto.LichessProfileDto(" + PROFILE_COLUMNS + ")" + PROFILES_JOIN)
+    List<LichessProfileDto> findAllProfiles();
+
+    /**
+     * Reads every stored Lichess profile with the DNI and complete name of its
+     * user in a single query, to build the leaderboard.
+     *
+     * @return the profiles of the users that exist.
+     */
+    @Query("SELECT new es.org.cxn.backapp.service.dto.LichessRankedProfileDto(p.userDni, " + PROFILE_COLUMNS + ")"
+            + PROFILES_JOIN)
+    List<LichessRankedProfileDto> findAllRankedProfiles();
+
 }
@@ -27,12 +27,19 @@ package es.org.cxn.backapp.repository;
  * #L%
  */
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import es.org.cxn.backapp.model.persistence.payments.PaymentsCategory;
+import es.org.cxn.backapp.model.persistence.payments.PaymentsState;
 import es.org.cxn.backapp.model.persistence.payments.PersistentPaymentsEntity;
+import es.org.cxn.backapp.service.dto.UserPaymentDetails;
 
 /**
  * Repository interface for {@link PersistentPaymentsEntity} entities. This
@@ -60,4 +67,47 @@ public interface PaymentsEntityRepository extends JpaRepository<PersistentPaymen
      */
     List<PersistentPaymentsEntity> findByUserDni(String userDni);
 
+    /**
+     * Lists every user along with each of their payments in a single query,
+     * ordered by user DNI and payment creation date. Users without payments
+     * appear once, with empty payment fields.
+     *
+     * @return one row per payment, plus one per user without payments.
+     */
+    @Query("SELECT new es.org.cxn.backapp.service.dto.UserPaymentDetails(u.dni, p.id, p.title, p.description,"
+            + " p.amount, p.category, p.state, p.createdAt, p.paidAt)"
+            + " FROM UserEntity u LEFT JOIN PersistentPaymentsEntity p ON p.userDni = u.dni"
+            + " ORDER BY u.dni, p.createdAt")
+    List<UserPaymentDetails> findAllUsersWithPayments();
+
+    /**
+     * Finds a page of the DNIs of the users having payments that match the given
+     * state and category, ordered by DNI.
+     *
+     * @param state    the payment state, or {@code null} for any state.
+     * @param category the payment category, or {@code null} for any category.
+     * @param page     the page of users.
+     * @return the DNIs of the users of the page.
+     */
+    @Query("SELECT DISTINCT p.userDni FROM PersistentPaymentsEntity p"
+            + " WHERE (:state IS NULL OR p.state = :state) AND (:category IS NULL OR p.category = :category)"
+            + " ORDER BY p.userDni")
+    List<String> findUserDnisWithPayments(@Param("state") PaymentsState state,
+            @Param("category") PaymentsCategory category, Pageable page);
+
+    /**
+     * Finds the payments of the given users that match the given state and
+     * category, ordered by user DNI and creation date.
+     *
+     * @param userDnis the DNIs of the users.
+     * @param state    the payment state, or {@code null} for any state.
+     * @param category the payment category, or {@code null} for any category.
+     * @return one row per matching payment.
+     */
+    @Query("SELECT new es.org.cxn.backapp.service.dto.UserPaymentDetails(p.userDni, p.id, p.title, p.description,"
+            + " p.amount, p.category, p.state, p.createdAt, p.paidAt) FROM PersistentPaymentsEntity p"
+            + " WHERE p.userDni IN :userDnis AND (:state IS NULL OR p.state = :state)"
+            + " AND (:category IS NULL OR p.category = :category) ORDER BY p.userDni, p.createdAt")
+    List<UserPaymentDetails> findPaymentsOfUsers(@Param("userDnis") Collection<String> userDnis,
+            @Param("state") PaymentsState state, @Param("category") PaymentsCategory category);
 }
@@ -0,0 +1,70 @@
+package es.org.cxn.backapp.repository;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.List;
+
+import es.org.cxn.backapp.service.dto.UserDirectoryFilterDto;
+import es.org.cxn.backapp.service.dto.UserDirectorySort;
+import es.org.cxn.backapp.service.dto.UserSummaryDto;
+
+/**
+ * Keyset paginated queries of the user directory, built with only the filters
+ * that are set so every page is a plain index range scan.
+ *
+ * @see UserEntityRepository
+ */
+public interface UserDirectoryRepository {
+
+    /**
+     * The projection of the users listing, with the address, country,
+     * subdivision, teams and federate state joined in. Conditions and order are
+     * appended by each query.
+     */
+    String SUMMARY_SELECT = "SELECT new es.org.cxn.backapp.service.dto.UserSummaryDto(u.dni, u.profile.name,"
+            + " u.profile.firstSurname, u.profile.secondSurname, u.profile.gender, u.profile.birthDate, u.email,"
+            + " u.kindMember, a.postalCode, a.apartmentNumber, a.building, a.street, a.city, c.fullName, cs.name,"
+            + " ta.name, tp.name, fs.state, u.unsubscribeDate) FROM UserEntity u LEFT JOIN u.address a"
+            + " LEFT JOIN a.country c LEFT JOIN a.countrySubdivision cs LEFT JOIN u.teamAssigned ta"
+            + " LEFT JOIN u.teamPreferred tp LEFT JOIN u.federateState fs";
+
+    /**
+     * Finds the users of the directory matching the filter that come after the
+     * given position in the given order. Roles are not read.
+     *
+     * @param filter       the filters, {@code null} components match every user.
+     * @param sort         the order.
+     * @param afterSurname the first surname of the last user of the previous
+     *                     page, only used by {@link UserDirectorySort#SURNAME}.
+     * @param afterDni     the DNI of the last user of the previous page, or
+     *                     {@code null} for the first page.
+     * @param limit        the maximum number of users.
+     * @return the users, in order.
+     */
+    List<UserSummaryDto> findDirectoryPage(UserDirectoryFilterDto filter, UserDirectorySort sort,
+            String afterSurname, String afterDni, int limit);
+}
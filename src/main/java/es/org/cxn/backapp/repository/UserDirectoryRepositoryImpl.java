@@ -0,0 +1,103 @@
+package es.org.cxn.backapp.repository;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import es.org.cxn.backapp.service.dto.UserDirectoryFilterDto;
+import es.org.cxn.backapp.service.dto.UserDirectorySort;
+import es.org.cxn.backapp.service.dto.UserSummaryDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * JPQL implementation of {@link UserDirectoryRepository}, picked up by Spring
+ * Data as a fragment of {@link UserEntityRepository}.
+ */
+class UserDirectoryRepositoryImpl implements UserDirectoryRepository {
+
+    /**
+     * The entity manager.
+     */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UserSummaryDto> findDirectoryPage(final UserDirectoryFilterDto filter, final UserDirectorySort sort,
+            final String afterSurname, final String afterDni, final int limit) {
+        final List<String> conditions = new ArrayList<>();
+        final Map<String, Object> parameters = new HashMap<>();
+        if (filter.kindMember() != null) {
+            conditions.add("u.kindMember = :kindMember");
+            parameters.put("kindMember", filter.kindMember());
+        }
+        if (filter.role() != null) {
+            conditions.add("EXISTS (SELECT 1 FROM UserEntity ur JOIN ur.roles r WHERE ur = u AND r.name = :role)");
+            parameters.put("role", filter.role());
+        }
+        if (filter.enabled() != null) {
+            conditions.add("u.enabled = :enabled");
+            parameters.put("enabled", filter.enabled());
+        }
+        if (filter.federateState() != null) {
+            conditions.add("fs.state = :federateState");
+            parameters.put("federateState", filter.federateState());
+        }
+        if (filter.teamName() != null) {
+            conditions.add("ta.name = :teamName");
+            parameters.put("teamName", filter.teamName());
+        }
+        final String order;
+        if (sort == UserDirectorySort.SURNAME) {
+            if (afterDni != null) {
+                conditions.add("(u.profile.firstSurname > :afterSurname"
+                        + " OR (u.profile.firstSurname = :afterSurname AND u.dni > :afterDni))");
+                parameters.put("afterSurname", afterSurname);
+                parameters.put("afterDni", afterDni);
+            }
+            order = " ORDER BY u.profile.firstSurname, u.dni";
+        } else {
+            if (afterDni != null) {
+                conditions.add("u.dni > :afterDni");
+                parameters.put("afterDni", afterDni);
+            }
+            order = " ORDER BY u.dni";
+        }
+        final var jpql = new StringBuilder(SUMMARY_SELECT);
+        if (!conditions.isEmpty()) {
+            jpql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        jpql.append(order);
+
+        final var query = entityManager.createQuery(jpql.toString(), UserSummaryDto.class).setMaxResults(limit);
+        parameters.forEach(query::setParameter);
+        return query.getResultList();
+    }
+}
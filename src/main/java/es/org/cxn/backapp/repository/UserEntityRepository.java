@@ -27,13 +27,23 @@ package es.org.cxn.backapp.repository;
  * #L%
  */
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import es.org.cxn.backapp.model.persistence.user.PersistentUserEntity;
+import es.org.cxn.backapp.service.dto.UserRoleNameDto;
+import es.org.cxn.backapp.service.dto.UserSummaryDto;
+import jakarta.persistence.QueryHint;
 
 /**
  * Spring-JPA repository for {@link PersistentUserEntity}.
@@ -43,7 +53,12 @@ import es.org.cxn.backapp.model.persistence.user.PersistentUserEntity;
  *
  * @author Santiago Paz.
  */
-public interface UserEntityRepository extends JpaRepository<PersistentUserEntity, String> {
+public interface UserEntityRepository extends JpaRepository<PersistentUserEntity, String>, UserDirectoryRepository {
+
+    /**
+     * Rows fetched from the database at a time by the streaming queries.
+     */
+    String STREAM_FETCH_SIZE = "500";
 
     /**
      * Find user entity with provided dni.
@@ -70,4 +85,70 @@ public interface UserEntityRepository extends JpaRepository<PersistentUserEntity
      */
     Page<PersistentUserEntity> findByProfileNameContaining(String name, Pageable page);
 
+    /**
+     * Find only the token version of the user with provided dni, without loading
+     * the entity or its relations.
+     *
+     * @param dni the user dni.
+     * @return the user token version, empty if the user does not exist.
+     */
+    @Query("SELECT u.tokenVersion FROM UserEntity u WHERE u.dni = :dni")
+    Optional<Integer> findTokenVersionByDni(@Param("dni") String dni);
+
+    /**
+     * Reads the data of the users listing of every user in a single query, with
+     * their address, country, subdivision, teams and federate state joined in,
+     * ordered by DNI. Roles are read by {@link #findAllRoleNames()}.
+     *
+     * @return the summary of every user, without roles.
+     */
+    @Query(SUMMARY_SELECT + " ORDER BY u.dni")
+    List<UserSummaryDto> findAllSummaries();
+
+    /**
+     * Reads the roles of every user in a single query.
+     *
+     * @return one row per user and role.
+     */
+    @Query("SELECT new es.org.cxn.backapp.service.dto.UserRoleNameDto(u.dni, r.name)"
+            + " FROM UserEntity u JOIN u.roles r")
+    List<UserRoleNameDto> findAllRoleNames();
+
+    /**
+     * Streams the summary of every user, ordered by DNI, reading the rows in
+     * batches from a database cursor instead of loading them all. Roles are
+     * streamed in the same order by {@link #streamAllRoleNames()}.
+     * <p>
+     * The stream must be consumed inside a transaction and closed.
+     * </p>
+     *
+     * @return the summary of every user, without roles.
+     */
+    @Query(SUMMARY_SELECT + " ORDER BY u.dni")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    Stream<UserSummaryDto> streamAllSummaries();
+
+    /**
+     * Streams the role names of every user, ordered by DNI like
+     * {@link #streamAllSummaries()}, so both can be merged in a single pass.
+     * <p>
+     * The stream must be consumed inside a transaction and closed.
+     * </p>
+     *
+     * @return the role names of every user.
+     */
+    @Query("SELECT new es.org.cxn.backapp.service.dto.UserRoleNameDto(u.dni, r.name)"
+            + " FROM UserEntity u JOIN u.roles r ORDER BY u.dni")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    Stream<UserRoleNameDto> streamAllRoleNames();
+
+    /**
+     * Reads the roles of the given users in a single query.
+     *
+     * @param userDnis the DNIs of the users.
+     * @return one row per user and role.
+     */
+    @Query("SELECT new es.org.cxn.backapp.service.dto.UserRoleNameDto(u.dni, r.name)"
+            + " FROM UserEntity u JOIN u.roles r WHERE u.dni IN :userDnis")
+    List<UserRoleNameDto> findRoleNamesOfUsers(@Param("userDnis") Collection<String> userDnis);
 }
@@ -30,6 +30,10 @@ package es.org.cxn.backapp.security;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 
 import javax.crypto.SecretKey;
@@ -38,9 +42,12 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import es.org.cxn.backapp.config.JwtProperties;
+import es.org.cxn.backapp.model.UserRoleName;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -60,12 +67,46 @@ import io.jsonwebtoken.security.Keys;
  * <li>User-specific token validation</li>
  * </ul>
  *
+ * <p>
+ * A single {@link JwtParser} is built at construction time and shared by all
+ * callers; JJWT parsers are immutable and thread-safe. Request processing
+ * should use {@link #validate(String)}, which verifies the signature once and
+ * returns a {@link ValidatedToken} holding the claims needed afterwards.
+ * </p>
+ *
+ * <p>
+ * When {@code jwt.stateless-claims} is enabled, generated tokens also carry the
+ * user DNI, roles, enabled state and token version, and
+ * {@link #principalFromClaims(ValidatedToken)} rebuilds the
+ * {@link MyPrincipalUser} from them without loading the user.
+ * </p>
+ *
  * @see JwtProperties Configuration properties for JWT setup
  * @see UserDetails Spring Security user details interface
  */
 @Service
 public class DefaultJwtUtils {
 
+    /**
+     * Claim holding the user DNI in stateless tokens.
+     */
+    public static final String CLAIM_DNI = "dni";
+
+    /**
+     * Claim holding the user role names in stateless tokens.
+     */
+    public static final String CLAIM_ROLES = "roles";
+
+    /**
+     * Claim holding the user enabled state in stateless tokens.
+     */
+    public static final String CLAIM_ENABLED = "enabled";
+
+    /**
+     * Claim holding the user token version in stateless tokens.
+     */
+    public static final String CLAIM_VERSION = "ver";
+
     /**
      * Secret key used to sign and verify JWT tokens.
      *
@@ -85,6 +126,16 @@ public class DefaultJwtUtils {
      */
     private final Duration expirationTime;
 
+    /**
+     * Reusable, thread-safe parser configured with the signing key.
+     */
+    private final JwtParser jwtParser;
+
+    /**
+     * Whether generated tokens embed the principal claims.
+     */
+    private final boolean statelessClaims;
+
     /**
      * Constructs a JWT utilities instance with configuration properties.
      *
@@ -97,6 +148,8 @@ public class DefaultJwtUtils {
     public DefaultJwtUtils(final JwtProperties jwtProperties) {
         this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtProperties.getSecret()));
         this.expirationTime = Duration.ofSeconds(jwtProperties.getExpiration());
+        this.jwtParser = Jwts.parser().verifyWith(signingKey).build();
+        this.statelessClaims = jwtProperties.isStatelessClaims();
     }
 
     /**
@@ -107,7 +160,7 @@ public class DefaultJwtUtils {
      * @throws JwtException if the token is invalid or cannot be parsed
      */
     public Claims extractAllClaims(final String token) {
-        return Jwts.parser().verifyWith(signingKey).build().parseSignedClaims(token).getPayload();
+        return jwtParser.parseSignedClaims(token).getPayload();
     }
 
     /**
@@ -152,11 +205,49 @@ public class DefaultJwtUtils {
      *         <li>Subject: Username</li>
      *         <li>IssuedAt: Current time</li>
      *         <li>Expiration: Current time + configured duration</li>
+     *         <li>DNI, roles, enabled and token version, only in stateless claims
+     *         mode and for {@link MyPrincipalUser} instances</li>
      *         </ul>
      */
     public String generateToken(final UserDetails userDetails) {
-        return Jwts.builder().subject(userDetails.getUsername()).issuedAt(Date.from(Instant.now()))
-                .expiration(Date.from(Instant.now().plus(expirationTime))).signWith(signingKey).compact();
+        final Instant now = Instant.now();
+        final JwtBuilder builder = Jwts.builder().subject(userDetails.getUsername()).issuedAt(Date.from(now))
+                .expiration(Date.from(now.plus(expirationTime)));
+
+        if (statelessClaims && userDetails instanceof MyPrincipalUser principal) {
+            builder.claim(CLAIM_DNI, principal.getDni())
+                    .claim(CLAIM_ROLES, principal.getRoles().stream().map(UserRoleName::name).toList())
+                    .claim(CLAIM_ENABLED, principal.isEnabled()).claim(CLAIM_VERSION, principal.getTokenVersion());
+        }
+        return builder.signWith(signingKey).compact();
+    }
+
+    /**
+     * Rebuilds the principal from the claims of a stateless token.
+     *
+     * @param token token already verified by {@link #validate(String)}
+     * @return the principal described by the token, or an empty optional if the
+     *         token does not carry the stateless claims
+     */
+    public Optional<MyPrincipalUser> principalFromClaims(final ValidatedToken token) {
+        final Claims claims = token.claims();
+        Optional<MyPrincipalUser> result = Optional.empty();
+
+        try {
+            final String dni = claims.get(CLAIM_DNI, String.class);
+            final Integer version = claims.get(CLAIM_VERSION, Integer.class);
+            final Boolean enabled = claims.get(CLAIM_ENABLED, Boolean.class);
+            final List<?> roles = claims.get(CLAIM_ROLES, List.class);
+
+            if (dni != null && version != null && enabled != null && roles != null) {
+                final Set<UserRoleName> roleNames = EnumSet.noneOf(UserRoleName.class);
+                roles.forEach(role -> roleNames.add(UserRoleName.valueOf(String.valueOf(role))));
+                result = Optional.of(new MyPrincipalUser(dni, token.subject(), roleNames, enabled, version));
+            }
+        } catch (JwtException | IllegalArgumentException e) {
+            result = Optional.empty();
+        }
+        return result;
     }
 
     /**
@@ -188,7 +279,7 @@ public class DefaultJwtUtils {
         boolean isValid;
 
         try {
-            Jwts.parser().verifyWith(signingKey).build().parse(token);
+            jwtParser.parse(token);
             isValid = true;
         } catch (JwtException | IllegalArgumentException e) {
             isValid = false;
@@ -196,6 +287,35 @@ public class DefaultJwtUtils {
         return isValid;
     }
 
+    /**
+     * Parses and verifies a token once.
+     * <p>
+     * The signature, format and expiration are checked by a single parse. The
+     * returned {@link ValidatedToken} exposes subject, issued-at and expiration
+     * so no further parsing is needed while handling the request.
+     * </p>
+     *
+     * @param token JWT token to validate
+     * @return the validated token, or an empty optional if the token is
+     *         malformed, wrongly signed or expired
+     */
+    public Optional<ValidatedToken> validate(final String token) {
+        Optional<ValidatedToken> result;
+
+        try {
+            final Claims claims = extractAllClaims(token);
+            final Date issuedAt = claims.getIssuedAt();
+            final Date expiration = claims.getExpiration();
+            final ValidatedToken validated = new ValidatedToken(claims.getSubject(),
+                    issuedAt == null ? null : issuedAt.toInstant(),
+                    expiration == null ? null : expiration.toInstant(), claims);
+            result = validated.isExpiredAt(Instant.now()) ? Optional.empty() : Optional.of(validated);
+        } catch (JwtException | IllegalArgumentException e) {
+            result = Optional.empty();
+        }
+        return result;
+    }
+
     /**
      * Full validation of token for a specific user.
      *
@@ -209,11 +329,6 @@ public class DefaultJwtUtils {
      *         </ul>
      */
     public boolean validateToken(final String token, final UserDetails userDetails) {
-        try {
-            final String username = extractUsername(token);
-            return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
-        } catch (ExpiredJwtException ex) {
-            return false;
-        }
+        return validate(token).map(validated -> validated.isValidFor(userDetails)).orElse(false);
     }
 }
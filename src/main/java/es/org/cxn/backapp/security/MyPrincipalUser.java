@@ -81,6 +81,32 @@ public final class MyPrincipalUser implements UserDetails {
      */
     private final boolean accountEnabled;
 
+    /**
+     * User security version when this principal was built.
+     */
+    private final int tokenVersion;
+
+    /**
+     * Constructor with explicit user data, used to rebuild a principal from
+     * token claims without loading the user. The password is not known and is
+     * left empty.
+     *
+     * @param dni          The user DNI.
+     * @param email        The user email.
+     * @param roles        The user role names.
+     * @param enabled      The user enabled state.
+     * @param tokenVersion The user security version.
+     */
+    public MyPrincipalUser(final String dni, final String email, final Set<UserRoleName> roles,
+            final boolean enabled, final int tokenVersion) {
+        this.dni = dni;
+        this.password = "";
+        this.email = email;
+        this.accountEnabled = enabled;
+        this.rolesNames = roles.isEmpty() ? EnumSet.noneOf(UserRoleName.class) : EnumSet.copyOf(roles);
+        this.tokenVersion = tokenVersion;
+    }
+
     /**
      * Constructor with provided UserEntity.
      *
@@ -91,6 +117,7 @@ public final class MyPrincipalUser implements UserDetails {
         password = userEntity.getPassword();
         email = userEntity.getEmail();
         accountEnabled = userEntity.isEnabled();
+        tokenVersion = userEntity.getTokenVersion();
         rolesNames = EnumSet.noneOf(UserRoleName.class);
         userEntity.getRoles().forEach((PersistentRoleEntity role) -> rolesNames.add(role.getName()));
     }
@@ -127,6 +154,15 @@ public final class MyPrincipalUser implements UserDetails {
         return EnumSet.copyOf(rolesNames);
     }
 
+    /**
+     * Getter for the user security version.
+     *
+     * @return the token version of the user when the principal was built.
+     */
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
     @Override
     public String getUsername() {
         return email;
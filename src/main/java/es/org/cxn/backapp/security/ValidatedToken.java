@@ -0,0 +1,71 @@
+package es.org.cxn.backapp.security;
+
+/*-
+ * #%L
+ * CXN-back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Círculo Xadrez Narón
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.time.Instant;
+
+import org.springframework.security.core.userdetails.UserDetails;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Result of parsing and verifying a JWT exactly once.
+ * <p>
+ * By convention instances are built by {@link DefaultJwtUtils#validate(String)}
+ * once the signature has been checked, so holders of a {@code ValidatedToken}
+ * can read its data without parsing the compact token again. The record itself
+ * does not enforce this.
+ * </p>
+ *
+ * @param subject    the token subject (user email).
+ * @param issuedAt   the instant the token was issued, may be {@code null}.
+ * @param expiration the instant the token expires.
+ * @param claims     the full verified claim set.
+ */
+public record ValidatedToken(String subject, Instant issuedAt, Instant expiration, Claims claims) {
+
+    /**
+     * Checks whether the token is expired at the given instant.
+     *
+     * @param now the reference instant.
+     * @return {@code true} if the token expiration is before {@code now}.
+     */
+    public boolean isExpiredAt(final Instant now) {
+        return expiration == null || expiration.isBefore(now);
+    }
+
+    /**
+     * Checks whether this token belongs to the given user and is still valid.
+     *
+     * @param userDetails the user the token is checked against.
+     * @return {@code true} if the subject matches the username and the token is
+     *         not expired.
+     */
+    public boolean isValidFor(final UserDetails userDetails) {
+        return subject != null && subject.equals(userDetails.getUsername()) && !isExpiredAt(Instant.now());
+    }
+}
@@ -0,0 +1,206 @@
+package es.org.cxn.backapp.security;
+
+/*-
+ * #%L
+ * CXN-back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Círculo Xadrez Narón
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+
+import es.org.cxn.backapp.config.JwtProperties;
+import es.org.cxn.backapp.repository.UserEntityRepository;
+
+/**
+ * Bounded in-memory cache of already verified JWTs.
+ * <p>
+ * Maps the SHA-256 digest of a compact token to the {@link MyPrincipalUser}
+ * loaded when the token was first verified, so repeated requests with the same
+ * token skip both the HMAC check and the user lookup. The raw token is never
+ * stored.
+ * </p>
+ *
+ * <p>
+ * An entry is discarded when any of the following happens:
+ * </p>
+ * <ul>
+ * <li>The token {@code exp} claim is reached (checked on every read).</li>
+ * <li>The configured {@code jwt.cache-ttl} elapses.</li>
+ * <li>The cache reaches {@code jwt.cache-maximum-size} entries.</li>
+ * <li>{@link #invalidateUser(String)} is called for the owner of the token,
+ * which user and role services do when roles, email, password or enabled
+ * state change.</li>
+ * </ul>
+ *
+ * <p>
+ * It also keeps the current token version of recently seen users, used to
+ * accept or reject stateless tokens whose principal is rebuilt from claims. A
+ * version is read from the database with a single-column query on a miss and
+ * dropped together with the user tokens on {@link #invalidateUser(String)}.
+ * </p>
+ *
+ * <p>
+ * Both caches are local to each instance, and {@link #invalidateUser(String)}
+ * only clears the instance where the change was made. Other instances keep
+ * accepting older tokens of the user until {@code jwt.cache-ttl} expires, which
+ * bounds how long a role change or disable takes to apply everywhere.
+ * </p>
+ */
+@Component
+public class VerifiedTokenCache {
+
+    /**
+     * Cached principal together with the token expiration.
+     *
+     * @param principal  the principal loaded for the token.
+     * @param expiration the token expiration instant.
+     */
+    private record Entry(MyPrincipalUser principal, Instant expiration) {
+    }
+
+    /**
+     * Backing cache keyed by token digest.
+     */
+    private final Cache<HashCode, Entry> cache;
+
+    /**
+     * Current token version per user DNI, {@code -1} for unknown users.
+     */
+    private final LoadingCache<String, Integer> versions;
+
+    /**
+     * Constructs the cache from JWT configuration properties.
+     *
+     * @param jwtProperties  the JWT properties holding cache size and ttl.
+     * @param userRepository the repository used to read user token versions.
+     */
+    public VerifiedTokenCache(final JwtProperties jwtProperties, final UserEntityRepository userRepository) {
+        final long maximumSize = Math.max(0, jwtProperties.getCacheMaximumSize());
+        final Duration ttl = Duration.ofSeconds(Math.max(0, jwtProperties.getCacheTtl()));
+        this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).build();
+        this.versions = CacheBuilder.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).build(
+                CacheLoader.from((String dni) -> userRepository.findTokenVersionByDni(dni).orElse(-1)));
+    }
+
+    private static HashCode digest(final String token) {
+        return Hashing.sha256().hashString(token, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the principal for a previously verified token.
+     *
+     * @param token the compact JWT.
+     * @return the cached principal, or an empty optional if the token is not
+     *         cached or has expired.
+     */
+    public Optional<MyPrincipalUser> get(final String token) {
+        final HashCode key = digest(token);
+        final Entry entry = cache.getIfPresent(key);
+        Optional<MyPrincipalUser> result = Optional.empty();
+
+        if (entry != null) {
+            if (entry.expiration().isAfter(Instant.now())) {
+                result = Optional.of(entry.principal());
+            } else {
+                cache.invalidate(key);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether a token version is the current one for a user.
+     *
+     * @param dni     the user DNI.
+     * @param version the version carried by the token.
+     * @return {@code true} if the user exists and its version matches.
+     */
+    public boolean isCurrentVersion(final String dni, final int version) {
+        return versions.getUnchecked(dni) == version;
+    }
+
+    /**
+     * Removes every cached token belonging to a user.
+     * <p>
+     * The entries are removed immediately and, when called inside a transaction,
+     * again after commit so a concurrent request cannot re-cache the state read
+     * before the change was committed.
+     * </p>
+     *
+     * @param dni the DNI of the user whose tokens must be re-verified.
+     */
+    public void invalidateUser(final String dni) {
+        removeUser(dni);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    removeUser(dni);
+                }
+            });
+        }
+    }
+
+    /**
+     * Stores the principal for a verified token.
+     *
+     * @param token     the compact JWT.
+     * @param validated the token once verified.
+     * @param principal the principal loaded for the token subject.
+     */
+    public void put(final String token, final ValidatedToken validated, final MyPrincipalUser principal) {
+        if (!validated.isExpiredAt(Instant.now())) {
+            cache.put(digest(token), new Entry(principal, validated.expiration()));
+        }
+    }
+
+    private void removeUser(final String dni) {
+        if (dni != null) {
+            cache.asMap().values().removeIf(entry -> dni.equals(entry.principal().getDni()));
+            versions.invalidate(dni);
+        }
+    }
+
+    /**
+     * Returns the approximate number of cached tokens.
+     *
+     * @return the number of entries.
+     */
+    public long size() {
+        return cache.size();
+    }
+}
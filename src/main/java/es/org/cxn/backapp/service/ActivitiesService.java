@@ -34,9 +34,11 @@ import org.springframework.web.multipart.MultipartFile;
 
 import es.org.cxn.backapp.model.persistence.PersistentActivityEntity;
 import es.org.cxn.backapp.service.dto.ActivityDto;
+import es.org.cxn.backapp.service.dto.StoredImageDto;
 import es.org.cxn.backapp.service.exceptions.activity.ActivityImageNotFoundException;
 import es.org.cxn.backapp.service.exceptions.activity.ActivityNotFoundException;
 import es.org.cxn.backapp.service.exceptions.activity.ActivityServiceException;
+import es.org.cxn.backapp.service.impl.storage.ImageVariant;
 
 /**
  * ActivitiesService defines the contract for operations related to managing
@@ -85,14 +87,16 @@ public interface ActivitiesService {
     /**
      * Retrieves the image associated with a specified activity.
      *
-     * @param title the unique title of the activity whose image is to be retrieved
-     * @return a byte array representing the image data
+     * @param title   the unique title of the activity whose image is to be
+     *                retrieved
+     * @param variant the size to retrieve the image in
+     * @return the image, backed by its file
      * @throws ActivityServiceException       Image loading error (I/O, etc.)
      * @throws ActivityImageNotFoundException Activity exists but no image is
      *                                        assigned
      * @throws ActivityNotFoundException      Activity does not exist
      */
-    byte[] getActivityImage(String title)
+    StoredImageDto getActivityImage(String title, ImageVariant variant)
             throws ActivityServiceException, ActivityNotFoundException, ActivityImageNotFoundException;
 
     /**
@@ -34,7 +34,9 @@ import org.springframework.web.multipart.MultipartFile;
 import es.org.cxn.backapp.model.BookEntity;
 import es.org.cxn.backapp.model.form.requests.member_resources.AddBookRequestDto;
 import es.org.cxn.backapp.service.dto.BookDataImageDto;
+import es.org.cxn.backapp.service.dto.StoredImageDto;
 import es.org.cxn.backapp.service.exceptions.BookServiceException;
+import es.org.cxn.backapp.service.impl.storage.ImageVariant;
 
 /**
  * Interface for the service that handles books operations.
@@ -66,11 +68,12 @@ public interface BookService {
     /**
      * Find book's image.
      *
-     * @param isbn The book isbn aka identifier.
-     * @return The book image that matched provided isbn.
+     * @param isbn    The book isbn aka identifier.
+     * @param variant The size to retrieve the image in.
+     * @return The book image that matched provided isbn, backed by its file.
      * @throws BookServiceException When book image cannot be loaded.
      */
-    byte[] findImage(String isbn) throws BookServiceException;
+    StoredImageDto findImage(String isbn, ImageVariant variant) throws BookServiceException;
 
     /**
      * Retrieves a list of all books.
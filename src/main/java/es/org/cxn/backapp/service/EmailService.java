@@ -28,7 +28,9 @@ package es.org.cxn.backapp.service;
  */
 
 import java.io.IOException;
+import java.util.List;
 
+import es.org.cxn.backapp.service.dto.GeneratedPaymentNoticeDto;
 import jakarta.mail.MessagingException;
 
 /**
@@ -75,6 +77,14 @@ public interface EmailService {
     void sendGeneratedPayment(String toEmail, String memberName, String paymentTitle, String paymentDescription,
             String paymentAmount) throws MessagingException, IOException;
 
+    /**
+     * Queues the generated payment notifications of a bulk payment run at once.
+     *
+     * @param notices the notifications, one per generated payment.
+     * @throws IOException if the email template cannot be loaded.
+     */
+    void sendGeneratedPayments(List<GeneratedPaymentNoticeDto> notices) throws IOException;
+
     /**
      * Sends a confirmation payment received email to member.
      *
@@ -32,6 +32,7 @@ import java.util.List;
 import org.springframework.web.multipart.MultipartFile;
 
 import es.org.cxn.backapp.model.persistence.PersistentFederateStateEntity;
+import es.org.cxn.backapp.service.dto.UserDniImageFilesDto;
 import es.org.cxn.backapp.service.dto.UserDniImagesDto;
 import es.org.cxn.backapp.service.exceptions.FederateStateServiceException;
 import es.org.cxn.backapp.service.exceptions.PaymentsServiceException;
@@ -134,6 +135,17 @@ public interface FederateStateService {
      */
     UserDniImagesDto getDniImages(String userDni) throws FederateStateServiceException;
 
+    /**
+     * Opens the DNI images of a user with federate state for serving, without
+     * reading them into memory.
+     *
+     * @param userDni The user identifier.
+     * @return The front and back DNI image files.
+     * @throws FederateStateServiceException When the user has no federate state or
+     *                                       the images cannot be opened.
+     */
+    UserDniImageFilesDto getDniImageFiles(String userDni) throws FederateStateServiceException;
+
     /**
      * Retrieves the federate state data for the user identified by the given dni.
      *
@@ -31,7 +31,10 @@ import java.io.IOException;
 
 import org.springframework.web.multipart.MultipartFile;
 
+import es.org.cxn.backapp.service.dto.SavedImageDto;
+import es.org.cxn.backapp.service.dto.StoredImageDto;
 import es.org.cxn.backapp.service.impl.storage.FileLocation;
+import es.org.cxn.backapp.service.impl.storage.ImageVariant;
 
 /**
  * Service interface for handling image storage operations. Provides methods to
@@ -39,7 +42,9 @@ import es.org.cxn.backapp.service.impl.storage.FileLocation;
  */
 public interface ImageStorageService {
     /**
-     * Deletes an image file from the storage based on its path.
+     * Deletes an image file from the storage based on its path. Images stored by
+     * content may be shared by several rows, so they are only deleted once no row
+     * references them.
      *
      * @param imagePath the {@link String} representing the path to the image file.
      * @throws IOException if an error occurs during file deletion.
@@ -56,26 +61,82 @@ public interface ImageStorageService {
     byte[] loadImage(String imagePath) throws IOException;
 
     /**
-     * Saves an image file.
+     * Opens an image file for serving without reading it into memory. Only the
+     * file metadata is read; the content digest of the entity tag is computed once
+     * per file version.
+     *
+     * @param imagePath   the {@link String} representing the path to the image
+     *                    file.
+     * @param contentType the media type recorded when the image was stored, as
+     *                    returned by {@link #storeImage(MultipartFile, FileLocation)};
+     *                    {@code null} for images stored before it was recorded,
+     *                    which are then detected from their first bytes.
+     * @return the image backed by its file.
+     * @throws IOException if the file does not exist or cannot be read.
+     */
+    StoredImageDto openImage(String imagePath, String contentType) throws IOException;
+
+    /**
+     * Opens a resized variant of an image file for serving, creating it first if
+     * it does not exist yet or the image changed since.
+     *
+     * @param imagePath   the {@link String} representing the path to the image
+     *                    file.
+     * @param contentType the media type recorded when the image was stored, or
+     *                    {@code null} to detect it.
+     * @param variant     the variant to open; {@link ImageVariant#ORIGINAL} opens
+     *                    the image itself.
+     * @return the variant backed by its file, or the image itself if its format
+     *         cannot be resized.
+     * @throws IOException if the file does not exist, cannot be read or cannot be
+     *                     resized.
+     */
+    StoredImageDto openImage(String imagePath, String contentType, ImageVariant variant) throws IOException;
+
+    /**
+     * Saves an image file. The file is named by the digest of its content, so
+     * identical images are stored once and different images never overwrite each
+     * other.
      *
      * @param file         the {@link MultipartFile} representing the image to be
      *                     saved.
      * @param fileLocation the enum type representing the location of the file.
      * @return a {@link String} representing the path where the image is stored.
-     * @throws IOException if an error occurs during file saving.
+     * @throws IOException if the file is not a JPEG, PNG, WebP or AVIF image by
+     *                     its content, is larger than allowed, or an error
+     *                     occurs during file saving.
      */
     String saveImage(MultipartFile file, FileLocation fileLocation) throws IOException;
 
     /**
-     * Saves an image file in userId folder name.
+     * Saves an image file, detecting its media type once while storing it so that
+     * it can be recorded next to the returned path and serving needs no detection.
+     * The resizing of its variants starts in the background.
+     *
+     * @param file         the {@link MultipartFile} representing the image to be
+     *                     saved.
+     * @param fileLocation the enum type representing the location of the file.
+     * @return the path where the image is stored and its media type.
+     * @throws IOException if the file is not a JPEG, PNG, WebP or AVIF image by
+     *                     its content, is larger than allowed, or an error
+     *                     occurs during file saving.
+     */
+    SavedImageDto storeImage(MultipartFile file, FileLocation fileLocation) throws IOException;
+
+    /**
+     * Saves an image file in the content-addressed store of its location, like
+     * {@link #saveImage(MultipartFile, FileLocation)}. The user no longer names
+     * a folder: identical images of different users share their file.
      *
      * @param file         the {@link MultipartFile} representing the image to be
      *                     saved.
-     * @param userId       the user identifier for save images in folder with name
-     *                     as user identifier.
+     * @param userId       the user the image belongs to. It does not affect where
+     *                     the image is stored.
      * @param fileLocation the enum type representing the location of the file.
      * @return a {@link String} representing the path where the image is stored.
-     * @throws IOException if an error occurs during file saving.
+     * @throws IOException if the file is not a JPEG, PNG, WebP or AVIF image by
+     *                     its content, is larger than allowed, or an error
+     *                     occurs during file saving.
      */
     String saveImage(MultipartFile file, FileLocation fileLocation, String userId) throws IOException;
 
@@ -27,11 +27,13 @@ package es.org.cxn.backapp.service;
  */
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 import es.org.cxn.backapp.model.persistence.PersistentLichessAuthEntity;
 import es.org.cxn.backapp.model.persistence.PersistentLichessProfileEntity;
 import es.org.cxn.backapp.model.persistence.PersistentOAuthAuthorizationRequestEntity;
+import es.org.cxn.backapp.service.dto.LichessLinkedAccountDto;
 import es.org.cxn.backapp.service.dto.LichessProfileDto;
 import es.org.cxn.backapp.service.dto.LichessSaveProfileDto;
 import es.org.cxn.backapp.service.exceptions.LichessServiceException;
@@ -98,6 +100,16 @@ public interface LichessService {
     void saveAuthToken(String tokenType, String accessToken, LocalDateTime expirationDate, String userEmail)
             throws LichessServiceException;
 
+    /**
+     * Refreshes the Lichess profiles of several linked users from Lichess, in a
+     * few bulk requests, creating the profiles not stored yet. Lichess is called
+     * outside any transaction and the results are written in a single one.
+     *
+     * @param accounts The linked accounts of the users.
+     * @return The number of profiles refreshed or created.
+     */
+    int refreshLichessProfiles(Collection<LichessLinkedAccountDto> accounts);
+
     /**
      * Save lichess authorization.
      *
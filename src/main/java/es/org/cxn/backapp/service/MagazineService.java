@@ -34,7 +34,9 @@ import org.springframework.web.multipart.MultipartFile;
 import es.org.cxn.backapp.model.MagazineEntity;
 import es.org.cxn.backapp.model.form.requests.member_resources.AddMagazineRequestDto;
 import es.org.cxn.backapp.service.dto.MagazineDataImageDto;
+import es.org.cxn.backapp.service.dto.StoredImageDto;
 import es.org.cxn.backapp.service.exceptions.MagazineServiceException;
+import es.org.cxn.backapp.service.impl.storage.ImageVariant;
 
 /**
  * Interface for the service that handles magazines operations.
@@ -66,11 +68,12 @@ public interface MagazineService {
     /**
      * Find magazine's image.
      *
-     * @param issn The magazine issn aka identifier.
-     * @return The magazine image that matched provided issn.
+     * @param issn    The magazine issn aka identifier.
+     * @param variant The size to retrieve the image in.
+     * @return The magazine image that matched provided issn, backed by its file.
      * @throws MagazineServiceException When magazine image cannot be loaded.
      */
-    byte[] findImage(String issn) throws MagazineServiceException;
+    StoredImageDto findImage(String issn, ImageVariant variant) throws MagazineServiceException;
 
     /**
      * Retrieves a list of all magazines.
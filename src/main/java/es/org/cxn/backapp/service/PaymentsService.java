@@ -33,8 +33,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+import org.springframework.data.domain.Pageable;
+
 import es.org.cxn.backapp.model.PaymentsEntity;
 import es.org.cxn.backapp.model.persistence.payments.PaymentsCategory;
+import es.org.cxn.backapp.model.persistence.payments.PaymentsState;
+import es.org.cxn.backapp.service.dto.MembershipFeeRunDto;
 import es.org.cxn.backapp.service.dto.PaymentDetails;
 import es.org.cxn.backapp.service.exceptions.PaymentsServiceException;
 
@@ -99,6 +103,23 @@ public interface PaymentsService {
     PaymentsEntity createPayment(BigDecimal amount, PaymentsCategory category, String description, String title,
             String userDni) throws PaymentsServiceException;
 
+    /**
+     * Generates the membership fee of the given season for every enabled member
+     * whose kind of member pays a fee.
+     * <p>
+     * Members are processed by kind of member in chunks, each one inserted and
+     * notified in its own transaction. Members who already have the membership
+     * payment of the season are skipped, so the run can be repeated after an
+     * interruption and only bills the members left.
+     * </p>
+     *
+     * @param year the season to bill.
+     * @return the number of payments generated by this run.
+     * @throws PaymentsServiceException if the notification emails cannot be
+     *                                  rendered.
+     */
+    MembershipFeeRunDto generateMembershipFees(int year) throws PaymentsServiceException;
+
     /**
      * Finds a payment by its ID.
      *
@@ -128,6 +149,19 @@ public interface PaymentsService {
      */
     Map<String, List<PaymentDetails>> getAllUsersWithPayments();
 
+    /**
+     * Retrieves a page of the users having payments that match the given state
+     * and category, along with those payments. Users are ordered by DNI.
+     *
+     * @param state    the payment state, or {@code null} for any state.
+     * @param category the payment category, or {@code null} for any category.
+     * @param page     the page of users.
+     * @return a map where the key is the user's DNI and the value is the list of
+     *         their matching payments, in DNI order.
+     */
+    Map<String, List<PaymentDetails>> getUsersWithPayments(PaymentsState state, PaymentsCategory category,
+            Pageable page);
+
     /**
      * Retrieves all payments associated with a given user's DNI.
      * <p>
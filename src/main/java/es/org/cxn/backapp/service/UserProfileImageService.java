@@ -31,7 +31,9 @@ import org.springframework.web.multipart.MultipartFile;
 
 import es.org.cxn.backapp.model.form.responses.user.ProfileImageResponse;
 import es.org.cxn.backapp.model.persistence.user.PersistentUserEntity;
+import es.org.cxn.backapp.service.dto.StoredImageDto;
 import es.org.cxn.backapp.service.exceptions.UserServiceException;
+import es.org.cxn.backapp.service.impl.storage.ImageVariant;
 
 /**
  * Service interface for managing user profile images. Provides methods for
@@ -40,7 +42,9 @@ import es.org.cxn.backapp.service.exceptions.UserServiceException;
 public interface UserProfileImageService {
 
     /**
-     * Retrieves the profile image for a user identified by their DNI.
+     * Retrieves the profile image for a user identified by their DNI. For a stored
+     * image the URL addresses the image file endpoint and changes with the image
+     * content, so clients can cache the file; the file itself is not embedded.
      *
      * @param dni the DNI (Document Number of Identification) of the user whose
      *            profile image is being retrieved.
@@ -51,6 +55,27 @@ public interface UserProfileImageService {
      */
     ProfileImageResponse getProfileImage(String dni) throws UserServiceException;
 
+    /**
+     * Opens a stored profile image file by the digest of its content, to be served
+     * as is. The digest is the last segment of the URL of a stored image.
+     *
+     * @param digest  the SHA-256 digest of the image content, in hexadecimal.
+     * @param variant the size to retrieve the image in.
+     * @return the image file with its media type and validators.
+     * @throws UserServiceException if no user has a stored profile image with the
+     *                              digest or its file cannot be read.
+     */
+    StoredImageDto getStoredProfileImage(String digest, ImageVariant variant) throws UserServiceException;
+
+    /**
+     * Checks whether the stored profile image of a user has a digest.
+     *
+     * @param dni    the DNI of the user.
+     * @param digest the SHA-256 digest of the image content, in hexadecimal.
+     * @return {@code true} if the user has a stored profile image with the digest.
+     */
+    boolean hasStoredProfileImage(String dni, String digest);
+
     /**
      * Saves the profile image for a user using the provided URL. If an existing
      * profile image is stored for the user, it will be deleted from the filesystem
@@ -28,12 +28,17 @@ package es.org.cxn.backapp.service;
  */
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import es.org.cxn.backapp.model.UserEntity;
 import es.org.cxn.backapp.model.UserRoleName;
 import es.org.cxn.backapp.model.persistence.user.UserType;
+import es.org.cxn.backapp.service.dto.UserDirectoryFilterDto;
+import es.org.cxn.backapp.service.dto.UserDirectoryPageDto;
+import es.org.cxn.backapp.service.dto.UserDirectorySort;
 import es.org.cxn.backapp.service.dto.UserRegistrationDetailsDto;
 import es.org.cxn.backapp.service.dto.UserServiceUpdateDto;
+import es.org.cxn.backapp.service.dto.UserSummaryDto;
 import es.org.cxn.backapp.service.exceptions.UserServiceException;
 
 /**
@@ -143,6 +148,39 @@ public interface UserService {
      */
     List<UserEntity> getAll();
 
+    /**
+     * Retrieves the listing data of every user, ordered by DNI, with a constant
+     * number of queries whatever the number of users.
+     *
+     * @return the summary of every user.
+     */
+    List<UserSummaryDto> getAllSummaries();
+
+    /**
+     * Retrieves a page of the user directory, keyset paginated: each page starts
+     * right after the user the cursor points to, so browsing costs the same
+     * whatever the page.
+     *
+     * @param filter the filters, {@code null} components match every user.
+     * @param sort   the order of the directory.
+     * @param cursor the cursor returned with the previous page, or {@code null}
+     *               for the first page.
+     * @param limit  the maximum number of users of the page.
+     * @return the page, with the cursor of the next one.
+     * @throws UserServiceException if the cursor is not valid for the order.
+     */
+    UserDirectoryPageDto getDirectoryPage(UserDirectoryFilterDto filter, UserDirectorySort sort, String cursor,
+            int limit) throws UserServiceException;
+
+    /**
+     * Passes the summary of every user, with roles, to the given action in DNI
+     * order, streaming them from the database so memory use does not depend on
+     * the number of users.
+     *
+     * @param action the action performed for each user summary.
+     */
+    void forEachSummary(Consumer<UserSummaryDto> action);
+
     /**
      * Updates the user's password without requiring confirmation of the existing
      * password.
@@ -0,0 +1,53 @@
+package es.org.cxn.backapp.service.dto;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.time.Instant;
+import java.util.List;
+
+import es.org.cxn.backapp.model.LichessTimeControl;
+
+/**
+ * The top of the club leaderboard of a Lichess time control.
+ *
+ * @param timeControl  the time control.
+ * @param total        the number of ranked users.
+ * @param entries      the top users, in rank order.
+ * @param etag         the entity tag of the whole leaderboard.
+ * @param lastModified when a profile of the leaderboard was last updated, or
+ *                     {@code null} if it is empty.
+ */
+public record LichessLeaderboardDto(LichessTimeControl timeControl, int total, List<LichessLeaderboardEntryDto> entries,
+        String etag, Instant lastModified) {
+
+    /**
+     * Canonical constructor, keeping a copy of the entries.
+     */
+    public LichessLeaderboardDto {
+        entries = List.copyOf(entries);
+    }
+}
@@ -52,6 +52,59 @@ public record LichessProfileDto(String completeUserName, String identifier, Stri
         GameStatistics blitz, GameStatistics bullet, GameStatistics classical, GameStatistics rapid,
         GameStatistics puzzle) {
 
+    /**
+     * Constructor used by the repository projection, which reads the user name
+     * and the statistics as separate columns.
+     *
+     * @param name             the user's name.
+     * @param firstSurname     the user's first surname.
+     * @param secondSurname    the user's second surname.
+     * @param identifier       the unique identifier of the Lichess profile.
+     * @param username         the username of the Lichess profile.
+     * @param updatedAt        when the profile was last updated.
+     * @param blitzGames       the number of blitz games.
+     * @param blitzRating      the blitz rating.
+     * @param blitzRd          the blitz rating deviation.
+     * @param blitzProg        the blitz rating progress.
+     * @param blitzProv        whether the blitz rating is provisional.
+     * @param bulletGames      the number of bullet games.
+     * @param bulletRating     the bullet rating.
+     * @param bulletRd         the bullet rating deviation.
+     * @param bulletProg       the bullet rating progress.
+     * @param bulletProv       whether the bullet rating is provisional.
+     * @param classicalGames   the number of classical games.
+     * @param classicalRating  the classical rating.
+     * @param classicalRd      the classical rating deviation.
+     * @param classicalProg    the classical rating progress.
+     * @param classicalProv    whether the classical rating is provisional.
+     * @param rapidGames       the number of rapid games.
+     * @param rapidRating      the rapid rating.
+     * @param rapidRd          the rapid rating deviation.
+     * @param rapidProg        the rapid rating progress.
+     * @param rapidProv        whether the rapid rating is provisional.
+     * @param puzzleGames      the number of puzzles.
+     * @param puzzleRating     the puzzle rating.
+     * @param puzzleRd         the puzzle rating deviation.
+     * @param puzzleProg       the puzzle rating progress.
+     * @param puzzleProv       whether the puzzle rating is provisional.
+     */
+    public LichessProfileDto(final String name, final String firstSurname, final String secondSurname,
+            final String identifier, final String username, final LocalDateTime updatedAt, final Integer blitzGames,
+            final Integer blitzRating, final Integer blitzRd, final Integer blitzProg, final Boolean blitzProv,
+            final Integer bulletGames, final Integer bulletRating, final Integer bulletRd, final Integer bulletProg,
+            final Boolean bulletProv, final Integer classicalGames, final Integer classicalRating,
+            final Integer classicalRd, final Integer classicalProg, final Boolean classicalProv,
+            final Integer rapidGames, final Integer rapidRating, final Integer rapidRd, final Integer rapidProg,
+            final Boolean rapidProv, final Integer puzzleGames, final Integer puzzleRating, final Integer puzzleRd,
+            final Integer puzzleProg, final Boolean puzzleProv) {
+        this(name + " " + firstSurname + " " + secondSurname, identifier, username, updatedAt,
+                new GameStatistics(blitzGames, blitzRating, blitzRd, blitzProg, blitzProv),
+                new GameStatistics(bulletGames, bulletRating, bulletRd, bulletProg, bulletProv),
+                new GameStatistics(classicalGames, classicalRating, classicalRd, classicalProg, classicalProv),
+                new GameStatistics(rapidGames, rapidRating, rapidRd, rapidProg, rapidProv),
+                new GameStatistics(puzzleGames, puzzleRating, puzzleRd, puzzleProg, puzzleProv));
+    }
+
     /**
      * Represents game statistics for a particular category (e.g., blitz, bullet).
      * Contains details such as the number of games played, rating, rating deviation
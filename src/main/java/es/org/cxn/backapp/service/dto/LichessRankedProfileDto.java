@@ -0,0 +1,92 @@
+package es.org.cxn.backapp.service.dto;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.time.LocalDateTime;
+
+/**
+ * A stored Lichess profile with the DNI of its user, as read to build the
+ * leaderboard.
+ *
+ * @param userDni the user's DNI.
+ * @param profile the Lichess profile.
+ */
+public record LichessRankedProfileDto(String userDni, LichessProfileDto profile) {
+
+    /**
+     * Constructor used by the repository projection, with the columns of
+     * {@link LichessProfileDto}'s projection constructor after the DNI.
+     *
+     * @param userDni         the user's DNI.
+     * @param name            the user's name.
+     * @param firstSurname    the user's first surname.
+     * @param secondSurname   the user's second surname.
+     * @param identifier      the unique identifier of the Lichess profile.
+     * @param username        the username of the Lichess profile.
+     * @param updatedAt       when the profile was last updated.
+     * @param blitzGames      the number of blitz games.
+     * @param blitzRating     the blitz rating.
+     * @param blitzRd         the blitz rating deviation.
+     * @param blitzProg       the blitz rating progress.
+     * @param blitzProv       whether the blitz rating is provisional.
+     * @param bulletGames     the number of bullet games.
+     * @param bulletRating    the bullet rating.
+     * @param bulletRd        the bullet rating deviation.
+     * @param bulletProg      the bullet rating progress.
+     * @param bulletProv      whether the bullet rating is provisional.
+     * @param classicalGames  the number of classical games.
+     * @param classicalRating the classical rating.
+     * @param classicalRd     the classical rating deviation.
+     * @param classicalProg   the classical rating progress.
+     * @param classicalProv   whether the classical rating is provisional.
+     * @param rapidGames      the number of rapid games.
+     * @param rapidRating     the rapid rating.
+     * @param rapidRd         the rapid rating deviation.
+     * @param rapidProg       the rapid rating progress.
+     * @param rapidProv       whether the rapid rating is provisional.
+     * @param puzzleGames     the number of puzzles.
+     * @param puzzleRating    the puzzle rating.
+     * @param puzzleRd        the puzzle rating deviation.
+     * @param puzzleProg      the puzzle rating progress.
+     * @param puzzleProv      whether the puzzle rating is provisional.
+     */
+    public LichessRankedProfileDto(final String userDni, final String name, final String firstSurname,
+            final String secondSurname, final String identifier, final String username,
+            final LocalDateTime updatedAt, final Integer blitzGames, final Integer blitzRating, final Integer blitzRd,
+            final Integer blitzProg, final Boolean blitzProv, final Integer bulletGames, final Integer bulletRating,
+            final Integer bulletRd, final Integer bulletProg, final Boolean bulletProv, final Integer classicalGames,
+            final Integer classicalRating, final Integer classicalRd, final Integer classicalProg,
+            final Boolean classicalProv, final Integer rapidGames, final Integer rapidRating, final Integer rapidRd,
+            final Integer rapidProg, final Boolean rapidProv, final Integer puzzleGames, final Integer puzzleRating,
+            final Integer puzzleRd, final Integer puzzleProg, final Boolean puzzleProv) {
+        this(userDni, new LichessProfileDto(name, firstSurname, secondSurname, identifier, username, updatedAt,
+                blitzGames, blitzRating, blitzRd, blitzProg, blitzProv, bulletGames, bulletRating, bulletRd,
+                bulletProg, bulletProv, classicalGames, classicalRating, classicalRd, classicalProg, classicalProv,
+                rapidGames, rapidRating, rapidRd, rapidProg, rapidProv, puzzleGames, puzzleRating, puzzleRd,
+                puzzleProg, puzzleProv));
+    }
+}
@@ -0,0 +1,45 @@
+package es.org.cxn.backapp.service.dto;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import es.org.cxn.backapp.model.FederateState;
+import es.org.cxn.backapp.model.UserRoleName;
+import es.org.cxn.backapp.model.persistence.user.UserType;
+
+/**
+ * The filters of the user directory. A {@code null} filter matches every user.
+ *
+ * @param kindMember    only users of this kind of member.
+ * @param role          only users having this role.
+ * @param enabled       only enabled or disabled users.
+ * @param federateState only users in this federate state.
+ * @param teamName      only users assigned to this team.
+ */
+public record UserDirectoryFilterDto(UserType kindMember, UserRoleName role, Boolean enabled,
+        FederateState federateState, String teamName) {
+
+}
@@ -0,0 +1,73 @@
+package es.org.cxn.backapp.service.dto;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import es.org.cxn.backapp.model.persistence.payments.PaymentsCategory;
+import es.org.cxn.backapp.model.persistence.payments.PaymentsState;
+
+/**
+ * A row of the users and payments projection: a user's DNI along with the
+ * details of one of their payments. Users without payments are represented by
+ * a single row whose payment fields are all {@code null}.
+ *
+ * @param userDni     the DNI of the user.
+ * @param id          the payment identifier, or {@code null} if the user has no
+ *                    payments.
+ * @param title       the title of the payment.
+ * @param description the description of the payment.
+ * @param amount      the payment amount.
+ * @param category    the {@link PaymentsCategory} of the payment.
+ * @param state       the {@link PaymentsState} of the payment.
+ * @param createdAt   when the payment was created.
+ * @param paidAt      when the payment was completed, or {@code null} if not yet
+ *                    paid.
+ */
+public record UserPaymentDetails(String userDni, UUID id, String title, String description, BigDecimal amount,
+        PaymentsCategory category, PaymentsState state, LocalDateTime createdAt, LocalDateTime paidAt) {
+
+    /**
+     * Whether this row carries a payment.
+     *
+     * @return {@code false} for the row of a user without payments.
+     */
+    public boolean hasPayment() {
+        return id != null;
+    }
+
+    /**
+     * The payment details of this row.
+     *
+     * @return the {@link PaymentDetails} of the payment.
+     */
+    public PaymentDetails toPaymentDetails() {
+        return new PaymentDetails(id, title, description, amount, category, state, createdAt, paidAt);
+    }
+}
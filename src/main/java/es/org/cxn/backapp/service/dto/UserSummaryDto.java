@@ -0,0 +1,135 @@
+package es.org.cxn.backapp.service.dto;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+import es.org.cxn.backapp.model.FederateState;
+import es.org.cxn.backapp.model.UserRoleName;
+import es.org.cxn.backapp.model.persistence.user.UserType;
+
+/**
+ * A flat projection of the data shown in the users listing: the user, its
+ * address, teams, federate state and roles, read without loading the entity
+ * graph.
+ *
+ * @param dni               the user's DNI.
+ * @param name              the user's name.
+ * @param firstSurname      the user's first surname.
+ * @param secondSurname     the user's second surname.
+ * @param gender            the user's gender.
+ * @param birthDate         the user's birth date.
+ * @param email             the user's email.
+ * @param kindMember        the kind of member.
+ * @param postalCode        the address postal code.
+ * @param apartmentNumber   the address apartment number.
+ * @param building          the address building.
+ * @param street            the address street.
+ * @param city              the address city.
+ * @param countryName       the address country full name.
+ * @param subCountryName    the address country subdivision name.
+ * @param assignedTeamName  the name of the team the user is assigned to, or
+ *                          {@code null}.
+ * @param preferredTeamName the name of the team the user prefers, or
+ *                          {@code null}.
+ * @param federateState     the user's federate state.
+ * @param unsubscribeDate   when the user unsubscribed, or {@code null}.
+ * @param roles             the user's roles.
+ */
+public record UserSummaryDto(String dni, String name, String firstSurname, String secondSurname, String gender,
+        LocalDate birthDate, String email, UserType kindMember, String postalCode, String apartmentNumber,
+        String building, String street, String city, String countryName, String subCountryName,
+        String assignedTeamName, String preferredTeamName, FederateState federateState,
+        LocalDateTime unsubscribeDate, Set<UserRoleName> roles) {
+
+    /**
+     * Canonical constructor, keeping a copy of the roles.
+     */
+    public UserSummaryDto {
+        roles = roles.isEmpty() ? EnumSet.noneOf(UserRoleName.class) : EnumSet.copyOf(roles);
+    }
+
+    /**
+     * Constructor used by the repository projection, which reads the roles in a
+     * separate query.
+     *
+     * @param dni               the user's DNI.
+     * @param name              the user's name.
+     * @param firstSurname      the user's first surname.
+     * @param secondSurname     the user's second surname.
+     * @param gender            the user's gender.
+     * @param birthDate         the user's birth date.
+     * @param email             the user's email.
+     * @param kindMember        the kind of member.
+     * @param postalCode        the address postal code.
+     * @param apartmentNumber   the address apartment number.
+     * @param building          the address building.
+     * @param street            the address street.
+     * @param city              the address city.
+     * @param countryName       the address country full name.
+     * @param subCountryName    the address country subdivision name.
+     * @param assignedTeamName  the assigned team name, or {@code null}.
+     * @param preferredTeamName the preferred team name, or {@code null}.
+     * @param federateState     the user's federate state.
+     * @param unsubscribeDate   when the user unsubscribed, or {@code null}.
+     */
+    public UserSummaryDto(final String dni, final String name, final String firstSurname,
+            final String secondSurname, final String gender, final LocalDate birthDate, final String email,
+            final UserType kindMember, final String postalCode, final String apartmentNumber, final String building,
+            final String street, final String city, final String countryName, final String subCountryName,
+            final String assignedTeamName, final String preferredTeamName, final FederateState federateState,
+            final LocalDateTime unsubscribeDate) {
+        this(dni, name, firstSurname, secondSurname, gender, birthDate, email, kindMember, postalCode,
+                apartmentNumber, building, street, city, countryName, subCountryName, assignedTeamName,
+                preferredTeamName, federateState, unsubscribeDate, Set.of());
+    }
+
+    /**
+     * Returns a copy of this summary with the given roles.
+     *
+     * @param userRoles the user's roles.
+     * @return the summary with the roles.
+     */
+    public UserSummaryDto withRoles(final Set<UserRoleName> userRoles) {
+        return new UserSummaryDto(dni, name, firstSurname, secondSurname, gender, birthDate, email, kindMember,
+                postalCode, apartmentNumber, building, street, city, countryName, subCountryName, assignedTeamName,
+                preferredTeamName, federateState, unsubscribeDate, userRoles);
+    }
+
+    /**
+     * The user's roles.
+     *
+     * @return a copy of the roles.
+     */
+    @Override
+    public Set<UserRoleName> roles() {
+        return roles.isEmpty() ? EnumSet.noneOf(UserRoleName.class) : EnumSet.copyOf(roles);
+    }
+}
@@ -40,11 +40,13 @@ import es.org.cxn.backapp.model.persistence.PersistentActivityEntity;
 import es.org.cxn.backapp.repository.ActivityEntityRepository;
 import es.org.cxn.backapp.service.ActivitiesService;
 import es.org.cxn.backapp.service.dto.ActivityDto;
+import es.org.cxn.backapp.service.dto.StoredImageDto;
 import es.org.cxn.backapp.service.exceptions.activity.ActivityImageNotFoundException;
 import es.org.cxn.backapp.service.exceptions.activity.ActivityNotFoundException;
 import es.org.cxn.backapp.service.exceptions.activity.ActivityServiceException;
 import es.org.cxn.backapp.service.impl.storage.DefaultImageStorageService;
 import es.org.cxn.backapp.service.impl.storage.FileLocation;
+import es.org.cxn.backapp.service.impl.storage.ImageVariant;
 import jakarta.transaction.Transactional;
 
 /**
@@ -132,10 +134,11 @@ public final class DefaultActivitiesService implements ActivitiesService {
             try {
 
                 // Save the image file using the image storage service with specified parameters
-                final String imagePath = imageStorageService.saveImage(imageFile, FileLocation.ACTIVITY_IMAGES);
+                final var image = imageStorageService.storeImage(imageFile, FileLocation.ACTIVITY_IMAGES);
 
-                // Store the image path or URL in the activity entity
-                activityEntity.setImageSrc(imagePath);
+                // Store the image path and its media type in the activity entity
+                activityEntity.setImageSrc(image.path());
+                activityEntity.setImageContentType(image.contentType());
 
             } catch (IOException e) {
                 throw new ActivityServiceException("Error saving activity image: " + e.getMessage(), e);
@@ -168,15 +171,17 @@ public final class DefaultActivitiesService implements ActivitiesService {
     /**
      * Retrieves an activity's image by its title.
      *
-     * @param title the activity title, used to locate the associated image file.
-     * @return the {@link MultipartFile} representing the image file.
+     * @param title   the activity title, used to locate the associated image
+     *                file.
+     * @param variant the size to retrieve the image in.
+     * @return the image, backed by its file.
      * @throws ActivityServiceException       Image loading error (I/O, etc.)
      * @throws ActivityImageNotFoundException Activity exists but no image is
      *                                        assigned
      * @throws ActivityNotFoundException      Activity does not exist
      */
     @Override
-    public byte[] getActivityImage(final String title)
+    public StoredImageDto getActivityImage(final String title, final ImageVariant variant)
             throws ActivityNotFoundException, ActivityImageNotFoundException, ActivityServiceException {
         final var activityOptional = activityRepository.findById(title);
 
@@ -194,7 +199,7 @@ public final class DefaultActivitiesService implements ActivitiesService {
 
         try {
             // Case 3: Activity exists and has an image
-            return imageStorageService.loadImage(activity.getImageSrc());
+            return imageStorageService.openImage(activity.getImageSrc(), activity.getImageContentType(), variant);
 
         } catch (IOException e) {
             throw new ActivityServiceException("Error loading activity image: " + e.getMessage(), e);
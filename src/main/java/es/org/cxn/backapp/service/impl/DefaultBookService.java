@@ -49,8 +49,10 @@ import es.org.cxn.backapp.service.BookService;
 import es.org.cxn.backapp.service.ImageStorageService;
 import es.org.cxn.backapp.service.dto.AuthorDataDto;
 import es.org.cxn.backapp.service.dto.BookDataImageDto;
+import es.org.cxn.backapp.service.dto.StoredImageDto;
 import es.org.cxn.backapp.service.exceptions.BookServiceException;
 import es.org.cxn.backapp.service.impl.storage.FileLocation;
+import es.org.cxn.backapp.service.impl.storage.ImageVariant;
 import jakarta.transaction.Transactional;
 
 /**
@@ -134,8 +136,9 @@ public class DefaultBookService implements BookService {
             }
         });
         try {
-            final var imageSoruce = imageStorageService.saveImage(imageCover, FileLocation.BOOK_COVERS);
-            book.setCoverSrc(imageSoruce);
+            final var cover = imageStorageService.storeImage(imageCover, FileLocation.BOOK_COVERS);
+            book.setCoverSrc(cover.path());
+            book.setCoverContentType(cover.contentType());
         } catch (IOException ex) {
             throw new BookServiceException("Book cover cannot be saved", ex);
         }
@@ -167,16 +170,17 @@ public class DefaultBookService implements BookService {
     /**
      * Retrieves the image of a book cover using its ISBN.
      *
-     * @param isbn the ISBN of the book
-     * @return a byte array containing the book cover image
+     * @param isbn    the ISBN of the book
+     * @param variant the size to retrieve the image in
+     * @return the book cover image, backed by its file
      * @throws BookServiceException if the book is not found or if the image cannot
      *                              be loaded
      */
     @Override
-    public byte[] findImage(final String isbn) throws BookServiceException {
+    public StoredImageDto findImage(final String isbn, final ImageVariant variant) throws BookServiceException {
         final var book = find(isbn);
         try {
-            return imageStorageService.loadImage(book.getCoverSrc());
+            return imageStorageService.openImage(book.getCoverSrc(), book.getCoverContentType(), variant);
         } catch (IOException e) {
             throw new BookServiceException(e.getMessage(), e);
         }
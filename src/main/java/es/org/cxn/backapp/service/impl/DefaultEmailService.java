@@ -28,26 +28,26 @@ package es.org.cxn.backapp.service.impl;
  */
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
-import org.apache.commons.text.StringSubstitutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
 import es.org.cxn.backapp.service.EmailService;
-import jakarta.mail.Message.RecipientType;
+import es.org.cxn.backapp.service.dto.GeneratedPaymentNoticeDto;
+import es.org.cxn.backapp.service.impl.mail.EmailOutbox;
+import es.org.cxn.backapp.service.impl.mail.EmailTemplateRegistry;
 import jakarta.mail.MessagingException;
-import jakarta.mail.internet.InternetAddress;
 
 /**
- * Implementation of {@link EmailService} for sending email's. Provides a method
- * to send simple email's using {@link JavaMailSender}.
+ * Implementation of {@link EmailService} for sending email's. Renders each
+ * email and queues it in the {@link EmailOutbox}, which sends it with
+ * {@link JavaMailSender} after the caller's transaction commits.
  */
 @Service
 public class DefaultEmailService implements EmailService {
@@ -57,35 +57,44 @@ public class DefaultEmailService implements EmailService {
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultEmailService.class);
 
+    /**
+     * The subject of the generated payment email.
+     */
+    private static final String GENERATED_PAYMENT_SUBJECT = "CXN: Pago generado";
+
+    /**
+     * The template of the generated payment email.
+     */
+    private static final String GENERATED_PAYMENT_TEMPLATE = "mailTemplates/GeneratedPaymentEmail.html";
+
     /**
      * The JavaMailSender instance used for sending emails.
      */
     private final Optional<JavaMailSender> mailSender;
 
+    /**
+     * The outbox where rendered emails are queued.
+     */
+    private final EmailOutbox outbox;
+
+    /**
+     * The compiled email templates.
+     */
+    private final EmailTemplateRegistry templates;
+
     /**
      * Main service constructor.
      *
      * @param mailSender The mail java mail sender implementation.Can be null when
      *                   no email service is provided by JavaMail config.
+     * @param outbox     The outbox where rendered emails are queued.
+     * @param templates  The compiled email templates.
      */
-    public DefaultEmailService(final Optional<JavaMailSender> mailSender) {
+    public DefaultEmailService(final Optional<JavaMailSender> mailSender, final EmailOutbox outbox,
+            final EmailTemplateRegistry templates) {
         this.mailSender = mailSender;
-    }
-
-    /**
-     * Loads an HTML email template from the classpath.
-     *
-     * @param templatePath The path to the template file on the classpath.
-     * @return The content of the email template as a string.
-     * @throws IOException If there is an error reading the template file.
-     */
-    private String loadEmailTemplate(final String templatePath) throws IOException {
-        final ClassPathResource resource = new ClassPathResource(templatePath);
-        try (var inputStream = resource.getInputStream();
-                var reader = new java.io.InputStreamReader(inputStream, StandardCharsets.UTF_8);
-                var bufferedReader = new java.io.BufferedReader(reader)) {
-            return bufferedReader.lines().collect(Collectors.joining("\n"));
-        }
+        this.outbox = Objects.requireNonNull(outbox, "Received a null pointer as email outbox.");
+        this.templates = Objects.requireNonNull(templates, "Received a null pointer as email templates.");
     }
 
     /**
@@ -121,31 +130,21 @@ public class DefaultEmailService implements EmailService {
     }
 
     /**
-     * Sends an email with the specified details.
+     * Renders an email and queues it for delivery after the current transaction
+     * commits.
      *
      * @param toEmail      The recipient's email address.
      * @param subject      The subject of the email.
      * @param templatePath The path to the email template.
      * @param placeholders A map of placeholders to replace in the template.
-     * @throws MessagingException If there is an error while composing or sending
-     *                            the email.
-     * @throws IOException        If there is an error reading the email template.
+     * @throws IOException If the email template does not exist.
      */
     private void sendEmail(final String toEmail, final String subject, final String templatePath,
-            final Map<String, String> placeholders) throws MessagingException, IOException {
+            final Map<String, String> placeholders) throws IOException {
         if (mailSender.isEmpty()) {
             LOGGER.warn("No email send!");
         } else {
-            final var message = mailSender.get().createMimeMessage();
-            message.setFrom(new InternetAddress("principal@xadreznaron.es", "Xadrez Narón"));
-            message.setRecipients(RecipientType.TO, toEmail);
-            message.setSubject(subject);
-
-            final String htmlTemplate = loadEmailTemplate(templatePath);
-            final String formattedHtml = StringSubstitutor.replace(htmlTemplate, placeholders);
-
-            message.setContent(formattedHtml, "text/html; charset=utf-8");
-            mailSender.get().send(message);
+            outbox.enqueue(toEmail, subject, templates.get(templatePath).render(placeholders));
         }
     }
 
@@ -162,9 +161,35 @@ public class DefaultEmailService implements EmailService {
     @Override
     public void sendGeneratedPayment(final String toEmail, final String memberName, final String paymentTitle,
             final String paymentDescription, final String paymentAmount) throws MessagingException, IOException {
-        sendEmail(toEmail, "CXN: Pago generado", "mailTemplates/GeneratedPaymentEmail.html",
-                Map.of("name", memberName, "paymentTitle", paymentTitle, "paymentDescription", paymentDescription,
-                        "paymentAmount", paymentAmount));
+        sendEmail(toEmail, GENERATED_PAYMENT_SUBJECT, GENERATED_PAYMENT_TEMPLATE,
+                generatedPaymentPlaceholders(memberName, paymentTitle, paymentDescription, paymentAmount));
+    }
+
+    /**
+     * Renders every notification with the generated payment template and queues
+     * them in a single outbox batch.
+     *
+     * @param notices the notifications, one per generated payment.
+     * @throws IOException If there is an error reading the email template.
+     */
+    @Override
+    public void sendGeneratedPayments(final List<GeneratedPaymentNoticeDto> notices) throws IOException {
+        if (mailSender.isEmpty()) {
+            LOGGER.warn("No email send!");
+            return;
+        }
+        final var template = templates.get(GENERATED_PAYMENT_TEMPLATE);
+        outbox.enqueueAll(notices.stream()
+                .map(notice -> new EmailOutbox.QueuedEmail(notice.toEmail(), GENERATED_PAYMENT_SUBJECT,
+                        template.render(generatedPaymentPlaceholders(notice.memberName(), notice.paymentTitle(),
+                                notice.paymentDescription(), notice.paymentAmount()))))
+                .toList());
+    }
+
+    private static Map<String, String> generatedPaymentPlaceholders(final String memberName,
+            final String paymentTitle, final String paymentDescription, final String paymentAmount) {
+        return Map.of("name", memberName, "paymentTitle", paymentTitle, "paymentDescription", paymentDescription,
+                "paymentAmount", paymentAmount);
     }
 
     /**
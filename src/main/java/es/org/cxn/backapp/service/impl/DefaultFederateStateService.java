@@ -27,11 +27,16 @@ package es.org.cxn.backapp.service.impl;
  */
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -46,6 +51,8 @@ import es.org.cxn.backapp.service.FederateStateService;
 import es.org.cxn.backapp.service.ImageStorageService;
 import es.org.cxn.backapp.service.PaymentsService;
 import es.org.cxn.backapp.service.UserService;
+import es.org.cxn.backapp.service.dto.StoredImageDto;
+import es.org.cxn.backapp.service.dto.UserDniImageFilesDto;
 import es.org.cxn.backapp.service.dto.UserDniImagesDto;
 import es.org.cxn.backapp.service.exceptions.FederateStateServiceException;
 import es.org.cxn.backapp.service.exceptions.PaymentsServiceException;
@@ -61,6 +68,8 @@ import jakarta.transaction.Transactional;
  *
  * This class interacts with the FederateStateEntityRepository to persist
  * federate state changes and the UserService to retrieve user details.
+ * The front and back DNI images are stored and loaded concurrently, each on its
+ * own virtual thread.
  *
  * @see es.org.cxn.backapp.service.FederateStateService
  * @see es.org.cxn.backapp.repository.FederateStateEntityRepository
@@ -244,11 +253,12 @@ public final class DefaultFederateStateService implements FederateStateService {
 
             try {
                 // Use ImageStorageService to save the front and back DNI images
-                final String frontUrl = imageStorageService.saveImage(frontDniFile, FileLocation.DNI, user.getDni());
-                final String backUrl = imageStorageService.saveImage(backDniFile, FileLocation.DNI, user.getDni());
+                final List<String> urls = bothConcurrently(
+                        () -> imageStorageService.saveImage(frontDniFile, FileLocation.DNI, userDni),
+                        () -> imageStorageService.saveImage(backDniFile, FileLocation.DNI, userDni));
 
-                federateStateEntity.setDniFrontImageUrl(frontUrl);
-                federateStateEntity.setDniBackImageUrl(backUrl);
+                federateStateEntity.setDniFrontImageUrl(urls.get(0));
+                federateStateEntity.setDniBackImageUrl(urls.get(1));
 
                 if (federateStateEntity.getState() == FederateState.NO_FEDERATE) {
                     federateStateEntity.setState(FederateState.IN_PROGRESS);
@@ -284,23 +294,54 @@ public final class DefaultFederateStateService implements FederateStateService {
      */
     @Override
     public UserDniImagesDto getDniImages(final String userDni) throws FederateStateServiceException {
-        final var federateStateOpt = federateStateRepository.findById(userDni);
-        if (federateStateOpt.isEmpty()) {
-            throw new FederateStateServiceException("User with DNI: " + userDni + " no have federate state.");
+        final var federateStateEntity = getDniFederateState(userDni);
+        final String frontDniImageUrl = federateStateEntity.getDniFrontImageUrl();
+        final String backDniImageUrl = federateStateEntity.getDniBackImageUrl();
+
+        try {
+            final List<byte[]> images = bothConcurrently(() -> imageStorageService.loadImage(frontDniImageUrl),
+                    () -> imageStorageService.loadImage(backDniImageUrl));
+            return new UserDniImagesDto(images.get(0), images.get(1));
+        } catch (IOException e) {
+            throw new FederateStateServiceException("User with DNI: " + userDni + " DNI images cannot be loaded.", e);
         }
-        final var federateStateEntity = federateStateOpt.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public UserDniImageFilesDto getDniImageFiles(final String userDni) throws FederateStateServiceException {
+        final var federateStateEntity = getDniFederateState(userDni);
         final String frontDniImageUrl = federateStateEntity.getDniFrontImageUrl();
         final String backDniImageUrl = federateStateEntity.getDniBackImageUrl();
 
         try {
-            final byte[] frontDniImage = imageStorageService.loadImage(frontDniImageUrl);
-            final byte[] backDniImage = imageStorageService.loadImage(backDniImageUrl);
-            return new UserDniImagesDto(frontDniImage, backDniImage);
+            final List<StoredImageDto> images = bothConcurrently(
+                    () -> imageStorageService.openImage(frontDniImageUrl, null),
+                    () -> imageStorageService.openImage(backDniImageUrl, null));
+            return new UserDniImageFilesDto(images.get(0), images.get(1));
         } catch (IOException e) {
             throw new FederateStateServiceException("User with DNI: " + userDni + " DNI images cannot be loaded.", e);
         }
     }
 
+    /**
+     * Finds the federate state holding the DNI images of a user.
+     *
+     * @param userDni The user identifier.
+     * @return The federate state of the user.
+     * @throws FederateStateServiceException When the user has no federate state.
+     */
+    private PersistentFederateStateEntity getDniFederateState(final String userDni)
+            throws FederateStateServiceException {
+        final var federateStateOpt = federateStateRepository.findById(userDni);
+        if (federateStateOpt.isEmpty()) {
+            throw new FederateStateServiceException("User with DNI: " + userDni + " no have federate state.");
+        }
+        return federateStateOpt.get();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -359,13 +400,12 @@ public final class DefaultFederateStateService implements FederateStateService {
 
             try {
                 // Use ImageStorageService to save the front and back DNI images
-                final String frontUrl = imageStorageService.saveImage(frontDniFile, FileLocation.DNI,
-                        userEntity.getDni());
-                final String backUrl = imageStorageService.saveImage(backDniFile, FileLocation.DNI,
-                        userEntity.getDni());
+                final List<String> urls = bothConcurrently(
+                        () -> imageStorageService.saveImage(frontDniFile, FileLocation.DNI, userDni),
+                        () -> imageStorageService.saveImage(backDniFile, FileLocation.DNI, userDni));
 
-                federateStateEntity.setDniFrontImageUrl(frontUrl);
-                federateStateEntity.setDniBackImageUrl(backUrl);
+                federateStateEntity.setDniFrontImageUrl(urls.get(0));
+                federateStateEntity.setDniBackImageUrl(urls.get(1));
 
                 return federateStateRepository.save(federateStateEntity);
             } catch (IOException e) {
@@ -376,4 +416,33 @@ public final class DefaultFederateStateService implements FederateStateService {
         }
     }
 
+    /**
+     * Runs the work on the front and back DNI images at the same time, each on its
+     * own virtual thread, and waits for both.
+     *
+     * @param <T>   the result type.
+     * @param front the work on the front image.
+     * @param back  the work on the back image.
+     * @return the front and back results, in that order.
+     * @throws IOException if either fails, or the wait is interrupted.
+     */
+    private static <T> List<T> bothConcurrently(final Callable<T> front, final Callable<T> back)
+            throws IOException {
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            final Future<T> frontResult = executor.submit(front);
+            final Future<T> backResult = executor.submit(back);
+            return List.of(frontResult.get(), backResult.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while handling DNI images");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
 }
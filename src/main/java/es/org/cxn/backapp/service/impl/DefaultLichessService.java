@@ -28,9 +28,20 @@ package es.org.cxn.backapp.service.impl;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.google.common.collect.Lists;
 
 import es.org.cxn.backapp.model.persistence.PersistentLichessAuthEntity;
 import es.org.cxn.backapp.model.persistence.PersistentLichessProfileEntity;
@@ -41,9 +52,12 @@ import es.org.cxn.backapp.repository.LichessEntityRepository;
 import es.org.cxn.backapp.repository.OAuthAuthorizationRequestRepository;
 import es.org.cxn.backapp.repository.UserEntityRepository;
 import es.org.cxn.backapp.service.LichessService;
+import es.org.cxn.backapp.service.dto.LichessLinkedAccountDto;
 import es.org.cxn.backapp.service.dto.LichessProfileDto;
 import es.org.cxn.backapp.service.dto.LichessSaveProfileDto;
 import es.org.cxn.backapp.service.exceptions.LichessServiceException;
+import es.org.cxn.backapp.service.impl.lichess.LichessApiClient;
+import es.org.cxn.backapp.service.impl.lichess.LichessLeaderboard;
 import jakarta.transaction.Transactional;
 
 /**
@@ -52,6 +66,11 @@ import jakarta.transaction.Transactional;
 @Service
 public class DefaultLichessService implements LichessService {
 
+    /**
+     * The service logger.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(DefaultLichessService.class);
+
     /**
      * The lichess authentication repository.
      */
@@ -72,6 +91,21 @@ public class DefaultLichessService implements LichessService {
      */
     private final LichessEntityRepository lichessEntityRepository;
 
+    /**
+     * The Lichess API client.
+     */
+    private final LichessApiClient lichessApiClient;
+
+    /**
+     * The club leaderboard, invalidated when profiles change.
+     */
+    private final LichessLeaderboard lichessLeaderboard;
+
+    /**
+     * Runs the short transaction writing refreshed profiles.
+     */
+    private final TransactionTemplate transactionTemplate;
+
     /**
      * Builds this service. Main constructor.
      *
@@ -79,14 +113,22 @@ public class DefaultLichessService implements LichessService {
      * @param oAuthAuthorizationRequestRepo The Lichess authorization repository.
      * @param userEntityRepo                The user entity repository.
      * @param lichessEntityRepo             The lichess profile entity repository.
+     * @param apiClient                     The Lichess API client.
+     * @param leaderboard                   The club leaderboard.
+     * @param txTemplate                    The transaction template.
      */
     public DefaultLichessService(final LichessAuthRepository lichessAuthRepo,
             final OAuthAuthorizationRequestRepository oAuthAuthorizationRequestRepo,
-            final UserEntityRepository userEntityRepo, final LichessEntityRepository lichessEntityRepo) {
+            final UserEntityRepository userEntityRepo, final LichessEntityRepository lichessEntityRepo,
+            final LichessApiClient apiClient, final LichessLeaderboard leaderboard,
+            final TransactionTemplate txTemplate) {
         lichessAuthRepository = lichessAuthRepo;
         oAuthAuthorizationRequestRepository = oAuthAuthorizationRequestRepo;
         userEntityRepository = userEntityRepo;
         lichessEntityRepository = lichessEntityRepo;
+        lichessApiClient = apiClient;
+        lichessLeaderboard = leaderboard;
+        transactionTemplate = txTemplate;
     }
 
     /**
@@ -202,45 +244,12 @@ public class DefaultLichessService implements LichessService {
     }
 
     /**
-     * Get all lichess profiles and return data as List of dto.
+     * Get all lichess profiles and return data as List of dto. The profiles and
+     * the names of their users are read in a single query.
      */
     @Override
     public List<LichessProfileDto> getLichessProfiles() {
-        final List<PersistentLichessProfileEntity> entitiesList = lichessEntityRepository.findAll();
-        final List<LichessProfileDto> dtoList = new ArrayList<>();
-
-        entitiesList.forEach((PersistentLichessProfileEntity entity) -> {
-            final var user = userEntityRepository.findByDni(entity.getUserDni());
-            final var userEntity = user.get();
-
-            // Map statistics from entity to GameStatistics DTO
-            final LichessProfileDto.GameStatistics blitzStats = new LichessProfileDto.GameStatistics(
-                    entity.getBlitzGames(), entity.getBlitzRating(), entity.getBlitzRd(), entity.getBlitzProg(),
-                    entity.isBlitzProv());
-
-            final LichessProfileDto.GameStatistics bulletStats = new LichessProfileDto.GameStatistics(
-                    entity.getBulletGames(), entity.getBulletRating(), entity.getBulletRd(), entity.getBulletProg(),
-                    entity.isBulletProv());
-
-            final LichessProfileDto.GameStatistics classicalStats = new LichessProfileDto.GameStatistics(
-                    entity.getClassicalGames(), entity.getClassicalRating(), entity.getClassicalRd(),
-                    entity.getClassicalProg(), entity.isClassicalProv());
-
-            final LichessProfileDto.GameStatistics rapidStats = new LichessProfileDto.GameStatistics(
-                    entity.getRapidGames(), entity.getRapidRating(), entity.getRapidRd(), entity.getRapidProg(),
-                    entity.isRapidProv());
-
-            final LichessProfileDto.GameStatistics puzzleStats = new LichessProfileDto.GameStatistics(
-                    entity.getPuzzleGames(), entity.getPuzzleRating(), entity.getPuzzleRd(), entity.getPuzzleProg(),
-                    entity.isPuzzleProv());
-
-            // Create LichessProfileDto
-            dtoList.add(
-                    new LichessProfileDto(userEntity.getCompleteName(), entity.getIdentifier(), entity.getUsername(),
-                            entity.getUpdatedAt(), blitzStats, bulletStats, classicalStats, rapidStats, puzzleStats));
-        });
-
-        return dtoList;
+        return lichessEntityRepository.findAllProfiles();
     }
 
     /**
@@ -258,6 +267,87 @@ public class DefaultLichessService implements LichessService {
         return userOptional.get();
     }
 
+    /**
+     * Refreshes the stored Lichess profiles of several users. Stored profiles are
+     * fetched by their Lichess id in requests of up to
+     * {@link LichessApiClient#MAX_USERS_PER_REQUEST} users, and users without a
+     * stored profile yet are fetched with their own token so it is created.
+     * Lichess is called with no transaction open; the fetched profiles are then
+     * written in a single short transaction. Profiles whose request fails, or
+     * that Lichess no longer knows, keep their data.
+     *
+     * @param accounts The linked accounts of the users.
+     * @return The number of profiles refreshed or created.
+     */
+    @Override
+    public int refreshLichessProfiles(final Collection<LichessLinkedAccountDto> accounts) {
+        final Map<String, String> dnisById = new HashMap<>();
+        final Set<String> storedDnis = new HashSet<>();
+        for (final PersistentLichessProfileEntity entity : lichessEntityRepository
+                .findAllById(accounts.stream().map(LichessLinkedAccountDto::userDni).toList())) {
+            final String identifier = entity.getIdentifier();
+            if (identifier != null && !identifier.isBlank()) {
+                dnisById.put(identifier.toLowerCase(Locale.ROOT), entity.getUserDni());
+                storedDnis.add(entity.getUserDni());
+            }
+        }
+
+        final Map<String, LichessSaveProfileDto> fetched = new HashMap<>();
+        for (final List<String> ids : Lists.partition(new ArrayList<>(dnisById.keySet()),
+                LichessApiClient.MAX_USERS_PER_REQUEST)) {
+            try {
+                lichessApiClient.getUsers(ids, profile -> {
+                    final String userDni = dnisById.get(profile.identifier().toLowerCase(Locale.ROOT));
+                    if (userDni != null) {
+                        fetched.put(userDni, profile);
+                    }
+                });
+            } catch (LichessServiceException e) {
+                LOGGER.warn("Cannot refresh {} Lichess profiles: {}", ids.size(), e.getMessage());
+            }
+        }
+        for (final LichessLinkedAccountDto account : accounts) {
+            if (!storedDnis.contains(account.userDni())) {
+                try {
+                    fetched.put(account.userDni(),
+                            lichessApiClient.getAccount(account.accessToken(), account.userEmail()));
+                } catch (LichessServiceException e) {
+                    LOGGER.warn("Cannot fetch the Lichess profile of {}: {}", account.userEmail(), e.getMessage());
+                }
+            }
+        }
+
+        if (fetched.isEmpty()) {
+            return 0;
+        }
+        transactionTemplate.executeWithoutResult(status -> saveFetchedProfiles(fetched));
+        return fetched.size();
+    }
+
+    /**
+     * Writes fetched Lichess profiles, updating the stored ones and creating the
+     * missing ones, and invalidates the leaderboard once the transaction commits.
+     *
+     * @param profilesByDni The fetched profiles by user DNI.
+     */
+    private void saveFetchedProfiles(final Map<String, LichessSaveProfileDto> profilesByDni) {
+        final Map<String, PersistentLichessProfileEntity> stored = new HashMap<>();
+        lichessEntityRepository.findAllById(profilesByDni.keySet())
+                .forEach(entity -> stored.put(entity.getUserDni(), entity));
+        final List<PersistentLichessProfileEntity> created = new ArrayList<>();
+        profilesByDni.forEach((userDni, profile) -> {
+            var entity = stored.get(userDni);
+            if (entity == null) {
+                entity = new PersistentLichessProfileEntity();
+                entity.setUserDni(userDni);
+                created.add(entity);
+            }
+            mapProfile(profile, entity);
+        });
+        lichessEntityRepository.saveAll(created);
+        lichessLeaderboard.invalidate();
+    }
+
     /**
      * Save Authorization token with other data related to user.
      *
@@ -302,19 +392,13 @@ public class DefaultLichessService implements LichessService {
     }
 
     /**
+     * Copies the profile data and game statistics of a dto to a profile entity.
      *
-     * @param dto The dto with profile data params.
-     * @return The Lichess profile entity stored.
-     * @throws LichessServiceException When user with provided email not found.
+     * @param dto    The dto with profile data params.
+     * @param entity The profile entity to update.
      */
-    @Override
-    public PersistentLichessProfileEntity saveLichessProfile(final LichessSaveProfileDto dto)
-            throws LichessServiceException {
-        final PersistentLichessProfileEntity entity = new PersistentLichessProfileEntity();
-        final var userEntity = getUserByEmail(dto.userEmail());
-
+    private static void mapProfile(final LichessSaveProfileDto dto, final PersistentLichessProfileEntity entity) {
         // Map main fields
-        entity.setUserDni(userEntity.getDni());
         entity.setIdentifier(dto.identifier());
         entity.setUsername(dto.username());
         entity.setUpdatedAt(LocalDateTime.now());
@@ -354,8 +438,26 @@ public class DefaultLichessService implements LichessService {
         entity.setPuzzleProg(dto.puzzle().prog());
         entity.setPuzzleProv(dto.puzzle().prov());
 
+    }
+
+    /**
+     *
+     * @param dto The dto with profile data params.
+     * @return The Lichess profile entity stored.
+     * @throws LichessServiceException When user with provided email not found.
+     */
+    @Override
+    public PersistentLichessProfileEntity saveLichessProfile(final LichessSaveProfileDto dto)
+            throws LichessServiceException {
+        final PersistentLichessProfileEntity entity = new PersistentLichessProfileEntity();
+        final var userEntity = getUserByEmail(dto.userEmail());
+        entity.setUserDni(userEntity.getDni());
+        mapProfile(dto, entity);
+
         // Save the entity to the repository
-        return lichessEntityRepository.save(entity);
+        final var saved = lichessEntityRepository.save(entity);
+        lichessLeaderboard.invalidate();
+        return saved;
     }
 
     /**
@@ -49,8 +49,10 @@ import es.org.cxn.backapp.service.ImageStorageService;
 import es.org.cxn.backapp.service.MagazineService;
 import es.org.cxn.backapp.service.dto.AuthorDataDto;
 import es.org.cxn.backapp.service.dto.MagazineDataImageDto;
+import es.org.cxn.backapp.service.dto.StoredImageDto;
 import es.org.cxn.backapp.service.exceptions.MagazineServiceException;
 import es.org.cxn.backapp.service.impl.storage.FileLocation;
+import es.org.cxn.backapp.service.impl.storage.ImageVariant;
 import jakarta.transaction.Transactional;
 
 /**
@@ -136,8 +138,9 @@ public class DefaultMagazineService implements MagazineService {
             }
         });
         try {
-            final var imageSoruce = imageStorageService.saveImage(imageCover, FileLocation.MAGAZINE_COVERS);
-            magazine.setCoverSrc(imageSoruce);
+            final var cover = imageStorageService.storeImage(imageCover, FileLocation.MAGAZINE_COVERS);
+            magazine.setCoverSrc(cover.path());
+            magazine.setCoverContentType(cover.contentType());
         } catch (IOException ex) {
             throw new MagazineServiceException("Magazine cover cannot be saved", ex);
         }
@@ -166,10 +169,10 @@ public class DefaultMagazineService implements MagazineService {
      * Find image using magazine isbn.
      */
     @Override
-    public byte[] findImage(final String isbn) throws MagazineServiceException {
+    public StoredImageDto findImage(final String isbn, final ImageVariant variant) throws MagazineServiceException {
         final var magazine = find(isbn);
         try {
-            return imageStorageService.loadImage(magazine.getCoverSrc());
+            return imageStorageService.openImage(magazine.getCoverSrc(), magazine.getCoverContentType(), variant);
         } catch (IOException e) {
             throw new MagazineServiceException(e.getMessage(), e);
         }
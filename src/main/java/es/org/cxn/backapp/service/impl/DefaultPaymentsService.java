@@ -27,29 +27,39 @@ package es.org.cxn.backapp.service.impl;
  */
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import es.org.cxn.backapp.model.PaymentsEntity;
-import es.org.cxn.backapp.model.UserEntity;
+import es.org.cxn.backapp.model.UserRoleName;
 import es.org.cxn.backapp.model.persistence.payments.PaymentsCategory;
 import es.org.cxn.backapp.model.persistence.payments.PaymentsState;
 import es.org.cxn.backapp.model.persistence.payments.PersistentPaymentsEntity;
 import es.org.cxn.backapp.model.persistence.user.PersistentUserEntity;
+import es.org.cxn.backapp.model.persistence.user.UserType;
 import es.org.cxn.backapp.repository.PaymentsEntityRepository;
 import es.org.cxn.backapp.repository.UserEntityRepository;
 import es.org.cxn.backapp.service.EmailService;
 import es.org.cxn.backapp.service.PaymentsService;
+import es.org.cxn.backapp.service.dto.GeneratedPaymentNoticeDto;
+import es.org.cxn.backapp.service.dto.MembershipFeeRunDto;
 import es.org.cxn.backapp.service.dto.PaymentDetails;
+import es.org.cxn.backapp.service.dto.UserPaymentDetails;
 import es.org.cxn.backapp.service.exceptions.PaymentsServiceException;
 import jakarta.mail.MessagingException;
 import jakarta.transaction.Transactional;
@@ -70,6 +80,42 @@ import jakarta.transaction.Transactional;
 @Service
 public final class DefaultPaymentsService implements PaymentsService {
 
+    /**
+     * The title of the membership fee payments.
+     */
+    public static final String MEMBERSHIP_PAYMENT_TITLE = "Cuota socio";
+
+    /**
+     * Members processed per chunk of the membership fee run.
+     */
+    public static final int MEMBERSHIP_FEE_CHUNK_SIZE = 200;
+
+    /**
+     * The membership fee of every kind of member that pays one.
+     */
+    private static final Map<UserType, BigDecimal> MEMBERSHIP_FEES = new EnumMap<>(
+            Map.of(UserType.SOCIO_NUMERO, BigDecimal.valueOf(DefaultUserService.SOCIO_NUMERARIO_PAYMENT_AMOUNT),
+                    UserType.SOCIO_ASPIRANTE, BigDecimal.valueOf(DefaultUserService.SOCIO_ASPIRANTE_PAYMENT_AMOUNT)));
+
+    /**
+     * Next chunk of enabled, accepted members of a kind who have no membership
+     * payment of the season yet, keyset paginated by dni.
+     */
+    private static final String FIND_UNBILLED_MEMBERS_SQL = "SELECT u.dni, u.email, u.name, u.first_surname,"
+            + " u.second_surname FROM users u WHERE u.enabled = TRUE AND u.kind_member = ? AND u.dni > ?"
+            + " AND NOT EXISTS (SELECT 1 FROM payments p WHERE p.user_dni = u.dni AND p.category = ?"
+            + " AND p.description = ?)"
+            + " AND NOT EXISTS (SELECT 1 FROM role_users ru JOIN roles r ON r.id = ru.role_id"
+            + " WHERE ru.user_dni = u.dni AND r.name = ?)"
+            + " ORDER BY u.dni LIMIT ?";
+
+    /**
+     * Batched insert of an unpaid payment.
+     */
+    private static final String INSERT_PAYMENT_SQL = "INSERT INTO payments"
+            + " (id, title, description, state, category, created_at, paid_at, amount, user_dni)"
+            + " VALUES (?, ?, ?, ?, ?, ?, NULL, ?, ?)";
+
     /**
      * The repository used for saving and retrieving payment entities.
      */
@@ -85,6 +131,16 @@ public final class DefaultPaymentsService implements PaymentsService {
      */
     private final EmailService emailService;
 
+    /**
+     * The JDBC template used by the bulk membership fee run.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * The transaction template running each chunk of the membership fee run.
+     */
+    private final TransactionTemplate transactionTemplate;
+
     /**
      * Constructs a DefaultPaymentsService with the provided payments repository.
      *
@@ -92,13 +148,28 @@ public final class DefaultPaymentsService implements PaymentsService {
      *                   null.
      * @param emailServ  The email service instance used by this service.
      * @param userRepo   the user repository.
+     * @param jdbc       the JDBC template used by the bulk membership fee run.
+     * @param txTemplate the transaction template running each chunk of the bulk
+     *                   membership fee run.
      * @throws IllegalArgumentException if the repository is null.
      */
     public DefaultPaymentsService(final PaymentsEntityRepository repository, final UserEntityRepository userRepo,
-            final EmailService emailServ) {
+            final EmailService emailServ, final JdbcTemplate jdbc, final TransactionTemplate txTemplate) {
         paymentsRepository = Objects.requireNonNull(repository, "Payments entity repository cannot be null.");
         userRepository = Objects.requireNonNull(userRepo, "User repository cannot be null.");
         emailService = Objects.requireNonNull(emailServ, "Email service cannot be null.");
+        jdbcTemplate = Objects.requireNonNull(jdbc, "JDBC template cannot be null.");
+        transactionTemplate = Objects.requireNonNull(txTemplate, "Transaction template cannot be null.");
+    }
+
+    /**
+     * The description of the membership fee payment of a season.
+     *
+     * @param year the season.
+     * @return the payment description.
+     */
+    public static String membershipPaymentDescription(final int year) {
+        return "Pago cuota de socio para el año: " + year + ".";
     }
 
     /**
@@ -204,6 +275,93 @@ public final class DefaultPaymentsService implements PaymentsService {
 
     }
 
+    /**
+     * Generates the membership fee of the given season for every enabled member
+     * whose kind of member pays a fee.
+     * <p>
+     * For each kind of member, the members without the season's fee are read in
+     * chunks of {@link #MEMBERSHIP_FEE_CHUNK_SIZE} ordered by dni. Each chunk is
+     * inserted with a single JDBC batch and its notification emails are queued in
+     * the same transaction, so a chunk is either fully billed and notified or not
+     * at all. Members already billed are filtered out by the query itself, which
+     * makes a repeated run resume where an interrupted one stopped.
+     * </p>
+     *
+     * @param year the season to bill.
+     * @return the number of payments generated by this run, per kind of member.
+     * @throws PaymentsServiceException if the notification emails cannot be
+     *                                  rendered.
+     */
+    @Override
+    public MembershipFeeRunDto generateMembershipFees(final int year) throws PaymentsServiceException {
+        final var description = membershipPaymentDescription(year);
+        final Map<UserType, Integer> generated = new EnumMap<>(UserType.class);
+        try {
+            for (final var fee : MEMBERSHIP_FEES.entrySet()) {
+                int count = 0;
+                String lastDni = "";
+                List<UnbilledMember> chunk;
+                do {
+                    final String afterDni = lastDni;
+                    chunk = transactionTemplate.execute(
+                            status -> billMembershipFeeChunk(fee.getKey(), fee.getValue(), description, afterDni));
+                    if (!chunk.isEmpty()) {
+                        count += chunk.size();
+                        lastDni = chunk.getLast().dni();
+                    }
+                } while (chunk.size() == MEMBERSHIP_FEE_CHUNK_SIZE);
+                generated.put(fee.getKey(), count);
+            }
+        } catch (UncheckedIOException e) {
+            throw new PaymentsServiceException("Cannot render membership fee emails.", e.getCause());
+        }
+        return new MembershipFeeRunDto(year, generated);
+    }
+
+    /**
+     * Bills and notifies the next chunk of unbilled members of a kind. Must run
+     * inside a transaction.
+     *
+     * @param kindMember  the kind of member.
+     * @param amount      the fee of that kind of member.
+     * @param description the description of the season's fee.
+     * @param afterDni    the last dni of the previous chunk.
+     * @return the members billed by this chunk.
+     */
+    private List<UnbilledMember> billMembershipFeeChunk(final UserType kindMember, final BigDecimal amount,
+            final String description, final String afterDni) {
+        final List<UnbilledMember> members = jdbcTemplate.query(FIND_UNBILLED_MEMBERS_SQL,
+                (rs, rowNum) -> new UnbilledMember(rs.getString("dni"), rs.getString("email"),
+                        rs.getString("name") + " " + rs.getString("first_surname") + " "
+                                + rs.getString("second_surname")),
+                kindMember.name(), afterDni, PaymentsCategory.MEMBERSHIP_PAYMENT.name(), description,
+                UserRoleName.ROLE_CANDIDATO_SOCIO.name(), MEMBERSHIP_FEE_CHUNK_SIZE);
+        if (members.isEmpty()) {
+            return members;
+        }
+        final var now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_PAYMENT_SQL, members, MEMBERSHIP_FEE_CHUNK_SIZE, (statement, member) -> {
+            statement.setObject(1, UUID.randomUUID());
+            statement.setString(2, MEMBERSHIP_PAYMENT_TITLE);
+            statement.setString(3, description);
+            statement.setString(4, PaymentsState.UNPAID.name());
+            statement.setString(5, PaymentsCategory.MEMBERSHIP_PAYMENT.name());
+            statement.setTimestamp(6, now);
+            statement.setBigDecimal(7, amount);
+            statement.setString(8, member.dni());
+        });
+        final var formattedAmount = String.format("%.2f", amount);
+        try {
+            emailService.sendGeneratedPayments(members.stream()
+                    .map(member -> new GeneratedPaymentNoticeDto(member.email(), member.completeName(),
+                            MEMBERSHIP_PAYMENT_TITLE, description, formattedAmount))
+                    .toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return members;
+    }
+
     /**
      * Finds a payment by its ID.
      *
@@ -243,10 +401,49 @@ public final class DefaultPaymentsService implements PaymentsService {
     @Override
     @Transactional
     public Map<String, List<PaymentDetails>> getAllUsersWithPayments() {
-        // Get all users from the user service
-        final var users = userRepository.findAll();
-        // Create a map of user DNI to their list of payments
-        return users.stream().collect(Collectors.toMap(UserEntity::getDni, user -> (getUserPayments(user.getDni()))));
+        return groupByUser(paymentsRepository.findAllUsersWithPayments());
+    }
+
+    /**
+     * Retrieves a page of the users having payments that match the given state
+     * and category, along with those payments, with one query for the page of
+     * users and another one for their payments.
+     *
+     * @param state    the payment state, or {@code null} for any state.
+     * @param category the payment category, or {@code null} for any category.
+     * @param page     the page of users.
+     * @return a map where the key is the user's DNI and the value is the list of
+     *         their matching payments, in DNI order.
+     */
+    @Override
+    @Transactional
+    public Map<String, List<PaymentDetails>> getUsersWithPayments(final PaymentsState state,
+            final PaymentsCategory category, final Pageable page) {
+        Objects.requireNonNull(page, "Page must not be null.");
+        final var userDnis = paymentsRepository.findUserDnisWithPayments(state, category, page);
+        if (userDnis.isEmpty()) {
+            return Map.of();
+        }
+        return groupByUser(paymentsRepository.findPaymentsOfUsers(userDnis, state, category));
+    }
+
+    /**
+     * Groups the rows of the users and payments projection by user, keeping their
+     * order. Users without payments get an empty list.
+     *
+     * @param rows the projection rows, ordered by user DNI.
+     * @return a map where the key is the user's DNI and the value is the list of
+     *         their payments.
+     */
+    private static Map<String, List<PaymentDetails>> groupByUser(final List<UserPaymentDetails> rows) {
+        final Map<String, List<PaymentDetails>> result = new LinkedHashMap<>();
+        for (final UserPaymentDetails row : rows) {
+            final var payments = result.computeIfAbsent(row.userDni(), dni -> new ArrayList<>());
+            if (row.hasPayment()) {
+                payments.add(row.toPaymentDetails());
+            }
+        }
+        return result;
     }
 
     private PersistentPaymentsEntity getPaymentEntity(final UUID paymentId) throws PaymentsServiceException {
@@ -397,4 +594,13 @@ public final class DefaultPaymentsService implements PaymentsService {
         }
     }
 
+    /**
+     * A member still to be billed by the membership fee run.
+     *
+     * @param dni          the member's dni.
+     * @param email        the member's email.
+     * @param completeName the member's complete name.
+     */
+    private record UnbilledMember(String dni, String email, String completeName) {
+    }
 }
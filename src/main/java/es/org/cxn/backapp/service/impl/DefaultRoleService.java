@@ -44,6 +44,7 @@ import es.org.cxn.backapp.model.UserRoleName;
 import es.org.cxn.backapp.model.persistence.PersistentRoleEntity;
 import es.org.cxn.backapp.repository.RoleEntityRepository;
 import es.org.cxn.backapp.repository.UserEntityRepository;
+import es.org.cxn.backapp.security.VerifiedTokenCache;
 import es.org.cxn.backapp.service.RoleService;
 import es.org.cxn.backapp.service.exceptions.UserServiceException;
 
@@ -71,17 +72,25 @@ public final class DefaultRoleService implements RoleService {
      */
     private final UserEntityRepository userRepository;
 
+    /**
+     * Cache of verified tokens, cleared for a user when its roles change.
+     */
+    private final VerifiedTokenCache tokenCache;
+
     /**
      * Constructs an entities service with the specified repository.
      *
-     * @param roleRepo the repository for the entity instances.
-     * @param usrRepo  the repository for user entities.
+     * @param roleRepo   the repository for the entity instances.
+     * @param usrRepo    the repository for user entities.
+     * @param tokenCache the verified token cache.
      */
-    public DefaultRoleService(final RoleEntityRepository roleRepo, final UserEntityRepository usrRepo) {
+    public DefaultRoleService(final RoleEntityRepository roleRepo, final UserEntityRepository usrRepo,
+            final VerifiedTokenCache tokenCache) {
         super();
 
         roleRepository = Objects.requireNonNull(roleRepo, "Received a null pointer as repository");
         userRepository = Objects.requireNonNull(usrRepo, "Received a null pointer as repository");
+        this.tokenCache = Objects.requireNonNull(tokenCache, "Received a null pointer as token cache");
     }
 
     @Override
@@ -120,6 +129,9 @@ public final class DefaultRoleService implements RoleService {
 
         }
         userEntity.setRoles(rolesSet);
+        // Revoke stateless tokens carrying the previous roles
+        userEntity.setTokenVersion(userEntity.getTokenVersion() + 1);
+        tokenCache.invalidateUser(userEntity.getDni());
         return userRepository.save(userEntity);
     }
 
@@ -27,10 +27,9 @@ package es.org.cxn.backapp.service.impl;
  * #L%
  */
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.util.Base64;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.util.Objects;
 
 import org.springframework.stereotype.Service;
@@ -44,9 +43,11 @@ import es.org.cxn.backapp.repository.ImageProfileEntityRepository;
 import es.org.cxn.backapp.repository.UserEntityRepository;
 import es.org.cxn.backapp.service.UserProfileImageService;
 import es.org.cxn.backapp.service.UserService;
+import es.org.cxn.backapp.service.dto.StoredImageDto;
 import es.org.cxn.backapp.service.exceptions.UserServiceException;
 import es.org.cxn.backapp.service.impl.storage.DefaultImageStorageService;
 import es.org.cxn.backapp.service.impl.storage.FileLocation;
+import es.org.cxn.backapp.service.impl.storage.ImageVariant;
 
 /**
  * Service for manage user profile image.
@@ -54,6 +55,11 @@ import es.org.cxn.backapp.service.impl.storage.FileLocation;
 @Service
 public final class DefaultUserProfileImageService implements UserProfileImageService {
 
+    /**
+     * Address of a stored profile image, for the digest of its content.
+     */
+    private static final String STORED_IMAGE_URL = "/api/user/profileImage/%s";
+
     /**
      * Repository for the user entities handled by the service.
      */
@@ -96,30 +102,39 @@ public final class DefaultUserProfileImageService implements UserProfileImageSer
     }
 
     private void deleteExistingProfileImage(final String existingImagePath) throws UserServiceException {
-        final File existingFile = new File(existingImagePath);
-        if (!existingFile.exists() || existingFile.delete()) {
-            return;
+        try {
+            imageStorageService.deleteImage(existingImagePath);
+        } catch (IOException e) {
+            throw new UserServiceException("Could not delete existing profile image file: " + existingImagePath, e);
         }
-        throw new UserServiceException("Could not delete existing profile image file: " + existingImagePath);
     }
 
-    private String getMimeType(final ImageExtension extension) throws UserServiceException {
-        final String mimeType;
+    /**
+     * Gets the media type of a stored profile image from its extension.
+     *
+     * @param extension the extension the image was uploaded with.
+     * @return the media type, or {@code null} to detect it from the file.
+     */
+    private static String getMediaType(final ImageExtension extension) {
+        final String mediaType;
         switch (extension) {
         case PNG:
-            mimeType = "data:image/png;base64,";
+            mediaType = "image/png";
             break;
         case JPG:
         case JPEG:
-            mimeType = "data:image/jpeg;base64,";
+            mediaType = "image/jpeg";
             break;
         case WEBP:
-            mimeType = "data:image/webp;base64,";
+            mediaType = "image/webp";
+            break;
+        case AVIF:
+            mediaType = "image/avif";
             break;
         default:
-            throw new UserServiceException("Unsupported image extension: " + extension);
+            mediaType = null;
         }
-        return mimeType;
+        return mediaType;
     }
 
     @Override
@@ -141,23 +156,60 @@ public final class DefaultUserProfileImageService implements UserProfileImageSer
         return response;
     }
 
+    /**
+     * Opens the file of a stored profile image.
+     *
+     * @param profileImage the stored profile image.
+     * @param variant      the size to open the image in.
+     * @return the image file with its validators.
+     * @throws UserServiceException if the file cannot be read.
+     */
+    private StoredImageDto openStoredProfileImage(final PersistentProfileImageEntity profileImage,
+            final ImageVariant variant) throws UserServiceException {
+        try {
+            return imageStorageService.openImage(profileImage.getUrl(), getMediaType(profileImage.getExtension()),
+                    variant);
+        } catch (NoSuchFileException e) {
+            throw new UserServiceException("Profile image file not found at path: " + profileImage.getUrl(), e);
+        } catch (IOException e) {
+            throw new UserServiceException("Error reading profile image file: " + e.getMessage(), e);
+        }
+    }
+
     private ProfileImageResponse handleStoredProfileImage(final PersistentProfileImageEntity profileImage)
             throws UserServiceException {
-        final File imageFile = new File(profileImage.getUrl());
+        final var image = openStoredProfileImage(profileImage, ImageVariant.ORIGINAL);
+        final String digest = image.etag().substring(1, image.etag().length() - 1);
 
-        if (!imageFile.exists()) {
-            throw new UserServiceException("Profile image file not found at path: " + profileImage.getUrl());
-        }
+        return ProfileImageResponse.ofStoredFile(profileImage, String.format(STORED_IMAGE_URL, digest));
+    }
 
-        try {
-            final byte[] imageData = Files.readAllBytes(imageFile.toPath());
-            final String base64Image = Base64.getEncoder().encodeToString(imageData);
-            final String mimeType = getMimeType(profileImage.getExtension());
+    /**
+     * Checks whether a profile image is stored by the digest of its content.
+     *
+     * @param profileImage the profile image.
+     * @param digest       the SHA-256 digest of the image content, in hexadecimal.
+     * @return {@code true} if the image is stored in a content-addressed store
+     *         under the digest.
+     */
+    private static boolean hasDigest(final PersistentProfileImageEntity profileImage, final String digest) {
+        return Boolean.TRUE.equals(profileImage.isStored())
+                && DefaultImageStorageService.isContentAddressed(profileImage.getUrl())
+                && Path.of(profileImage.getUrl()).getFileName().toString().equals(digest);
+    }
 
-            return new ProfileImageResponse(profileImage, mimeType + base64Image);
-        } catch (IOException e) {
-            throw new UserServiceException("Error reading profile image file: " + e.getMessage(), e);
-        }
+    @Override
+    public StoredImageDto getStoredProfileImage(final String digest, final ImageVariant variant)
+            throws UserServiceException {
+        final var profileImage = imageProfileEntityRepository.findByStoredTrueAndUrlEndingWith(digest).stream()
+                .filter(image -> hasDigest(image, digest)).findFirst()
+                .orElseThrow(() -> new UserServiceException("No stored profile image has digest: " + digest));
+        return openStoredProfileImage(profileImage, variant);
+    }
+
+    @Override
+    public boolean hasStoredProfileImage(final String dni, final String digest) {
+        return imageProfileEntityRepository.findById(dni).filter(image -> hasDigest(image, digest)).isPresent();
     }
 
     private PersistentUserEntity saveNewProfileImage(final PersistentUserEntity userEntity, final String userDni,
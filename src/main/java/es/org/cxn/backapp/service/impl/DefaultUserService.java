@@ -29,13 +29,21 @@ package es.org.cxn.backapp.service.impl;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Period;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,12 +65,18 @@ import es.org.cxn.backapp.model.persistence.user.UserType;
 import es.org.cxn.backapp.repository.CountryEntityRepository;
 import es.org.cxn.backapp.repository.CountrySubdivisionEntityRepository;
 import es.org.cxn.backapp.repository.UserEntityRepository;
+import es.org.cxn.backapp.security.VerifiedTokenCache;
 import es.org.cxn.backapp.service.EmailService;
 import es.org.cxn.backapp.service.PaymentsService;
 import es.org.cxn.backapp.service.RoleService;
 import es.org.cxn.backapp.service.UserService;
+import es.org.cxn.backapp.service.dto.UserDirectoryFilterDto;
+import es.org.cxn.backapp.service.dto.UserDirectoryPageDto;
+import es.org.cxn.backapp.service.dto.UserDirectorySort;
 import es.org.cxn.backapp.service.dto.UserRegistrationDetailsDto;
+import es.org.cxn.backapp.service.dto.UserRoleNameDto;
 import es.org.cxn.backapp.service.dto.UserServiceUpdateDto;
+import es.org.cxn.backapp.service.dto.UserSummaryDto;
 import es.org.cxn.backapp.service.exceptions.PaymentsServiceException;
 import es.org.cxn.backapp.service.exceptions.UserServiceException;
 import jakarta.mail.MessagingException;
@@ -92,6 +106,11 @@ public final class DefaultUserService implements UserService {
      * Yearly amount of payment by SOCIO_NUMERARIO.
      */
     public static final int SOCIO_NUMERARIO_PAYMENT_AMOUNT = 40;
+    /**
+     * Separator of the fields of a directory cursor, a character no DNI or surname
+     * contains.
+     */
+    private static final String CURSOR_SEPARATOR = "\u0000";
     /**
      * User not found message for exception.
      */
@@ -145,6 +164,12 @@ public final class DefaultUserService implements UserService {
      */
     private final BCryptPasswordEncoder passwordEncoder;
 
+    /**
+     * Cache of verified tokens, cleared for a user when its security data
+     * changes.
+     */
+    private final VerifiedTokenCache tokenCache;
+
     /**
      * Constructs a DefaultUserService with the specified repositories and image
      * storage service.
@@ -165,13 +190,15 @@ public final class DefaultUserService implements UserService {
      *
      * @param passwordEncoder   The password enconder.
      *
+     * @param tokenCache        The verified token cache.
+     *
      * @throws NullPointerException if any of the provided repositories or services
      *                              are null.
      */
     public DefaultUserService(final UserEntityRepository userRepo, final CountryEntityRepository countryRepo,
             final CountrySubdivisionEntityRepository countrySubdivRepo, final EmailService emailServ,
             final PaymentsService paymentsServ, final RoleService roleServ,
-            final BCryptPasswordEncoder passwordEncoder) {
+            final BCryptPasswordEncoder passwordEncoder, final VerifiedTokenCache tokenCache) {
         super();
         this.userRepository = Objects.requireNonNull(userRepo, "Received a null pointer as user repository");
         this.countryRepository = Objects.requireNonNull(countryRepo, "Received a null pointer as country repository");
@@ -181,6 +208,7 @@ public final class DefaultUserService implements UserService {
         this.paymentsService = Objects.requireNonNull(paymentsServ, "Received a null pointer as payments service.");
         this.roleService = Objects.requireNonNull(roleServ, "Received a null pointer as role service.");
         this.passwordEncoder = Objects.requireNonNull(passwordEncoder, "Received a null pointer as password encoder.");
+        this.tokenCache = Objects.requireNonNull(tokenCache, "Received a null pointer as token cache.");
     }
 
     /**
@@ -349,6 +377,7 @@ public final class DefaultUserService implements UserService {
 
         final var userEntity = findByEmail(email);
         userEntity.setEmail(normalizedNewEmail);
+        revokeTokens(userEntity);
         // Guardar la entidad de usuario actualizada en la base de datos
         final var persistentUserEntity = asPersistentUserEntity(userEntity);
 
@@ -387,6 +416,7 @@ public final class DefaultUserService implements UserService {
         final var hashedNewPassword = passwordEncoder.encode(newPassword);
         // Update user password with new user password hash.
         userEntity.setPassword(hashedNewPassword);
+        revokeTokens(userEntity);
         final var persistentUserEntity = asPersistentUserEntity(userEntity);
         return userRepository.save(persistentUserEntity);
 
@@ -405,6 +435,7 @@ public final class DefaultUserService implements UserService {
         final var userEntity = findByEmail(userEmail);
         try {
             userRepository.delete((PersistentUserEntity) userEntity);
+            tokenCache.invalidateUser(userEntity.getDni());
             emailService.sendDeletedUser(userEntity.getEmail(), userEntity.getCompleteName());
         } catch (Exception e) {
             throw new UserServiceException("Error sending email to user: " + userEntity.getDni(), e);
@@ -454,8 +485,8 @@ public final class DefaultUserService implements UserService {
 
         if (amountOfPayment != null) {
             paymentsService.createPayment(amountOfPayment, PaymentsCategory.MEMBERSHIP_PAYMENT,
-                    "Pago cuota de socio para el año: " + LocalDate.now().getYear() + ".", "Cuota socio",
-                    userEntity.getDni());
+                    DefaultPaymentsService.membershipPaymentDescription(LocalDate.now().getYear()),
+                    DefaultPaymentsService.MEMBERSHIP_PAYMENT_TITLE, userEntity.getDni());
         }
     }
 
@@ -465,6 +496,151 @@ public final class DefaultUserService implements UserService {
         return new ArrayList<>(persistentUsers);
     }
 
+    /**
+     * Retrieves the listing data of every user with two queries: one for the
+     * users with their address, teams and federate state joined in, and one for
+     * every user's roles.
+     *
+     * @return the summary of every user, ordered by DNI.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserSummaryDto> getAllSummaries() {
+        return withRoles(userRepository.findAllSummaries(), userRepository.findAllRoleNames());
+    }
+
+    /**
+     * Retrieves a page of the user directory with two queries: one for the page
+     * of users, keyset paginated from the cursor, and one for their roles.
+     * <p>
+     * The cursor encodes the order and the sort key of the last user of the
+     * previous page. One more user than the limit is read to know whether there
+     * is a next page.
+     * </p>
+     *
+     * @param filter the filters, {@code null} components match every user.
+     * @param sort   the order of the directory.
+     * @param cursor the cursor returned with the previous page, or {@code null}
+     *               for the first page.
+     * @param limit  the maximum number of users of the page.
+     * @return the page, with the cursor of the next one.
+     * @throws UserServiceException if the cursor is not valid for the order.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public UserDirectoryPageDto getDirectoryPage(final UserDirectoryFilterDto filter, final UserDirectorySort sort,
+            final String cursor, final int limit) throws UserServiceException {
+        Objects.requireNonNull(filter, "Directory filter must not be null.");
+        Objects.requireNonNull(sort, "Directory sort must not be null.");
+        String afterSurname = null;
+        String afterDni = null;
+        if (cursor != null) {
+            final String[] position = decodeDirectoryCursor(sort, cursor);
+            afterSurname = position[0];
+            afterDni = position[1];
+        }
+        final var users = userRepository.findDirectoryPage(filter, sort, afterSurname, afterDni, limit + 1);
+        if (users.isEmpty()) {
+            return new UserDirectoryPageDto(users, null);
+        }
+        final boolean hasNext = users.size() > limit;
+        final var page = hasNext ? users.subList(0, limit) : users;
+        final var summaries = withRoles(page,
+                userRepository.findRoleNamesOfUsers(page.stream().map(UserSummaryDto::dni).toList()));
+        return new UserDirectoryPageDto(summaries, hasNext ? encodeDirectoryCursor(sort, page.getLast()) : null);
+    }
+
+    /**
+     * Merges the streamed summaries and the streamed roles, both ordered by DNI,
+     * in a single pass: the roles of a user are the role rows that follow the
+     * roles of the previous user. Role rows of a DNI missing from the summaries
+     * are skipped, so they do not hold back the roles of the next users. Only the
+     * current row of each stream is held in memory.
+     *
+     * @param action the action performed for each user summary.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachSummary(final Consumer<UserSummaryDto> action) {
+        Objects.requireNonNull(action, "Summary action must not be null.");
+        try (var summaries = userRepository.streamAllSummaries(); var roles = userRepository.streamAllRoleNames()) {
+            final Iterator<UserRoleNameDto> roleRows = roles.iterator();
+            UserRoleNameDto role = roleRows.hasNext() ? roleRows.next() : null;
+            final Iterator<UserSummaryDto> summaryRows = summaries.iterator();
+            while (summaryRows.hasNext()) {
+                final UserSummaryDto summary = summaryRows.next();
+                final Set<UserRoleName> userRoles = EnumSet.noneOf(UserRoleName.class);
+                while (role != null && role.userDni().compareTo(summary.dni()) < 0) {
+                    role = roleRows.hasNext() ? roleRows.next() : null;
+                }
+                while (role != null && role.userDni().equals(summary.dni())) {
+                    userRoles.add(role.roleName());
+                    role = roleRows.hasNext() ? roleRows.next() : null;
+                }
+                action.accept(summary.withRoles(userRoles));
+            }
+        }
+    }
+
+    /**
+     * Encodes the position of a user in the directory order as an opaque cursor.
+     *
+     * @param sort the order of the directory.
+     * @param last the last user of the page.
+     * @return the cursor.
+     */
+    private static String encodeDirectoryCursor(final UserDirectorySort sort, final UserSummaryDto last) {
+        final String position = sort == UserDirectorySort.SURNAME
+                ? sort.name() + CURSOR_SEPARATOR + last.firstSurname() + CURSOR_SEPARATOR + last.dni()
+                : sort.name() + CURSOR_SEPARATOR + last.dni();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a directory cursor into the surname and DNI to resume after.
+     *
+     * @param sort   the order of the directory.
+     * @param cursor the cursor.
+     * @return the surname, {@code null} for the DNI order, and the DNI.
+     * @throws UserServiceException if the cursor is malformed or was returned for
+     *                              another order.
+     */
+    private static String[] decodeDirectoryCursor(final UserDirectorySort sort, final String cursor)
+            throws UserServiceException {
+        final String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split(CURSOR_SEPARATOR, -1);
+        } catch (IllegalArgumentException e) {
+            throw new UserServiceException("Invalid directory cursor.", e);
+        }
+        if (sort == UserDirectorySort.SURNAME && parts.length == 3 && sort.name().equals(parts[0])) {
+            return new String[] { parts[1], parts[2] };
+        }
+        if (sort == UserDirectorySort.DNI && parts.length == 2 && sort.name().equals(parts[0])) {
+            return new String[] { null, parts[1] };
+        }
+        throw new UserServiceException("Invalid directory cursor.");
+    }
+
+    /**
+     * Merges the roles read by their own query into the user summaries.
+     *
+     * @param summaries the user summaries, without roles.
+     * @param roles     the roles of those users.
+     * @return the summaries with their roles, in the same order.
+     */
+    private static List<UserSummaryDto> withRoles(final List<UserSummaryDto> summaries,
+            final List<UserRoleNameDto> roles) {
+        final Map<String, Set<UserRoleName>> rolesByUser = new HashMap<>();
+        for (final UserRoleNameDto role : roles) {
+            rolesByUser.computeIfAbsent(role.userDni(), dni -> EnumSet.noneOf(UserRoleName.class))
+                    .add(role.roleName());
+        }
+        return summaries.stream()
+                .map(summary -> summary.withRoles(rolesByUser.getOrDefault(summary.dni(), Set.of()))).toList();
+    }
+
     private String normalizeEmail(final String email) {
         return email != null ? email.trim().toLowerCase() : null;
     }
@@ -509,6 +685,7 @@ public final class DefaultUserService implements UserService {
         final var hashedNewPassword = passwordEncoder.encode(newPassword);
         // Update user password with new user password hash.
         userEntity.setPassword(hashedNewPassword);
+        revokeTokens(userEntity);
         final var persistentUserEntity = asPersistentUserEntity(userEntity);
         userRepository.save(persistentUserEntity);
 
@@ -526,6 +703,7 @@ public final class DefaultUserService implements UserService {
 
         if (passwordEncoder.matches(validationPass, userEntity.getPassword())) {
             userEntity.setEnabled(false);
+            revokeTokens(userEntity);
             userEntity.setUnsubscribeDate(LocalDateTime.now());
             userRepository.save(userEntity);
             try {
@@ -539,6 +717,18 @@ public final class DefaultUserService implements UserService {
 
     }
 
+    /**
+     * Revokes the tokens issued to a user. Increases its token version, so
+     * stateless tokens carrying the old one are rejected, and drops its cached
+     * verified tokens. The caller is expected to save the entity.
+     *
+     * @param userEntity the user whose security data changed.
+     */
+    private void revokeTokens(final UserEntity userEntity) {
+        userEntity.setTokenVersion(userEntity.getTokenVersion() + 1);
+        tokenCache.invalidateUser(userEntity.getDni());
+    }
+
     @Transactional
     @Override
     public UserEntity update(final UserServiceUpdateDto userForm, final String userEmail) throws UserServiceException {
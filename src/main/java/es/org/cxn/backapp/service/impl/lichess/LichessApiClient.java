@@ -0,0 +1,255 @@
+package es.org.cxn.backapp.service.impl.lichess;
+
+/*-
+ * #%L
+ * CXN-back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Círculo Xadrez Narón
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.net.http.HttpClient;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import es.org.cxn.backapp.config.LichessApiProperties;
+import es.org.cxn.backapp.service.dto.LichessSaveProfileDto;
+import es.org.cxn.backapp.service.dto.LichessSaveProfileDto.SaveGameStatistics;
+import es.org.cxn.backapp.service.exceptions.LichessServiceException;
+
+/**
+ * Client of the Lichess API, shared by every request of the application.
+ * <p>
+ * Calls go through a single {@link RestClient} over a JDK {@link HttpClient},
+ * which keeps connections to Lichess alive and reuses them, with the connect
+ * and read timeouts of {@link LichessApiProperties}. Responses are read with
+ * the application {@link ObjectMapper}; the profiles of several users are
+ * parsed as the response streams in.
+ * </p>
+ */
+@Component
+public class LichessApiClient {
+
+    /**
+     * Lichess access token obtained from an authorization code.
+     *
+     * @param tokenType   the token type, usually {@code Bearer}.
+     * @param accessToken the access token.
+     * @param expiresIn   the seconds until the token expires.
+     */
+    public record AccessToken(String tokenType, String accessToken, long expiresIn) {
+    }
+
+    /**
+     * Maximum Lichess ids in a request for several users.
+     */
+    public static final int MAX_USERS_PER_REQUEST = 300;
+
+    /**
+     * Client sending the requests to Lichess.
+     */
+    private final RestClient restClient;
+
+    /**
+     * The application object mapper.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructs the client.
+     *
+     * @param properties the Lichess API configuration.
+     * @param mapper     the application object mapper.
+     */
+    public LichessApiClient(final LichessApiProperties properties, final ObjectMapper mapper) {
+        Objects.requireNonNull(properties, "properties must not be null");
+        objectMapper = Objects.requireNonNull(mapper, "mapper must not be null");
+        final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(properties.getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NORMAL).build();
+        final var requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(properties.getReadTimeout());
+        restClient = RestClient.builder().baseUrl(properties.getBaseUrl()).requestFactory(requestFactory)
+                .messageConverters(converters -> {
+                    converters.removeIf(MappingJackson2HttpMessageConverter.class::isInstance);
+                    converters.add(new MappingJackson2HttpMessageConverter(mapper));
+                }).build();
+    }
+
+    /**
+     * Maps the statistics of a game mode.
+     *
+     * @param node the JSON node with the statistics of the game mode.
+     * @return the statistics.
+     */
+    private static SaveGameStatistics mapSaveGameStatistics(final JsonNode node) {
+        final int gameAmount = node.path("games").asInt();
+        final int gameRating = node.path("rating").asInt();
+        final int gameRd = node.path("rd").asInt();
+        final int prog = node.path("prog").asInt();
+        final boolean prov = node.path("prov").asBoolean();
+
+        return new SaveGameStatistics(gameAmount, gameRating, gameRd, prog, prov);
+    }
+
+    /**
+     * Gets the Lichess profile of the account owning an access token.
+     *
+     * @param accessToken the Lichess access token of the user.
+     * @param userEmail   the email of the user in the application.
+     * @return the profile, with its game statistics.
+     * @throws LichessServiceException if Lichess rejects the request or cannot be
+     *                                 reached.
+     */
+    public LichessSaveProfileDto getAccount(final String accessToken, final String userEmail)
+            throws LichessServiceException {
+        final JsonNode rootNode;
+        try {
+            rootNode = restClient.get().uri("/api/account").accept(MediaType.APPLICATION_JSON)
+                    .headers(headers -> headers.setBearerAuth(accessToken)).retrieve().body(JsonNode.class);
+        } catch (RestClientResponseException e) {
+            throw new LichessServiceException("Error al obtener el perfil de Lichess.", e);
+        } catch (RestClientException | CancellationException e) {
+            // The JDK request factory cancels the exchange on read timeout
+            throw new LichessServiceException("Error en la llamada a la API de Lichess.", e);
+        }
+        if (rootNode == null) {
+            throw new LichessServiceException("Error al obtener el perfil de Lichess.");
+        }
+        return mapProfile(rootNode, userEmail);
+    }
+
+    /**
+     * Gets the public profiles of several Lichess users in a single request. The
+     * response array is parsed as it arrives, handing each profile to the
+     * consumer without holding the whole response. Unknown and closed accounts
+     * are left out by Lichess.
+     *
+     * @param ids      the Lichess ids, at most {@link #MAX_USERS_PER_REQUEST}.
+     * @param consumer receives each profile, without user email.
+     * @throws LichessServiceException if Lichess rejects the request or cannot be
+     *                                 reached.
+     */
+    public void getUsers(final List<String> ids, final Consumer<LichessSaveProfileDto> consumer)
+            throws LichessServiceException {
+        if (ids.size() > MAX_USERS_PER_REQUEST) {
+            throw new IllegalArgumentException("At most " + MAX_USERS_PER_REQUEST + " ids per request.");
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        final Boolean accepted;
+        try {
+            accepted = restClient.post().uri("/api/users").contentType(MediaType.TEXT_PLAIN)
+                    .accept(MediaType.APPLICATION_JSON).body(String.join(",", ids)).exchange((request, response) -> {
+                        if (!response.getStatusCode().is2xxSuccessful()) {
+                            return Boolean.FALSE;
+                        }
+                        try (JsonParser parser = objectMapper.createParser(response.getBody())) {
+                            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                                return Boolean.FALSE;
+                            }
+                            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                                consumer.accept(mapProfile(objectMapper.readTree(parser), null));
+                            }
+                        }
+                        return Boolean.TRUE;
+                    });
+        } catch (RestClientException | CancellationException e) {
+            // The JDK request factory cancels the exchange on read timeout
+            throw new LichessServiceException("Error en la llamada a la API de Lichess.", e);
+        }
+        if (!Boolean.TRUE.equals(accepted)) {
+            throw new LichessServiceException("Error al obtener los perfiles de Lichess.");
+        }
+    }
+
+    /**
+     * Maps a Lichess user to a profile dto.
+     *
+     * @param user      the JSON node of the user.
+     * @param userEmail the email of the user in the application, or {@code null}.
+     * @return the profile, with its game statistics.
+     */
+    private static LichessSaveProfileDto mapProfile(final JsonNode user, final String userEmail) {
+        final JsonNode perfs = user.path("perfs");
+        return new LichessSaveProfileDto(userEmail, user.path("id").asText(), user.path("username").asText(),
+                LocalDateTime.now(), mapSaveGameStatistics(perfs.path("blitz")),
+                mapSaveGameStatistics(perfs.path("bullet")), mapSaveGameStatistics(perfs.path("classical")),
+                mapSaveGameStatistics(perfs.path("rapid")), mapSaveGameStatistics(perfs.path("puzzle")));
+    }
+
+    /**
+     * Exchanges an authorization code for an access token, following the PKCE
+     * flow.
+     *
+     * @param code         the authorization code received from Lichess.
+     * @param codeVerifier the code verifier of the authorization request.
+     * @param redirectUri  the redirect URI used for the authorization.
+     * @param clientId     the client ID of the application.
+     * @return the access token.
+     * @throws LichessServiceException if Lichess rejects the code or cannot be
+     *                                 reached.
+     */
+    public AccessToken requestAccessToken(final String code, final String codeVerifier, final String redirectUri,
+            final String clientId) throws LichessServiceException {
+        final MultiValueMap<String, String> body = new LinkedMultiValueMap<>();
+        body.add("grant_type", "authorization_code");
+        body.add("code", code);
+        body.add("code_verifier", codeVerifier);
+        body.add("redirect_uri", redirectUri);
+        body.add("client_id", clientId);
+
+        final JsonNode root;
+        try {
+            root = restClient.post().uri("/api/token").contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                    .accept(MediaType.APPLICATION_JSON).body(body).retrieve().body(JsonNode.class);
+        } catch (RestClientResponseException e) {
+            throw new LichessServiceException("Error al obtener el token de Lichess.", e);
+        } catch (RestClientException | CancellationException e) {
+            // The JDK request factory cancels the exchange on read timeout
+            throw new LichessServiceException("Error en la llamada a la API de Lichess.", e);
+        }
+        if (root == null) {
+            throw new LichessServiceException("Error al obtener el token de Lichess.");
+        }
+
+        return new AccessToken(root.path("token_type").asText(), root.path("access_token").asText(),
+                root.path("expires_in").asLong());
+    }
+}
@@ -0,0 +1,257 @@
+package es.org.cxn.backapp.service.impl.lichess;
+
+/*-
+ * #%L
+ * CXN-back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Círculo Xadrez Narón
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.hash.Hashing;
+
+import es.org.cxn.backapp.model.LichessTimeControl;
+import es.org.cxn.backapp.repository.LichessEntityRepository;
+import es.org.cxn.backapp.service.dto.LichessLeaderboardDto;
+import es.org.cxn.backapp.service.dto.LichessLeaderboardEntryDto;
+import es.org.cxn.backapp.service.dto.LichessProfileDto.GameStatistics;
+import es.org.cxn.backapp.service.dto.LichessRankedProfileDto;
+
+/**
+ * In-memory club leaderboard of every {@link LichessTimeControl}.
+ * <p>
+ * The stored profiles are read with a single query and sorted once per time
+ * control into an immutable snapshot, with an index by DNI for rank lookups.
+ * Reads are served from the snapshot without touching the database. Saving or
+ * refreshing profiles calls {@link #invalidate()}, and the next read rebuilds
+ * the snapshot.
+ * </p>
+ * <p>
+ * Users are sorted by rating, then by games played and then by Lichess
+ * username. Users with the same rating share their rank, and users without a
+ * rating or without games in a time control are left out of its leaderboard.
+ * </p>
+ */
+@Component
+public class LichessLeaderboard {
+
+    /**
+     * The number of hexadecimal digits of the entity tags.
+     */
+    private static final int ETAG_LENGTH = 32;
+
+    /**
+     * The order of the leaderboard entries, before ranking.
+     */
+    private static final Comparator<LichessLeaderboardEntryDto> ORDER = Comparator
+            .comparing(LichessLeaderboardEntryDto::rating, Comparator.reverseOrder())
+            .thenComparing(LichessLeaderboardEntryDto::games, Comparator.reverseOrder())
+            .thenComparing(LichessLeaderboardEntryDto::username, String.CASE_INSENSITIVE_ORDER);
+
+    /**
+     * The Lichess profile repository.
+     */
+    private final LichessEntityRepository lichessEntityRepository;
+
+    /**
+     * Incremented on each invalidation. A snapshot is current while it was built
+     * for the latest generation.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * The latest snapshot, or {@code null} before the first read.
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * The leaderboard of a time control.
+     *
+     * @param entries      the entries in rank order.
+     * @param byDni        the entries by the DNI of their user.
+     * @param etag         the entity tag of the entries.
+     * @param lastModified when a profile of the leaderboard was last updated, or
+     *                     {@code null} if it is empty.
+     */
+    private record Board(List<LichessLeaderboardEntryDto> entries, Map<String, LichessLeaderboardEntryDto> byDni,
+            String etag, Instant lastModified) {
+    }
+
+    /**
+     * The leaderboards of every time control, built for one generation.
+     *
+     * @param generation the generation the leaderboards were built for.
+     * @param boards     the leaderboards by time control.
+     */
+    private record Snapshot(long generation, Map<LichessTimeControl, Board> boards) {
+    }
+
+    /**
+     * Constructs the leaderboard.
+     *
+     * @param lichessEntityRepository the Lichess profile repository.
+     */
+    public LichessLeaderboard(final LichessEntityRepository lichessEntityRepository) {
+        this.lichessEntityRepository = Objects.requireNonNull(lichessEntityRepository,
+                "Received a null pointer as lichess entity repository");
+    }
+
+    /**
+     * Builds the leaderboard of a time control from the stored profiles.
+     *
+     * @param timeControl the time control.
+     * @param profiles    the stored profiles.
+     * @return the leaderboard.
+     */
+    private static Board buildBoard(final LichessTimeControl timeControl,
+            final List<LichessRankedProfileDto> profiles) {
+        final List<LichessLeaderboardEntryDto> unranked = new ArrayList<>(profiles.size());
+        LocalDateTime updatedAt = null;
+        for (final LichessRankedProfileDto ranked : profiles) {
+            final GameStatistics statistics = timeControl.statisticsOf(ranked.profile());
+            if (statistics == null || statistics.rating() == null || statistics.games() == null
+                    || statistics.games() <= 0) {
+                continue;
+            }
+            unranked.add(new LichessLeaderboardEntryDto(0, ranked.userDni(), ranked.profile().completeUserName(),
+                    Objects.toString(ranked.profile().username(), ""), statistics.rating(), statistics.games(),
+                    statistics.prov()));
+            final LocalDateTime profileUpdatedAt = ranked.profile().updatedAt();
+            if (profileUpdatedAt != null && (updatedAt == null || profileUpdatedAt.isAfter(updatedAt))) {
+                updatedAt = profileUpdatedAt;
+            }
+        }
+        unranked.sort(ORDER);
+
+        final List<LichessLeaderboardEntryDto> entries = new ArrayList<>(unranked.size());
+        final Map<String, LichessLeaderboardEntryDto> byDni = HashMap.newHashMap(unranked.size());
+        int rank = 0;
+        Integer previousRating = null;
+        for (int index = 0; index < unranked.size(); index++) {
+            final LichessLeaderboardEntryDto entry = unranked.get(index);
+            if (!entry.rating().equals(previousRating)) {
+                rank = index + 1;
+                previousRating = entry.rating();
+            }
+            final var rankedEntry = new LichessLeaderboardEntryDto(rank, entry.userDni(), entry.completeUserName(),
+                    entry.username(), entry.rating(), entry.games(), entry.provisional());
+            entries.add(rankedEntry);
+            byDni.put(rankedEntry.userDni(), rankedEntry);
+        }
+
+        final String etag = '"' + Hashing.sha256().hashString(timeControl + entries.toString(), StandardCharsets.UTF_8)
+                .toString().substring(0, ETAG_LENGTH) + '"';
+        final Instant lastModified = updatedAt == null ? null : updatedAt.atZone(ZoneId.systemDefault()).toInstant();
+        return new Board(List.copyOf(entries), Map.copyOf(byDni), etag, lastModified);
+    }
+
+    /**
+     * Returns the current snapshot, rebuilding it if it was invalidated.
+     *
+     * @return the current snapshot.
+     */
+    private Snapshot current() {
+        final Snapshot latest = snapshot;
+        if (latest != null && latest.generation() == generation.get()) {
+            return latest;
+        }
+        synchronized (this) {
+            // The generation is read before the query, so an invalidation while
+            // building leaves the new snapshot stale and the next read rebuilds.
+            final long built = generation.get();
+            Snapshot rebuilt = snapshot;
+            if (rebuilt == null || rebuilt.generation() != built) {
+                final List<LichessRankedProfileDto> profiles = lichessEntityRepository.findAllRankedProfiles();
+                final Map<LichessTimeControl, Board> boards = new EnumMap<>(LichessTimeControl.class);
+                for (final LichessTimeControl timeControl : LichessTimeControl.values()) {
+                    boards.put(timeControl, buildBoard(timeControl, profiles));
+                }
+                rebuilt = new Snapshot(built, boards);
+                snapshot = rebuilt;
+            }
+            return rebuilt;
+        }
+    }
+
+    /**
+     * Marks the leaderboard as stale once the current transaction commits, or
+     * right away if there is no transaction. It is rebuilt on the next read.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generation.incrementAndGet();
+                }
+            });
+        } else {
+            generation.incrementAndGet();
+        }
+    }
+
+    /**
+     * Finds the entry of a user in the leaderboard of a time control.
+     *
+     * @param timeControl the time control.
+     * @param userDni     the user's DNI.
+     * @return the entry, or empty if the user is not ranked in the time control.
+     */
+    public Optional<LichessLeaderboardEntryDto> rank(final LichessTimeControl timeControl, final String userDni) {
+        return Optional.ofNullable(current().boards().get(timeControl).byDni().get(userDni));
+    }
+
+    /**
+     * Returns the top of the leaderboard of a time control.
+     *
+     * @param timeControl the time control.
+     * @param limit       the maximum number of entries, positive.
+     * @return the top entries, with the total count and the cache validators of
+     *         the whole leaderboard.
+     */
+    public LichessLeaderboardDto top(final LichessTimeControl timeControl, final int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("The leaderboard limit must be positive.");
+        }
+        final Board board = current().boards().get(timeControl);
+        final List<LichessLeaderboardEntryDto> entries = board.entries();
+        return new LichessLeaderboardDto(timeControl, entries.size(),
+                entries.subList(0, Math.min(limit, entries.size())), board.etag(), board.lastModified());
+    }
+}
@@ -0,0 +1,138 @@
+package es.org.cxn.backapp.service.impl.lichess;
+
+/*-
+ * #%L
+ * CXN-back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Círculo Xadrez Narón
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import es.org.cxn.backapp.repository.LichessAuthRepository;
+import es.org.cxn.backapp.service.LichessService;
+import es.org.cxn.backapp.service.dto.LichessLinkedAccountDto;
+import es.org.cxn.backapp.service.dto.LichessRefreshStatusDto;
+
+/**
+ * Refreshes the stored Lichess profiles of every user with a valid token, so
+ * the club ranking does not depend on members updating their own profile.
+ * <p>
+ * The profiles are fetched in bulk by
+ * {@link LichessService#refreshLichessProfiles(java.util.Collection)}, a
+ * request per {@link LichessApiClient#MAX_USERS_PER_REQUEST} users, and saved
+ * in a single transaction. Users linked since the last refresh get their
+ * profile created. Profiles that cannot be fetched keep their stored data and
+ * are counted as failures in {@link #getStatus()}.
+ * </p>
+ */
+@Component
+public class LichessProfileRefresher {
+
+    /**
+     * The refresher logger.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(LichessProfileRefresher.class);
+
+    /**
+     * The Lichess authorization repository.
+     */
+    private final LichessAuthRepository lichessAuthRepository;
+
+    /**
+     * The Lichess service, saving the refreshed profiles.
+     */
+    private final LichessService lichessService;
+
+    /**
+     * Whether the scheduled refresh runs.
+     */
+    private final boolean enabled;
+
+    /**
+     * Outcome of the refreshes so far.
+     */
+    private final AtomicReference<LichessRefreshStatusDto> status = new AtomicReference<>(
+            new LichessRefreshStatusDto(null, 0, 0, 0, 0));
+
+    /**
+     * Constructs the refresher.
+     *
+     * @param authRepo       the Lichess authorization repository.
+     * @param service        the Lichess service.
+     * @param refreshEnabled whether the scheduled refresh runs.
+     */
+    public LichessProfileRefresher(final LichessAuthRepository authRepo, final LichessService service,
+            @Value("${lichess.refresh.enabled:false}") final boolean refreshEnabled) {
+        lichessAuthRepository = Objects.requireNonNull(authRepo,
+                "Received a null pointer as Lichess auth repository");
+        lichessService = Objects.requireNonNull(service, "Received a null pointer as Lichess service");
+        enabled = refreshEnabled;
+    }
+
+    /**
+     * Gets the outcome of the refreshes so far.
+     *
+     * @return the refresh status.
+     */
+    public LichessRefreshStatusDto getStatus() {
+        return status.get();
+    }
+
+    /**
+     * Refreshes the profile of every user with a valid Lichess token.
+     *
+     * @return the refresh status after this refresh.
+     */
+    public synchronized LichessRefreshStatusDto refreshAll() {
+        final List<LichessLinkedAccountDto> accounts = lichessAuthRepository.findLinkedAccounts(LocalDateTime.now());
+        final int refreshed = accounts.isEmpty() ? 0 : lichessService.refreshLichessProfiles(accounts);
+        final int failed = accounts.size() - refreshed;
+
+        final LichessRefreshStatusDto previous = status.get();
+        final var current = new LichessRefreshStatusDto(LocalDateTime.now(), refreshed, failed,
+                previous.totalFailures() + failed, previous.totalRefreshes() + 1);
+        status.set(current);
+        LOGGER.info("Refreshed {} Lichess profiles, {} failed", refreshed, failed);
+        return current;
+    }
+
+    /**
+     * Runs the refresh periodically, when enabled.
+     */
+    @Scheduled(fixedDelayString = "${lichess.refresh.interval:PT6H}",
+            initialDelayString = "${lichess.refresh.initial-delay:PT10M}")
+    public void scheduledRefresh() {
+        if (enabled) {
+            refreshAll();
+        }
+    }
+}
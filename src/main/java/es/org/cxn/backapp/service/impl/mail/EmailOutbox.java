@@ -0,0 +1,160 @@
+package es.org.cxn.backapp.service.impl.mail;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import es.org.cxn.backapp.model.persistence.mail.EmailOutboxState;
+import es.org.cxn.backapp.model.persistence.mail.PersistentEmailOutboxEntity;
+import es.org.cxn.backapp.repository.EmailOutboxEntityRepository;
+
+/**
+ * Queues rendered emails for asynchronous delivery.
+ * <p>
+ * The email is stored in the {@code email_outbox} table within the caller's
+ * transaction, so it is only delivered if that transaction commits, and it is
+ * not lost if the SMTP server is down. The {@link EmailOutboxDispatcher} is
+ * woken up after commit and sends it on a virtual thread, so no database
+ * connection or request thread waits for SMTP.
+ * </p>
+ */
+@Component
+public class EmailOutbox {
+
+    /**
+     * Batched insert of a pending email.
+     */
+    private static final String INSERT_PENDING_SQL = "INSERT INTO email_outbox"
+            + " (recipient, subject, body, state, attempts, created_at, next_attempt_at) VALUES (?, ?, ?, ?, 0, ?, ?)";
+
+    /**
+     * Rows sent to the database per JDBC batch.
+     */
+    private static final int INSERT_BATCH_SIZE = 100;
+
+    /**
+     * The outbox repository.
+     */
+    private final EmailOutboxEntityRepository outboxRepository;
+
+    /**
+     * The dispatcher sending the queued emails.
+     */
+    private final EmailOutboxDispatcher dispatcher;
+
+    /**
+     * The JDBC template used for bulk inserts.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructs the outbox.
+     *
+     * @param outboxRepo      the outbox repository.
+     * @param emailDispatcher the dispatcher sending the queued emails.
+     * @param jdbc            the JDBC template used for bulk inserts.
+     */
+    public EmailOutbox(final EmailOutboxEntityRepository outboxRepo, final EmailOutboxDispatcher emailDispatcher,
+            final JdbcTemplate jdbc) {
+        outboxRepository = Objects.requireNonNull(outboxRepo, "Received a null pointer as outbox repository.");
+        dispatcher = Objects.requireNonNull(emailDispatcher, "Received a null pointer as email dispatcher.");
+        jdbcTemplate = Objects.requireNonNull(jdbc, "Received a null pointer as JDBC template.");
+    }
+
+    /**
+     * Queues an email. It is delivered after the current transaction commits, or
+     * right away if there is no transaction.
+     *
+     * @param recipient the recipient address.
+     * @param subject   the subject.
+     * @param body      the rendered HTML body.
+     */
+    public void enqueue(final String recipient, final String subject, final String body) {
+        final var now = LocalDateTime.now();
+        outboxRepository.save(PersistentEmailOutboxEntity.builder().recipient(recipient).subject(subject).body(body)
+                .state(EmailOutboxState.PENDING).attempts(0).createdAt(now).nextAttemptAt(now).build());
+        wakeUpDispatcherAfterCommit();
+    }
+
+    /**
+     * Queues several emails with batched inserts and a single dispatcher wake-up.
+     * They are delivered after the current transaction commits, or right away if
+     * there is no transaction.
+     *
+     * @param emails the rendered emails.
+     */
+    public void enqueueAll(final List<QueuedEmail> emails) {
+        if (emails.isEmpty()) {
+            return;
+        }
+        final var now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_PENDING_SQL, emails, INSERT_BATCH_SIZE, (statement, email) -> {
+            statement.setString(1, email.recipient());
+            statement.setString(2, email.subject());
+            statement.setString(3, email.body());
+            statement.setString(4, EmailOutboxState.PENDING.name());
+            statement.setTimestamp(5, now);
+            statement.setTimestamp(6, now);
+        });
+        wakeUpDispatcherAfterCommit();
+    }
+
+    /**
+     * Wakes the dispatcher up once the current transaction commits, or right away
+     * if there is no transaction.
+     */
+    private void wakeUpDispatcherAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatcher.wakeUp();
+                }
+            });
+        } else {
+            dispatcher.wakeUp();
+        }
+    }
+
+    /**
+     * A rendered email waiting to be queued.
+     *
+     * @param recipient the recipient address.
+     * @param subject   the subject.
+     * @param body      the rendered HTML body.
+     */
+    public record QueuedEmail(String recipient, String subject, String body) {
+    }
+}
@@ -0,0 +1,333 @@
+package es.org.cxn.backapp.service.impl.mail;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.UnsupportedEncodingException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Limit;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import es.org.cxn.backapp.config.EmailOutboxProperties;
+import es.org.cxn.backapp.model.persistence.mail.EmailOutboxState;
+import es.org.cxn.backapp.model.persistence.mail.PersistentEmailOutboxEntity;
+import es.org.cxn.backapp.repository.EmailOutboxEntityRepository;
+import jakarta.mail.Message.RecipientType;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.InternetAddress;
+
+/**
+ * Sends the emails queued in the outbox.
+ * <p>
+ * A virtual thread waits until {@link #wakeUp()} is called after a commit, or
+ * until the poll interval elapses, and then sends every due email. Each email
+ * is sent on its own virtual thread, with at most
+ * {@link EmailOutboxProperties#getConcurrency()} at the same time. A failed
+ * email is retried with exponential backoff until it reaches the maximum number
+ * of attempts, and then it is marked as {@link EmailOutboxState#FAILED}.
+ * </p>
+ * <p>
+ * Before sending, each due email is claimed with a single conditional update
+ * that marks it as {@link EmailOutboxState#SENDING} for
+ * {@link EmailOutboxProperties#getLease()} seconds. Only the dispatcher whose
+ * claim succeeds sends it, so several instances, or a wake-up overlapping a
+ * poll, never send the same email twice. An email whose dispatcher stops before
+ * recording the result is sent again once the lease expires.
+ * </p>
+ * <p>
+ * Sent emails keep no body, as it may hold magic links or payment details.
+ * Sent and failed emails are deleted after
+ * {@link EmailOutboxProperties#getRetention()} seconds.
+ * </p>
+ * <p>
+ * The dispatcher does not start if there is no {@link JavaMailSender}, as
+ * emails are not queued then.
+ * </p>
+ */
+@Component
+public class EmailOutboxDispatcher implements SmartLifecycle {
+
+    /**
+     * The dispatcher logger.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    /**
+     * Sender address of every email.
+     */
+    private static final String FROM_ADDRESS = "principal@xadreznaron.es";
+
+    /**
+     * Sender name of every email.
+     */
+    private static final String FROM_NAME = "Xadrez Narón";
+
+    /**
+     * Highest power of two applied to the initial backoff.
+     */
+    private static final int MAX_BACKOFF_SHIFT = 30;
+
+    /**
+     * States of the emails that can be claimed once due.
+     */
+    private static final List<EmailOutboxState> CLAIMABLE_STATES = List.of(EmailOutboxState.PENDING,
+            EmailOutboxState.SENDING);
+
+    /**
+     * The outbox repository.
+     */
+    private final EmailOutboxEntityRepository outboxRepository;
+
+    /**
+     * The mail sender, empty when no mail server is configured.
+     */
+    private final Optional<JavaMailSender> mailSender;
+
+    /**
+     * The dispatcher configuration.
+     */
+    private final EmailOutboxProperties properties;
+
+    /**
+     * Wake-up signals released after commits.
+     */
+    private final Semaphore wakeUps = new Semaphore(0);
+
+    /**
+     * Whether the dispatcher loop is running.
+     */
+    private volatile boolean running;
+
+    /**
+     * The virtual thread running the dispatcher loop.
+     */
+    private Thread worker;
+
+    /**
+     * Constructs the dispatcher.
+     *
+     * @param outboxRepo the outbox repository.
+     * @param sender     the mail sender, empty when no mail server is configured.
+     * @param props      the dispatcher configuration.
+     */
+    public EmailOutboxDispatcher(final EmailOutboxEntityRepository outboxRepo, final Optional<JavaMailSender> sender,
+            final EmailOutboxProperties props) {
+        outboxRepository = Objects.requireNonNull(outboxRepo, "Received a null pointer as outbox repository.");
+        mailSender = Objects.requireNonNull(sender, "Received a null pointer as mail sender.");
+        properties = Objects.requireNonNull(props, "Received a null pointer as outbox properties.");
+    }
+
+    /**
+     * Computes the wait before the next attempt, doubling the initial backoff on
+     * each failure up to the maximum backoff.
+     *
+     * @param attempts the failed attempts so far, at least one.
+     * @return the wait in seconds.
+     */
+    public long backoffSeconds(final int attempts) {
+        final int shift = Math.min(Math.max(attempts - 1, 0), MAX_BACKOFF_SHIFT);
+        final long maxBackoff = properties.getMaxBackoff();
+        if (properties.getInitialBackoff() > maxBackoff >> shift) {
+            return maxBackoff;
+        }
+        return properties.getInitialBackoff() << shift;
+    }
+
+    /**
+     * Sends one email and records the result.
+     *
+     * @param email the queued email.
+     */
+    private void deliver(final PersistentEmailOutboxEntity email) {
+        final JavaMailSender sender = mailSender.orElseThrow();
+        try {
+            final var message = sender.createMimeMessage();
+            message.setFrom(new InternetAddress(FROM_ADDRESS, FROM_NAME));
+            message.setRecipients(RecipientType.TO, email.getRecipient());
+            message.setSubject(email.getSubject());
+            message.setContent(email.getBody(), "text/html; charset=utf-8");
+            sender.send(message);
+            email.setState(EmailOutboxState.SENT);
+            email.setSentAt(LocalDateTime.now());
+            email.setBody("");
+            email.setLastError(null);
+        } catch (MessagingException | UnsupportedEncodingException | RuntimeException e) {
+            scheduleRetry(email, e);
+        }
+        outboxRepository.save(email);
+    }
+
+    /**
+     * Sends the emails whose next attempt is due, at most one batch. Emails
+     * claimed by another dispatcher in the meantime are skipped.
+     *
+     * @return the number of emails due, claimed or not.
+     */
+    public int dispatchDue() {
+        if (mailSender.isEmpty()) {
+            return 0;
+        }
+        final var now = LocalDateTime.now();
+        final List<PersistentEmailOutboxEntity> due = outboxRepository.findDue(CLAIMABLE_STATES, now,
+                Limit.of(properties.getBatchSize()));
+        if (due.isEmpty()) {
+            return 0;
+        }
+        final var leaseUntil = now.plusSeconds(properties.getLease());
+        final var permits = new Semaphore(Math.max(1, properties.getConcurrency()));
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (final PersistentEmailOutboxEntity email : due) {
+                if (outboxRepository.claim(email.getIdentifier(), now, leaseUntil) == 0) {
+                    continue;
+                }
+                executor.execute(() -> {
+                    permits.acquireUninterruptibly();
+                    try {
+                        deliver(email);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+        return due.size();
+    }
+
+    /**
+     * Deletes the sent and failed emails older than the retention.
+     */
+    @Scheduled(fixedDelayString = "${mail.outbox.purge-interval:PT1H}",
+            initialDelayString = "${mail.outbox.purge-interval:PT1H}")
+    public void purgeFinished() {
+        final int deleted = outboxRepository
+                .deleteFinishedBefore(LocalDateTime.now().minusSeconds(properties.getRetention()));
+        if (deleted > 0) {
+            LOGGER.info("Deleted {} sent or failed emails from the outbox.", deleted);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Dispatcher loop: sends due emails, then waits for a wake-up or the poll
+     * interval.
+     */
+    private void run() {
+        while (running) {
+            try {
+                while (running && dispatchDue() >= properties.getBatchSize()) {
+                    // Keep draining full batches.
+                }
+            } catch (RuntimeException e) {
+                LOGGER.error("Email outbox dispatch failed.", e);
+            }
+            try {
+                wakeUps.tryAcquire(properties.getPollInterval(), TimeUnit.SECONDS);
+                wakeUps.drainPermits();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Records a failed attempt, scheduling a retry or giving up.
+     *
+     * @param email the email that could not be sent.
+     * @param error the cause of the failure.
+     */
+    private void scheduleRetry(final PersistentEmailOutboxEntity email, final Exception error) {
+        final int attempts = email.getAttempts() + 1;
+        email.setAttempts(attempts);
+        email.setLastError(truncate(String.valueOf(error.getMessage())));
+        if (attempts >= properties.getMaxAttempts()) {
+            email.setState(EmailOutboxState.FAILED);
+            LOGGER.error("Giving up email {} to {} after {} attempts.", email.getIdentifier(), email.getRecipient(),
+                    attempts, error);
+        } else {
+            email.setState(EmailOutboxState.PENDING);
+            email.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoffSeconds(attempts)));
+            LOGGER.warn("Email {} to {} failed, attempt {}: {}", email.getIdentifier(), email.getRecipient(), attempts,
+                    error.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!properties.isEnabled() || mailSender.isEmpty()) {
+            LOGGER.info("Email outbox dispatcher not started: no mail sender or disabled.");
+            return;
+        }
+        running = true;
+        worker = Thread.ofVirtual().name("email-outbox").start(this::run);
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+    }
+
+    /**
+     * Truncates an error message to the column length.
+     *
+     * @param message the error message.
+     * @return the message, at most
+     *         {@link PersistentEmailOutboxEntity#LAST_ERROR_MAX_LENGTH} long.
+     */
+    private static String truncate(final String message) {
+        if (message.length() <= PersistentEmailOutboxEntity.LAST_ERROR_MAX_LENGTH) {
+            return message;
+        }
+        return message.substring(0, PersistentEmailOutboxEntity.LAST_ERROR_MAX_LENGTH);
+    }
+
+    /**
+     * Wakes the dispatcher up to send newly queued emails.
+     */
+    public void wakeUp() {
+        wakeUps.release();
+    }
+}
@@ -0,0 +1,159 @@
+package es.org.cxn.backapp.service.impl.mail;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An email template compiled into literal segments and placeholders.
+ * <p>
+ * A template is HTML with {@code ${name}} placeholders, as understood by
+ * {@code StringSubstitutor}: {@code $${} escapes a literal {@code ${}, and a
+ * placeholder without a value is left as is. The template is parsed once;
+ * rendering appends the segments and the values in a single pass into a
+ * builder sized for the result. Values are inserted verbatim, they are not
+ * searched for placeholders.
+ * </p>
+ */
+public final class EmailTemplate {
+
+    /**
+     * Placeholder start.
+     */
+    private static final String PLACEHOLDER_START = "${";
+
+    /**
+     * Placeholder end.
+     */
+    private static final char PLACEHOLDER_END = '}';
+
+    /**
+     * Escape character before a literal placeholder start.
+     */
+    private static final char ESCAPE = '$';
+
+    /**
+     * Literal segments. There is one more segment than placeholders.
+     */
+    private final String[] literals;
+
+    /**
+     * Placeholder names, each one between two literal segments.
+     */
+    private final String[] keys;
+
+    /**
+     * Placeholders as written, used when there is no value for them.
+     */
+    private final String[] rawPlaceholders;
+
+    /**
+     * Total length of the literal segments.
+     */
+    private final int literalLength;
+
+    /**
+     * Builds a compiled template.
+     *
+     * @param literalSegments the literal segments.
+     * @param placeholderKeys the placeholder names.
+     */
+    private EmailTemplate(final List<String> literalSegments, final List<String> placeholderKeys) {
+        literals = literalSegments.toArray(String[]::new);
+        keys = placeholderKeys.toArray(String[]::new);
+        rawPlaceholders = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            rawPlaceholders[i] = PLACEHOLDER_START + keys[i] + PLACEHOLDER_END;
+        }
+        int length = 0;
+        for (final String literal : literals) {
+            length += literal.length();
+        }
+        literalLength = length;
+    }
+
+    /**
+     * Compiles a template.
+     *
+     * @param source the template text.
+     * @return the compiled template.
+     */
+    public static EmailTemplate compile(final String source) {
+        final List<String> literalSegments = new ArrayList<>();
+        final List<String> placeholderKeys = new ArrayList<>();
+        final var literal = new StringBuilder(source.length());
+        int position = 0;
+        while (position < source.length()) {
+            final int start = source.indexOf(PLACEHOLDER_START, position);
+            if (start < 0) {
+                literal.append(source, position, source.length());
+                break;
+            }
+            if (start > 0 && source.charAt(start - 1) == ESCAPE) {
+                // "$${" is a literal "${": drop the escape character.
+                literal.append(source, position, start - 1).append(PLACEHOLDER_START);
+                position = start + PLACEHOLDER_START.length();
+                continue;
+            }
+            final int end = source.indexOf(PLACEHOLDER_END, start + PLACEHOLDER_START.length());
+            if (end < 0) {
+                literal.append(source, position, source.length());
+                break;
+            }
+            literal.append(source, position, start);
+            literalSegments.add(literal.toString());
+            literal.setLength(0);
+            placeholderKeys.add(source.substring(start + PLACEHOLDER_START.length(), end));
+            position = end + 1;
+        }
+        literalSegments.add(literal.toString());
+        return new EmailTemplate(literalSegments, placeholderKeys);
+    }
+
+    /**
+     * Renders the template.
+     *
+     * @param values the placeholder values, by name.
+     * @return the rendered text.
+     */
+    public String render(final Map<String, String> values) {
+        final var resolved = new String[keys.length];
+        int length = literalLength;
+        for (int i = 0; i < keys.length; i++) {
+            final String value = values.get(keys[i]);
+            resolved[i] = value != null ? value : rawPlaceholders[i];
+            length += resolved[i].length();
+        }
+        final var result = new StringBuilder(length);
+        for (int i = 0; i < keys.length; i++) {
+            result.append(literals[i]).append(resolved[i]);
+        }
+        return result.append(literals[keys.length]).toString();
+    }
+}
@@ -0,0 +1,112 @@
+package es.org.cxn.backapp.service.impl.mail;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+/**
+ * The email templates, loaded and compiled once at startup.
+ * <p>
+ * Every {@code .html} file under {@value #TEMPLATE_DIRECTORY} on the classpath
+ * is read and compiled into an {@link EmailTemplate}, so sending an email
+ * neither reads the classpath nor parses the template again.
+ * </p>
+ */
+@Component
+public class EmailTemplateRegistry {
+
+    /**
+     * Classpath directory of the templates.
+     */
+    public static final String TEMPLATE_DIRECTORY = "mailTemplates/";
+
+    /**
+     * Compiled templates, by classpath path, such as
+     * {@code mailTemplates/AcceptedMemberEmail.html}.
+     */
+    private final Map<String, EmailTemplate> templates;
+
+    /**
+     * Loads and compiles every template.
+     *
+     * @throws UncheckedIOException if a template cannot be read.
+     */
+    public EmailTemplateRegistry() {
+        final ResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        final Map<String, EmailTemplate> compiled = new HashMap<>();
+        try {
+            for (final Resource resource : resolver.getResources("classpath*:" + TEMPLATE_DIRECTORY + "*.html")) {
+                compiled.put(TEMPLATE_DIRECTORY + resource.getFilename(), EmailTemplate.compile(read(resource)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load the email templates.", e);
+        }
+        templates = Map.copyOf(compiled);
+    }
+
+    /**
+     * Reads a template, joining its lines with {@code \n}.
+     *
+     * @param resource the template resource.
+     * @return the template text.
+     * @throws IOException if the template cannot be read.
+     */
+    private static String read(final Resource resource) throws IOException {
+        try (var reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            return reader.lines().collect(Collectors.joining("\n"));
+        }
+    }
+
+    /**
+     * Gets a compiled template.
+     *
+     * @param templatePath the classpath path of the template.
+     * @return the compiled template.
+     * @throws FileNotFoundException if there is no such template.
+     */
+    public EmailTemplate get(final String templatePath) throws FileNotFoundException {
+        final EmailTemplate template = templates.get(templatePath);
+        if (template == null) {
+            throw new FileNotFoundException("Email template not found: " + templatePath);
+        }
+        return template;
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ * Email rendering and asynchronous delivery through a persistent outbox.
+ * <p>
+ * This package includes the classes that queue rendered emails in the
+ * {@code email_outbox} table and send them after the transaction commits.
+ * </p>
+ *
+ * <h2>Key Components:</h2>
+ * <ul>
+ * <li>{@link es.org.cxn.backapp.service.impl.mail.EmailOutbox} - Queues an
+ * email within the current transaction.</li>
+ * <li>{@link es.org.cxn.backapp.service.impl.mail.EmailOutboxDispatcher} -
+ * Sends the queued emails on virtual threads, retrying failures with
+ * backoff.</li>
+ * <li>{@link es.org.cxn.backapp.service.impl.mail.EmailTemplateRegistry} -
+ * Loads and compiles the email templates once at startup.</li>
+ * <li>{@link es.org.cxn.backapp.service.impl.mail.EmailTemplate} - A compiled
+ * template, rendered in a single pass.</li>
+ * </ul>
+ *
+ */
+package es.org.cxn.backapp.service.impl.mail;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
@@ -27,15 +27,65 @@ package es.org.cxn.backapp.service.impl.storage;
  * #L%
  */
 
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.apache.tika.Tika;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.MoreFiles;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import es.org.cxn.backapp.service.ImageStorageService;
+import es.org.cxn.backapp.service.dto.SavedImageDto;
+import es.org.cxn.backapp.service.dto.StoredImageDto;
+import es.org.cxn.backapp.service.exceptions.InvalidImageException;
 
 /**
  * Service class for handling image storage operations, including saving,
@@ -43,13 +93,133 @@ import es.org.cxn.backapp.service.ImageStorageService;
  * specify its own storage path, making it flexible across different
  * environments and requirements.
  * <p>
- * Images are organized into directories based on entity type and ID.
+ * Images are stored by content: each location has a {@value #BLOB_DIRECTORY}
+ * directory where every file is named by the SHA-256 digest of its content,
+ * under a subdirectory named by the first two digits. Identical uploads are
+ * stored once, and uploads with the same name never overwrite each other.
+ * Images stored before are kept under their upload name, in a directory per
+ * location and, for user images, per user.
+ * </p>
+ * <p>
+ * When an {@link ImageObjectStore} is configured, the storage directory is a
+ * read-through cache of it: stored images are written to the object store too,
+ * under their path relative to the storage directory, and images missing
+ * locally are fetched from it when read. Every instance sharing the object
+ * store and the same {@code storage.location} path can then serve every image.
+ * Variants are only kept locally.
+ * </p>
+ * <p>
+ * The resized {@link ImageVariant variants} of an image are kept next to it, in
+ * a {@value #VARIANTS_DIRECTORY} directory with one subdirectory per variant.
+ * They are created by a bounded pool of background threads: scheduled when an
+ * image is stored, and awaited when a variant is asked for before it exists or
+ * after the original changed. When the pool queue is full the caller resizes
+ * the image itself. Images that {@link ImageIO} cannot decode, such as WebP, are
+ * served at their original size for every variant.
  * </p>
  *
  * @author Santiago
  */
 @Service
-public final class DefaultImageStorageService implements ImageStorageService {
+public final class DefaultImageStorageService implements ImageStorageService, DisposableBean {
+
+    /**
+     * A version of an image file: a new size or modification time is a new
+     * version, with its own entity tag.
+     *
+     * @param path         the absolute path of the file.
+     * @param size         the size of the file in bytes.
+     * @param lastModified the modification time of the file in milliseconds.
+     */
+    private record ImageVersion(Path path, long size, long lastModified) {
+    }
+
+    /**
+     * The Logger for this class.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(DefaultImageStorageService.class);
+
+    /**
+     * Maximum number of image entity tags kept in memory.
+     */
+    private static final long ETAG_CACHE_SIZE = 10_000;
+
+    /**
+     * Name of the directory of the content-addressed store of each location.
+     */
+    static final String BLOB_DIRECTORY = "sha256";
+
+    /**
+     * Name of the files in a content-addressed store: the hexadecimal SHA-256
+     * digest of their content.
+     */
+    private static final Pattern BLOB_NAME = Pattern.compile("[0-9a-f]{64}");
+
+    /**
+     * Suffix of the files being written.
+     */
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    /**
+     * Name of the directory holding the resized variants of the images next to
+     * it.
+     */
+    static final String VARIANTS_DIRECTORY = ".variants";
+
+    /**
+     * Maximum number of images waiting to be resized.
+     */
+    private static final int VARIANT_QUEUE_SIZE = 64;
+
+    /**
+     * Media type of the JPEG images, resized as JPEG. Every other decodable
+     * format is resized as PNG, which keeps transparency.
+     */
+    private static final String JPEG_MEDIA_TYPE = "image/jpeg";
+
+    /**
+     * Media type of the PNG variants.
+     */
+    private static final String PNG_MEDIA_TYPE = "image/png";
+
+    /**
+     * Media types that can be decoded to be resized.
+     */
+    private static final Set<String> RESIZABLE_MEDIA_TYPES = Set.of(JPEG_MEDIA_TYPE, PNG_MEDIA_TYPE, "image/gif",
+            "image/bmp");
+
+    /**
+     * Media types accepted for uploads, read from their first bytes.
+     */
+    private static final Set<String> UPLOAD_MEDIA_TYPES = Set.of(JPEG_MEDIA_TYPE, PNG_MEDIA_TYPE, "image/webp",
+            "image/avif");
+
+    /**
+     * Default maximum size of the uploaded images, in megabytes.
+     */
+    private static final long DEFAULT_MAX_IMAGE_SIZE_MB = 10;
+
+    /**
+     * Media type detector, reading the first bytes of the uploads, and also the
+     * file name of the images stored before their media type was recorded.
+     */
+    private static final Tika TIKA = new Tika();
+
+    /**
+     * Entity tags of the served images by file version.
+     */
+    private final Cache<ImageVersion, String> etags = CacheBuilder.newBuilder().maximumSize(ETAG_CACHE_SIZE)
+            .build();
+
+    /**
+     * Threads resizing images, one per processor.
+     */
+    private final ExecutorService variantExecutor;
+
+    /**
+     * Variants being written, by target path, so that each is resized once.
+     */
+    private final Map<Path, CompletableFuture<Void>> variantsInProgress = new ConcurrentHashMap<>();
 
     /**
      * Location for storage images. Provided by app .properties file.
@@ -57,21 +227,57 @@ public final class DefaultImageStorageService implements ImageStorageService {
     @Value("${storage.location}")
     private String baseDirectory;
 
+    /**
+     * Maximum size of the uploaded images. Provided by app .properties file.
+     */
+    @Value("${storage.max-image-size:10MB}")
+    private DataSize maxImageSize = DataSize.ofMegabytes(DEFAULT_MAX_IMAGE_SIZE_MB);
+
+    /**
+     * The shared store backing the storage directory, or {@code null} if the
+     * directory holds the only copy of the images.
+     */
+    private final ImageObjectStore objectStore;
+
+    /**
+     * Constructor for DefaultImageStorageService class, keeping the images in the
+     * storage directory only.
+     */
+    public DefaultImageStorageService() {
+        this(Optional.empty());
+    }
+
     /**
      * Constructor for DefaultImageStorageService class. This constructor is needed
      * for Spring Framework's dependency injection.
-     * <p>
-     * The default constructor is implicitly used by Spring to inject dependencies,
-     * if any are required.
-     * </p>
+     *
+     * @param sharedStore the store backing the storage directory, if
+     *                    {@code storage.backend} selects one.
      */
-    public DefaultImageStorageService() {
+    @Autowired
+    public DefaultImageStorageService(final Optional<ImageObjectStore> sharedStore) {
         super();
-        // No need for explicit constructor logic if no dependencies are being injected.
+        objectStore = sharedStore.orElse(null);
+        final int threads = Runtime.getRuntime().availableProcessors();
+        variantExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(VARIANT_QUEUE_SIZE),
+                new ThreadFactoryBuilder().setNameFormat("image-variant-%d").setDaemon(true).build(),
+                (task, executor) -> task.run());
+    }
+
+    /**
+     * Stops the resizing threads. Queued variants are dropped; they are created
+     * again when asked for.
+     */
+    @Override
+    public void destroy() {
+        variantExecutor.shutdownNow();
     }
 
     /**
-     * Deletes an image file at the specified path within a base directory.
+     * Deletes an image file at the specified path within a base directory, with
+     * its variants. Images in a content-addressed store may be shared, so they
+     * are left for {@link #deleteUnreferenced(Set, Duration)}.
      *
      *
      * @param imagePath the relative path of the image to delete
@@ -79,8 +285,33 @@ public final class DefaultImageStorageService implements ImageStorageService {
      */
     @Override
     public void deleteImage(final String imagePath) throws IOException {
-        final Path path = Path.of(imagePath);
+        final boolean delete = !isContentAddressed(imagePath);
+        deleteImage(Path.of(imagePath), delete);
+        if (delete && objectStore != null) {
+            final String key = objectKey(Path.of(imagePath));
+            if (key != null) {
+                objectStore.delete(key);
+            }
+        }
+    }
+
+    /**
+     * Deletes an image file and its variants.
+     *
+     * @param path   the path of the image.
+     * @param delete {@code false} to keep the image.
+     * @throws IOException if an error occurs while deleting the files.
+     */
+    private static void deleteImage(final Path path, final boolean delete) throws IOException {
+        if (!delete) {
+            return;
+        }
         Files.deleteIfExists(path);
+        for (final ImageVariant variant : ImageVariant.values()) {
+            if (variant != ImageVariant.ORIGINAL) {
+                Files.deleteIfExists(variantPath(path, variant));
+            }
+        }
     }
 
     /**
@@ -93,54 +324,544 @@ public final class DefaultImageStorageService implements ImageStorageService {
      */
     @Override
     public byte[] loadImage(final String imagePath) throws IOException {
-        final Path path = Path.of(imagePath);
+        final Path path = cached(imagePath);
         return Files.readAllBytes(path);
     }
 
     /**
-     * Saves an image file in userId directory and inside this directory in
-     * FileLocation directory.
+     * Opens an image file for serving. The entity tag is the SHA-256 digest of
+     * the file: the name of the files in a content-addressed store, and computed
+     * and cached by path, size and modification time for the others, so that they
+     * are only read in full again when they change.
+     *
+     * @param imagePath   the relative path of the image to open
+     * @param contentType the media type recorded when the image was stored, or
+     *                    {@code null} to detect it from the file
+     * @return the image backed by its file
+     * @throws IOException if the file does not exist or cannot be read
+     */
+    @Override
+    public StoredImageDto openImage(final String imagePath, final String contentType) throws IOException {
+        final Path path = cached(imagePath);
+        final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        final var version = new ImageVersion(path.toAbsolutePath().normalize(), attributes.size(),
+                attributes.lastModifiedTime().toMillis());
+        final String etag;
+        if (isContentAddressed(imagePath)) {
+            etag = '"' + path.getFileName().toString() + '"';
+        } else {
+            try {
+                etag = etags.get(version, () -> '"' + MoreFiles.asByteSource(path).hash(Hashing.sha256()).toString()
+                        + '"');
+            } catch (ExecutionException e) {
+                throw new IOException("Cannot read image " + imagePath, e.getCause());
+            }
+        }
+        return new StoredImageDto(new FileSystemResource(path), attributes.size(),
+                attributes.lastModifiedTime().toInstant(), etag,
+                contentType != null ? contentType : TIKA.detect(path));
+    }
+
+    /**
+     * Opens a variant of an image file for serving, waiting for it to be resized
+     * if it does not exist yet or is older than the image.
+     *
+     * @param imagePath   the relative path of the image to open
+     * @param contentType the media type recorded when the image was stored, or
+     *                    {@code null} to detect it from the file
+     * @param variant     the variant to open
+     * @return the variant backed by its file, or the image itself if it cannot be
+     *         resized
+     * @throws IOException if the file does not exist, cannot be read or cannot be
+     *                     resized
+     */
+    @Override
+    public StoredImageDto openImage(final String imagePath, final String contentType, final ImageVariant variant)
+            throws IOException {
+        final Path source = cached(imagePath);
+        final String sourceType = contentType != null ? contentType : TIKA.detect(source);
+        if (variant == ImageVariant.ORIGINAL || !RESIZABLE_MEDIA_TYPES.contains(sourceType)) {
+            return openImage(imagePath, sourceType);
+        }
+        final Path target = variantPath(source, variant);
+        if (!isCurrent(source, target)) {
+            try {
+                resize(source, target, variant, sourceType).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while resizing image " + imagePath);
+            } catch (ExecutionException e) {
+                throw new IOException("Cannot resize image " + imagePath, e.getCause());
+            }
+        }
+        return openImage(target.toString(), variantMediaType(sourceType));
+    }
+
+    /**
+     * Gets the path of a variant of an image.
+     *
+     * @param source  the path of the image.
+     * @param variant the variant.
+     * @return the path of the variant file.
+     */
+    private static Path variantPath(final Path source, final ImageVariant variant) {
+        return source.resolveSibling(VARIANTS_DIRECTORY).resolve(variant.getParameter()).resolve(source.getFileName());
+    }
+
+    /**
+     * Gets the media type of the variants of an image.
+     *
+     * @param sourceType the media type of the image.
+     * @return the media type its variants are written in.
+     */
+    private static String variantMediaType(final String sourceType) {
+        return JPEG_MEDIA_TYPE.equals(sourceType) ? JPEG_MEDIA_TYPE : PNG_MEDIA_TYPE;
+    }
+
+    /**
+     * Checks whether a variant exists and was written after its image.
+     *
+     * @param source the path of the image.
+     * @param target the path of the variant.
+     * @return {@code true} if the variant can be served.
+     * @throws IOException if the image does not exist or cannot be read.
+     */
+    private static boolean isCurrent(final Path source, final Path target) throws IOException {
+        final var sourceModified = Files.getLastModifiedTime(source);
+        try {
+            return Files.getLastModifiedTime(target).compareTo(sourceModified) >= 0;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Schedules the resizing of an image into a variant, unless it is already
+     * being resized.
+     *
+     * @param source     the path of the image.
+     * @param target     the path of the variant.
+     * @param variant    the variant.
+     * @param sourceType the media type of the image.
+     * @return completes when the variant is written.
+     */
+    private CompletableFuture<Void> resize(final Path source, final Path target, final ImageVariant variant,
+            final String sourceType) {
+        final var resizing = new CompletableFuture<Void>();
+        final var running = variantsInProgress.putIfAbsent(target, resizing);
+        if (running != null) {
+            return running;
+        }
+        variantExecutor.execute(() -> {
+            try {
+                writeVariant(source, target, variant, variantMediaType(sourceType));
+                resizing.complete(null);
+            } catch (IOException | RuntimeException e) {
+                resizing.completeExceptionally(e);
+            } finally {
+                variantsInProgress.remove(target, resizing);
+            }
+        });
+        return resizing;
+    }
+
+    /**
+     * Decodes an image, scales it down to fit its variant size and writes it to a
+     * temporary file moved over the variant. Large images are subsampled while
+     * decoding, so no more than about twice the variant size is held in memory.
+     *
+     * @param source    the path of the image.
+     * @param target    the path of the variant.
+     * @param variant   the variant.
+     * @param mediaType the media type to write the variant in.
+     * @throws IOException if the image cannot be decoded or the variant written.
+     */
+    private static void writeVariant(final Path source, final Path target, final ImageVariant variant,
+            final String mediaType) throws IOException {
+        final BufferedImage decoded;
+        final double scale;
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            final var readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("Unsupported image format: " + source);
+            }
+            final ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                final int largestSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                final int subsampling = Math.max(1, largestSide / (2 * variant.getMaxSize()));
+                final ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                decoded = reader.read(0, param);
+                scale = Math.min(1.0, (double) variant.getMaxSize() / Math.max(decoded.getWidth(),
+                        decoded.getHeight()));
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        final boolean jpeg = JPEG_MEDIA_TYPE.equals(mediaType);
+        final var resized = new BufferedImage(Math.max(1, (int) Math.round(decoded.getWidth() * scale)),
+                Math.max(1, (int) Math.round(decoded.getHeight() * scale)),
+                jpeg ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(decoded, 0, 0, resized.getWidth(), resized.getHeight(), null);
+        } finally {
+            graphics.dispose();
+        }
+
+        Files.createDirectories(target.getParent());
+        final Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(),
+                TEMPORARY_SUFFIX);
+        try {
+            if (!ImageIO.write(resized, jpeg ? "jpeg" : "png", temporary.toFile())) {
+                throw new IOException("No writer for " + mediaType);
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Schedules the resizing of a stored image into each of its variants. Failures
+     * are only logged: the variants are resized again when asked for.
+     *
+     * @param imagePath   the path of the stored image.
+     * @param contentType the media type of the image.
+     */
+    private void scheduleVariants(final String imagePath, final String contentType) {
+        if (!RESIZABLE_MEDIA_TYPES.contains(contentType)) {
+            return;
+        }
+        final Path source = Path.of(imagePath);
+        for (final ImageVariant variant : ImageVariant.values()) {
+            if (variant != ImageVariant.ORIGINAL) {
+                resize(source, variantPath(source, variant), variant, contentType).exceptionally(error -> {
+                    LOGGER.warn("Cannot resize image {} to {}", imagePath, variant.getParameter(), error);
+                    return null;
+                });
+            }
+        }
+    }
+
+    /**
+     * Saves an image file in the FileLocation directory, detecting its media type
+     * from the first bytes of the upload before writing it, and schedules the
+     * resizing of its variants.
+     *
+     * @param file         the MultipartFile representing the image to save
+     * @param fileLocation the enum type representing the location of the file
+     * @return the path where the image was saved and its media type
+     * @throws IOException if the file is not an accepted image, is too large, or
+     *                     an error occurs while saving it
+     */
+    @Override
+    public SavedImageDto storeImage(final MultipartFile file, final FileLocation fileLocation) throws IOException {
+        final SavedImageDto saved = storeUpload(file, fileLocation);
+        scheduleVariants(saved.path(), saved.contentType());
+        return saved;
+    }
+
+    /**
+     * Saves an image file in the content-addressed store of its FileLocation.
      *
      * @param file         the MultipartFile representing the image to save
      * @param fileLocation the enum type representing the location of the file
      * @return the path where the image was saved as a String
-     * @throws IOException if an error occurs while saving the file
+     * @throws IOException if the file is not an accepted image, is too large, or
+     *                     an error occurs while saving it
      */
     @Override
     public String saveImage(final MultipartFile file, final FileLocation fileLocation) throws IOException {
-        // Resolve the directory for the specified file location
-        final Path directoryPath = Path.of(baseDirectory).resolve(fileLocation.getDirectoryKey());
-        Files.createDirectories(directoryPath);
-
-        // Save the file to the resolved path
-        final Path filePath = directoryPath.resolve(file.getOriginalFilename());
-        file.transferTo(filePath.toFile());
-
-        return filePath.toString();
+        return storeUpload(file, fileLocation).path();
     }
 
     /**
-     * Saves an image file in userId directory and inside this directory in
-     * FileLocation directory.
+     * Saves an image file in the content-addressed store of its FileLocation. The
+     * user no longer names a directory: identical images of different users share
+     * their file.
      *
      * @param file         the MultipartFile representing the image to save
      * @param fileLocation the enum type representing the location of the file
-     * @param userId       the user identifier for save image in folder with user id
-     *                     name.
+     * @param userId       the user the image belongs to.
      * @return the path where the image was saved as a String
-     * @throws IOException if an error occurs while saving the file
+     * @throws IOException if the file is not an accepted image, is too large, or
+     *                     an error occurs while saving it
      */
     @Override
     public String saveImage(final MultipartFile file, final FileLocation fileLocation, final String userId)
             throws IOException {
-        // Resolve the directory for the specified file location
-        final Path directoryPath = Path.of(baseDirectory).resolve(userId).resolve(fileLocation.getDirectoryKey());
-        Files.createDirectories(directoryPath);
+        return saveImage(file, fileLocation);
+    }
+
+    /**
+     * Copies an image stored under its upload name into the content-addressed
+     * store of a location. The original is kept, to be deleted once nothing
+     * references it.
+     *
+     * @param imagePath    the path of the image stored under its upload name.
+     * @param fileLocation the location the image belongs to.
+     * @return the path of the image in the content-addressed store.
+     * @throws IOException if the image cannot be read or stored.
+     */
+    public String importImage(final String imagePath, final FileLocation fileLocation) throws IOException {
+        final Path blob;
+        try (InputStream content = Files.newInputStream(Path.of(imagePath))) {
+            blob = storeBlob(content, fileLocation, Long.MAX_VALUE);
+        }
+        return blob.toString();
+    }
+
+    /**
+     * Checks whether an image path is in a content-addressed store.
+     *
+     * @param imagePath the path of the image.
+     * @return {@code true} if the file is named by the digest of its content.
+     */
+    public static boolean isContentAddressed(final String imagePath) {
+        final Path path = Path.of(imagePath);
+        final Path shard = path.getParent();
+        return shard != null && shard.getParent() != null && shard.getParent().getFileName() != null
+                && BLOB_DIRECTORY.equals(shard.getParent().getFileName().toString())
+                && BLOB_NAME.matcher(path.getFileName().toString()).matches();
+    }
+
+    /**
+     * Deletes the stored images that are not referenced and were last written
+     * before a grace period, with their variants, locally and from the object
+     * store, and the leftovers of interrupted writes. The grace period covers images being stored whose
+     * reference is not committed yet: storing an image that already exists
+     * renews its modification time.
+     *
+     * @param referencedPaths the paths of the referenced images.
+     * @param gracePeriod     the minimum age of the deleted files.
+     * @return the number of deleted images.
+     * @throws IOException if a store cannot be listed.
+     */
+    public int deleteUnreferenced(final Set<String> referencedPaths, final Duration gracePeriod)
+            throws IOException {
+        final Set<Path> referenced = new HashSet<>();
+        for (final String referencedPath : referencedPaths) {
+            referenced.add(Path.of(referencedPath).toAbsolutePath().normalize());
+        }
+        final var cutoff = FileTime.from(Instant.now().minus(gracePeriod));
+        final Set<Path> deleted = new HashSet<>();
+        for (final FileLocation location : FileLocation.values()) {
+            final Path root = blobRoot(location);
+            if (objectStore != null) {
+                deleteUnreferencedObjects(root, referenced, cutoff.toInstant(), deleted);
+            }
+            if (!Files.isDirectory(root)) {
+                continue;
+            }
+            final List<Path> candidates;
+            try (Stream<Path> files = Files.walk(root)) {
+                candidates = files.filter(Files::isRegularFile).toList();
+            }
+            for (final Path file : candidates) {
+                if (sweep(file, referenced, cutoff)) {
+                    deleted.add(file.toAbsolutePath().normalize());
+                }
+            }
+        }
+        return deleted.size();
+    }
+
+    /**
+     * Deletes the unreferenced images of a content-addressed store from the
+     * object store, once written before the cutoff.
+     *
+     * @param root       the root directory of the content-addressed store.
+     * @param referenced the absolute paths of the referenced images.
+     * @param cutoff     the modification time of the newest deleted images.
+     * @param deleted    the absolute paths of the deleted images, added to.
+     * @throws IOException if the object store cannot be listed or updated.
+     */
+    private void deleteUnreferencedObjects(final Path root, final Set<Path> referenced, final Instant cutoff,
+            final Set<Path> deleted) throws IOException {
+        final Path base = Path.of(baseDirectory).toAbsolutePath().normalize();
+        for (final ImageObjectStore.StoredObject object : objectStore.list(objectKey(root) + '/')) {
+            final Path path = base.resolve(object.key()).normalize();
+            if (isContentAddressed(path.toString()) && object.lastModified().isBefore(cutoff)
+                    && !referenced.contains(path)) {
+                objectStore.delete(object.key());
+                deleted.add(path);
+            }
+        }
+    }
+
+    /**
+     * Gets the name of an image in the object store: its path relative to the
+     * storage directory, with {@code /} separators.
+     *
+     * @param path the path of the image.
+     * @return the name, or {@code null} if the image is outside of the storage
+     *         directory.
+     */
+    private String objectKey(final Path path) {
+        final Path base = Path.of(baseDirectory).toAbsolutePath().normalize();
+        final Path absolute = path.toAbsolutePath().normalize();
+        if (!absolute.startsWith(base) || absolute.equals(base)) {
+            return null;
+        }
+        final List<String> names = new ArrayList<>();
+        for (final Path name : base.relativize(absolute)) {
+            names.add(name.toString());
+        }
+        return String.join("/", names);
+    }
+
+    /**
+     * Gets the local file of an image, fetching it from the object store first if
+     * it is missing locally.
+     *
+     * @param imagePath the path of the image.
+     * @return the local file; it does not exist if neither has the image.
+     * @throws IOException if the image cannot be fetched.
+     */
+    private Path cached(final String imagePath) throws IOException {
+        final Path path = Path.of(imagePath);
+        if (objectStore == null || Files.exists(path)) {
+            return path;
+        }
+        final String key = objectKey(path);
+        if (key == null) {
+            return path;
+        }
+        Files.createDirectories(path.getParent());
+        final Path temporary = Files.createTempFile(path.getParent(), path.getFileName().toString(),
+                TEMPORARY_SUFFIX);
+        try {
+            if (objectStore.fetch(key, temporary)) {
+                Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return path;
+    }
+
+    /**
+     * Deletes a file of a content-addressed store if it is a leftover of an
+     * interrupted write, an unreferenced image or the variant of a deleted image,
+     * and it is older than the cutoff.
+     *
+     * @param file       the file.
+     * @param referenced the absolute paths of the referenced images.
+     * @param cutoff     the modification time of the newest deleted files.
+     * @return {@code true} if the file was an image and was deleted.
+     * @throws IOException if the file cannot be deleted.
+     */
+    private static boolean sweep(final Path file, final Set<Path> referenced, final FileTime cutoff)
+            throws IOException {
+        try {
+            if (Files.getLastModifiedTime(file).compareTo(cutoff) >= 0) {
+                return false;
+            }
+        } catch (NoSuchFileException e) {
+            // Already deleted as the variant of an image.
+            return false;
+        }
+        final String name = file.getFileName().toString();
+        final Path variantsDirectory = file.getParent().getParent();
+        boolean deletedImage = false;
+        if (name.endsWith(TEMPORARY_SUFFIX)) {
+            Files.deleteIfExists(file);
+        } else if (isContentAddressed(file.toString())) {
+            if (!referenced.contains(file.toAbsolutePath().normalize())) {
+                deleteImage(file, true);
+                deletedImage = true;
+            }
+        } else if (VARIANTS_DIRECTORY.equals(variantsDirectory.getFileName().toString())
+                && !Files.exists(variantsDirectory.resolveSibling(name))) {
+            Files.deleteIfExists(file);
+        }
+        return deletedImage;
+    }
+
+    /**
+     * Gets the content-addressed store of a location.
+     *
+     * @param fileLocation the location.
+     * @return the root directory of its store.
+     */
+    private Path blobRoot(final FileLocation fileLocation) {
+        return fileLocation.resolvePath(baseDirectory).resolve(BLOB_DIRECTORY);
+    }
 
-        // Save the file to the resolved path
-        final Path filePath = directoryPath.resolve(file.getOriginalFilename());
-        file.transferTo(filePath.toFile());
+    /**
+     * Streams an upload into the content-addressed store of a location. The
+     * declared size and the media type read from the first bytes are checked
+     * before anything is written, and the content is cut off as soon as it
+     * exceeds the maximum size, so invalid uploads are rejected early.
+     *
+     * @param file         the upload.
+     * @param fileLocation the location.
+     * @return the path of the stored image and its media type.
+     * @throws InvalidImageException if the upload is not an accepted image or is
+     *                               too large.
+     * @throws IOException           if the upload cannot be read or written.
+     */
+    private SavedImageDto storeUpload(final MultipartFile file, final FileLocation fileLocation)
+            throws IOException {
+        final long maxSize = maxImageSize.toBytes();
+        if (file.getSize() > maxSize) {
+            throw new InvalidImageException("Image exceeds " + maxSize + " bytes");
+        }
+        try (InputStream content = new BufferedInputStream(file.getInputStream())) {
+            final String contentType = TIKA.detect(content);
+            if (!UPLOAD_MEDIA_TYPES.contains(contentType)) {
+                throw new InvalidImageException("Unsupported image type: " + contentType);
+            }
+            return new SavedImageDto(storeBlob(content, fileLocation, maxSize).toString(), contentType);
+        }
+    }
 
-        return filePath.toString();
+    /**
+     * Writes content to the content-addressed store of a location, hashing it
+     * while it is copied to a temporary file next to its final path. The file is
+     * then renamed to the path named by its digest, or dropped if an identical
+     * file is already there, so the content is written to disk once.
+     *
+     * @param content      the content to store.
+     * @param fileLocation the location.
+     * @param maxSize      the maximum size of the content, in bytes.
+     * @return the path of the stored file.
+     * @throws InvalidImageException if the content exceeds the maximum size.
+     * @throws IOException           if the content cannot be read or written.
+     */
+    private Path storeBlob(final InputStream content, final FileLocation fileLocation, final long maxSize)
+            throws IOException {
+        final Path root = blobRoot(fileLocation);
+        Files.createDirectories(root);
+        final Path temporary = Files.createTempFile(root, "upload", TEMPORARY_SUFFIX);
+        try {
+            final String digest;
+            final InputStream limited = maxSize < Long.MAX_VALUE ? ByteStreams.limit(content, maxSize + 1) : content;
+            try (var hashing = new HashingInputStream(Hashing.sha256(), limited)) {
+                if (Files.copy(hashing, temporary, StandardCopyOption.REPLACE_EXISTING) > maxSize) {
+                    throw new InvalidImageException("Image exceeds " + maxSize + " bytes");
+                }
+                digest = hashing.hash().toString();
+            }
+            final Path blob = root.resolve(digest.substring(0, 2)).resolve(digest);
+            Files.createDirectories(blob.getParent());
+            if (Files.exists(blob)) {
+                Files.setLastModifiedTime(blob, FileTime.from(Instant.now()));
+            } else {
+                Files.move(temporary, blob, StandardCopyOption.ATOMIC_MOVE);
+            }
+            if (objectStore != null) {
+                // Also renews the modification time of a blob another instance stored
+                objectStore.put(objectKey(blob), blob);
+            }
+            return blob;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
     }
 }
@@ -0,0 +1,101 @@
+package es.org.cxn.backapp.service.impl.storage;
+
+/*-
+ * #%L
+ * CXN-back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Círculo Xadrez Narón
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A shared store of image files, backing the local directory of
+ * {@link DefaultImageStorageService} so that several application instances can
+ * serve the same images. Files are named by their path relative to the
+ * storage directory, with {@code /} separators.
+ * <p>
+ * The local directory becomes a read-through cache of the store: stored images
+ * are written to both, and images missing locally are fetched from the store
+ * the first time they are read. Without a store, the local directory holds the
+ * only copy.
+ * </p>
+ * <p>
+ * Implementations are chosen with {@code storage.backend}: {@code s3} for
+ * {@link S3ImageObjectStore} and {@code memory} for the in-process
+ * {@link InMemoryImageObjectStore}. The default, {@code local}, uses none.
+ * </p>
+ */
+public interface ImageObjectStore {
+
+    /**
+     * A file in the store.
+     *
+     * @param key          The name of the file.
+     * @param lastModified When the file was last written.
+     */
+    record StoredObject(String key, Instant lastModified) {
+    }
+
+    /**
+     * Deletes a file, if it exists.
+     *
+     * @param key the name of the file.
+     * @throws IOException if the store cannot be reached.
+     */
+    void delete(String key) throws IOException;
+
+    /**
+     * Copies a file of the store to a local file.
+     *
+     * @param key    the name of the file.
+     * @param target the local file, replaced if it exists.
+     * @return {@code false} if the store has no such file; the local file is then
+     *         left as it was.
+     * @throws IOException if the store cannot be reached or the local file cannot
+     *                     be written.
+     */
+    boolean fetch(String key, Path target) throws IOException;
+
+    /**
+     * Lists the files whose name starts with a prefix.
+     *
+     * @param prefix the prefix.
+     * @return the files.
+     * @throws IOException if the store cannot be reached.
+     */
+    List<StoredObject> list(String prefix) throws IOException;
+
+    /**
+     * Writes a local file to the store, replacing the file of the same name and
+     * renewing its modification time.
+     *
+     * @param key    the name of the file.
+     * @param source the local file.
+     * @throws IOException if the store cannot be reached or the local file cannot
+     *                     be read.
+     */
+    void put(String key, Path source) throws IOException;
+}
@@ -0,0 +1,200 @@
+package es.org.cxn.backapp.service.impl.storage;
+
+/*-
+ * #%L
+ * CXN-back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Círculo Xadrez Narón
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import es.org.cxn.backapp.repository.ImageReferenceRepository;
+import es.org.cxn.backapp.repository.ImageReferenceRepository.ImageColumn;
+
+/**
+ * Keeps the content-addressed image stores of {@link DefaultImageStorageService}
+ * consistent with the rows referencing their files.
+ * <p>
+ * On startup, images still stored under their upload name are moved into the
+ * stores and their rows rewritten to the new paths. Periodically, the files no
+ * row references any more are deleted: the references are counted from the
+ * image columns themselves, so they can never drift from the data.
+ * </p>
+ *
+ * <pre>
+ * storage.migrate-legacy-images=true
+ * storage.gc.interval=PT24H
+ * storage.gc.grace-period=PT1H
+ * </pre>
+ */
+@Component
+public class ImageStoreMaintenance {
+
+    /**
+     * The Logger for this class.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImageStoreMaintenance.class);
+
+    /**
+     * The columns referencing stored images.
+     */
+    private final ImageReferenceRepository imageReferenceRepository;
+
+    /**
+     * The image storage.
+     */
+    private final DefaultImageStorageService imageStorageService;
+
+    /**
+     * Whether images stored under their upload name are moved on startup.
+     */
+    private final boolean migrateLegacyImages;
+
+    /**
+     * Minimum age of the unreferenced files deleted.
+     */
+    private final Duration gracePeriod;
+
+    /**
+     * Constructs the image store maintenance.
+     *
+     * @param referenceRepo     the columns referencing stored images.
+     * @param storageService    the image storage.
+     * @param migrateOnStartup  whether images stored under their upload name are
+     *                          moved on startup.
+     * @param unreferencedGrace minimum age of the unreferenced files deleted.
+     */
+    public ImageStoreMaintenance(final ImageReferenceRepository referenceRepo,
+            final DefaultImageStorageService storageService,
+            @Value("${storage.migrate-legacy-images:true}") final boolean migrateOnStartup,
+            @Value("${storage.gc.grace-period:PT1H}") final Duration unreferencedGrace) {
+        imageReferenceRepository = Objects.requireNonNull(referenceRepo,
+                "Received a null pointer as image reference repository");
+        imageStorageService = Objects.requireNonNull(storageService,
+                "Received a null pointer as image storage service");
+        migrateLegacyImages = migrateOnStartup;
+        gracePeriod = Objects.requireNonNull(unreferencedGrace, "Received a null pointer as grace period");
+    }
+
+    /**
+     * Gets the location of the images of a column.
+     *
+     * @param imageColumn the column.
+     * @return the location its images are stored in.
+     */
+    private static FileLocation location(final ImageColumn imageColumn) {
+        return switch (imageColumn) {
+        case ACTIVITY_IMAGE -> FileLocation.ACTIVITY_IMAGES;
+        case BOOK_COVER -> FileLocation.BOOK_COVERS;
+        case MAGAZINE_COVER -> FileLocation.MAGAZINE_COVERS;
+        case PROFILE_IMAGE -> FileLocation.PROFILE_IMAGES;
+        case DNI_FRONT, DNI_BACK -> FileLocation.DNI;
+        };
+    }
+
+    /**
+     * Moves the images stored under their upload name on startup, if enabled.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (migrateLegacyImages) {
+            final int migrated = migrateLegacyImages();
+            if (migrated > 0) {
+                LOGGER.info("Moved {} images into the content-addressed stores", migrated);
+            }
+        }
+    }
+
+    /**
+     * Moves the referenced images stored under their upload name into the store of
+     * their location, rewriting their rows. The old files are deleted once every
+     * row is rewritten. Paths without a file are left as they are.
+     *
+     * @return the number of paths rewritten.
+     */
+    public int migrateLegacyImages() {
+        final List<String> moved = new ArrayList<>();
+        for (final ImageColumn imageColumn : ImageColumn.values()) {
+            for (final String path : imageReferenceRepository.findPaths(imageColumn)) {
+                if (DefaultImageStorageService.isContentAddressed(path) || !Files.isRegularFile(Path.of(path))) {
+                    continue;
+                }
+                try {
+                    final String blob = imageStorageService.importImage(path, location(imageColumn));
+                    imageReferenceRepository.replacePath(imageColumn, path, blob);
+                    moved.add(path);
+                } catch (IOException e) {
+                    LOGGER.warn("Cannot move image {} into the content-addressed store", path, e);
+                }
+            }
+        }
+        for (final String path : new HashSet<>(moved)) {
+            try {
+                imageStorageService.deleteImage(path);
+            } catch (IOException e) {
+                LOGGER.warn("Cannot delete moved image {}", path, e);
+            }
+        }
+        return moved.size();
+    }
+
+    /**
+     * Deletes the stored images no row references, once they are older than the
+     * grace period.
+     *
+     * @return the number of images deleted.
+     */
+    @Scheduled(fixedDelayString = "${storage.gc.interval:PT24H}", initialDelayString = "${storage.gc.interval:PT24H}")
+    public int collectGarbage() {
+        final Set<String> referenced = new HashSet<>();
+        for (final ImageColumn imageColumn : ImageColumn.values()) {
+            referenced.addAll(imageReferenceRepository.findPaths(imageColumn));
+        }
+        int deleted = 0;
+        try {
+            deleted = imageStorageService.deleteUnreferenced(referenced, gracePeriod);
+            if (deleted > 0) {
+                LOGGER.info("Deleted {} unreferenced images", deleted);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Cannot delete unreferenced images", e);
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,108 @@
+package es.org.cxn.backapp.service.impl.storage;
+
+/*-
+ * #%L
+ * CXN-back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Círculo Xadrez Narón
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+/**
+ * Sizes in which stored images are served.
+ * <p>
+ * The resized variants fit within a square of their maximum size, keeping the
+ * aspect ratio of the original, and are never larger than it.
+ * </p>
+ */
+public enum ImageVariant {
+
+    /**
+     * Thumbnail, for lists.
+     */
+    THUMB("thumb", 160),
+
+    /**
+     * Medium size, for detail views.
+     */
+    MEDIUM("medium", 640),
+
+    /**
+     * The image as uploaded.
+     */
+    ORIGINAL("original", 0);
+
+    /**
+     * The name of the variant in request parameters.
+     */
+    private final String parameter;
+
+    /**
+     * The maximum width and height of the variant in pixels, 0 for the original.
+     */
+    private final int maxSize;
+
+    /**
+     * Constructs an {@code ImageVariant} enum constant.
+     *
+     * @param parameter the name of the variant in request parameters.
+     * @param maxSize   the maximum width and height in pixels, 0 for the original.
+     */
+    ImageVariant(final String parameter, final int maxSize) {
+        this.parameter = parameter;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Finds the variant named by a request parameter, ignoring case.
+     *
+     * @param value the parameter value.
+     * @return the variant, or {@code null} if no variant has that name.
+     */
+    public static ImageVariant fromParameter(final String value) {
+        ImageVariant result = null;
+        for (final ImageVariant variant : values()) {
+            if (variant.parameter.equalsIgnoreCase(value)) {
+                result = variant;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the maximum width and height of the variant.
+     *
+     * @return the size in pixels, 0 for the original.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Gets the name of the variant in request parameters.
+     *
+     * @return the parameter value.
+     */
+    public String getParameter() {
+        return parameter;
+    }
+}
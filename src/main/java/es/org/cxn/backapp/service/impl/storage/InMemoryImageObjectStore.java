@@ -0,0 +1,117 @@
+package es.org.cxn.backapp.service.impl.storage;
+
+/*-
+ * #%L
+ * CXN-back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Círculo Xadrez Narón
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * An {@link ImageObjectStore} holding the files in memory, standing in for a
+ * shared store in tests and local runs. Selected with
+ * {@code storage.backend=memory}; its content is lost on restart.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "memory")
+public final class InMemoryImageObjectStore implements ImageObjectStore {
+
+    /**
+     * A file held in memory.
+     *
+     * @param content      The content.
+     * @param lastModified When it was written.
+     */
+    private record MemoryObject(byte[] content, Instant lastModified) {
+    }
+
+    /**
+     * The files by name.
+     */
+    private final Map<String, MemoryObject> objects = new ConcurrentHashMap<>();
+
+    /**
+     * Default constructor.
+     */
+    public InMemoryImageObjectStore() {
+        super();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void delete(final String key) {
+        objects.remove(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean fetch(final String key, final Path target) throws IOException {
+        final MemoryObject object = objects.get(key);
+        if (object == null) {
+            return false;
+        }
+        Files.write(target, object.content());
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<StoredObject> list(final String prefix) {
+        return objects.entrySet().stream().filter(entry -> entry.getKey().startsWith(prefix))
+                .map(entry -> new StoredObject(entry.getKey(), entry.getValue().lastModified())).toList();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(final String key, final Path source) throws IOException {
+        objects.put(key, new MemoryObject(Files.readAllBytes(source), Instant.now()));
+    }
+
+    /**
+     * Sets when a file was last written, to age it in tests.
+     *
+     * @param key          the name of the file.
+     * @param lastModified the new modification time.
+     */
+    public void setLastModified(final String key, final Instant lastModified) {
+        objects.computeIfPresent(key, (name, object) -> new MemoryObject(object.content(), lastModified));
+    }
+}
@@ -0,0 +1,305 @@
+package es.org.cxn.backapp.service.impl.storage;
+
+/*-
+ * #%L
+ * CXN-back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Círculo Xadrez Narón
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandler;
+import java.net.http.HttpResponse.BodySubscribers;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.MoreFiles;
+
+import es.org.cxn.backapp.config.S3StorageProperties;
+
+/**
+ * An {@link ImageObjectStore} in a bucket of an S3-compatible object store,
+ * such as Amazon S3 or MinIO, shared by every application instance. Selected
+ * with {@code storage.backend=s3} and configured by
+ * {@link S3StorageProperties}.
+ * <p>
+ * Requests go through a single pooled HTTP client and are signed with
+ * {@link S3RequestSigner}, so no SDK is needed.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "storage.backend", havingValue = "s3")
+public final class S3ImageObjectStore implements ImageObjectStore {
+
+    /**
+     * Maximum time to open a connection to the store.
+     */
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+
+    /**
+     * Maximum time to wait for a response of the store.
+     */
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    /**
+     * The digest of an empty request body.
+     */
+    private static final String EMPTY_PAYLOAD_HASH = Hashing.sha256().hashBytes(new byte[0]).toString();
+
+    /**
+     * HTTP status of a successful request.
+     */
+    private static final int OK = 200;
+
+    /**
+     * HTTP status of a successful request without response body.
+     */
+    private static final int NO_CONTENT = 204;
+
+    /**
+     * HTTP status of a missing file.
+     */
+    private static final int NOT_FOUND = 404;
+
+    /**
+     * The HTTP client, keeping connections to the store open between requests.
+     */
+    private final HttpClient httpClient;
+
+    /**
+     * The request signer.
+     */
+    private final S3RequestSigner signer;
+
+    /**
+     * The URL of the bucket, ending with a slash.
+     */
+    private final String bucketUrl;
+
+    /**
+     * Constructs the store from its configuration.
+     *
+     * @param properties the store configuration.
+     */
+    public S3ImageObjectStore(final S3StorageProperties properties) {
+        this(properties, HttpClient.newBuilder().connectTimeout(CONNECT_TIMEOUT).build());
+    }
+
+    /**
+     * Constructs the store with an HTTP client.
+     *
+     * @param properties the store configuration.
+     * @param client     the HTTP client.
+     */
+    public S3ImageObjectStore(final S3StorageProperties properties, final HttpClient client) {
+        super();
+        httpClient = client;
+        signer = new S3RequestSigner(properties.getAccessKey(), properties.getSecretKey(), properties.getRegion());
+        final URI endpoint = URI.create(properties.getEndpoint().replaceAll("/+$", ""));
+        if (properties.isPathStyle()) {
+            bucketUrl = endpoint + "/" + S3RequestSigner.encode(properties.getBucket(), false) + "/";
+        } else {
+            bucketUrl = endpoint.getScheme() + "://" + properties.getBucket() + '.' + endpoint.getRawAuthority()
+                    + "/";
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void delete(final String key) throws IOException {
+        final HttpResponse<Void> response = send(request("DELETE", objectUri(key), EMPTY_PAYLOAD_HASH)
+                .DELETE().build(), HttpResponse.BodyHandlers.discarding());
+        final int status = response.statusCode();
+        if (status != NO_CONTENT && status != OK && status != NOT_FOUND) {
+            throw new IOException("Cannot delete " + key + " from the image store: HTTP " + status);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean fetch(final String key, final Path target) throws IOException {
+        final BodyHandler<Path> handler = info -> info.statusCode() == OK ? BodySubscribers.ofFile(target)
+                : BodySubscribers.replacing(null);
+        final HttpResponse<Path> response = send(request("GET", objectUri(key), EMPTY_PAYLOAD_HASH).GET().build(),
+                handler);
+        if (response.statusCode() == NOT_FOUND) {
+            return false;
+        }
+        if (response.statusCode() != OK) {
+            throw new IOException("Cannot fetch " + key + " from the image store: HTTP " + response.statusCode());
+        }
+        return true;
+    }
+
+    /**
+     * Lists the files whose name starts with a prefix, following the pages of the
+     * listing.
+     *
+     * @param prefix the prefix.
+     * @return the files.
+     * @throws IOException if the store cannot be reached or its answer read.
+     */
+    @Override
+    public List<StoredObject> list(final String prefix) throws IOException {
+        final List<StoredObject> objects = new ArrayList<>();
+        String continuationToken = null;
+        do {
+            final String query = "list-type=2&prefix=" + S3RequestSigner.encode(prefix, false)
+                    + (continuationToken == null ? ""
+                            : "&continuation-token=" + S3RequestSigner.encode(continuationToken, false));
+            final HttpResponse<InputStream> response = send(
+                    request("GET", URI.create(bucketUrl + "?" + query), EMPTY_PAYLOAD_HASH).GET().build(),
+                    HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream body = response.body()) {
+                if (response.statusCode() != OK) {
+                    throw new IOException("Cannot list " + prefix + " in the image store: HTTP "
+                            + response.statusCode());
+                }
+                final Element result = parse(body).getDocumentElement();
+                final NodeList contents = result.getElementsByTagName("Contents");
+                for (int i = 0; i < contents.getLength(); i++) {
+                    final Element content = (Element) contents.item(i);
+                    objects.add(new StoredObject(text(content, "Key"), Instant.parse(text(content, "LastModified"))));
+                }
+                continuationToken = "true".equals(text(result, "IsTruncated"))
+                        ? text(result, "NextContinuationToken")
+                        : null;
+            }
+        } while (continuationToken != null);
+        return objects;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(final String key, final Path source) throws IOException {
+        final String payloadHash = MoreFiles.asByteSource(source).hash(Hashing.sha256()).toString();
+        final HttpResponse<Void> response = send(request("PUT", objectUri(key), payloadHash)
+                .PUT(HttpRequest.BodyPublishers.ofFile(source)).build(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != OK) {
+            throw new IOException("Cannot put " + key + " in the image store: HTTP " + response.statusCode());
+        }
+    }
+
+    /**
+     * Gets the URI of a file in the bucket.
+     *
+     * @param key the name of the file.
+     * @return the URI.
+     */
+    private URI objectUri(final String key) {
+        return URI.create(bucketUrl + S3RequestSigner.encode(key, true));
+    }
+
+    /**
+     * Starts a signed request.
+     *
+     * @param method      the HTTP method.
+     * @param uri         the URI.
+     * @param payloadHash the digest of the request body.
+     * @return the request builder, with the authentication headers.
+     */
+    private HttpRequest.Builder request(final String method, final URI uri, final String payloadHash) {
+        final HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT);
+        for (final Map.Entry<String, String> header : signer.sign(method, uri, payloadHash, Instant.now())
+                .entrySet()) {
+            builder.header(header.getKey(), header.getValue());
+        }
+        return builder;
+    }
+
+    /**
+     * Sends a request to the store.
+     *
+     * @param <T>     the response body type.
+     * @param request the request.
+     * @param handler the response body handler.
+     * @return the response.
+     * @throws IOException if the store cannot be reached, or the request is
+     *                     interrupted.
+     */
+    private <T> HttpResponse<T> send(final HttpRequest request, final BodyHandler<T> handler) throws IOException {
+        try {
+            return httpClient.send(request, handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while calling the image store");
+        }
+    }
+
+    /**
+     * Parses an XML response, rejecting document type declarations.
+     *
+     * @param body the response body.
+     * @return the document.
+     * @throws IOException if the response is not well-formed XML.
+     */
+    private static Document parse(final InputStream body) throws IOException {
+        try {
+            final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            return factory.newDocumentBuilder().parse(body);
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Cannot read the image store listing", e);
+        }
+    }
+
+    /**
+     * Gets the text of the first child element with a name.
+     *
+     * @param parent the parent element.
+     * @param name   the name of the child.
+     * @return its text, or {@code null} if there is no such child.
+     */
+    private static String text(final Element parent, final String name) {
+        final NodeList nodes = parent.getElementsByTagName(name);
+        return nodes.getLength() == 0 ? null : nodes.item(0).getTextContent();
+    }
+}
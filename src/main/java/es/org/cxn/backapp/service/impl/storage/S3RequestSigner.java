@@ -0,0 +1,183 @@
+package es.org.cxn.backapp.service.impl.storage;
+
+/*-
+ * #%L
+ * CXN-back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Círculo Xadrez Narón
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * Signs requests to an S3-compatible object store with AWS Signature Version
+ * 4, the scheme accepted by Amazon S3, MinIO, Ceph and the other S3
+ * implementations. The host, payload digest and date headers are signed.
+ */
+public final class S3RequestSigner {
+
+    /**
+     * The signing algorithm.
+     */
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+
+    /**
+     * The service name in the credential scope.
+     */
+    private static final String SERVICE = "s3";
+
+    /**
+     * The headers signed, in canonical order.
+     */
+    private static final String SIGNED_HEADERS = "host;x-amz-content-sha256;x-amz-date";
+
+    /**
+     * Format of the request timestamp.
+     */
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+
+    /**
+     * Length of the date at the start of the request timestamp.
+     */
+    private static final int DATE_LENGTH = 8;
+
+    /**
+     * The access key identifier.
+     */
+    private final String accessKey;
+
+    /**
+     * The secret access key.
+     */
+    private final String secretKey;
+
+    /**
+     * The region of the store.
+     */
+    private final String region;
+
+    /**
+     * Constructs a signer for some credentials.
+     *
+     * @param accessKeyId     the access key identifier.
+     * @param secretAccessKey the secret access key.
+     * @param storeRegion     the region of the store.
+     */
+    public S3RequestSigner(final String accessKeyId, final String secretAccessKey, final String storeRegion) {
+        accessKey = Objects.requireNonNull(accessKeyId, "Received a null pointer as access key");
+        secretKey = Objects.requireNonNull(secretAccessKey, "Received a null pointer as secret key");
+        region = Objects.requireNonNull(storeRegion, "Received a null pointer as region");
+    }
+
+    /**
+     * Percent-encodes a URI component as S3 expects in signed requests: every
+     * byte but the unreserved characters, and the slashes of object keys when
+     * kept.
+     *
+     * @param value     the component.
+     * @param keepSlash {@code true} to leave slashes unencoded.
+     * @return the encoded component.
+     */
+    public static String encode(final String value, final boolean keepSlash) {
+        final String encoded = URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20")
+                .replace("*", "%2A").replace("%7E", "~");
+        return keepSlash ? encoded.replace("%2F", "/") : encoded;
+    }
+
+    /**
+     * Computes the headers authenticating a request.
+     *
+     * @param method      the HTTP method.
+     * @param uri         the request URI, with its path and query already
+     *                    encoded with {@link #encode(String, boolean)}.
+     * @param payloadHash the hexadecimal SHA-256 digest of the request body.
+     * @param time        the time of the request.
+     * @return the {@code x-amz-date}, {@code x-amz-content-sha256} and
+     *         {@code Authorization} headers to send.
+     */
+    public Map<String, String> sign(final String method, final URI uri, final String payloadHash,
+            final Instant time) {
+        final String timestamp = TIMESTAMP.format(time);
+        final String date = timestamp.substring(0, DATE_LENGTH);
+        final String host = uri.getPort() == -1 ? uri.getHost() : uri.getHost() + ':' + uri.getPort();
+        final String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+
+        final String canonicalRequest = String.join("\n", method, path, canonicalQuery(uri.getRawQuery()),
+                "host:" + host, "x-amz-content-sha256:" + payloadHash, "x-amz-date:" + timestamp, "",
+                SIGNED_HEADERS, payloadHash);
+        final String scope = date + '/' + region + '/' + SERVICE + "/aws4_request";
+        final String stringToSign = String.join("\n", ALGORITHM, timestamp, scope,
+                Hashing.sha256().hashString(canonicalRequest, StandardCharsets.UTF_8).toString());
+
+        byte[] key = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), date);
+        key = hmac(key, region);
+        key = hmac(key, SERVICE);
+        key = hmac(key, "aws4_request");
+        final String signature = Hashing.hmacSha256(key).hashString(stringToSign, StandardCharsets.UTF_8).toString();
+
+        final Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("x-amz-date", timestamp);
+        headers.put("x-amz-content-sha256", payloadHash);
+        headers.put("Authorization", ALGORITHM + " Credential=" + accessKey + '/' + scope + ", SignedHeaders="
+                + SIGNED_HEADERS + ", Signature=" + signature);
+        return headers;
+    }
+
+    /**
+     * Sorts the parameters of an encoded query, giving an empty value to those
+     * without one.
+     *
+     * @param rawQuery the encoded query, or {@code null}.
+     * @return the canonical query.
+     */
+    private static String canonicalQuery(final String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return "";
+        }
+        return Arrays.stream(rawQuery.split("&")).map(parameter -> parameter.contains("=") ? parameter
+                : parameter + '=').sorted().collect(Collectors.joining("&"));
+    }
+
+    /**
+     * Computes an HMAC-SHA256 step of the signing key derivation.
+     *
+     * @param key   the key.
+     * @param value the signed value.
+     * @return the digest.
+     */
+    private static byte[] hmac(final byte[] key, final String value) {
+        return Hashing.hmacSha256(key).hashString(value, StandardCharsets.UTF_8).asBytes();
+    }
+}
@@ -13,6 +13,9 @@
  * - Implementation of the
  * {@link es.org.cxn.backapp.service.ImageStorageService} interface, responsible
  * for storing and retrieving images.</li>
+ * <li>{@link es.org.cxn.backapp.service.impl.storage.ImageObjectStore} - Shared
+ * store backing the storage directory, in an S3-compatible bucket or, for
+ * tests, in memory.</li>
  * </ul>
  *
  * <h2>Usage:</h2>
@@ -0,0 +1,141 @@
+package es.org.cxn.backapp.test.benchmark;
+
+/*-
+ * #%L
+ * CXN-back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Círculo Xadrez Narón
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.commons.text.StringSubstitutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.ClassPathResource;
+
+import es.org.cxn.backapp.service.impl.mail.EmailTemplate;
+import es.org.cxn.backapp.service.impl.mail.EmailTemplateRegistry;
+
+/**
+ * Measures the cost of rendering one email body, as done for every member in
+ * a bulk send such as the yearly membership payment notices.
+ *
+ * <p>
+ * {@link #legacyReadAndSubstitute()} reproduces the former flow (read the
+ * template from the classpath and run {@link StringSubstitutor} over it).
+ * {@link #precompiled()} renders the template compiled once by
+ * {@link EmailTemplateRegistry}.
+ * </p>
+ *
+ * <p>
+ * Run with:
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=es.org.cxn.backapp.test.benchmark.EmailTemplateBenchmark}
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailTemplateBenchmark {
+
+    /**
+     * Template of the generated payment notice.
+     */
+    private static final String TEMPLATE_PATH = "mailTemplates/GeneratedPaymentEmail.html";
+
+    /**
+     * Values of one payment notice.
+     */
+    private static final Map<String, String> VALUES = Map.of("name", "Xoán Pérez Fernández", "paymentTitle",
+            "Cuota anual 2026", "paymentDescription", "Cuota de socio da tempada 2026", "paymentAmount", "30.00");
+
+    /**
+     * The compiled template.
+     */
+    private EmailTemplate template;
+
+    /**
+     * Runs this benchmark.
+     *
+     * @param args unused.
+     * @throws RunnerException if JMH fails.
+     */
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EmailTemplateBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * Former flow: classpath read and substitution on every send.
+     *
+     * @return the rendered body.
+     * @throws IOException if the template cannot be read.
+     */
+    @Benchmark
+    public String legacyReadAndSubstitute() throws IOException {
+        final var resource = new ClassPathResource(TEMPLATE_PATH);
+        try (var reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            return StringSubstitutor.replace(reader.lines().collect(Collectors.joining("\n")), VALUES);
+        }
+    }
+
+    /**
+     * Current flow: single pass over the precompiled template.
+     *
+     * @return the rendered body.
+     */
+    @Benchmark
+    public String precompiled() {
+        return template.render(VALUES);
+    }
+
+    /**
+     * Loads the compiled template.
+     *
+     * @throws IOException if the template is missing.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        template = new EmailTemplateRegistry().get(TEMPLATE_PATH);
+    }
+}
@@ -0,0 +1,144 @@
+package es.org.cxn.backapp.test.benchmark;
+
+/*-
+ * #%L
+ * CXN-back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Círculo Xadrez Narón
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import es.org.cxn.backapp.config.JwtProperties;
+import es.org.cxn.backapp.security.DefaultJwtUtils;
+import es.org.cxn.backapp.security.ValidatedToken;
+
+/**
+ * Measures the per-request cost of JWT validation as done by
+ * {@link es.org.cxn.backapp.filter.JwtRequestFilter}.
+ *
+ * <p>
+ * {@link #legacyMultiParse()} reproduces the former filter flow (signature
+ * check, username extraction and user validation, each parsing the token
+ * again). {@link #singleParse()} is the current flow that parses once into a
+ * {@link ValidatedToken}. Both run on several threads to simulate concurrent
+ * requests sharing the same {@link DefaultJwtUtils} instance.
+ * </p>
+ *
+ * <p>
+ * Run with:
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=es.org.cxn.backapp.test.benchmark.JwtValidationBenchmark}
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class JwtValidationBenchmark {
+
+    /**
+     * Shared JWT utilities, as the singleton bean is shared by request threads.
+     */
+    private DefaultJwtUtils jwtUtils;
+
+    /**
+     * User the token was issued for.
+     */
+    private UserDetails userDetails;
+
+    /**
+     * Signed token validated on every invocation.
+     */
+    private String token;
+
+    /**
+     * Runs this benchmark.
+     *
+     * @param args unused.
+     * @throws RunnerException if JMH fails.
+     */
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtValidationBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * Former filter flow: four parses and signature checks per request.
+     *
+     * @return whether the token was accepted.
+     */
+    @Benchmark
+    public boolean legacyMultiParse() {
+        if (!jwtUtils.isTokenValid(token)) {
+            return false;
+        }
+        final String username = jwtUtils.extractUsername(token);
+        // The old validateToken(String, UserDetails) parsed twice more.
+        return username.equals(jwtUtils.extractUsername(token)) && username.equals(userDetails.getUsername())
+                && !jwtUtils.isTokenExpired(token);
+    }
+
+    /**
+     * Prepares a signed token and the matching user.
+     */
+    @Setup
+    public void setUp() {
+        final var properties = new JwtProperties();
+        properties.setSecret("c3VwZXItc2VjcmV0LWNsYXZlLWRlLXRlc3RpbmctMTIzNDU2Nzg5MDEyMzQ1Njc4OTA=");
+        properties.setExpiration(3600);
+        jwtUtils = new DefaultJwtUtils(properties);
+        userDetails = User.withUsername("benchmark@xadreznaron.es").password("unused").build();
+        token = jwtUtils.generateToken(userDetails);
+    }
+
+    /**
+     * Current filter flow: a single parse and signature check per request.
+     *
+     * @return whether the token was accepted.
+     */
+    @Benchmark
+    public boolean singleParse() {
+        final Optional<ValidatedToken> validated = jwtUtils.validate(token);
+        return validated.isPresent() && validated.get().isValidFor(userDetails);
+    }
+}
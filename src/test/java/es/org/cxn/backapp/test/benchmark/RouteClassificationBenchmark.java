@@ -0,0 +1,137 @@
+package es.org.cxn.backapp.test.benchmark;
+
+/*-
+ * #%L
+ * CXN-back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Círculo Xadrez Narón
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import es.org.cxn.backapp.AppURL;
+import es.org.cxn.backapp.filter.UnprotectedRoutes;
+
+/**
+ * Measures the per-request cost of classifying a route as public, as done by
+ * the request filters in {@code shouldNotFilter}.
+ *
+ * <p>
+ * {@link #legacyStringChain(Blackhole)} reproduces the former filter check (a
+ * {@code startsWith} chain plus {@code String.matches}, which compiles a regex
+ * on every call). {@link #pathPatternRegistry(Blackhole)} uses the compiled
+ * {@link UnprotectedRoutes} registry. Both classify the same mix of public and
+ * protected requests.
+ * </p>
+ *
+ * <p>
+ * Run with:
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=es.org.cxn.backapp.test.benchmark.RouteClassificationBenchmark}
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteClassificationBenchmark {
+
+    /**
+     * Request URIs, a mix of public and protected routes.
+     */
+    private static final String[] URIS = { "/api/user", AppURL.SIGN_IN_URL, "/api/32721860J/lichessAuth",
+            AppURL.PARTICIPANTS_URL, "/api/activities", "/api/address/getCountries", "/api/user/getAll",
+            "/api/lichessProfile" };
+
+    /**
+     * Request methods, one for each URI.
+     */
+    private static final String[] METHODS = { "GET", "POST", "GET", "POST", "GET", "GET", "GET", "GET" };
+
+    /**
+     * Runs this benchmark.
+     *
+     * @param args unused.
+     * @throws RunnerException if JMH fails.
+     */
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RouteClassificationBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * Former classification: {@code startsWith} chain and per-call regex.
+     *
+     * @param requestURI the request URI.
+     * @param httpMethod the HTTP method.
+     * @return whether the route is public.
+     */
+    private static boolean legacyIsUnprotected(final String requestURI, final String httpMethod) {
+        return requestURI.startsWith("/h2-console") || requestURI.startsWith(AppURL.SIGN_UP_URL)
+                || requestURI.startsWith(AppURL.SIGN_IN_URL) || requestURI.startsWith("/api/address/getCountries")
+                || requestURI.startsWith("/getAllLichessProfiles") || requestURI.startsWith("/api/ott/my-generate-url")
+                || (AppURL.CHESS_QUESTION_URL.equals(requestURI) && "POST".equals(httpMethod))
+                || (requestURI.matches("/api/[^/]+/lichessAuth") && "GET".equals(httpMethod))
+                || (AppURL.PARTICIPANTS_URL.equals(requestURI) && "POST".equals(httpMethod));
+    }
+
+    /**
+     * Former filter classification.
+     *
+     * @param blackhole consumes the results.
+     */
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public void legacyStringChain(final Blackhole blackhole) {
+        for (int i = 0; i < URIS.length; i++) {
+            blackhole.consume(legacyIsUnprotected(URIS[i], METHODS[i]));
+        }
+    }
+
+    /**
+     * Current classification through the compiled registry.
+     *
+     * @param blackhole consumes the results.
+     */
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public void pathPatternRegistry(final Blackhole blackhole) {
+        for (int i = 0; i < URIS.length; i++) {
+            blackhole.consume(UnprotectedRoutes.isUnprotected(URIS[i], METHODS[i]));
+        }
+    }
+}
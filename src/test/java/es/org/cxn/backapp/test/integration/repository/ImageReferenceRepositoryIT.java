@@ -0,0 +1,69 @@
+package es.org.cxn.backapp.test.integration.repository;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import es.org.cxn.backapp.repository.ImageReferenceRepository;
+import es.org.cxn.backapp.repository.ImageReferenceRepository.ImageColumn;
+
+/**
+ * Integration test for the {@link ImageReferenceRepository}.
+ * <p>
+ * Checks that the native queries over every image column run against the
+ * schema.
+ * </p>
+ */
+@DataJpaTest
+@Import(ImageReferenceRepository.class)
+class ImageReferenceRepositoryIT {
+
+    /**
+     * The image reference repository.
+     */
+    @Autowired
+    private ImageReferenceRepository imageReferenceRepository;
+
+    /**
+     * Tests that every column can be read and rewritten.
+     *
+     * @param imageColumn the column.
+     */
+    @ParameterizedTest
+    @EnumSource(ImageColumn.class)
+    void shouldQueryColumn(final ImageColumn imageColumn) {
+        assertTrue(imageReferenceRepository.findPaths(imageColumn).isEmpty());
+        assertEquals(0, imageReferenceRepository.replacePath(imageColumn, "old.png", "new.png"));
+    }
+}
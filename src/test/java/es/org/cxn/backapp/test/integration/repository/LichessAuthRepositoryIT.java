@@ -0,0 +1,108 @@
+package es.org.cxn.backapp.test.integration.repository;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import es.org.cxn.backapp.model.persistence.PersistentLichessAuthEntity;
+import es.org.cxn.backapp.model.persistence.user.PersistentUserEntity;
+import es.org.cxn.backapp.model.persistence.user.UserProfile;
+import es.org.cxn.backapp.repository.LichessAuthRepository;
+import es.org.cxn.backapp.repository.UserEntityRepository;
+import es.org.cxn.backapp.service.dto.LichessLinkedAccountDto;
+
+/**
+ * Integration test for the {@link LichessAuthRepository}.
+ * <p>
+ * Checks that the linked accounts query joins the user email and skips expired
+ * tokens.
+ * </p>
+ */
+@DataJpaTest
+class LichessAuthRepositoryIT {
+
+    /**
+     * The Lichess authorization repository.
+     */
+    @Autowired
+    private LichessAuthRepository lichessAuthRepository;
+
+    /**
+     * The user repository.
+     */
+    @Autowired
+    private UserEntityRepository userEntityRepository;
+
+    /**
+     * Stores a user with a Lichess token.
+     *
+     * @param dni        the user DNI.
+     * @param email      the user email.
+     * @param expiration the token expiration date.
+     */
+    private void saveLinkedUser(final String dni, final String email, final LocalDateTime expiration) {
+        final UserProfile userProfile = new UserProfile();
+        userProfile.setName("Name");
+        userProfile.setFirstSurname("FirstSurname");
+        userProfile.setSecondSurname("SecondSurname");
+        userProfile.setGender("Gender");
+        userProfile.setBirthDate(LocalDate.of(1991, 10, 21));
+        userEntityRepository.save(PersistentUserEntity.builder().dni(dni).email(email).enabled(true)
+                .password("123123123").profile(userProfile).build());
+
+        final PersistentLichessAuthEntity auth = new PersistentLichessAuthEntity();
+        auth.setUserDni(dni);
+        auth.setAccessToken("token-" + dni);
+        auth.setTokenType("Bearer");
+        auth.setCreatedAt(LocalDateTime.now());
+        auth.setExpirationDate(expiration);
+        lichessAuthRepository.save(auth);
+    }
+
+    /**
+     * Tests that only the accounts with a valid token are read, with their email.
+     */
+    @Test
+    void shouldFindAccountsWithValidToken() {
+        final LocalDateTime now = LocalDateTime.now();
+        saveLinkedUser("11111111A", "valid@example.com", now.plusDays(30));
+        saveLinkedUser("22222222B", "expired@example.com", now.minusDays(1));
+
+        final List<LichessLinkedAccountDto> accounts = lichessAuthRepository.findLinkedAccounts(now);
+
+        assertEquals(List.of(new LichessLinkedAccountDto("11111111A", "valid@example.com", "token-11111111A")),
+                accounts);
+    }
+}
@@ -0,0 +1,128 @@
+package es.org.cxn.backapp.test.integration.repository;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import es.org.cxn.backapp.model.persistence.PersistentLichessProfileEntity;
+import es.org.cxn.backapp.model.persistence.user.PersistentUserEntity;
+import es.org.cxn.backapp.model.persistence.user.UserProfile;
+import es.org.cxn.backapp.repository.LichessEntityRepository;
+import es.org.cxn.backapp.repository.UserEntityRepository;
+import es.org.cxn.backapp.service.dto.LichessProfileDto;
+import es.org.cxn.backapp.service.dto.LichessRankedProfileDto;
+
+/**
+ * Integration test for the {@link LichessEntityRepository}.
+ * <p>
+ * Checks that the profiles projections join the user name and map every game
+ * statistic.
+ * </p>
+ */
+@DataJpaTest
+class LichessEntityRepositoryIT {
+
+    /**
+     * The Lichess profile repository.
+     */
+    @Autowired
+    private LichessEntityRepository lichessEntityRepository;
+
+    /**
+     * The user repository.
+     */
+    @Autowired
+    private UserEntityRepository userEntityRepository;
+
+    /**
+     * Tests that every profile is read with the complete name of its user, and
+     * with its DNI for the leaderboard.
+     */
+    @Test
+    void shouldFindProfilesWithUserName() {
+        final UserProfile userProfile = new UserProfile();
+        userProfile.setName("Name");
+        userProfile.setFirstSurname("FirstSurname");
+        userProfile.setSecondSurname("SecondSurname");
+        userProfile.setGender("Gender");
+        userProfile.setBirthDate(LocalDate.of(1991, 10, 21));
+        userEntityRepository.save(PersistentUserEntity.builder().dni("11111111A").email("user@example.com")
+                .enabled(true).password("123123123").profile(userProfile).build());
+
+        final LocalDateTime updatedAt = LocalDateTime.of(2025, 1, 15, 10, 30);
+        final PersistentLichessProfileEntity profile = new PersistentLichessProfileEntity();
+        profile.setUserDni("11111111A");
+        profile.setIdentifier("member");
+        profile.setUsername("Member");
+        profile.setUpdatedAt(updatedAt);
+        profile.setBlitzGames(1);
+        profile.setBlitzRating(1501);
+        profile.setBlitzRd(51);
+        profile.setBlitzProg(11);
+        profile.setBlitzProv(true);
+        profile.setBulletGames(2);
+        profile.setBulletRating(1502);
+        profile.setBulletRd(52);
+        profile.setBulletProg(12);
+        profile.setBulletProv(false);
+        profile.setClassicalGames(3);
+        profile.setClassicalRating(1503);
+        profile.setClassicalRd(53);
+        profile.setClassicalProg(13);
+        profile.setClassicalProv(true);
+        profile.setRapidGames(4);
+        profile.setRapidRating(1504);
+        profile.setRapidRd(54);
+        profile.setRapidProg(14);
+        profile.setRapidProv(false);
+        profile.setPuzzleGames(5);
+        profile.setPuzzleRating(1505);
+        profile.setPuzzleRd(55);
+        profile.setPuzzleProg(15);
+        profile.setPuzzleProv(true);
+        lichessEntityRepository.save(profile);
+
+        final List<LichessProfileDto> profiles = lichessEntityRepository.findAllProfiles();
+
+        assertEquals(List.of(new LichessProfileDto("Name FirstSurname SecondSurname", "member", "Member", updatedAt,
+                new LichessProfileDto.GameStatistics(1, 1501, 51, 11, true),
+                new LichessProfileDto.GameStatistics(2, 1502, 52, 12, false),
+                new LichessProfileDto.GameStatistics(3, 1503, 53, 13, true),
+                new LichessProfileDto.GameStatistics(4, 1504, 54, 14, false),
+                new LichessProfileDto.GameStatistics(5, 1505, 55, 15, true))), profiles);
+        assertEquals(List.of(new LichessRankedProfileDto("11111111A", profiles.get(0))),
+                lichessEntityRepository.findAllRankedProfiles());
+    }
+}
@@ -47,6 +47,7 @@ import es.org.cxn.backapp.model.UserRoleName;
 import es.org.cxn.backapp.model.persistence.PersistentRoleEntity;
 import es.org.cxn.backapp.repository.RoleEntityRepository;
 import es.org.cxn.backapp.repository.UserEntityRepository;
+import es.org.cxn.backapp.security.VerifiedTokenCache;
 import es.org.cxn.backapp.service.RoleService;
 import es.org.cxn.backapp.service.impl.DefaultRoleService;
 
@@ -128,6 +129,12 @@ final class DefaultRoleServiceIT {
     @MockitoBean
     private UserEntityRepository userRepository;
 
+    /**
+     * Needed by RoleService.
+     */
+    @MockitoBean
+    private VerifiedTokenCache tokenCache;
+
     /**
      * Default constructor.
      */
@@ -0,0 +1,201 @@
+package es.org.cxn.backapp.test.integration.services;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.convention.TestBean;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import es.org.cxn.backapp.model.persistence.mail.EmailOutboxState;
+import es.org.cxn.backapp.model.persistence.mail.PersistentEmailOutboxEntity;
+import es.org.cxn.backapp.repository.EmailOutboxEntityRepository;
+import es.org.cxn.backapp.service.EmailService;
+import es.org.cxn.backapp.service.impl.storage.DefaultImageStorageService;
+import es.org.cxn.backapp.test.utils.FakeMailSender;
+
+/**
+ * Integration tests for the email outbox: emails queued in a transaction are
+ * sent to a {@link FakeMailSender} only after it commits.
+ */
+@SpringBootTest()
+@ActiveProfiles("test")
+final class EmailOutboxIT {
+
+    /**
+     * The local SMTP stand-in.
+     */
+    private static final FakeMailSender FAKE_SMTP = new FakeMailSender();
+
+    /**
+     * Maximum time to wait for the dispatcher, in milliseconds.
+     */
+    private static final long DELIVERY_TIMEOUT_MS = 10_000;
+
+    /**
+     * The email service.
+     */
+    @Autowired
+    private EmailService emailService;
+
+    /**
+     * The mail sender bean, replaced by the local SMTP stand-in.
+     */
+    @TestBean(name = "javaMailSender", methodName = "fakeSmtp")
+    private JavaMailSenderImpl javaMailSender;
+
+    /**
+     * The local SMTP stand-in, as its own type.
+     */
+    private final FakeMailSender mailSender = FAKE_SMTP;
+
+    /**
+     * The outbox repository.
+     */
+    @Autowired
+    private EmailOutboxEntityRepository outboxRepository;
+
+    /**
+     * Runs code in a transaction.
+     */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Mocked image storage service.
+     */
+    @MockitoBean
+    private DefaultImageStorageService imageStorageService;
+
+    @DynamicPropertySource
+    static void setProperties(final DynamicPropertyRegistry registry) {
+        registry.add("spring.mail.host", () -> "localhost");
+    }
+
+    /**
+     * Provides the local SMTP stand-in for the mail sender bean.
+     *
+     * @return the local SMTP stand-in.
+     */
+    static JavaMailSenderImpl fakeSmtp() {
+        return FAKE_SMTP;
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxRepository.deleteAll();
+    }
+
+    @Test
+    void testEmailIsSentAfterCommit() throws InterruptedException {
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                emailService.sendWelcome("member@example.com", "John Doe");
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            assertTrue(mailSender.getSentMessages().isEmpty(), "Nothing must be sent before commit");
+        });
+
+        final long deadline = System.currentTimeMillis() + DELIVERY_TIMEOUT_MS;
+        while (mailSender.getSentMessages().isEmpty() && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+
+        assertEquals(1, mailSender.getSentMessages().size());
+        while (outboxRepository.findAll().get(0).getState() != EmailOutboxState.SENT
+                && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+        assertEquals(EmailOutboxState.SENT, outboxRepository.findAll().get(0).getState());
+        assertEquals("", outboxRepository.findAll().get(0).getBody());
+    }
+
+    @Test
+    void testDueEmailIsClaimedOnlyOnceUntilTheLeaseExpires() {
+        // Due in the future, so the running dispatcher leaves it alone.
+        final var due = LocalDateTime.now().plusHours(1).truncatedTo(ChronoUnit.SECONDS);
+        final var email = outboxRepository.save(PersistentEmailOutboxEntity.builder().recipient("member@example.com")
+                .subject("CXN").body("<p>Hola</p>").state(EmailOutboxState.PENDING).attempts(0).createdAt(due)
+                .nextAttemptAt(due).build());
+
+        assertEquals(0, outboxRepository.claim(email.getIdentifier(), due.minusMinutes(1), due.plusMinutes(5)));
+        assertEquals(1, outboxRepository.claim(email.getIdentifier(), due, due.plusMinutes(5)));
+        assertEquals(0, outboxRepository.claim(email.getIdentifier(), due.plusMinutes(1), due.plusMinutes(6)));
+        assertEquals(EmailOutboxState.SENDING, outboxRepository.findById(email.getIdentifier()).orElseThrow()
+                .getState());
+        assertEquals(1, outboxRepository.claim(email.getIdentifier(), due.plusMinutes(5), due.plusMinutes(10)));
+    }
+
+    @Test
+    void testOnlyOldFinishedEmailsArePurged() {
+        final var now = LocalDateTime.now();
+        final var future = now.plusHours(1);
+        for (final EmailOutboxState state : EmailOutboxState.values()) {
+            outboxRepository.save(PersistentEmailOutboxEntity.builder().recipient("member@example.com")
+                    .subject("CXN").body("").state(state).attempts(0).createdAt(now.minusDays(10))
+                    .nextAttemptAt(future).build());
+        }
+        outboxRepository.save(PersistentEmailOutboxEntity.builder().recipient("member@example.com").subject("CXN")
+                .body("").state(EmailOutboxState.SENT).attempts(0).createdAt(now).nextAttemptAt(future).build());
+
+        assertEquals(2, outboxRepository.deleteFinishedBefore(now.minusDays(7)));
+
+        assertEquals(List.of(EmailOutboxState.PENDING, EmailOutboxState.SENDING, EmailOutboxState.SENT),
+                outboxRepository.findAll().stream().map(PersistentEmailOutboxEntity::getState).sorted().toList());
+    }
+
+    @Test
+    void testEmailIsDiscardedOnRollback() {
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                emailService.sendWelcome("member@example.com", "John Doe");
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, outboxRepository.count());
+        assertTrue(mailSender.getSentMessages().isEmpty());
+    }
+}
@@ -36,18 +36,23 @@ import java.util.UUID;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
+import es.org.cxn.backapp.model.UserRoleName;
 import es.org.cxn.backapp.model.persistence.payments.PaymentsCategory;
 import es.org.cxn.backapp.model.persistence.payments.PaymentsState;
 import es.org.cxn.backapp.model.persistence.user.UserType;
+import es.org.cxn.backapp.repository.UserEntityRepository;
 import es.org.cxn.backapp.service.PaymentsService;
+import es.org.cxn.backapp.service.RoleService;
 import es.org.cxn.backapp.service.UserService;
 import es.org.cxn.backapp.service.dto.AddressRegistrationDetailsDto;
 import es.org.cxn.backapp.service.dto.PaymentDetails;
@@ -55,6 +60,8 @@ import es.org.cxn.backapp.service.dto.UserRegistrationDetailsDto;
 import es.org.cxn.backapp.service.exceptions.PaymentsServiceException;
 import es.org.cxn.backapp.service.exceptions.UserServiceException;
 import es.org.cxn.backapp.service.impl.DefaultEmailService;
+import es.org.cxn.backapp.service.impl.DefaultPaymentsService;
+import es.org.cxn.backapp.service.impl.DefaultUserService;
 import es.org.cxn.backapp.service.impl.storage.DefaultImageStorageService;
 import jakarta.transaction.Transactional;
 
@@ -86,6 +93,19 @@ final class PaymentsServiceIT {
     @Autowired
     private UserService userService;
 
+    /**
+     * The service for managing roles. Used to accept the test user as member.
+     */
+    @Autowired
+    private RoleService roleService;
+
+    /**
+     * The user repository. Used to flush pending changes before the JDBC based
+     * membership fee run reads them.
+     */
+    @Autowired
+    private UserEntityRepository userRepository;
+
     /**
      * Mocked mail sender to avoid sending actual emails during tests. Simulates
      * email sending functionality.
@@ -870,4 +890,72 @@ final class PaymentsServiceIT {
                 "The exception message for non-existing payment ID.");
     }
 
+    /**
+     * Tests that the membership fee run only bills accepted members, and that
+     * repeating it after every member was billed generates nothing.
+     *
+     * @throws Exception if the run or the role change fails.
+     */
+    @Test
+    @Transactional
+    void testGenerateMembershipFeesBillsAcceptedMembersOnce() throws Exception {
+        final int year = 2030;
+        roleService.changeUserRoles("johndoe@example.com", List.of(UserRoleName.ROLE_CANDIDATO_SOCIO));
+        userRepository.flush();
+        Assertions.assertEquals(0, paymentsService.generateMembershipFees(year).total(),
+                "Candidates must not be billed.");
+
+        roleService.changeUserRoles("johndoe@example.com", List.of(UserRoleName.ROLE_SOCIO));
+        userRepository.flush();
+        final var firstRun = paymentsService.generateMembershipFees(year);
+        final var secondRun = paymentsService.generateMembershipFees(year);
+
+        Assertions.assertEquals(1, firstRun.generated().get(UserType.SOCIO_NUMERO));
+        Assertions.assertEquals(1, firstRun.total());
+        Assertions.assertEquals(0, secondRun.total(), "Billed members must be skipped.");
+        final List<PaymentDetails> payments = paymentsService.getUserPayments(userDni);
+        Assertions.assertEquals(1, payments.size());
+        final var payment = payments.getFirst();
+        Assertions.assertEquals(DefaultPaymentsService.MEMBERSHIP_PAYMENT_TITLE, payment.title());
+        Assertions.assertEquals(DefaultPaymentsService.membershipPaymentDescription(year), payment.description());
+        Assertions.assertEquals(PaymentsCategory.MEMBERSHIP_PAYMENT, payment.category());
+        Assertions.assertEquals(PaymentsState.UNPAID, payment.state());
+        Assertions.assertEquals(0, BigDecimal.valueOf(DefaultUserService.SOCIO_NUMERARIO_PAYMENT_AMOUNT)
+                .compareTo(payment.amount()));
+        Mockito.verify(emailService).sendGeneratedPayments(Mockito.argThat(notices -> notices.size() == 1
+                && "johndoe@example.com".equals(notices.getFirst().toEmail())));
+    }
+
+    /**
+     * Tests that the grouped listing returns every user with their payments, and
+     * that the filtered variant only returns the matching payments.
+     *
+     * @throws PaymentsServiceException if a payment cannot be created or paid.
+     */
+    @Test
+    @Transactional
+    void testGetAllUsersWithPaymentsAndFilteredVariant() throws PaymentsServiceException {
+        final var membership = paymentsService.createPayment(BigDecimal.TEN, PaymentsCategory.MEMBERSHIP_PAYMENT,
+                "Membership", "Cuota", userDni);
+        final var federate = paymentsService.createPayment(BigDecimal.ONE, PaymentsCategory.FEDERATE_PAYMENT,
+                "Federate", "Ficha", userDni);
+        paymentsService.makePayment(federate.getId(), LocalDateTime.now());
+
+        final var all = paymentsService.getAllUsersWithPayments();
+        Assertions.assertEquals(2, all.get(userDni).size());
+
+        final var unpaid = paymentsService.getUsersWithPayments(PaymentsState.UNPAID, null, PageRequest.of(0, 10));
+        Assertions.assertEquals(List.of(userDni), List.copyOf(unpaid.keySet()));
+        Assertions.assertEquals(List.of(membership.getId()), unpaid.get(userDni).stream().map(PaymentDetails::id)
+                .toList());
+
+        final var federatePaid = paymentsService.getUsersWithPayments(PaymentsState.PAID,
+                PaymentsCategory.FEDERATE_PAYMENT, PageRequest.of(0, 10));
+        Assertions.assertEquals(List.of(federate.getId()), federatePaid.get(userDni).stream()
+                .map(PaymentDetails::id).toList());
+
+        Assertions.assertTrue(paymentsService.getUsersWithPayments(PaymentsState.CANCELLED, null,
+                PageRequest.of(0, 10)).isEmpty());
+        Assertions.assertTrue(paymentsService.getUsersWithPayments(null, null, PageRequest.of(1, 10)).isEmpty());
+    }
 }
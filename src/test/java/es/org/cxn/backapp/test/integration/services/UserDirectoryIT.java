@@ -0,0 +1,250 @@
+package es.org.cxn.backapp.test.integration.services;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import es.org.cxn.backapp.model.FederateState;
+import es.org.cxn.backapp.model.UserRoleName;
+import es.org.cxn.backapp.model.persistence.user.UserType;
+import es.org.cxn.backapp.repository.UserEntityRepository;
+import es.org.cxn.backapp.service.RoleService;
+import es.org.cxn.backapp.service.TeamService;
+import es.org.cxn.backapp.service.UserService;
+import es.org.cxn.backapp.service.dto.AddressRegistrationDetailsDto;
+import es.org.cxn.backapp.service.dto.UserDirectoryFilterDto;
+import es.org.cxn.backapp.service.dto.UserDirectoryPageDto;
+import es.org.cxn.backapp.service.dto.UserDirectorySort;
+import es.org.cxn.backapp.service.dto.UserRegistrationDetailsDto;
+import es.org.cxn.backapp.service.dto.UserSummaryDto;
+import es.org.cxn.backapp.service.impl.DefaultEmailService;
+import es.org.cxn.backapp.service.impl.storage.DefaultImageStorageService;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.transaction.Transactional;
+
+/**
+ * Integration tests for the keyset paginated user directory.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+final class UserDirectoryIT {
+
+    /**
+     * Statements issued by a directory page: the users query and the roles one.
+     */
+    private static final long PAGE_STATEMENTS = 2;
+
+    /**
+     * Surnames of the test users, not in DNI order.
+     */
+    private static final List<String> SURNAMES = List.of("Castro", "Alonso", "Iglesias", "Alonso", "Blanco",
+            "Vazquez", "Castro");
+
+    /**
+     * Filter matching every user.
+     */
+    private static final UserDirectoryFilterDto NO_FILTER = new UserDirectoryFilterDto(null, null, null, null,
+            null);
+
+    /**
+     * The user service.
+     */
+    @Autowired
+    private UserService userService;
+
+    /**
+     * The role service, used to give roles to the test users.
+     */
+    @Autowired
+    private RoleService roleService;
+
+    /**
+     * The team service, used to assign teams to the test users.
+     */
+    @Autowired
+    private TeamService teamService;
+
+    /**
+     * The user repository, used to flush the test data before counting.
+     */
+    @Autowired
+    private UserEntityRepository userRepository;
+
+    /**
+     * The entity manager factory exposing the Hibernate statistics.
+     */
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Mocked mail sender.
+     */
+    @MockitoBean
+    private JavaMailSender mailSender;
+
+    /**
+     * Mocked email service.
+     */
+    @MockitoBean
+    private DefaultEmailService emailService;
+
+    /**
+     * Mocked image storage service.
+     */
+    @MockitoBean
+    private DefaultImageStorageService imageStorageService;
+
+    /**
+     * The Hibernate statistics.
+     */
+    private Statistics statistics;
+
+    @DynamicPropertySource
+    static void setProperties(final DynamicPropertyRegistry registry) {
+        registry.add("spring.mail.host", () -> "localhost");
+    }
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private void addUsers() throws Exception {
+        teamService.createTeam("Directory team", "Team of the directory test", "Senior");
+        for (int i = 0; i < SURNAMES.size(); i++) {
+            final String email = "directory" + i + "@example.com";
+            userService.add(new UserRegistrationDetailsDto(String.format("%08dD", i), "Name" + i, SURNAMES.get(i),
+                    "Second", LocalDate.of(1990, 1, 1), "Male", "password123", email,
+                    new AddressRegistrationDetailsDto("12B", "Building A", "City", "12345", "Main Street 1", 724,
+                            "Burgos"),
+                    UserType.SOCIO_NUMERO));
+            if (i % 2 != 0) {
+                userRepository.findByEmail(email).orElseThrow().setKindMember(UserType.SOCIO_ASPIRANTE);
+            }
+            roleService.changeUserRoles(email, i % 2 == 0 ? List.of(UserRoleName.ROLE_SOCIO)
+                    : List.of(UserRoleName.ROLE_SOCIO, UserRoleName.ROLE_TESORERO));
+            if (i % 3 == 0) {
+                userRepository.findByEmail(email).orElseThrow().getFederateState().setState(FederateState.FEDERATE);
+                teamService.addAssignedMember("Directory team", email);
+            }
+        }
+        userRepository.flush();
+    }
+
+    private List<UserSummaryDto> readAllPages(final UserDirectoryFilterDto filter, final UserDirectorySort sort,
+            final int limit) throws Exception {
+        final List<UserSummaryDto> users = new ArrayList<>();
+        String cursor = null;
+        do {
+            statistics.clear();
+            final UserDirectoryPageDto page = userService.getDirectoryPage(filter, sort, cursor, limit);
+            Assertions.assertEquals(PAGE_STATEMENTS, statistics.getPrepareStatementCount());
+            Assertions.assertTrue(page.users().size() <= limit);
+            users.addAll(page.users());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return users;
+    }
+
+    /**
+     * Tests that paging by DNI visits every user once, in DNI order, with a
+     * constant number of statements per page.
+     *
+     * @throws Exception if the test users cannot be created.
+     */
+    @Test
+    @Transactional
+    void testPagingByDniVisitsEveryUserOnce() throws Exception {
+        addUsers();
+
+        final var dnis = readAllPages(NO_FILTER, UserDirectorySort.DNI, 2).stream().map(UserSummaryDto::dni)
+                .toList();
+
+        Assertions.assertEquals(userService.getAllSummaries().stream().map(UserSummaryDto::dni).toList(), dnis);
+    }
+
+    /**
+     * Tests that paging by surname keeps users sharing a surname apart by their
+     * DNI, so no user is skipped or repeated across pages.
+     *
+     * @throws Exception if the test users cannot be created.
+     */
+    @Test
+    @Transactional
+    void testPagingBySurnameOrdersTiesByDni() throws Exception {
+        addUsers();
+
+        final var users = readAllPages(NO_FILTER, UserDirectorySort.SURNAME, 1);
+
+        Assertions.assertEquals(List.of("00000001D", "00000003D", "00000004D", "00000000D", "00000006D",
+                "00000002D", "00000005D"), users.stream().map(UserSummaryDto::dni).toList());
+    }
+
+    /**
+     * Tests that the filters are combined and that the users carry their roles.
+     *
+     * @throws Exception if the test users cannot be created.
+     */
+    @Test
+    @Transactional
+    void testFiltersAreCombined() throws Exception {
+        addUsers();
+
+        final var tesoreros = readAllPages(
+                new UserDirectoryFilterDto(UserType.SOCIO_ASPIRANTE, UserRoleName.ROLE_TESORERO, Boolean.TRUE,
+                        null, null),
+                UserDirectorySort.DNI, 10);
+        Assertions.assertEquals(List.of("00000001D", "00000003D", "00000005D"),
+                tesoreros.stream().map(UserSummaryDto::dni).toList());
+        Assertions.assertTrue(tesoreros.stream().allMatch(user -> user.roles().contains(UserRoleName.ROLE_TESORERO)));
+
+        final var teamMembers = readAllPages(
+                new UserDirectoryFilterDto(null, null, null, FederateState.FEDERATE, "Directory team"),
+                UserDirectorySort.SURNAME, 10);
+        Assertions.assertEquals(List.of("00000003D", "00000000D", "00000006D"),
+                teamMembers.stream().map(UserSummaryDto::dni).toList());
+
+        Assertions.assertTrue(userService.getDirectoryPage(
+                new UserDirectoryFilterDto(null, null, Boolean.FALSE, null, null), UserDirectorySort.DNI, null, 10)
+                .users().isEmpty());
+    }
+}
@@ -0,0 +1,226 @@
+package es.org.cxn.backapp.test.integration.services;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import es.org.cxn.backapp.model.FederateState;
+import es.org.cxn.backapp.model.UserRoleName;
+import es.org.cxn.backapp.model.form.responses.user.UserDataResponse;
+import es.org.cxn.backapp.model.form.responses.user.UserListDataResponse;
+import es.org.cxn.backapp.model.persistence.user.UserType;
+import es.org.cxn.backapp.repository.UserEntityRepository;
+import es.org.cxn.backapp.service.RoleService;
+import es.org.cxn.backapp.service.TeamService;
+import es.org.cxn.backapp.service.UserService;
+import es.org.cxn.backapp.service.dto.AddressRegistrationDetailsDto;
+import es.org.cxn.backapp.service.dto.UserRegistrationDetailsDto;
+import es.org.cxn.backapp.service.dto.UserSummaryDto;
+import es.org.cxn.backapp.service.impl.DefaultEmailService;
+import es.org.cxn.backapp.service.impl.storage.DefaultImageStorageService;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.transaction.Transactional;
+
+/**
+ * Query count regression tests for the users listing of {@code /api/user/getAll}.
+ * <p>
+ * The listing must be read with a constant number of statements whatever the
+ * number of users, and must return the same data the entity based mapping did.
+ * </p>
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+final class UserListQueryCountIT {
+
+    /**
+     * Statements issued by the users listing: the users query and the roles one.
+     */
+    private static final long LISTING_STATEMENTS = 2;
+
+    /**
+     * The user service.
+     */
+    @Autowired
+    private UserService userService;
+
+    /**
+     * The role service, used to give roles to the test users.
+     */
+    @Autowired
+    private RoleService roleService;
+
+    /**
+     * The team service, used to assign teams to the test users.
+     */
+    @Autowired
+    private TeamService teamService;
+
+    /**
+     * The user repository, used to flush the test data before counting.
+     */
+    @Autowired
+    private UserEntityRepository userRepository;
+
+    /**
+     * The entity manager factory exposing the Hibernate statistics.
+     */
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Mocked mail sender.
+     */
+    @MockitoBean
+    private JavaMailSender mailSender;
+
+    /**
+     * Mocked email service.
+     */
+    @MockitoBean
+    private DefaultEmailService emailService;
+
+    /**
+     * Mocked image storage service.
+     */
+    @MockitoBean
+    private DefaultImageStorageService imageStorageService;
+
+    /**
+     * The Hibernate statistics.
+     */
+    private Statistics statistics;
+
+    @DynamicPropertySource
+    static void setProperties(final DynamicPropertyRegistry registry) {
+        registry.add("spring.mail.host", () -> "localhost");
+    }
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private void addUsers(final int from, final int count) throws Exception {
+        for (int i = from; i < from + count; i++) {
+            final String email = "listed" + i + "@example.com";
+            userService.add(new UserRegistrationDetailsDto(String.format("%08dL", i), "Name" + i, "First", "Second",
+                    LocalDate.of(1990, 1, 1), "Male", "password123", email,
+                    new AddressRegistrationDetailsDto("12B", "Building A", "City", "12345", "Main Street 1", 724,
+                            "Burgos"),
+                    UserType.SOCIO_NUMERO));
+            roleService.changeUserRoles(email, i % 2 == 0 ? List.of(UserRoleName.ROLE_SOCIO)
+                    : List.of(UserRoleName.ROLE_SOCIO, UserRoleName.ROLE_TESORERO));
+            if (i % 3 == 0) {
+                userRepository.findByEmail(email).orElseThrow().getFederateState().setState(FederateState.FEDERATE);
+                teamService.addAssignedMember("Listing team", email);
+                teamService.addOrRemoveTeamPreference(email, "Listing team");
+            }
+        }
+        userRepository.flush();
+    }
+
+    private long countListingStatements() {
+        statistics.clear();
+        userService.getAllSummaries();
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * Tests that the listing issues the same constant number of statements when
+     * the number of users grows.
+     *
+     * @throws Exception if the test users cannot be created.
+     */
+    @Test
+    @Transactional
+    void testListingStatementsDoNotGrowWithUsers() throws Exception {
+        teamService.createTeam("Listing team", "Team of the listing test", "Senior");
+        addUsers(1, 3);
+        Assertions.assertEquals(LISTING_STATEMENTS, countListingStatements());
+
+        addUsers(4, 9);
+        Assertions.assertEquals(LISTING_STATEMENTS, countListingStatements());
+    }
+
+    /**
+     * Tests that the projection returns the same response the entity based
+     * mapping did.
+     *
+     * @throws Exception if the test users cannot be created.
+     */
+    @Test
+    @Transactional
+    void testListingMatchesEntityMapping() throws Exception {
+        teamService.createTeam("Listing team", "Team of the listing test", "Senior");
+        addUsers(1, 4);
+        final Comparator<UserDataResponse> byDni = Comparator.comparing(UserDataResponse::dni);
+
+        final var expected = UserListDataResponse.fromUserEntities(userService.getAll()).usersList().stream()
+                .sorted(byDni).toList();
+        final var actual = UserListDataResponse.fromUserSummaries(userService.getAllSummaries()).usersList();
+
+        Assertions.assertEquals(expected, actual);
+        Assertions.assertTrue(actual.stream().anyMatch(user -> "Listing team".equals(user.assignedTeamName())));
+    }
+
+    /**
+     * Tests that the streamed roster returns the same users as the listing, with
+     * the same constant number of statements.
+     *
+     * @throws Exception if the test users cannot be created.
+     */
+    @Test
+    @Transactional
+    void testStreamedRosterMatchesListing() throws Exception {
+        teamService.createTeam("Listing team", "Team of the listing test", "Senior");
+        addUsers(1, 7);
+        final var expected = userService.getAllSummaries();
+
+        statistics.clear();
+        final List<UserSummaryDto> streamed = new ArrayList<>();
+        userService.forEachSummary(streamed::add);
+
+        Assertions.assertEquals(LISTING_STATEMENTS, statistics.getPrepareStatementCount());
+        Assertions.assertEquals(expected, streamed);
+    }
+}
@@ -30,7 +30,9 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
  * #L%
  */
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -39,9 +41,11 @@ import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.stream.Stream;
 
@@ -51,6 +55,8 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -59,8 +65,10 @@ import org.springframework.web.server.ResponseStatusException;
 import es.org.cxn.backapp.controller.entity.ActivitiesController;
 import es.org.cxn.backapp.service.ActivitiesService;
 import es.org.cxn.backapp.service.dto.ActivityDto;
+import es.org.cxn.backapp.service.dto.StoredImageDto;
 import es.org.cxn.backapp.service.exceptions.activity.ActivityNotFoundException;
 import es.org.cxn.backapp.service.exceptions.activity.ActivityServiceException;
+import es.org.cxn.backapp.service.impl.storage.ImageVariant;
 
 @WebMvcTest(ActivitiesController.class)
 @AutoConfigureMockMvc(addFilters = false)
@@ -179,7 +187,7 @@ class ActivitiesControllerTest {
         // Verify that the service was called once for `getActivity` and not for
         // `getActivityImage`
         verify(activitiesStateService, times(1)).getActivity(title);
-        verify(activitiesStateService, times(0)).getActivityImage(title);
+        verify(activitiesStateService, times(0)).getActivityImage(eq(title), any());
     }
 
     /**
@@ -313,4 +321,65 @@ class ActivitiesControllerTest {
 
         verify(activitiesStateService, never()).remove(anyString());
     }
+
+    /**
+     * Tests that the activity image is served with its validators and cache
+     * lifetime, and that a matching {@code If-None-Match} is answered with
+     * {@code 304 Not Modified} and no body.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    void getActivityImageShouldServeFileWithValidators() throws Exception {
+        final byte[] content = "0123456789".getBytes();
+        when(activitiesStateService.getActivityImage("Chess", ImageVariant.ORIGINAL)).thenReturn(new StoredImageDto(
+                new ByteArrayResource(content), content.length, Instant.parse("2025-01-01T00:00:00Z"), "\"abc\"",
+                "image/png"));
+
+        mockMvc.perform(get("/api/activities/{title}/image", "Chess")).andExpect(status().isOk())
+                .andExpect(content().contentType("image/png")).andExpect(content().bytes(content))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andExpect(header().string(HttpHeaders.LAST_MODIFIED, "Wed, 01 Jan 2025 00:00:00 GMT"));
+
+        mockMvc.perform(get("/api/activities/{title}/image", "Chess").header(HttpHeaders.IF_NONE_MATCH, "\"abc\""))
+                .andExpect(status().isNotModified()).andExpect(content().bytes(new byte[0]));
+    }
+
+    /**
+     * Tests that a {@code Range} request for the activity image is answered with
+     * {@code 206 Partial Content} and only the requested bytes.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    void getActivityImageShouldServeRanges() throws Exception {
+        final byte[] content = "0123456789".getBytes();
+        when(activitiesStateService.getActivityImage("Chess", ImageVariant.ORIGINAL)).thenReturn(new StoredImageDto(
+                new ByteArrayResource(content), content.length, Instant.EPOCH, "\"abc\"", "image/png"));
+
+        mockMvc.perform(get("/api/activities/{title}/image", "Chess").header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent()).andExpect(content().string("2345"))
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"));
+    }
+
+    /**
+     * Tests that the {@code variant} parameter chooses the size of the activity
+     * image, and that an unknown variant is rejected with {@code 400 Bad Request}.
+     *
+     * @throws Exception if the request fails
+     */
+    @Test
+    void getActivityImageShouldServeRequestedVariant() throws Exception {
+        final byte[] content = "thumb".getBytes();
+        when(activitiesStateService.getActivityImage("Chess", ImageVariant.THUMB)).thenReturn(new StoredImageDto(
+                new ByteArrayResource(content), content.length, Instant.EPOCH, "\"thumb\"", "image/png"));
+
+        mockMvc.perform(get("/api/activities/{title}/image", "Chess").param("variant", "thumb"))
+                .andExpect(status().isOk()).andExpect(content().bytes(content));
+
+        mockMvc.perform(get("/api/activities/{title}/image", "Chess").param("variant", "huge"))
+                .andExpect(status().isBadRequest());
+        verify(activitiesStateService, never()).getActivityImage(eq("Chess"), eq(ImageVariant.ORIGINAL));
+    }
 }
@@ -34,17 +34,23 @@ import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -62,6 +68,9 @@ import es.org.cxn.backapp.model.form.requests.ConfirmCancelFederateRequest;
 import es.org.cxn.backapp.model.persistence.PersistentFederateStateEntity;
 import es.org.cxn.backapp.service.FederateStateService;
 import es.org.cxn.backapp.service.UserService;
+import es.org.cxn.backapp.service.dto.StoredImageDto;
+import es.org.cxn.backapp.service.dto.UserDniImageFilesDto;
+import es.org.cxn.backapp.service.dto.UserDniImagesDto;
 import es.org.cxn.backapp.service.exceptions.FederateStateServiceException;
 import es.org.cxn.backapp.service.exceptions.UserServiceException;
 import es.org.cxn.backapp.test.utils.LocalDateTimeAdapter;
@@ -581,4 +590,49 @@ class FederateControllerTest {
                 .andExpect(jsonPath("$.content").value("400 BAD_REQUEST \"User not found\"")); // Update the assertion
     }
 
+    /**
+     * Tests that the DNI images are streamed as {@code multipart/mixed} parts with
+     * their media types when asked for, and not cached.
+     *
+     * @throws Exception if the mockMvc operation fails during the test execution
+     */
+    @Test
+    @WithMockUser
+    void testGetUserDniImagePartsStreamsBothImages() throws Exception {
+        final var front = new StoredImageDto(new ByteArrayResource("front-bytes".getBytes()), 11, Instant.EPOCH,
+                "\"f\"", "image/png");
+        final var back = new StoredImageDto(new ByteArrayResource("back-bytes".getBytes()), 10, Instant.EPOCH,
+                "\"b\"", "image/jpeg");
+        when(federateStateService.getDniImageFiles(USER_DNI_1)).thenReturn(new UserDniImageFilesDto(front, back));
+
+        final String body = mockMvc
+                .perform(get("/api/user/federate/dni/" + USER_DNI_1).accept(MediaType.MULTIPART_MIXED))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.MULTIPART_MIXED))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store")).andReturn().getResponse()
+                .getContentAsString();
+
+        Assertions.assertTrue(body.contains("name=\"frontDni\""));
+        Assertions.assertTrue(body.contains("Content-Type: image/png"));
+        Assertions.assertTrue(body.contains("front-bytes"));
+        Assertions.assertTrue(body.contains("name=\"backDni\""));
+        Assertions.assertTrue(body.contains("Content-Type: image/jpeg"));
+        Assertions.assertTrue(body.contains("back-bytes"));
+    }
+
+    /**
+     * Tests that the DNI images are still returned in JSON by default.
+     *
+     * @throws Exception if the mockMvc operation fails during the test execution
+     */
+    @Test
+    @WithMockUser
+    void testGetUserDniImageDefaultsToJson() throws Exception {
+        when(federateStateService.getDniImages(USER_DNI_1))
+                .thenReturn(new UserDniImagesDto(new byte[] { 1 }, new byte[] { 2 }));
+
+        mockMvc.perform(get("/api/user/federate/dni/" + USER_DNI_1)).andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.frontImage").value("AQ=="));
+    }
 }
@@ -45,6 +45,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -56,8 +57,11 @@ import es.org.cxn.backapp.controller.entity.PaymentsController;
 import es.org.cxn.backapp.model.PaymentsEntity;
 import es.org.cxn.backapp.model.form.requests.payments.CreatePaymentRequest;
 import es.org.cxn.backapp.model.persistence.payments.PaymentsCategory;
+import es.org.cxn.backapp.model.persistence.payments.PaymentsState;
 import es.org.cxn.backapp.model.persistence.payments.PersistentPaymentsEntity;
+import es.org.cxn.backapp.model.persistence.user.UserType;
 import es.org.cxn.backapp.service.PaymentsService;
+import es.org.cxn.backapp.service.dto.MembershipFeeRunDto;
 import es.org.cxn.backapp.service.dto.PaymentDetails;
 import es.org.cxn.backapp.service.exceptions.PaymentsServiceException;
 
@@ -127,17 +131,57 @@ class PaymentsControllerTest {
                         PaymentsCategory.FEDERATE_PAYMENT, new BigDecimal("100.0"))));
     }
 
+    @Test
+    void generateMembershipFeesShouldReturnRunSummary() throws PaymentsServiceException {
+        final var summary = new MembershipFeeRunDto(2030, Map.of(UserType.SOCIO_NUMERO, 3));
+        when(paymentsService.generateMembershipFees(2030)).thenReturn(summary);
+
+        ResponseEntity<MembershipFeeRunDto> response = paymentsController.generateMembershipFees(2030);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(summary, response.getBody());
+    }
+
+    @Test
+    void generateMembershipFeesShouldThrowExceptionWhenServiceFails() throws PaymentsServiceException {
+        when(paymentsService.generateMembershipFees(2030)).thenThrow(new PaymentsServiceException("Error"));
+
+        assertThrows(ResponseStatusException.class, () -> paymentsController.generateMembershipFees(2030));
+    }
+
     @Test
     void getAllUsersPaymentsShouldReturnUsersPayments() {
         Map<String, List<PaymentDetails>> payments = new HashMap<>();
         when(paymentsService.getAllUsersWithPayments()).thenReturn(payments);
 
-        ResponseEntity<Map<String, List<PaymentDetails>>> response = paymentsController.getAllUsersPayments();
+        ResponseEntity<Map<String, List<PaymentDetails>>> response = paymentsController.getAllUsersPayments(null,
+                null, null, 50);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
     }
 
+    @Test
+    void getAllUsersPaymentsWithFilterShouldReturnPageOfUsersPayments() {
+        Map<String, List<PaymentDetails>> payments = Map.of("12345678A", List.of());
+        when(paymentsService.getUsersWithPayments(PaymentsState.UNPAID, PaymentsCategory.MEMBERSHIP_PAYMENT,
+                PageRequest.of(2, 20))).thenReturn(payments);
+
+        ResponseEntity<Map<String, List<PaymentDetails>>> response = paymentsController
+                .getAllUsersPayments(PaymentsState.UNPAID, PaymentsCategory.MEMBERSHIP_PAYMENT, 2, 20);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(payments, response.getBody());
+    }
+
+    @Test
+    void getAllUsersPaymentsWithInvalidPageShouldThrowException() {
+        assertThrows(ResponseStatusException.class,
+                () -> paymentsController.getAllUsersPayments(PaymentsState.PAID, null, 0, 0));
+        assertThrows(ResponseStatusException.class,
+                () -> paymentsController.getAllUsersPayments(null, null, -1, 50));
+    }
+
 //    @Test
 //    void getOwnPaymentsShouldReturnUserPayments() throws PaymentsServiceException {
 //        String email = "test@example.com";
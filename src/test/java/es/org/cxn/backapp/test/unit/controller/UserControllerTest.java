@@ -27,38 +27,61 @@ package es.org.cxn.backapp.test.unit.controller;
  */
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.Consumer;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import es.org.cxn.backapp.controller.entity.UserController;
+import es.org.cxn.backapp.model.FederateState;
+import es.org.cxn.backapp.model.UserRoleName;
 import es.org.cxn.backapp.model.persistence.user.PersistentUserEntity;
 import es.org.cxn.backapp.model.persistence.user.UserProfile;
+import es.org.cxn.backapp.model.persistence.user.UserType;
 import es.org.cxn.backapp.service.UserProfileImageService;
 import es.org.cxn.backapp.service.UserService;
+import es.org.cxn.backapp.service.dto.StoredImageDto;
+import es.org.cxn.backapp.service.dto.UserDirectoryFilterDto;
+import es.org.cxn.backapp.service.dto.UserDirectoryPageDto;
+import es.org.cxn.backapp.service.dto.UserDirectorySort;
 import es.org.cxn.backapp.service.dto.UserServiceUpdateDto;
+import es.org.cxn.backapp.service.dto.UserSummaryDto;
 import es.org.cxn.backapp.service.exceptions.UserServiceException;
 import es.org.cxn.backapp.service.impl.DefaultUserService;
+import es.org.cxn.backapp.service.impl.storage.ImageVariant;
 
 /**
  * Unit test class for {@link UserController}. This class tests the behavior of
@@ -68,6 +91,12 @@ import es.org.cxn.backapp.service.impl.DefaultUserService;
 @AutoConfigureMockMvc(addFilters = false)
 class UserControllerTest {
 
+    /**
+     * Digest of the stored profile image used by the tests.
+     */
+    private static final String PROFILE_IMAGE_DIGEST =
+            "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
     /**
      * The {@link MockMvc} instance used for performing HTTP requests and verifying
      * the responses.
@@ -232,4 +261,207 @@ class UserControllerTest {
                 && dto.gender().equals("M")), anyString());
     }
 
+    /**
+     * Test case to verify that the directory filters and cursor are passed to the
+     * service and that the next cursor is returned.
+     *
+     * @throws Exception if the mockMvc request fails
+     */
+    @Test
+    @DisplayName("Should return a directory page with its next cursor")
+    @WithMockUser
+    void getUserDirectoryReturnsPageAndCursor() throws Exception {
+        final var filter = new UserDirectoryFilterDto(UserType.SOCIO_NUMERO, UserRoleName.ROLE_SOCIO, Boolean.TRUE,
+                FederateState.FEDERATE, "Team A");
+        when(userService.getDirectoryPage(filter, UserDirectorySort.SURNAME, "abc", 10))
+                .thenReturn(new UserDirectoryPageDto(List.of(), "next"));
+
+        mockMvc.perform(get("/api/user/directory").param("sort", "SURNAME").param("cursor", "abc")
+                .param("limit", "10").param("kindMember", "SOCIO_NUMERO").param("role", "ROLE_SOCIO")
+                .param("enabled", "true").param("federateState", "FEDERATE").param("team", "Team A"))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.users").isEmpty());
+    }
+
+    /**
+     * Test case to verify that an invalid cursor or limit returns 400.
+     *
+     * @throws Exception if the mockMvc request fails
+     */
+    @Test
+    @DisplayName("Should return 400 for an invalid directory cursor or limit")
+    @WithMockUser
+    void getUserDirectoryInvalidCursorOrLimitReturnsBadRequest() throws Exception {
+        when(userService.getDirectoryPage(any(), any(), anyString(), anyInt()))
+                .thenThrow(new UserServiceException("Invalid directory cursor."));
+
+        mockMvc.perform(get("/api/user/directory").param("cursor", "bad")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/user/directory").param("limit", "0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/user/directory").param("limit", "201")).andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Test case to verify that the CSV roster export writes a header and one row
+     * per user, quoting the fields that need it.
+     *
+     * @throws Exception if the mockMvc request fails
+     */
+    @Test
+    @DisplayName("Should stream the roster as CSV")
+    @WithMockUser
+    void exportUsersCsvWritesHeaderAndRows() throws Exception {
+        doAnswer(invocation -> {
+            final Consumer<UserSummaryDto> action = invocation.getArgument(0);
+            action.accept(rosterSummary());
+            return null;
+        }).when(userService).forEachSummary(any());
+
+        final var result = mockMvc.perform(get("/api/user/export").param("format", "CSV"))
+                .andExpect(request().asyncStarted()).andReturn();
+
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"members.csv\""))
+                .andExpect(content().string("dni,name,firstSurname,secondSurname,gender,birthDate,email,kindMember,"
+                        + "postalCode,apartmentNumber,building,street,city,countryName,subCountryName,roles,"
+                        + "assignedTeamName,preferredTeamName,federateState,unsubscribeDate\r\n"
+                        + "32721860J,John,Doe,\"Smith, Jr\",Male,1990-01-01,john@example.com,SOCIO_NUMERO,15000,1A,"
+                        + "B,\"Main \"\"Street\"\"\",City,Spain,Burgos,ROLE_SECRETARIO|ROLE_SOCIO,Team A,,"
+                        + "FEDERATE,\r\n"));
+    }
+
+    /**
+     * Test case to verify that the CSV roster export writes cells that a
+     * spreadsheet would run as formulas as text.
+     *
+     * @throws Exception if the mockMvc request fails
+     */
+    @Test
+    @DisplayName("Should escape formula cells in the CSV roster")
+    @WithMockUser
+    void exportUsersCsvEscapesFormulaCells() throws Exception {
+        doAnswer(invocation -> {
+            final Consumer<UserSummaryDto> action = invocation.getArgument(0);
+            action.accept(new UserSummaryDto("32721860J", "=HYPERLINK(\"http://x\")", "+Doe", "-1", "@Male",
+                    LocalDate.of(1990, 1, 1), "john@example.com", UserType.SOCIO_NUMERO, "15000", "1A", "B",
+                    "Main", "City", "Spain", "Burgos", null, null, FederateState.FEDERATE, null)
+                    .withRoles(EnumSet.of(UserRoleName.ROLE_SOCIO)));
+            return null;
+        }).when(userService).forEachSummary(any());
+
+        final var result = mockMvc.perform(get("/api/user/export").param("format", "CSV"))
+                .andExpect(request().asyncStarted()).andReturn();
+        final var body = mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk()).andReturn()
+                .getResponse().getContentAsString();
+
+        Assertions.assertTrue(
+                body.contains("\r\n32721860J,\"'=HYPERLINK(\"\"http://x\"\")\",'+Doe,'-1,'@Male,1990-01-01,"), body);
+    }
+
+    /**
+     * Test case to verify that the NDJSON roster export writes one JSON object per
+     * line.
+     *
+     * @throws Exception if the mockMvc request fails
+     */
+    @Test
+    @DisplayName("Should stream the roster as NDJSON")
+    @WithMockUser
+    void exportUsersNdjsonWritesOneObjectPerLine() throws Exception {
+        doAnswer(invocation -> {
+            final Consumer<UserSummaryDto> action = invocation.getArgument(0);
+            action.accept(rosterSummary());
+            action.accept(rosterSummary());
+            return null;
+        }).when(userService).forEachSummary(any());
+
+        final var result = mockMvc.perform(get("/api/user/export")).andExpect(request().asyncStarted())
+                .andReturn();
+        final var body = mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson;charset=UTF-8")).andReturn()
+                .getResponse().getContentAsString();
+
+        final var lines = body.split("\n");
+        Assertions.assertEquals(2, lines.length);
+        Assertions.assertTrue(lines[0].startsWith("{\"dni\":\"32721860J\""));
+        Assertions.assertTrue(lines[0].contains("\"birthDate\":\"1990-01-01\""));
+        Assertions.assertTrue(lines[0].contains("\"assignedTeamName\":\"Team A\""));
+    }
+
+    /**
+     * Test case to verify that a stored profile image is served to its owner as a
+     * file with its validators, and that a matching {@code If-None-Match} gets 304
+     * Not Modified.
+     *
+     * @throws Exception if the mockMvc request fails
+     */
+    @Test
+    @DisplayName("Should serve the stored profile image file to its owner")
+    @WithMockUser(username = "owner@example.com", roles = "SOCIO")
+    void getStoredProfileImageServesFileWithValidators() throws Exception {
+        final byte[] content = "avatar".getBytes();
+        final PersistentUserEntity owner = new PersistentUserEntity();
+        owner.setDni("32721860J");
+        when(userService.findByEmail("owner@example.com")).thenReturn(owner);
+        when(userProfileImageService.hasStoredProfileImage("32721860J", PROFILE_IMAGE_DIGEST)).thenReturn(true);
+        when(userProfileImageService.getStoredProfileImage(PROFILE_IMAGE_DIGEST, ImageVariant.ORIGINAL))
+                .thenReturn(new StoredImageDto(new ByteArrayResource(content), content.length, Instant.EPOCH,
+                        "\"" + PROFILE_IMAGE_DIGEST + "\"", "image/webp"));
+
+        mockMvc.perform(get("/api/user/profileImage/{digest}", PROFILE_IMAGE_DIGEST)).andExpect(status().isOk())
+                .andExpect(content().contentType("image/webp")).andExpect(content().bytes(content))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + PROFILE_IMAGE_DIGEST + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=2592000, private"));
+
+        mockMvc.perform(get("/api/user/profileImage/{digest}", PROFILE_IMAGE_DIGEST).header(HttpHeaders.IF_NONE_MATCH,
+                "\"" + PROFILE_IMAGE_DIGEST + "\"")).andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    /**
+     * Test case to verify that a member cannot read the profile image of another
+     * member.
+     *
+     * @throws Exception if the mockMvc request fails
+     */
+    @Test
+    @DisplayName("Should return 403 when a member asks for the profile image of another member")
+    @WithMockUser(username = "other@example.com", roles = "SOCIO")
+    void getStoredProfileImageOfAnotherMemberReturnsForbidden() throws Exception {
+        final PersistentUserEntity other = new PersistentUserEntity();
+        other.setDni("12345678Z");
+        when(userService.findByEmail("other@example.com")).thenReturn(other);
+        when(userProfileImageService.hasStoredProfileImage("12345678Z", PROFILE_IMAGE_DIGEST)).thenReturn(false);
+
+        mockMvc.perform(get("/api/user/profileImage/{digest}", PROFILE_IMAGE_DIGEST))
+                .andExpect(status().isForbidden());
+
+        verify(userProfileImageService, never()).getStoredProfileImage(anyString(), any(ImageVariant.class));
+    }
+
+    /**
+     * Test case to verify that a role that can list the users reads any profile
+     * image, and gets 404 when no user has a stored image with the digest.
+     *
+     * @throws Exception if the mockMvc request fails
+     */
+    @Test
+    @DisplayName("Should return 404 to an admin when no user has the stored profile image")
+    @WithMockUser(roles = "ADMIN")
+    void getStoredProfileImageWithoutImageReturnsNotFound() throws Exception {
+        when(userProfileImageService.getStoredProfileImage(PROFILE_IMAGE_DIGEST, ImageVariant.ORIGINAL))
+                .thenThrow(new UserServiceException("No stored profile image has digest: " + PROFILE_IMAGE_DIGEST));
+
+        mockMvc.perform(get("/api/user/profileImage/{digest}", PROFILE_IMAGE_DIGEST))
+                .andExpect(status().isNotFound());
+
+        verify(userService, never()).findByEmail(anyString());
+    }
+
+    private static UserSummaryDto rosterSummary() {
+        return new UserSummaryDto("32721860J", "John", "Doe", "Smith, Jr", "Male", LocalDate.of(1990, 1, 1),
+                "john@example.com", UserType.SOCIO_NUMERO, "15000", "1A", "B", "Main \"Street\"", "City", "Spain",
+                "Burgos", "Team A", null, FederateState.FEDERATE, null)
+                .withRoles(EnumSet.of(UserRoleName.ROLE_SOCIO, UserRoleName.ROLE_SECRETARIO));
+    }
 }
@@ -183,7 +183,8 @@ class PersistentActivityEntityTest {
     void testToString() {
         activityEntity.setTitle(TITLE_SHOW);
         String expectedString = "PersistentActivityEntity(title=" + TITLE_SHOW
-                + ", description=, startDate=null, endDate=null, createdAt=null, category=, imageSrc=null)";
+                + ", description=, startDate=null, endDate=null, createdAt=null, category=, imageSrc=null"
+                + ", imageContentType=null)";
         assertEquals(expectedString, activityEntity.toString(),
                 "toString should return the correct string representation.");
     }
@@ -109,6 +109,11 @@ class PersistentBookEntityTest {
      */
     private final String coverSrc = "/images/test-cover.jpg";
 
+    /**
+     * Media type of the cover image.
+     */
+    private final String coverContentType = "image/jpeg";
+
     @BeforeEach
     void setUp() {
         final String authorFirstName = "Javier";
@@ -157,7 +162,7 @@ class PersistentBookEntityTest {
     void testAllArgsConstructor() {
         Set<PersistentAuthorEntity> authors = new HashSet<>();
         PersistentBookEntity bookWithAuthors = new PersistentBookEntity(isbn, title, genre, publishDate, language,
-                description, coverSrc, authors);
+                description, coverSrc, coverContentType, authors);
         assertEquals(isbn, bookWithAuthors.getIsbn());
         assertEquals(title, bookWithAuthors.getTitle());
         assertEquals(genre, bookWithAuthors.getGenre());
@@ -165,6 +170,7 @@ class PersistentBookEntityTest {
         assertEquals(language, bookWithAuthors.getLanguage());
         assertEquals(description, bookWithAuthors.getDescription());
         assertEquals(coverSrc, bookWithAuthors.getCoverSrc());
+        assertEquals(coverContentType, bookWithAuthors.getCoverContentType());
         assertEquals(authors, bookWithAuthors.getAuthors());
     }
 
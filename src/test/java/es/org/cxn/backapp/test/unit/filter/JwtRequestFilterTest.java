@@ -26,12 +26,23 @@ package es.org.cxn.backapp.test.unit.filter;
  * #L%
  */
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.Set;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -44,9 +55,12 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
 import es.org.cxn.backapp.AppURL;
+import es.org.cxn.backapp.exceptions.DisabledUserException;
 import es.org.cxn.backapp.filter.JwtRequestFilter;
 import es.org.cxn.backapp.security.DefaultJwtUtils;
-import io.jsonwebtoken.JwtException;
+import es.org.cxn.backapp.security.MyPrincipalUser;
+import es.org.cxn.backapp.security.ValidatedToken;
+import es.org.cxn.backapp.security.VerifiedTokenCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -75,6 +89,12 @@ class JwtRequestFilterTest {
     @Mock
     private UserDetailsService userDetailsService;
 
+    /**
+     * Mocked instance of {@link VerifiedTokenCache}, empty unless stubbed.
+     */
+    @Mock
+    private VerifiedTokenCache tokenCache;
+
     /**
      * Mocked instance of {@link HttpServletRequest} used to simulate HTTP requests.
      */
@@ -112,6 +132,7 @@ class JwtRequestFilterTest {
         UserDetails mockUser = mock(UserDetails.class);
 
         when(mockUser.getUsername()).thenReturn("user@test.com");
+        when(mockUser.isEnabled()).thenReturn(true);
 
         when(userDetailsService.loadUserByUsername("user@test.com")).thenReturn(mockUser);
     }
@@ -125,7 +146,7 @@ class JwtRequestFilterTest {
     void testInvalidJwt() throws Exception {
         // Configurar mocks
         when(request.getHeader("Authorization")).thenReturn("Bearer invalid.token");
-        when(jwtUtils.extractUsername("invalid.token")).thenThrow(new JwtException("Invalid token"));
+        when(jwtUtils.validate("invalid.token")).thenReturn(Optional.empty());
 
         // Acceder al método protegido usando reflexión
         Method method = JwtRequestFilter.class.getDeclaredMethod("doFilterInternal", HttpServletRequest.class,
@@ -135,6 +156,7 @@ class JwtRequestFilterTest {
 
         // Verificar
         verify(filterChain).doFilter(request, response);
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
         assertNull(SecurityContextHolder.getContext().getAuthentication());
     }
 
@@ -158,10 +180,13 @@ class JwtRequestFilterTest {
     void testValidJwt() throws Exception {
         // Configurar mocks
         UserDetails mockUser = mock(UserDetails.class);
+        when(mockUser.getUsername()).thenReturn("user@test.com");
+        when(mockUser.isEnabled()).thenReturn(true);
+        final Instant now = Instant.now();
         when(request.getHeader("Authorization")).thenReturn("Bearer valid.token");
-        when(jwtUtils.extractUsername("valid.token")).thenReturn("user@test.com");
+        when(jwtUtils.validate("valid.token")).thenReturn(Optional
+                .of(new ValidatedToken("user@test.com", now, now.plus(1, ChronoUnit.HOURS), null)));
         when(userDetailsService.loadUserByUsername("user@test.com")).thenReturn(mockUser);
-        when(jwtUtils.validateToken("valid.token", mockUser)).thenReturn(true);
 
         // Acceder al método protegido usando reflexión
         Method method = JwtRequestFilter.class.getDeclaredMethod("doFilterInternal", HttpServletRequest.class,
@@ -172,5 +197,91 @@ class JwtRequestFilterTest {
 
         // Verificaciones
         verify(filterChain).doFilter(request, response);
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        // The token is parsed a single time per request
+        verify(jwtUtils).validate("valid.token");
+        verify(jwtUtils, never()).extractUsername(anyString());
+        verify(jwtUtils, never()).isTokenValid(anyString());
+    }
+
+    @Test
+    void testCachedJwtSkipsValidationAndLookup() throws Exception {
+        final MyPrincipalUser principal = mock(MyPrincipalUser.class);
+        when(principal.isEnabled()).thenReturn(true);
+        when(request.getHeader("Authorization")).thenReturn("Bearer cached.token");
+        when(tokenCache.get("cached.token")).thenReturn(Optional.of(principal));
+
+        Method method = JwtRequestFilter.class.getDeclaredMethod("doFilterInternal", HttpServletRequest.class,
+                HttpServletResponse.class, FilterChain.class);
+        method.setAccessible(true);
+        method.invoke(jwtFilter, request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(jwtUtils, never()).validate(anyString());
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void testStatelessJwtSkipsUserLookup() throws Exception {
+        final MyPrincipalUser principal = new MyPrincipalUser("32721860J", "user@test.com", Set.of(), true, 2);
+        final Instant now = Instant.now();
+        final ValidatedToken token = new ValidatedToken("user@test.com", now, now.plus(1, ChronoUnit.HOURS), null);
+        when(request.getHeader("Authorization")).thenReturn("Bearer stateless.token");
+        when(jwtUtils.validate("stateless.token")).thenReturn(Optional.of(token));
+        when(jwtUtils.principalFromClaims(token)).thenReturn(Optional.of(principal));
+        when(tokenCache.isCurrentVersion("32721860J", 2)).thenReturn(true);
+
+        Method method = JwtRequestFilter.class.getDeclaredMethod("doFilterInternal", HttpServletRequest.class,
+                HttpServletResponse.class, FilterChain.class);
+        method.setAccessible(true);
+        method.invoke(jwtFilter, request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void testStatelessJwtWithRevokedVersionIsRejected() throws Exception {
+        final MyPrincipalUser principal = new MyPrincipalUser("32721860J", "user@test.com", Set.of(), true, 1);
+        final Instant now = Instant.now();
+        final ValidatedToken token = new ValidatedToken("user@test.com", now, now.plus(1, ChronoUnit.HOURS), null);
+        when(request.getHeader("Authorization")).thenReturn("Bearer revoked.token");
+        when(jwtUtils.validate("revoked.token")).thenReturn(Optional.of(token));
+        when(jwtUtils.principalFromClaims(token)).thenReturn(Optional.of(principal));
+        when(tokenCache.isCurrentVersion("32721860J", 1)).thenReturn(false);
+
+        Method method = JwtRequestFilter.class.getDeclaredMethod("doFilterInternal", HttpServletRequest.class,
+                HttpServletResponse.class, FilterChain.class);
+        method.setAccessible(true);
+        method.invoke(jwtFilter, request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void testJwtOfDisabledUserIsRejected() throws Exception {
+        UserDetails disabledUser = mock(UserDetails.class);
+        when(disabledUser.getUsername()).thenReturn("user@test.com");
+        when(disabledUser.isEnabled()).thenReturn(false);
+        final Instant now = Instant.now();
+        when(request.getHeader("Authorization")).thenReturn("Bearer disabled.token");
+        when(jwtUtils.validate("disabled.token")).thenReturn(Optional
+                .of(new ValidatedToken("user@test.com", now, now.plus(1, ChronoUnit.HOURS), null)));
+        when(userDetailsService.loadUserByUsername("user@test.com")).thenReturn(disabledUser);
+
+        Method method = JwtRequestFilter.class.getDeclaredMethod("doFilterInternal", HttpServletRequest.class,
+                HttpServletResponse.class, FilterChain.class);
+        method.setAccessible(true);
+
+        InvocationTargetException exception = assertThrows(InvocationTargetException.class,
+                () -> method.invoke(jwtFilter, request, response, filterChain));
+
+        assertEquals(DisabledUserException.class, exception.getCause().getClass());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(filterChain, never()).doFilter(request, response);
+        verify(userDetailsService, times(1)).loadUserByUsername("user@test.com");
     }
 }
@@ -0,0 +1,87 @@
+package es.org.cxn.backapp.test.unit.filter;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import es.org.cxn.backapp.AppURL;
+import es.org.cxn.backapp.filter.UnprotectedRoutes;
+
+/**
+ * Unit tests for the {@link UnprotectedRoutes} classification table shared by
+ * the request filters.
+ */
+class UnprotectedRoutesTest {
+
+    @Test
+    void testUnprotectedPrefixesMatchAnyMethod() {
+        assertTrue(UnprotectedRoutes.isUnprotected("/h2-console/login.do", "GET"));
+        assertTrue(UnprotectedRoutes.isUnprotected(AppURL.SIGN_IN_URL, "POST"));
+        assertTrue(UnprotectedRoutes.isUnprotected("/api/ott/my-generate-url/password/reset", "POST"));
+    }
+
+    @Test
+    void testProtectedUriIsNotUnprotected() {
+        assertFalse(UnprotectedRoutes.isUnprotected("/api/user", "GET"));
+        assertFalse(UnprotectedRoutes.isUnprotected("/api/lichessAuth", "POST"));
+    }
+
+    @Test
+    void testPostOnlyRoutes() {
+        assertTrue(UnprotectedRoutes.isUnprotectedMethod(AppURL.CHESS_QUESTION_URL, "POST"));
+        assertTrue(UnprotectedRoutes.isUnprotectedMethod(AppURL.PARTICIPANTS_URL, "POST"));
+        assertFalse(UnprotectedRoutes.isUnprotectedMethod(AppURL.CHESS_QUESTION_URL, "GET"));
+        assertFalse(UnprotectedRoutes.isUnprotectedMethod(AppURL.PARTICIPANTS_URL + "/1", "POST"));
+    }
+
+    @Test
+    void testLichessAuthRouteNeedsOneSegmentAndGet() {
+        assertTrue(UnprotectedRoutes.isUnprotectedMethod("/api/32721860J/lichessAuth", "GET"));
+        assertFalse(UnprotectedRoutes.isUnprotectedMethod("/api/32721860J/lichessAuth", "POST"));
+        assertFalse(UnprotectedRoutes.isUnprotectedMethod("/api//lichessAuth", "GET"));
+        assertFalse(UnprotectedRoutes.isUnprotectedMethod("/api/lichessAuth", "GET"));
+        assertFalse(UnprotectedRoutes.isUnprotectedMethod("/api/a/b/lichessAuth", "GET"));
+    }
+
+    @Test
+    void testLichessLeaderboardTopIsPublicButRankIsNot() {
+        assertTrue(UnprotectedRoutes.isUnprotectedMethod("/api/lichessLeaderboard/blitz", "GET"));
+        assertFalse(UnprotectedRoutes.isUnprotectedMethod("/api/lichessLeaderboard/blitz", "POST"));
+        assertFalse(UnprotectedRoutes.isUnprotected("/api/lichessLeaderboard/blitz/rank/32721860J", "GET"));
+    }
+
+    @Test
+    void testPublicRoutesThatMayUseTheUserAreNotSkipped() {
+        assertTrue(UnprotectedRoutes.routes().stream()
+                .anyMatch(route -> "/api/activities".equals(route.pattern()) && !route.anonymous()));
+        assertFalse(UnprotectedRoutes.isUnprotected("/api/activities", "POST"));
+        assertFalse(UnprotectedRoutes.isUnprotected("/api/address/country/ES", "GET"));
+    }
+}
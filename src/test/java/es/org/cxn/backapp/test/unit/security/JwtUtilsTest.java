@@ -27,6 +27,26 @@ package es.org.cxn.backapp.test.unit.security;
  * #L%
  */
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.EnumSet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import es.org.cxn.backapp.config.JwtProperties;
+import es.org.cxn.backapp.model.UserRoleName;
+import es.org.cxn.backapp.security.DefaultJwtUtils;
+import es.org.cxn.backapp.security.MyPrincipalUser;
+import es.org.cxn.backapp.security.ValidatedToken;
+
 /**
  * Unit tests for the {@link es.org.cxn.backapp.security.DefaultJwtUtils} class.
  * <p>
@@ -35,122 +55,127 @@ package es.org.cxn.backapp.test.unit.security;
  */
 class JwtUtilsTest {
 
-//    private MyPrincipalUser mockUserDetails;
-//    private DefaultJwtUtils jwtUtils;
-//
-//    @BeforeEach
-//    void setUp() {
-//        // Configurar JWTUtils con valores de prueba
-//        String testSecret = "c3VwZXItc2VjcmV0LWNsYXZlLWRlLXRlc3RpbmctMTIzNDU2Nzg5MDEyMzQ1Njc4OTA=";
-//        Duration testExpiration = Duration.ofHours(1);
-//        jwtUtils = new DefaultJwtUtils(testSecret, testExpiration);
-//
-//        // Mock UserDetails
-//        mockUserDetails = mock(MyPrincipalUser.class);
-//        when(mockUserDetails.getUsername()).thenReturn("test@example.com");
-//    }
-//
-//    /**
-//     * Tear down method to clean up resources after each test.
-//     */
-//    @AfterEach
-//    public void tearDown() {
-//        // No specific resources to clean up in this implementation.
-//    }
-//
-//    /**
-//     * Test the {@link DefaultJwtUtils#extractExpiration(String)} method to ensure
-//     * it correctly extracts the expiration date from a token.
-//     */
-//    @Test
-//    void testExtractExpiration() {
-//        var token = jwtUtils.generateToken(mockUserDetails);
-//        var expiration = jwtUtils.extractExpiration(token);
-//        assertTrue(expiration.isAfter(Instant.now()), "Expiration date should be in the future");
-//    }
-//
-//    /**
-//     * Test the {@link DefaultJwtUtils#extractUsername(String)} method to ensure it
-//     * correctly extracts the username from a token.
-//     */
-//    @Test
-//    void testExtractUsername() {
-//        var token = jwtUtils.generateToken(mockUserDetails);
-//        var username = jwtUtils.extractUsername(token);
-//        assertEquals("test@example.com", username, "Extracted username should match the expected value");
-//    }
-//
-//    /**
-//     * Test the {@link DefaultJwtUtils#generateToken(UserDetails)} method to ensure
-//     * it generates a valid JWT token.
-//     */
-//    @Test
-//    void testGenerateToken() {
-//        var token = jwtUtils.generateToken(mockUserDetails);
-//        assertNotNull(token, "Token should not be null");
-//
-//        var extractedUsername = jwtUtils.extractUsername(token);
-//        assertEquals("test@example.com", extractedUsername, "Extracted username should match the input username");
-//    }
-//
-//    /**
-//     * Test the {@link DefaultJwtUtils#isTokenExpired(String)} method to ensure it
-//     * correctly identifies if a token has expired.
-//     */
-//    @Test
-//    void testIsTokenExpired() {
-//        var token = jwtUtils.generateToken(mockUserDetails);
-//        boolean isExpired = jwtUtils.isTokenExpired(token);
-//        assertFalse(isExpired, "Token should not be expired immediately after generation");
-//    }
-//
-//    /**
-//     * Test the {@link DefaultJwtUtils#validateToken(String, UserDetails)} method to
-//     * ensure it correctly validates a token against a user.
-//     */
-//    @Test
-//    void testValidateToken() {
-//        var userDetails = mock(UserDetails.class);
-//        when(userDetails.getUsername()).thenReturn("test@example.com");
-//
-//        var token = jwtUtils.generateToken(mockUserDetails);
-//        boolean isValid = jwtUtils.validateToken(token, userDetails);
-//        assertTrue(isValid, "Token should be valid when usernames match");
-//    }
-//
-//    /**
-//     * Test the {@link DefaultJwtUtils#validateToken(String, UserDetails)} method to
-//     * ensure it returns false when the token is expired.
-//     */
-//    @Test
-//    void testValidateTokenExpired() {
-//        // 1. Crear instancia con expiración inmediata
-//        DefaultJwtUtils expiredJwtUtils = new DefaultJwtUtils(
-//                "c3VwZXItc2VjcmV0LWNsYXZlLWRlLXRlc3RpbmctMTIzNDU2Nzg5MDEyMzQ1Njc4OTA=" // Usar un secreto válido en
-//                // Base64
-//
-//        );
-//
-//        // 2. Generar token con expiración en el pasado
-//        String token = expiredJwtUtils.generateToken(mockUserDetails);
-//
-//        // 3. Validar con la instancia normal
-//        boolean isValid = jwtUtils.validateToken(token, mockUserDetails);
-//
-//        assertFalse(isValid, "El token debe ser inválido cuando está expirado");
-//    }
-//
-//    /**
-//     * Test the {@link DefaultJwtUtils#validateToken(String, UserDetails)} method to
-//     * ensure it returns false when the username does not match.
-//     */
-//    @Test
-//    void testValidateTokenUsernameMismatch() {
-//        var userDetails = mock(UserDetails.class);
-//        when(userDetails.getUsername()).thenReturn("wrong@example.com");
-//
-//        var token = jwtUtils.generateToken(mockUserDetails);
-//        boolean isValid = jwtUtils.validateToken(token, userDetails);
-//        assertFalse(isValid, "Token should be invalid when usernames do not match");
-//    }
+    /**
+     * Base64 secret used to sign test tokens.
+     */
+    private static final String TEST_SECRET = "c3VwZXItc2VjcmV0LWNsYXZlLWRlLXRlc3RpbmctMTIzNDU2Nzg5MDEyMzQ1Njc4OTA=";
+
+    /**
+     * Username stored as subject in test tokens.
+     */
+    private static final String USERNAME = "test@example.com";
+
+    /**
+     * Instance under test.
+     */
+    private DefaultJwtUtils jwtUtils;
+
+    /**
+     * Mocked user details matching {@link #USERNAME}.
+     */
+    private UserDetails userDetails;
+
+    private static DefaultJwtUtils buildJwtUtils(final int expirationSeconds) {
+        final var properties = new JwtProperties();
+        properties.setSecret(TEST_SECRET);
+        properties.setExpiration(expirationSeconds);
+        return new DefaultJwtUtils(properties);
+    }
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = buildJwtUtils(3600);
+        userDetails = mock(UserDetails.class);
+        when(userDetails.getUsername()).thenReturn(USERNAME);
+    }
+
+    @Test
+    void testExtractExpiration() {
+        final var token = jwtUtils.generateToken(userDetails);
+        assertTrue(jwtUtils.extractExpiration(token).isAfter(Instant.now()),
+                "Expiration date should be in the future");
+    }
+
+    @Test
+    void testExtractUsername() {
+        final var token = jwtUtils.generateToken(userDetails);
+        assertEquals(USERNAME, jwtUtils.extractUsername(token), "Extracted username should match");
+    }
+
+    @Test
+    void testValidateReturnsParsedToken() {
+        final var token = jwtUtils.generateToken(userDetails);
+        final var validated = jwtUtils.validate(token);
+
+        assertTrue(validated.isPresent(), "Freshly generated token should validate");
+        final ValidatedToken parsed = validated.get();
+        assertEquals(USERNAME, parsed.subject(), "Subject should match the username");
+        assertNotNull(parsed.issuedAt(), "Issued at should be present");
+        assertTrue(parsed.expiration().isAfter(parsed.issuedAt()), "Expiration should follow issued at");
+        assertTrue(parsed.isValidFor(userDetails), "Token should be valid for its own user");
+    }
+
+    @Test
+    void testValidateRejectsExpiredToken() {
+        final var token = buildJwtUtils(-10).generateToken(userDetails);
+
+        assertTrue(jwtUtils.validate(token).isEmpty(), "Expired token must not validate");
+        assertFalse(jwtUtils.validateToken(token, userDetails), "Expired token must not validate for user");
+        assertTrue(jwtUtils.isTokenExpired(token), "Token should be reported as expired");
+    }
+
+    @Test
+    void testValidateRejectsMalformedToken() {
+        assertTrue(jwtUtils.validate("not.a.token").isEmpty(), "Malformed token must not validate");
+        assertFalse(jwtUtils.isTokenValid("not.a.token"), "Malformed token must not be valid");
+    }
+
+    @Test
+    void testValidateRejectsForeignSignature() {
+        final var properties = new JwtProperties();
+        properties.setSecret("b3RyYS1jbGF2ZS1zZWNyZXRhLWRpZmVyZW50ZS1wYXJhLXRlc3RzLTEyMzQ1Njc4OTA=");
+        properties.setExpiration(3600);
+        final var token = new DefaultJwtUtils(properties).generateToken(userDetails);
+
+        assertTrue(jwtUtils.validate(token).isEmpty(), "Token signed with another key must not validate");
+    }
+
+    @Test
+    void testValidateTokenUsernameMismatch() {
+        final var other = mock(UserDetails.class);
+        when(other.getUsername()).thenReturn("wrong@example.com");
+
+        final var token = jwtUtils.generateToken(userDetails);
+        assertFalse(jwtUtils.validateToken(token, other), "Token should be invalid when usernames do not match");
+        assertTrue(jwtUtils.validateToken(token, userDetails), "Token should be valid when usernames match");
+    }
+
+    @Test
+    void testStatelessClaimsRebuildPrincipal() {
+        final var properties = new JwtProperties();
+        properties.setSecret(TEST_SECRET);
+        properties.setExpiration(3600);
+        properties.setStatelessClaims(true);
+        final var statelessUtils = new DefaultJwtUtils(properties);
+        final var principal = new MyPrincipalUser("32721860J", USERNAME,
+                EnumSet.of(UserRoleName.ROLE_SOCIO, UserRoleName.ROLE_TESORERO), true, 7);
+
+        final var token = statelessUtils.validate(statelessUtils.generateToken(principal)).orElseThrow();
+        final var rebuilt = statelessUtils.principalFromClaims(token).orElseThrow();
+
+        assertEquals("32721860J", rebuilt.getDni(), "DNI should come from the token");
+        assertEquals(USERNAME, rebuilt.getUsername(), "Username should be the subject");
+        assertEquals(principal.getRoles(), rebuilt.getRoles(), "Roles should come from the token");
+        assertTrue(rebuilt.isEnabled(), "Enabled state should come from the token");
+        assertEquals(7, rebuilt.getTokenVersion(), "Token version should come from the token");
+    }
+
+    @Test
+    void testDefaultTokensCarryNoPrincipalClaims() {
+        final var principal = new MyPrincipalUser("32721860J", USERNAME, EnumSet.of(UserRoleName.ROLE_SOCIO), true,
+                0);
+        final var token = jwtUtils.validate(jwtUtils.generateToken(principal)).orElseThrow();
+
+        assertTrue(jwtUtils.principalFromClaims(token).isEmpty(), "Claims mode is opt-in");
+    }
 }
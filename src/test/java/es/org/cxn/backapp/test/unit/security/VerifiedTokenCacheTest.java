@@ -0,0 +1,157 @@
+package es.org.cxn.backapp.test.unit.security;
+
+/*-
+ * #%L
+ * CXN-back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Círculo Xadrez Narón
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import es.org.cxn.backapp.config.JwtProperties;
+import es.org.cxn.backapp.model.persistence.user.PersistentUserEntity;
+import es.org.cxn.backapp.repository.UserEntityRepository;
+import es.org.cxn.backapp.security.MyPrincipalUser;
+import es.org.cxn.backapp.security.ValidatedToken;
+import es.org.cxn.backapp.security.VerifiedTokenCache;
+
+/**
+ * Unit tests for {@link VerifiedTokenCache}.
+ */
+class VerifiedTokenCacheTest {
+
+    /**
+     * Cache under test.
+     */
+    private VerifiedTokenCache cache;
+
+    /**
+     * Mocked user repository providing token versions.
+     */
+    private UserEntityRepository userRepository;
+
+    private static MyPrincipalUser principal(final String dni, final String email) {
+        final var user = new PersistentUserEntity();
+        user.setDni(dni);
+        user.setEmail(email);
+        user.setPassword("hash");
+        user.setEnabled(true);
+        user.setRoles(new HashSet<>());
+        return new MyPrincipalUser(user);
+    }
+
+    private static ValidatedToken token(final String subject, final Instant expiration) {
+        return new ValidatedToken(subject, Instant.now(), expiration, null);
+    }
+
+    @BeforeEach
+    void setUp() {
+        final var properties = new JwtProperties();
+        properties.setCacheMaximumSize(100);
+        properties.setCacheTtl(300);
+        userRepository = mock(UserEntityRepository.class);
+        cache = new VerifiedTokenCache(properties, userRepository);
+    }
+
+    @Test
+    void testGetReturnsCachedPrincipal() {
+        final var principal = principal("32721860J", "user@example.com");
+        cache.put("token.a", token("user@example.com", Instant.now().plus(1, ChronoUnit.HOURS)), principal);
+
+        assertEquals(principal, cache.get("token.a").orElseThrow(), "Cached principal should be returned");
+        assertTrue(cache.get("token.b").isEmpty(), "Unknown token should not be cached");
+    }
+
+    @Test
+    void testExpiredTokenIsNotReturned() {
+        final var principal = principal("32721860J", "user@example.com");
+        cache.put("token.a", token("user@example.com", Instant.now().plusMillis(1)), principal);
+
+        final var later = Instant.now().plusMillis(50);
+        while (Instant.now().isBefore(later)) {
+            Thread.onSpinWait();
+        }
+        assertTrue(cache.get("token.a").isEmpty(), "Entry must not outlive the token exp claim");
+    }
+
+    @Test
+    void testInvalidateUserRemovesOnlyItsTokens() {
+        final var expiration = Instant.now().plus(1, ChronoUnit.HOURS);
+        cache.put("token.a", token("a@example.com", expiration), principal("32721860J", "a@example.com"));
+        cache.put("token.a2", token("a@example.com", expiration), principal("32721860J", "a@example.com"));
+        cache.put("token.b", token("b@example.com", expiration), principal("76543210K", "b@example.com"));
+
+        cache.invalidateUser("32721860J");
+
+        assertTrue(cache.get("token.a").isEmpty(), "Tokens of the changed user must be removed");
+        assertTrue(cache.get("token.a2").isEmpty(), "Tokens of the changed user must be removed");
+        assertTrue(cache.get("token.b").isPresent(), "Tokens of other users must be kept");
+    }
+
+    @Test
+    void testZeroSizeDisablesCache() {
+        final var properties = new JwtProperties();
+        properties.setCacheMaximumSize(0);
+        final var disabled = new VerifiedTokenCache(properties, userRepository);
+        disabled.put("token.a", token("a@example.com", Instant.now().plus(1, ChronoUnit.HOURS)),
+                principal("32721860J", "a@example.com"));
+
+        assertTrue(disabled.get("token.a").isEmpty(), "Nothing should be cached when size is zero");
+    }
+
+    @Test
+    void testTokenVersionIsLoadedOnceAndReloadedAfterInvalidation() {
+        when(userRepository.findTokenVersionByDni("32721860J")).thenReturn(Optional.of(3))
+                .thenReturn(Optional.of(4));
+
+        assertTrue(cache.isCurrentVersion("32721860J", 3), "Version read from repository should match");
+        assertFalse(cache.isCurrentVersion("32721860J", 2), "Older version must be rejected");
+        verify(userRepository, times(1)).findTokenVersionByDni("32721860J");
+
+        cache.invalidateUser("32721860J");
+
+        assertTrue(cache.isCurrentVersion("32721860J", 4), "Version must be reloaded after invalidation");
+        assertFalse(cache.isCurrentVersion("32721860J", 3), "Revoked version must be rejected");
+    }
+
+    @Test
+    void testUnknownUserHasNoCurrentVersion() {
+        when(userRepository.findTokenVersionByDni("00000000T")).thenReturn(Optional.empty());
+
+        assertFalse(cache.isCurrentVersion("00000000T", 0), "Unknown user must not match any version");
+    }
+}
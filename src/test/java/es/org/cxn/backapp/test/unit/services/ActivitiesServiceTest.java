@@ -27,7 +27,6 @@ package es.org.cxn.backapp.test.unit.services;
  * #L%
  */
 
-import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -42,6 +41,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
@@ -58,16 +58,21 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.web.multipart.MultipartFile;
 
 import es.org.cxn.backapp.model.persistence.PersistentActivityEntity;
 import es.org.cxn.backapp.repository.ActivityEntityRepository;
 import es.org.cxn.backapp.service.dto.ActivityDto;
+import es.org.cxn.backapp.service.dto.SavedImageDto;
+import es.org.cxn.backapp.service.dto.StoredImageDto;
 import es.org.cxn.backapp.service.exceptions.activity.ActivityImageNotFoundException;
 import es.org.cxn.backapp.service.exceptions.activity.ActivityNotFoundException;
 import es.org.cxn.backapp.service.exceptions.activity.ActivityServiceException;
 import es.org.cxn.backapp.service.impl.DefaultActivitiesService;
 import es.org.cxn.backapp.service.impl.storage.DefaultImageStorageService;
+import es.org.cxn.backapp.service.impl.storage.FileLocation;
+import es.org.cxn.backapp.service.impl.storage.ImageVariant;
 
 /**
  * Unit tests for the {@link DefaultActivitiesService} class, focusing on
@@ -168,11 +173,13 @@ class ActivitiesServiceTest {
      * @throws ActivityServiceException
      */
     @Test
-    void testAddActivity() throws ActivityServiceException {
+    void testAddActivity() throws ActivityServiceException, IOException {
         // Arrange
-        when(activityRepository.save(any(PersistentActivityEntity.class))).thenReturn(sampleActivity);
+        when(activityRepository.save(any(PersistentActivityEntity.class))).thenAnswer(inv -> inv.getArgument(0));
         when(activityRepository.existsById(activityTitle)).thenReturn(Boolean.FALSE);
         final MultipartFile imageFile = Mockito.mock(MultipartFile.class);
+        when(imageStorageService.storeImage(imageFile, FileLocation.ACTIVITY_IMAGES))
+                .thenReturn(new SavedImageDto("activities/image.png", "image/png"));
 
         // Act
         PersistentActivityEntity result = activitiesService.addActivity(activityTitle, activityDescription,
@@ -185,6 +192,8 @@ class ActivitiesServiceTest {
         assertEquals(activityStartDate, result.getStartDate());
         assertEquals(activityEndDate, result.getEndDate());
         assertEquals(activityCategory, result.getCategory());
+        assertEquals("activities/image.png", result.getImageSrc());
+        assertEquals("image/png", result.getImageContentType());
         verify(activityRepository, times(1)).save(any(PersistentActivityEntity.class));
     }
 
@@ -226,8 +235,8 @@ class ActivitiesServiceTest {
         MultipartFile mockImageFile = Mockito.mock(MultipartFile.class);
         when(mockImageFile.isEmpty()).thenReturn(false);
 
-        // Directly stub the mock to throw an exception when saveImage is called
-        when(imageStorageService.saveImage(any(), any())).thenThrow(new IOException("Error saving image"));
+        // Directly stub the mock to throw an exception when storeImage is called
+        when(imageStorageService.storeImage(any(), any())).thenThrow(new IOException("Error saving image"));
 
         // Act & Assert
         ActivityServiceException exception = assertThrows(ActivityServiceException.class, () -> {
@@ -283,16 +292,18 @@ class ActivitiesServiceTest {
         String imagePath = "path/to/image.jpg";
         PersistentActivityEntity mockActivity = mock(PersistentActivityEntity.class);
         when(mockActivity.getImageSrc()).thenReturn(imagePath);
+        when(mockActivity.getImageContentType()).thenReturn("image/jpeg");
         when(activityRepository.findById(activityTitle)).thenReturn(Optional.of(mockActivity));
-        when(imageStorageService.loadImage(imagePath)).thenThrow(new IOException("Image loading error"));
+        when(imageStorageService.openImage(imagePath, "image/jpeg", ImageVariant.ORIGINAL))
+                .thenThrow(new IOException("Image loading error"));
 
         // Act & Assert
         ActivityServiceException exception = assertThrows(ActivityServiceException.class, () -> {
-            activitiesService.getActivityImage(activityTitle);
+            activitiesService.getActivityImage(activityTitle, ImageVariant.ORIGINAL);
         });
 
         assertEquals("Error loading activity image: Image loading error", exception.getMessage());
-        verify(imageStorageService, times(1)).loadImage(imagePath);
+        verify(imageStorageService, times(1)).openImage(imagePath, "image/jpeg", ImageVariant.ORIGINAL);
     }
 
     @Test
@@ -304,11 +315,11 @@ class ActivitiesServiceTest {
 
         // Act & Assert
         ActivityImageNotFoundException exception = assertThrows(ActivityImageNotFoundException.class, () -> {
-            activitiesService.getActivityImage(activityTitle);
+            activitiesService.getActivityImage(activityTitle, ImageVariant.ORIGINAL);
         });
 
         assertEquals("No image associated with activity: " + activityTitle, exception.getMessage());
-        verify(imageStorageService, never()).loadImage(anyString());
+        verify(imageStorageService, never()).openImage(anyString(), any(), any());
     }
 
     @Test
@@ -320,11 +331,11 @@ class ActivitiesServiceTest {
 
         // Act & Assert
         ActivityImageNotFoundException exception = assertThrows(ActivityImageNotFoundException.class, () -> {
-            activitiesService.getActivityImage(activityTitle);
+            activitiesService.getActivityImage(activityTitle, ImageVariant.ORIGINAL);
         });
 
         assertEquals("No image associated with activity: " + activityTitle, exception.getMessage());
-        verify(imageStorageService, never()).loadImage(anyString());
+        verify(imageStorageService, never()).openImage(anyString(), any(), any());
     }
 
     @Test
@@ -336,30 +347,32 @@ class ActivitiesServiceTest {
 
         // Act & Assert
         ActivityImageNotFoundException exception = assertThrows(ActivityImageNotFoundException.class, () -> {
-            activitiesService.getActivityImage(activityTitle);
+            activitiesService.getActivityImage(activityTitle, ImageVariant.ORIGINAL);
         });
 
         assertEquals("No image associated with activity: " + activityTitle, exception.getMessage());
-        verify(imageStorageService, never()).loadImage(anyString());
+        verify(imageStorageService, never()).openImage(anyString(), any(), any());
     }
 
     @Test
     void testGetActivityImageSuccess() throws Exception {
         // Arrange
         String imagePath = "path/to/image.jpg";
-        byte[] imageData = "sample image data".getBytes();
+        final var image = new StoredImageDto(new ByteArrayResource("sample image data".getBytes()), 17,
+                Instant.EPOCH, "\"etag\"", "image/jpeg");
 
         PersistentActivityEntity mockActivity = mock(PersistentActivityEntity.class);
         when(mockActivity.getImageSrc()).thenReturn(imagePath);
+        when(mockActivity.getImageContentType()).thenReturn("image/jpeg");
         when(activityRepository.findById(activityTitle)).thenReturn(Optional.of(mockActivity));
-        when(imageStorageService.loadImage(imagePath)).thenReturn(imageData);
+        when(imageStorageService.openImage(imagePath, "image/jpeg", ImageVariant.ORIGINAL)).thenReturn(image);
 
         // Act
-        byte[] result = activitiesService.getActivityImage(activityTitle);
+        final var result = activitiesService.getActivityImage(activityTitle, ImageVariant.ORIGINAL);
 
         // Assert
-        assertArrayEquals(imageData, result);
-        verify(imageStorageService, times(1)).loadImage(imagePath);
+        assertEquals(image, result);
+        verify(imageStorageService, times(1)).openImage(imagePath, "image/jpeg", ImageVariant.ORIGINAL);
     }
 
     /**
@@ -60,6 +60,7 @@ import es.org.cxn.backapp.model.persistence.PersistentAuthorEntity;
 import es.org.cxn.backapp.model.persistence.PersistentBookEntity;
 import es.org.cxn.backapp.repository.AuthorEntityRepository;
 import es.org.cxn.backapp.repository.BookEntityRepository;
+import es.org.cxn.backapp.service.dto.SavedImageDto;
 import es.org.cxn.backapp.service.exceptions.BookServiceException;
 import es.org.cxn.backapp.service.impl.DefaultBookService;
 import es.org.cxn.backapp.service.impl.storage.DefaultImageStorageService;
@@ -278,7 +279,7 @@ class BookServiceTest {
         when(bookRepository.save(any(PersistentBookEntity.class))).thenReturn(book);
         when(authorRepository.findByFirstNameAndLastName(anyString(), anyString())).thenReturn(null);
         when(authorRepository.save(any(PersistentAuthorEntity.class))).thenReturn(new PersistentAuthorEntity());
-        when(imageStorageService.saveImage(any(), any())).thenThrow(IOException.class);
+        when(imageStorageService.storeImage(any(), any())).thenThrow(IOException.class);
 
         // Act & Assert
         assertThrows(BookServiceException.class, () -> bookService.add(bookRequest, mockFile));
@@ -392,7 +393,7 @@ class BookServiceTest {
      * image location field in the {@link es.org.cxn.backapp.service.BookService}.
      */
     @BeforeEach
-    void setUp() {
+    void setUp() throws IOException {
         when(mockFile.getOriginalFilename()).thenReturn("CoolName");
         MockitoAnnotations.openMocks(this);
         book1 = new PersistentBookEntity();
@@ -400,5 +401,7 @@ class BookServiceTest {
         book2 = new PersistentBookEntity();
         book2.setTitle(SECOND_BOOK_TITLE);
         ReflectionTestUtils.setField(imageStorageService, "baseDirectory", "mock-directory");
+        when(imageStorageService.storeImage(any(), any()))
+                .thenReturn(new SavedImageDto("covers/CoolName", "image/png"));
     }
 }
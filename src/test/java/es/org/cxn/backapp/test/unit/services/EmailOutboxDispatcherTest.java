@@ -0,0 +1,232 @@
+package es.org.cxn.backapp.test.unit.services;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import es.org.cxn.backapp.config.EmailOutboxProperties;
+import es.org.cxn.backapp.model.persistence.mail.EmailOutboxState;
+import es.org.cxn.backapp.model.persistence.mail.PersistentEmailOutboxEntity;
+import es.org.cxn.backapp.repository.EmailOutboxEntityRepository;
+import es.org.cxn.backapp.service.impl.mail.EmailOutbox;
+import es.org.cxn.backapp.service.impl.mail.EmailOutboxDispatcher;
+import es.org.cxn.backapp.test.utils.FakeMailSender;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.InternetAddress;
+
+/**
+ * Unit tests for the email outbox and its dispatcher, sending to a
+ * {@link FakeMailSender}.
+ */
+class EmailOutboxDispatcherTest {
+
+    /**
+     * Mocked outbox repository.
+     */
+    private EmailOutboxEntityRepository repository;
+
+    /**
+     * Local SMTP stand-in.
+     */
+    private FakeMailSender mailSender;
+
+    /**
+     * Dispatcher configuration.
+     */
+    private EmailOutboxProperties properties;
+
+    /**
+     * Dispatcher under test.
+     */
+    private EmailOutboxDispatcher dispatcher;
+
+    private static PersistentEmailOutboxEntity pendingEmail(final long identifier, final String recipient) {
+        final var now = LocalDateTime.now();
+        return PersistentEmailOutboxEntity.builder().identifier(identifier).recipient(recipient)
+                .subject("CXN: Ya eres socio").body("<p>Hola</p>").state(EmailOutboxState.PENDING).attempts(0)
+                .createdAt(now).nextAttemptAt(now).build();
+    }
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(EmailOutboxEntityRepository.class);
+        mailSender = new FakeMailSender();
+        properties = new EmailOutboxProperties();
+        properties.setInitialBackoff(30);
+        properties.setMaxBackoff(3600);
+        properties.setMaxAttempts(3);
+        dispatcher = new EmailOutboxDispatcher(repository, Optional.of(mailSender), properties);
+        when(repository.claim(any(), any(), any())).thenReturn(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testBackoffDoublesUpToTheMaximum() {
+        assertEquals(30, dispatcher.backoffSeconds(1));
+        assertEquals(60, dispatcher.backoffSeconds(2));
+        assertEquals(120, dispatcher.backoffSeconds(3));
+        assertEquals(3600, dispatcher.backoffSeconds(10));
+        assertEquals(3600, dispatcher.backoffSeconds(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void testDueEmailsAreSentAndMarkedSent() throws MessagingException, IOException {
+        final List<PersistentEmailOutboxEntity> due = new ArrayList<>();
+        for (long i = 1; i <= 5; i++) {
+            due.add(pendingEmail(i, "member" + i + "@example.com"));
+        }
+        when(repository.findDue(any(), any(), any())).thenReturn(due);
+
+        assertEquals(5, dispatcher.dispatchDue());
+
+        assertEquals(5, mailSender.getSentMessages().size());
+        final var message = mailSender.getSentMessages().get(0);
+        assertEquals(new InternetAddress("principal@xadreznaron.es"), message.getFrom()[0]);
+        assertEquals("CXN: Ya eres socio", message.getSubject());
+        assertEquals("<p>Hola</p>", message.getContent());
+        for (final PersistentEmailOutboxEntity email : due) {
+            assertEquals(EmailOutboxState.SENT, email.getState());
+            assertNotNull(email.getSentAt());
+            assertEquals("", email.getBody());
+        }
+        verify(repository, times(5)).save(any());
+    }
+
+    @Test
+    void testEmailsClaimedElsewhereAreSkipped() {
+        final var claimed = pendingEmail(1, "first@example.com");
+        final var free = pendingEmail(2, "second@example.com");
+        when(repository.findDue(any(), any(), any())).thenReturn(List.of(claimed, free));
+        when(repository.claim(eq(1L), any(), any())).thenReturn(0);
+        properties.setLease(120);
+
+        final var before = LocalDateTime.now();
+        assertEquals(2, dispatcher.dispatchDue());
+
+        final ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.captor();
+        final ArgumentCaptor<LocalDateTime> leaseUntil = ArgumentCaptor.captor();
+        verify(repository).claim(eq(2L), now.capture(), leaseUntil.capture());
+        assertEquals(now.getValue().plusSeconds(120), leaseUntil.getValue());
+        assertTrue(!now.getValue().isBefore(before));
+        assertEquals(1, mailSender.getSentMessages().size());
+        assertEquals(EmailOutboxState.PENDING, claimed.getState());
+        verify(repository, never()).save(claimed);
+    }
+
+    @Test
+    void testPurgeDeletesFinishedEmailsOlderThanRetention() {
+        properties.setRetention(3600);
+        final var before = LocalDateTime.now();
+
+        dispatcher.purgeFinished();
+
+        final ArgumentCaptor<LocalDateTime> threshold = ArgumentCaptor.captor();
+        verify(repository).deleteFinishedBefore(threshold.capture());
+        assertTrue(!threshold.getValue().isBefore(before.minusSeconds(3600)));
+        assertTrue(!threshold.getValue().isAfter(LocalDateTime.now().minusSeconds(3600)));
+    }
+
+    @Test
+    void testEnqueueWakesDispatcherOnlyAfterCommit() {
+        final EmailOutboxDispatcher mockedDispatcher = mock(EmailOutboxDispatcher.class);
+        final var outbox = new EmailOutbox(repository, mockedDispatcher, mock(JdbcTemplate.class));
+        TransactionSynchronizationManager.initSynchronization();
+
+        outbox.enqueue("member@example.com", "CXN: Ya eres socio", "<p>Hola</p>");
+
+        verify(repository).save(any(PersistentEmailOutboxEntity.class));
+        verify(mockedDispatcher, never()).wakeUp();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(mockedDispatcher).wakeUp();
+    }
+
+    @Test
+    void testFailedEmailIsRetriedWithBackoffThenGivenUp() {
+        final var email = pendingEmail(1, "member@example.com");
+        when(repository.findDue(any(), any(), any())).thenReturn(List.of(email));
+        mailSender.failNext(3);
+
+        final var before = LocalDateTime.now();
+        dispatcher.dispatchDue();
+
+        assertEquals(EmailOutboxState.PENDING, email.getState());
+        assertEquals(1, email.getAttempts());
+        assertNotNull(email.getLastError());
+        assertTrue(!email.getNextAttemptAt().isBefore(before.plusSeconds(30)));
+
+        dispatcher.dispatchDue();
+        dispatcher.dispatchDue();
+
+        assertEquals(EmailOutboxState.FAILED, email.getState());
+        assertEquals(3, email.getAttempts());
+        assertTrue(mailSender.getSentMessages().isEmpty());
+    }
+
+    @Test
+    void testRetrySucceedsAfterTransientFailure() {
+        final var email = pendingEmail(1, "member@example.com");
+        when(repository.findDue(any(), any(), any())).thenReturn(List.of(email));
+        mailSender.failNext(1);
+
+        dispatcher.dispatchDue();
+        dispatcher.dispatchDue();
+
+        assertEquals(EmailOutboxState.SENT, email.getState());
+        assertNull(email.getLastError());
+        assertEquals(1, mailSender.getSentMessages().size());
+    }
+}
@@ -27,27 +27,26 @@ package es.org.cxn.backapp.test.unit.services;
  * #L%
  */
 
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 import java.io.IOException;
 import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.mail.javamail.JavaMailSender;
 
 import es.org.cxn.backapp.service.impl.DefaultEmailService;
-import jakarta.mail.Message.RecipientType;
+import es.org.cxn.backapp.service.impl.mail.EmailOutbox;
+import es.org.cxn.backapp.service.impl.mail.EmailTemplateRegistry;
 import jakarta.mail.MessagingException;
-import jakarta.mail.internet.InternetAddress;
-import jakarta.mail.internet.MimeMessage;
 
 class EmailServiceTest {
 
@@ -58,22 +57,29 @@ class EmailServiceTest {
     private JavaMailSender mailSender;
 
     /**
-     * Mock mime messages.
+     * Mock outbox, where rendered emails are queued.
      */
     @Mock
-    private MimeMessage mimeMessage;
+    private EmailOutbox outbox;
 
     /**
-     * Service where inject mocks.
+     * Service under test.
      */
-    @InjectMocks
     private DefaultEmailService emailService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        emailService = new DefaultEmailService(Optional.of(mailSender));
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
+        emailService = new DefaultEmailService(Optional.of(mailSender), outbox, new EmailTemplateRegistry());
+    }
+
+    @Test
+    void testNoEmailIsQueuedWithoutMailSender() throws MessagingException, IOException {
+        final var disabledService = new DefaultEmailService(Optional.empty(), outbox, new EmailTemplateRegistry());
+
+        disabledService.sendWelcome("member@example.com", "John Doe");
+
+        verifyNoInteractions(outbox);
     }
 
     @Test
@@ -87,19 +93,11 @@ class EmailServiceTest {
         emailService.sendChangeEmail(oldEmail, newEmail, memberName);
 
         // Then
-        // some invoked twice, once for each email.
-        verify(mailSender, times(2)).createMimeMessage();
-        verify(mimeMessage, times(2)).setFrom(new InternetAddress("principal@xadreznaron.es"));
-        verify(mimeMessage, times(1)).setRecipients(RecipientType.TO, oldEmail);
-        verify(mimeMessage, times(2)).setSubject("CXN: Cambio de correo");
-        verify(mimeMessage, times(2)).setContent(any(String.class), eq("text/html; charset=utf-8"));
-
-        verify(mimeMessage, times(2)).setFrom(new InternetAddress("principal@xadreznaron.es"));
-        verify(mimeMessage, times(1)).setRecipients(RecipientType.TO, newEmail);
-        verify(mimeMessage, times(2)).setSubject("CXN: Cambio de correo");
-        verify(mimeMessage, times(2)).setContent(any(String.class), eq("text/html; charset=utf-8"));
-
-        verify(mailSender, times(2)).send(mimeMessage);
+        // Queued twice, once for each address.
+        verify(outbox, times(1)).enqueue(eq(oldEmail), eq("CXN: Cambio de correo"), contains(memberName));
+        verify(outbox, times(1)).enqueue(eq(newEmail), eq("CXN: Cambio de correo"), contains(memberName));
+        // Nothing is sent synchronously.
+        verify(mailSender, never()).createMimeMessage();
     }
 
     @Test
@@ -114,13 +112,8 @@ class EmailServiceTest {
         emailService.sendPaymentConfirmation(toEmail, memberName, paymentQuantity, reason);
 
         // Then
-        verify(mailSender, times(1)).createMimeMessage();
-        verify(mimeMessage, times(1)).setFrom(new InternetAddress("principal@xadreznaron.es"));
-        verify(mimeMessage, times(1)).setRecipients(RecipientType.TO, toEmail);
-        verify(mimeMessage, times(1)).setSubject("CXN: Confirmación de pago");
-        verify(mimeMessage, times(1)).setContent(any(String.class), eq("text/html; charset=utf-8"));
-
-        verify(mailSender, times(1)).send(mimeMessage);
+        verify(outbox, times(1)).enqueue(eq(toEmail), eq("CXN: Confirmación de pago"), contains(reason));
+        verify(mailSender, never()).createMimeMessage();
     }
 
     @Test
@@ -134,10 +127,7 @@ class EmailServiceTest {
         emailService.sendSignUp(toEmail, subject, body);
 
         // Then
-        verify(mailSender, times(1)).createMimeMessage();
-        verify(mimeMessage, times(1)).setFrom(new InternetAddress("principal@xadreznaron.es"));
-        verify(mimeMessage, times(1)).setContent(any(String.class), eq("text/html; charset=utf-8"));
-        verify(mailSender, times(1)).send(mimeMessage);
+        verify(outbox, times(1)).enqueue(eq(toEmail), eq("Hola, " + subject + "!"), contains(subject));
     }
 
     @Test
@@ -150,12 +140,8 @@ class EmailServiceTest {
         emailService.sendWelcome(toEmail, memberName);
 
         // Then
-        verify(mailSender, times(1)).createMimeMessage();
-        verify(mimeMessage, times(1)).setFrom(new InternetAddress("principal@xadreznaron.es"));
-        verify(mimeMessage, times(1)).setRecipients(RecipientType.TO, toEmail);
-        verify(mimeMessage, times(1)).setSubject("CXN: Ya eres socio");
-        verify(mimeMessage, times(1)).setContent(any(String.class), eq("text/html; charset=utf-8"));
-        verify(mailSender, times(1)).send(mimeMessage);
+        verify(outbox, times(1)).enqueue(eq(toEmail), eq("CXN: Ya eres socio"), contains(memberName));
+        verify(mailSender, never()).createMimeMessage();
     }
 
 }
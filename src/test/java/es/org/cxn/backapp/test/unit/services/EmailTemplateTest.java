@@ -0,0 +1,108 @@
+package es.org.cxn.backapp.test.unit.services;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.apache.commons.text.StringSubstitutor;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import es.org.cxn.backapp.service.impl.mail.EmailTemplate;
+import es.org.cxn.backapp.service.impl.mail.EmailTemplateRegistry;
+
+/**
+ * Unit tests for {@link EmailTemplate} and {@link EmailTemplateRegistry}.
+ */
+class EmailTemplateTest {
+
+    private static String readTemplate(final String path) throws IOException {
+        try (var reader = new BufferedReader(
+                new InputStreamReader(new ClassPathResource(path).getInputStream(), StandardCharsets.UTF_8))) {
+            return reader.lines().collect(Collectors.joining("\n"));
+        }
+    }
+
+    @Test
+    void testEscapedPlaceholderIsLiteral() {
+        final var template = EmailTemplate.compile("Cost: $${price} for ${name}");
+
+        assertEquals("Cost: ${price} for Ana", template.render(Map.of("name", "Ana")));
+    }
+
+    @Test
+    void testMissingValueKeepsPlaceholder() {
+        final var template = EmailTemplate.compile("Hola ${name}, ${unknown}.");
+
+        assertEquals("Hola Ana, ${unknown}.", template.render(Map.of("name", "Ana")));
+    }
+
+    @Test
+    void testPlaceholdersAreReplaced() {
+        final var template = EmailTemplate.compile("${greeting} ${name}! Bye ${name}");
+
+        assertEquals("Hola Ana! Bye Ana", template.render(Map.of("greeting", "Hola", "name", "Ana")));
+    }
+
+    @Test
+    void testRegistryRendersLikeStringSubstitutor() throws IOException {
+        final var registry = new EmailTemplateRegistry();
+        final Map<String, String> values = Map.of("name", "John Doe", "paymentTitle", "Cuota anual",
+                "paymentDescription", "Cuota de socio", "paymentAmount", "30.00", "oldEmail", "old@example.com",
+                "newEmail", "new@example.com", "motivo", "Cuota", "cantidad", "30.00", "tokenCode", "abc");
+
+        for (final String name : new String[] { "AcceptedMemberEmail.html", "ChangeEmailMessage.html",
+                "GeneratedPaymentEmail.html", "PaymentConfirmedEmail.html", "RecoverPasswordEmail.html" }) {
+            final String path = EmailTemplateRegistry.TEMPLATE_DIRECTORY + name;
+            assertEquals(StringSubstitutor.replace(readTemplate(path), values), registry.get(path).render(values),
+                    path);
+        }
+    }
+
+    @Test
+    void testUnclosedPlaceholderIsLiteral() {
+        final var template = EmailTemplate.compile("Hola ${name");
+
+        assertEquals("Hola ${name", template.render(Map.of("name", "Ana")));
+    }
+
+    @Test
+    void testUnknownTemplateThrows() {
+        final var registry = new EmailTemplateRegistry();
+
+        assertThrows(FileNotFoundException.class, () -> registry.get("mailTemplates/Missing.html"));
+    }
+}
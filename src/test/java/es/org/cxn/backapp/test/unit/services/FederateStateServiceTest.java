@@ -44,6 +44,8 @@ import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.NoSuchFileException;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -55,6 +57,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -67,6 +70,7 @@ import es.org.cxn.backapp.model.persistence.user.PersistentUserEntity;
 import es.org.cxn.backapp.repository.FederateStateEntityRepository;
 import es.org.cxn.backapp.service.PaymentsService;
 import es.org.cxn.backapp.service.UserService;
+import es.org.cxn.backapp.service.dto.StoredImageDto;
 import es.org.cxn.backapp.service.exceptions.FederateStateServiceException;
 import es.org.cxn.backapp.service.exceptions.PaymentsServiceException;
 import es.org.cxn.backapp.service.exceptions.UserServiceException;
@@ -273,7 +277,9 @@ class FederateStateServiceTest {
         FederateStateServiceException exception = assertThrows(FederateStateServiceException.class,
                 () -> federateStateService.federateMember(USER_EMAIL, frontDniFile, backDniFile, true));
         assertEquals("Error saving DNI images: Disk full", exception.getMessage());
+        // Both images are stored concurrently, so the back one is stored too
         verify(imageStorageService, times(1)).saveImage(frontDniFile, FileLocation.DNI, USER_DNI);
+        verify(imageStorageService, times(1)).saveImage(backDniFile, FileLocation.DNI, USER_DNI);
         verifyNoMoreInteractions(imageStorageService);
     }
 
@@ -625,8 +631,7 @@ class FederateStateServiceTest {
         assertEquals("Error updating DNI images: Failed to save image", exception.getMessage());
 
         // Verify behavior
-        verify(imageStorageService).saveImage(any(MultipartFile.class), any(), any());
-        verify(imageStorageService, never()).saveImage(backDniFile, FileLocation.DNI, USER_DNI);
+        verify(imageStorageService, times(2)).saveImage(any(MultipartFile.class), any(), any());
         verify(federateStateRepository, never()).save(any());
     }
 
@@ -676,4 +681,37 @@ class FederateStateServiceTest {
         assertEquals("User is not in a federate state.", exception.getMessage());
     }
 
+    @Test
+    void testGetDniImageFilesOpensBothImages() throws Exception {
+        federateStateEntity = new PersistentFederateStateEntity();
+        federateStateEntity.setDniFrontImageUrl("front.png");
+        federateStateEntity.setDniBackImageUrl("back.png");
+        final var front = new StoredImageDto(new ByteArrayResource(new byte[] { 1 }), 1, Instant.EPOCH, "\"f\"",
+                "image/png");
+        final var back = new StoredImageDto(new ByteArrayResource(new byte[] { 2 }), 1, Instant.EPOCH, "\"b\"",
+                "image/jpeg");
+        when(federateStateRepository.findById(USER_DNI)).thenReturn(Optional.of(federateStateEntity));
+        when(imageStorageService.openImage("front.png", null)).thenReturn(front);
+        when(imageStorageService.openImage("back.png", null)).thenReturn(back);
+
+        final var result = federateStateService.getDniImageFiles(USER_DNI);
+
+        assertEquals(front, result.frontImage());
+        assertEquals(back, result.backImage());
+    }
+
+    @Test
+    void testGetDniImageFilesIOException() throws Exception {
+        federateStateEntity = new PersistentFederateStateEntity();
+        federateStateEntity.setDniFrontImageUrl("front.png");
+        federateStateEntity.setDniBackImageUrl("back.png");
+        when(federateStateRepository.findById(USER_DNI)).thenReturn(Optional.of(federateStateEntity));
+        when(imageStorageService.openImage(any(), any())).thenThrow(new NoSuchFileException("front.png"));
+
+        final FederateStateServiceException exception = assertThrows(FederateStateServiceException.class,
+                () -> federateStateService.getDniImageFiles(USER_DNI));
+
+        assertEquals("User with DNI: " + USER_DNI + " DNI images cannot be loaded.", exception.getMessage());
+        assertTrue(exception.getCause() instanceof NoSuchFileException);
+    }
 }
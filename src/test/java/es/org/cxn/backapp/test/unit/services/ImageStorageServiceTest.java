@@ -26,9 +26,432 @@ package es.org.cxn.backapp.test.unit.services;
  * #L%
  */
 
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import es.org.cxn.backapp.service.exceptions.InvalidImageException;
+import es.org.cxn.backapp.service.impl.storage.DefaultImageStorageService;
+import es.org.cxn.backapp.service.impl.storage.FileLocation;
+import es.org.cxn.backapp.service.impl.storage.ImageVariant;
+import es.org.cxn.backapp.service.impl.storage.InMemoryImageObjectStore;
+
 /**
  * The image storage service unit test cases.
  */
 public class ImageStorageServiceTest {
 
+    /**
+     * The first bytes of a PNG file.
+     */
+    private static final byte[] PNG_HEADER = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0, 0 };
+
+    /**
+     * Temporary directory holding the test images.
+     */
+    @TempDir
+    private Path directory;
+
+    /**
+     * The image storage service.
+     */
+    private final DefaultImageStorageService storageService = new DefaultImageStorageService();
+
+    /**
+     * Tests that an opened image exposes its file, size, modification time and a
+     * strong entity tag, and that the content type of images stored before it was
+     * recorded is detected.
+     *
+     * @throws IOException if the test image cannot be written.
+     */
+    @Test
+    void testOpenImageDetectsUnrecordedContentType() throws IOException {
+        final Path image = Files.write(directory.resolve("cover"), PNG_HEADER);
+        final Instant modified = Instant.parse("2025-01-01T00:00:00Z");
+        Files.setLastModifiedTime(image, FileTime.from(modified));
+
+        final var stored = storageService.openImage(image.toString(), null);
+
+        Assertions.assertEquals(PNG_HEADER.length, stored.size());
+        Assertions.assertEquals(modified, stored.lastModified());
+        Assertions.assertEquals("image/png", stored.contentType());
+        Assertions.assertTrue(stored.etag().matches("\"[0-9a-f]{64}\""));
+        Assertions.assertTrue(stored.resource().isFile());
+        Assertions.assertEquals(image.toFile(), stored.resource().getFile());
+    }
+
+    /**
+     * Tests that the entity tag depends on the content only, and changes when the
+     * file is rewritten.
+     *
+     * @throws IOException if the test images cannot be written.
+     */
+    @Test
+    void testOpenImageEntityTagFollowsContent() throws IOException {
+        final Path first = Files.write(directory.resolve("first.png"), PNG_HEADER);
+        final Path copy = Files.write(directory.resolve("copy.png"), PNG_HEADER);
+        final String etag = storageService.openImage(first.toString(), null).etag();
+
+        Assertions.assertEquals(etag, storageService.openImage(copy.toString(), null).etag());
+
+        Files.write(first, new byte[] { 1, 2, 3 });
+        Files.setLastModifiedTime(first, FileTime.from(Instant.parse("2030-01-01T00:00:00Z")));
+
+        Assertions.assertNotEquals(etag, storageService.openImage(first.toString(), null).etag());
+    }
+
+    /**
+     * Tests that opening a missing image fails.
+     */
+    @Test
+    void testOpenImageMissingFileThrows() {
+        Assertions.assertThrows(IOException.class,
+                () -> storageService.openImage(directory.resolve("missing.png").toString(), null));
+    }
+
+    /**
+     * Tests that storing an image detects its content type from its first bytes,
+     * whatever its name, and that opening it uses the recorded type.
+     *
+     * @throws IOException if the test image cannot be stored.
+     */
+    @Test
+    void testStoreImageRecordsContentType() throws IOException {
+        ReflectionTestUtils.setField(storageService, "baseDirectory", directory.toString());
+
+        final var saved = storageService.storeImage(new MockMultipartFile("file", "cover.bin", null, PNG_HEADER),
+                FileLocation.BOOK_COVERS);
+
+        Assertions.assertEquals("image/png", saved.contentType());
+        Assertions.assertArrayEquals(PNG_HEADER, Files.readAllBytes(Path.of(saved.path())));
+        Assertions.assertEquals("image/webp", storageService.openImage(saved.path(), "image/webp").contentType());
+    }
+
+    /**
+     * Tests that a variant is scaled down to fit its size keeping the aspect
+     * ratio, in the format of a PNG original, and is written only once.
+     *
+     * @throws IOException if the test image cannot be written.
+     */
+    @Test
+    void testOpenImageVariantResizesOnce() throws IOException {
+        final Path image = writeImage("cover.png", "png", 800, 400);
+
+        final var thumb = storageService.openImage(image.toString(), "image/png", ImageVariant.THUMB);
+
+        Assertions.assertEquals("image/png", thumb.contentType());
+        Assertions.assertNotEquals(image.toFile(), thumb.resource().getFile());
+        final BufferedImage resized = ImageIO.read(thumb.resource().getFile());
+        Assertions.assertEquals(160, resized.getWidth());
+        Assertions.assertEquals(80, resized.getHeight());
+
+        final var again = storageService.openImage(image.toString(), "image/png", ImageVariant.THUMB);
+        Assertions.assertEquals(thumb.lastModified(), again.lastModified());
+        Assertions.assertEquals(thumb.etag(), again.etag());
+    }
+
+    /**
+     * Tests that the variants of a JPEG image are JPEG, are never larger than the
+     * image and are written again when the image changes.
+     *
+     * @throws IOException if the test image cannot be written.
+     */
+    @Test
+    void testOpenImageVariantFollowsChangedImage() throws IOException {
+        final Path image = writeImage("photo.jpg", "jpeg", 1000, 1000);
+        Files.setLastModifiedTime(image, FileTime.from(Instant.parse("2025-01-01T00:00:00Z")));
+
+        final var medium = storageService.openImage(image.toString(), "image/jpeg", ImageVariant.MEDIUM);
+        Assertions.assertEquals("image/jpeg", medium.contentType());
+        Assertions.assertEquals(640, ImageIO.read(medium.resource().getFile()).getWidth());
+
+        writeImage("photo.jpg", "jpeg", 300, 150);
+        Files.setLastModifiedTime(image, FileTime.from(Instant.now().plusSeconds(60)));
+        final var changed = storageService.openImage(image.toString(), "image/jpeg", ImageVariant.MEDIUM);
+        final BufferedImage resized = ImageIO.read(changed.resource().getFile());
+        Assertions.assertEquals(300, resized.getWidth());
+        Assertions.assertEquals(150, resized.getHeight());
+        Assertions.assertNotEquals(medium.etag(), changed.etag());
+    }
+
+    /**
+     * Tests that images in a format that cannot be decoded are served as they are
+     * for every variant.
+     *
+     * @throws IOException if the test image cannot be written.
+     */
+    @Test
+    void testOpenImageVariantOfUndecodableFormatIsOriginal() throws IOException {
+        final Path image = Files.write(directory.resolve("cover.webp"), PNG_HEADER);
+
+        final var thumb = storageService.openImage(image.toString(), "image/webp", ImageVariant.THUMB);
+
+        Assertions.assertEquals(image.toFile(), thumb.resource().getFile());
+        Assertions.assertEquals("image/webp", thumb.contentType());
+    }
+
+    /**
+     * Tests that deleting an image deletes its variants.
+     *
+     * @throws IOException if the test image cannot be written.
+     */
+    @Test
+    void testDeleteImageDeletesVariants() throws IOException {
+        final Path image = writeImage("cover.png", "png", 400, 400);
+        final var thumb = storageService.openImage(image.toString(), "image/png", ImageVariant.THUMB);
+
+        storageService.deleteImage(image.toString());
+
+        Assertions.assertFalse(Files.exists(image));
+        Assertions.assertFalse(thumb.resource().exists());
+    }
+
+    /**
+     * Tests that images are stored once by content, whatever their name, and that
+     * their entity tag is their digest.
+     *
+     * @throws IOException if the test images cannot be stored.
+     */
+    @Test
+    void testSaveImageDeduplicatesContent() throws IOException {
+        ReflectionTestUtils.setField(storageService, "baseDirectory", directory.toString());
+        final byte[] other = Files.readAllBytes(writeImage("other.png", "png", 10, 10));
+
+        final String first = storageService.saveImage(new MockMultipartFile("file", "a.png", null, PNG_HEADER),
+                FileLocation.BOOK_COVERS);
+        final String copy = storageService.saveImage(new MockMultipartFile("file", "b.png", null, PNG_HEADER),
+                FileLocation.BOOK_COVERS, "12345678A");
+        final String sameName = storageService.saveImage(new MockMultipartFile("file", "a.png", null, other),
+                FileLocation.BOOK_COVERS);
+
+        Assertions.assertEquals(first, copy);
+        Assertions.assertNotEquals(first, sameName);
+        Assertions.assertTrue(DefaultImageStorageService.isContentAddressed(first));
+        Assertions.assertArrayEquals(PNG_HEADER, Files.readAllBytes(Path.of(first)));
+        Assertions.assertArrayEquals(other, Files.readAllBytes(Path.of(sameName)));
+        Assertions.assertEquals('"' + Path.of(first).getFileName().toString() + '"',
+                storageService.openImage(first, "image/png").etag());
+    }
+
+    /**
+     * Tests that uploads are accepted by the media type of their content, not by
+     * their name or declared type, and that nothing is written for the others.
+     *
+     * @throws IOException if the store cannot be listed.
+     */
+    @Test
+    void testSaveImageRejectsContentThatIsNotAnImage() throws IOException {
+        ReflectionTestUtils.setField(storageService, "baseDirectory", directory.toString());
+        final var file = new MockMultipartFile("file", "cover.png", "image/png", "<html></html>".getBytes());
+
+        Assertions.assertThrows(InvalidImageException.class,
+                () -> storageService.saveImage(file, FileLocation.BOOK_COVERS));
+
+        Assertions.assertEquals(0, countStoredFiles());
+    }
+
+    /**
+     * Tests that uploads larger than the maximum size are rejected, by their
+     * declared size or once their content exceeds it, and that nothing is left
+     * behind.
+     *
+     * @throws IOException if the store cannot be listed.
+     */
+    @Test
+    void testSaveImageRejectsOversizedContent() throws IOException {
+        ReflectionTestUtils.setField(storageService, "baseDirectory", directory.toString());
+        ReflectionTestUtils.setField(storageService, "maxImageSize", DataSize.ofBytes(PNG_HEADER.length - 1));
+        final var declared = new MockMultipartFile("file", "cover.png", null, PNG_HEADER);
+        final MultipartFile undeclared = Mockito.mock(MultipartFile.class);
+        Mockito.when(undeclared.getSize()).thenReturn(0L);
+        Mockito.when(undeclared.getInputStream()).thenReturn(new ByteArrayInputStream(PNG_HEADER));
+
+        Assertions.assertThrows(InvalidImageException.class,
+                () -> storageService.saveImage(declared, FileLocation.BOOK_COVERS));
+        Assertions.assertThrows(InvalidImageException.class,
+                () -> storageService.saveImage(undeclared, FileLocation.BOOK_COVERS));
+
+        Assertions.assertEquals(0, countStoredFiles());
+    }
+
+    /**
+     * Tests that deleting an image of the content-addressed store keeps it, as it
+     * may be shared.
+     *
+     * @throws IOException if the test image cannot be stored.
+     */
+    @Test
+    void testDeleteImageKeepsContentAddressedImage() throws IOException {
+        ReflectionTestUtils.setField(storageService, "baseDirectory", directory.toString());
+        final String image = storageService.saveImage(new MockMultipartFile("file", "a.png", null, PNG_HEADER),
+                FileLocation.ACTIVITY_IMAGES);
+
+        storageService.deleteImage(image);
+
+        Assertions.assertTrue(Files.exists(Path.of(image)));
+    }
+
+    /**
+     * Tests that only the unreferenced images older than the grace period are
+     * collected, with their variants.
+     *
+     * @throws IOException if the test images cannot be stored.
+     */
+    @Test
+    void testDeleteUnreferencedCollectsOldOrphans() throws IOException {
+        ReflectionTestUtils.setField(storageService, "baseDirectory", directory.resolve("store").toString());
+        final var old = FileTime.from(Instant.now().minus(Duration.ofDays(1)));
+        final String referenced = save(writeImage("referenced.png", "png", 10, 10), FileLocation.BOOK_COVERS);
+        final String orphan = save(writeImage("orphan.png", "png", 400, 400), FileLocation.ACTIVITY_IMAGES);
+        final String young = save(writeImage("young.png", "png", 20, 20), FileLocation.ACTIVITY_IMAGES);
+        final Path thumb = storageService.openImage(orphan, "image/png", ImageVariant.THUMB).resource().getFile()
+                .toPath();
+        for (final Path file : new Path[] { Path.of(referenced), Path.of(orphan), thumb }) {
+            Files.setLastModifiedTime(file, old);
+        }
+
+        Assertions.assertEquals(1, storageService.deleteUnreferenced(Set.of(referenced), Duration.ofHours(1)));
+
+        Assertions.assertTrue(Files.exists(Path.of(referenced)));
+        Assertions.assertTrue(Files.exists(Path.of(young)));
+        Assertions.assertFalse(Files.exists(Path.of(orphan)));
+        Assertions.assertFalse(Files.exists(thumb));
+    }
+
+    /**
+     * Tests that an image stored under its upload name is copied into the
+     * content-addressed store.
+     *
+     * @throws IOException if the test image cannot be written.
+     */
+    @Test
+    void testImportImageCopiesIntoStore() throws IOException {
+        ReflectionTestUtils.setField(storageService, "baseDirectory", directory.resolve("store").toString());
+        final Path legacy = writeImage("legacy.png", "png", 10, 10);
+
+        final String imported = storageService.importImage(legacy.toString(), FileLocation.PROFILE_IMAGES);
+
+        Assertions.assertTrue(DefaultImageStorageService.isContentAddressed(imported));
+        Assertions.assertArrayEquals(Files.readAllBytes(legacy), Files.readAllBytes(Path.of(imported)));
+        Assertions.assertEquals(imported, storageService.importImage(legacy.toString(), FileLocation.PROFILE_IMAGES));
+    }
+
+    /**
+     * Tests that with a shared object store an instance serves the images another
+     * instance stored, fetching them into its local directory once.
+     *
+     * @throws IOException if the test images cannot be stored.
+     */
+    @Test
+    void testSharedStoreServesImagesStoredByAnotherInstance() throws IOException {
+        final var sharedStore = new InMemoryImageObjectStore();
+        final Path base = directory.resolve("store");
+        final var first = new DefaultImageStorageService(Optional.of(sharedStore));
+        final var second = new DefaultImageStorageService(Optional.of(sharedStore));
+        try {
+            ReflectionTestUtils.setField(first, "baseDirectory", base.toString());
+            ReflectionTestUtils.setField(second, "baseDirectory", base.toString());
+            final String image = first.saveImage(new MockMultipartFile("file", "a.png", null, PNG_HEADER),
+                    FileLocation.BOOK_COVERS);
+            Files.delete(Path.of(image));
+
+            final var opened = second.openImage(image, "image/png");
+
+            Assertions.assertArrayEquals(PNG_HEADER, opened.resource().getContentAsByteArray());
+            Assertions.assertTrue(Files.exists(Path.of(image)));
+            Assertions.assertArrayEquals(PNG_HEADER, second.loadImage(image));
+            Assertions.assertThrows(NoSuchFileException.class,
+                    () -> second.openImage(base.resolve("book_covers/sha256/00/" + "0".repeat(64)).toString(),
+                            "image/png"));
+        } finally {
+            first.destroy();
+            second.destroy();
+        }
+    }
+
+    /**
+     * Tests that the collection of unreferenced images also deletes their shared
+     * copies, once old enough.
+     *
+     * @throws IOException if the test images cannot be stored.
+     */
+    @Test
+    void testDeleteUnreferencedDeletesSharedCopies() throws IOException {
+        final var sharedStore = new InMemoryImageObjectStore();
+        final Path base = directory.resolve("store");
+        final var service = new DefaultImageStorageService(Optional.of(sharedStore));
+        try {
+            ReflectionTestUtils.setField(service, "baseDirectory", base.toString());
+            final String referenced = service.saveImage(new MockMultipartFile("file", "a.png", null, PNG_HEADER),
+                    FileLocation.DNI);
+            final String orphan = save(service, writeImage("orphan.png", "png", 10, 10), FileLocation.DNI);
+            final Instant old = Instant.now().minus(Duration.ofDays(1));
+            for (final String image : List.of(referenced, orphan)) {
+                Files.delete(Path.of(image));
+                sharedStore.setLastModified(base.relativize(Path.of(image)).toString().replace('\\', '/'), old);
+            }
+
+            Assertions.assertEquals(1, service.deleteUnreferenced(Set.of(referenced), Duration.ofHours(1)));
+
+            Assertions.assertEquals(1, sharedStore.list("dni/").size());
+            Assertions.assertArrayEquals(PNG_HEADER, service.loadImage(referenced));
+            Assertions.assertThrows(NoSuchFileException.class, () -> service.loadImage(orphan));
+        } finally {
+            service.destroy();
+        }
+    }
+
+    /**
+     * Stops the resizing threads of the service.
+     */
+    @AfterEach
+    void tearDown() {
+        storageService.destroy();
+    }
+
+    private Path writeImage(final String name, final String format, final int width, final int height)
+            throws IOException {
+        final Path image = directory.resolve(name);
+        Assertions.assertTrue(ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), format,
+                image.toFile()));
+        return image;
+    }
+
+    private String save(final Path image, final FileLocation location) throws IOException {
+        return save(storageService, image, location);
+    }
+
+    private static String save(final DefaultImageStorageService service, final Path image,
+            final FileLocation location) throws IOException {
+        return service.saveImage(new MockMultipartFile("file", image.getFileName().toString(), null,
+                Files.readAllBytes(image)), location);
+    }
+
+    private long countStoredFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
 }
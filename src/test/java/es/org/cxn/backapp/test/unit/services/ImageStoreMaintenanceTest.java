@@ -0,0 +1,159 @@
+package es.org.cxn.backapp.test.unit.services;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import es.org.cxn.backapp.repository.ImageReferenceRepository;
+import es.org.cxn.backapp.repository.ImageReferenceRepository.ImageColumn;
+import es.org.cxn.backapp.service.impl.storage.DefaultImageStorageService;
+import es.org.cxn.backapp.service.impl.storage.FileLocation;
+import es.org.cxn.backapp.service.impl.storage.ImageStoreMaintenance;
+
+/**
+ * The image store maintenance unit test cases.
+ */
+class ImageStoreMaintenanceTest {
+
+    /**
+     * Temporary directory holding the test images.
+     */
+    @TempDir
+    private Path directory;
+
+    /**
+     * The image storage, writing to the temporary directory.
+     */
+    private final DefaultImageStorageService storageService = new DefaultImageStorageService();
+
+    /**
+     * The mocked columns referencing the images.
+     */
+    private final ImageReferenceRepository referenceRepository = mock(ImageReferenceRepository.class);
+
+    /**
+     * The tested maintenance.
+     */
+    private ImageStoreMaintenance maintenance;
+
+    /**
+     * Points the storage to the temporary directory.
+     */
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(storageService, "baseDirectory", directory.resolve("store").toString());
+        maintenance = new ImageStoreMaintenance(referenceRepository, storageService, true, Duration.ofHours(1));
+    }
+
+    /**
+     * Stops the resizing threads of the storage.
+     */
+    @AfterEach
+    void tearDown() {
+        storageService.destroy();
+    }
+
+    /**
+     * Tests that referenced images stored under their upload name are moved into
+     * the store of their location and their rows rewritten, leaving missing files
+     * and images already in a store alone.
+     *
+     * @throws IOException if the test images cannot be written.
+     */
+    @Test
+    void testMigrateLegacyImagesMovesReferencedFiles() throws IOException {
+        final Path legacy = Files.write(directory.resolve("cover.png"), png(0));
+        final String stored = storageService.saveImage(new MockMultipartFile("file", "b.png", null, png(4)),
+                FileLocation.BOOK_COVERS);
+        final String missing = directory.resolve("missing.png").toString();
+        final String expected = storageService.importImage(legacy.toString(), FileLocation.BOOK_COVERS);
+        when(referenceRepository.findPaths(ImageColumn.BOOK_COVER))
+                .thenReturn(List.of(legacy.toString(), stored, missing));
+
+        Assertions.assertEquals(1, maintenance.migrateLegacyImages());
+
+        verify(referenceRepository).replacePath(ImageColumn.BOOK_COVER, legacy.toString(), expected);
+        verify(referenceRepository, never()).replacePath(any(), eq(stored), anyString());
+        verify(referenceRepository, never()).replacePath(any(), eq(missing), anyString());
+        Assertions.assertFalse(Files.exists(legacy));
+        Assertions.assertTrue(Files.exists(Path.of(expected)));
+        Assertions.assertTrue(Files.exists(Path.of(stored)));
+    }
+
+    /**
+     * Tests that the images referenced by any column are kept by the collection,
+     * and the others deleted.
+     *
+     * @throws IOException if the test images cannot be stored.
+     */
+    @Test
+    void testCollectGarbageKeepsReferencedImages() throws IOException {
+        final String profile = storageService.saveImage(new MockMultipartFile("file", "a.png", null, png(1)),
+                FileLocation.PROFILE_IMAGES);
+        final String dni = storageService.saveImage(new MockMultipartFile("file", "a.png", null, png(2)),
+                FileLocation.DNI);
+        final String orphan = storageService.saveImage(new MockMultipartFile("file", "a.png", null, png(3)),
+                FileLocation.DNI);
+        for (final String image : List.of(profile, dni, orphan)) {
+            Files.setLastModifiedTime(Path.of(image), FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+        }
+        when(referenceRepository.findPaths(ImageColumn.PROFILE_IMAGE)).thenReturn(List.of(profile));
+        when(referenceRepository.findPaths(ImageColumn.DNI_BACK)).thenReturn(List.of(dni));
+
+        Assertions.assertEquals(1, maintenance.collectGarbage());
+
+        Assertions.assertTrue(Files.exists(Path.of(profile)));
+        Assertions.assertTrue(Files.exists(Path.of(dni)));
+        Assertions.assertFalse(Files.exists(Path.of(orphan)));
+    }
+
+    private static byte[] png(final int id) {
+        return new byte[] { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', (byte) id };
+    }
+}
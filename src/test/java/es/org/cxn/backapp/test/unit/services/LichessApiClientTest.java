@@ -0,0 +1,204 @@
+package es.org.cxn.backapp.test.unit.services;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import es.org.cxn.backapp.config.LichessApiProperties;
+import es.org.cxn.backapp.service.dto.LichessSaveProfileDto;
+import es.org.cxn.backapp.service.exceptions.LichessServiceException;
+import es.org.cxn.backapp.service.impl.lichess.LichessApiClient;
+import es.org.cxn.backapp.test.utils.FakeLichessServer;
+import es.org.cxn.backapp.test.utils.FakeLichessServer.RecordedRequest;
+
+/**
+ * The Lichess API client unit test cases, against a local stand-in for the
+ * Lichess API.
+ */
+class LichessApiClientTest {
+
+    /**
+     * Account returned by the stand-in.
+     */
+    private static final String ACCOUNT_JSON = """
+            {"id":"magnus","username":"Magnus","perfs":{
+              "blitz":{"games":120,"rating":2100,"rd":45,"prog":12,"prov":false},
+              "bullet":{"games":30,"rating":1900,"rd":60,"prog":-5,"prov":true},
+              "classical":{"games":5,"rating":1800,"rd":110,"prog":0,"prov":true},
+              "rapid":{"games":60,"rating":2000,"rd":50,"prog":8},
+              "puzzle":{"games":400,"rating":2300,"rd":70,"prog":20}}}
+            """;
+
+    /**
+     * Local stand-in for the Lichess API.
+     */
+    private FakeLichessServer lichess;
+
+    /**
+     * The client under test.
+     */
+    private LichessApiClient client;
+
+    @BeforeEach
+    void setUp() {
+        lichess = new FakeLichessServer();
+        final var properties = new LichessApiProperties();
+        properties.setBaseUrl(lichess.baseUrl());
+        properties.setReadTimeout(Duration.ofMillis(500));
+        client = new LichessApiClient(properties, new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() {
+        lichess.close();
+    }
+
+    @Test
+    void testGetAccountMapsProfileAndStatistics() throws LichessServiceException {
+        lichess.respond("GET", "/api/account", 200, ACCOUNT_JSON);
+
+        final LichessSaveProfileDto profile = client.getAccount("token-1", "user@example.com");
+
+        Assertions.assertEquals("user@example.com", profile.userEmail());
+        Assertions.assertEquals("magnus", profile.identifier());
+        Assertions.assertEquals("Magnus", profile.username());
+        Assertions.assertNotNull(profile.updatedAt());
+        Assertions.assertEquals(Integer.valueOf(120), profile.blitz().games());
+        Assertions.assertEquals(Integer.valueOf(2100), profile.blitz().rating());
+        Assertions.assertEquals(Integer.valueOf(-5), profile.bullet().prog());
+        Assertions.assertTrue(profile.classical().prov());
+        Assertions.assertFalse(profile.rapid().prov());
+        Assertions.assertEquals(Integer.valueOf(2300), profile.puzzle().rating());
+
+        final RecordedRequest request = lichess.requests().get(0);
+        Assertions.assertEquals("Bearer token-1", request.authorization());
+    }
+
+    @Test
+    void testGetAccountRejectedThrows() {
+        lichess.respond("GET", "/api/account", 401, "{\"error\":\"No such token\"}");
+
+        final var exception = Assertions.assertThrows(LichessServiceException.class,
+                () -> client.getAccount("expired", "user@example.com"));
+        Assertions.assertEquals("Error al obtener el perfil de Lichess.", exception.getMessage());
+    }
+
+    @Test
+    void testGetAccountTimesOut() {
+        lichess.respond("GET", "/api/account", 200, ACCOUNT_JSON, Duration.ofSeconds(3));
+
+        final var exception = Assertions.assertThrows(LichessServiceException.class,
+                () -> client.getAccount("token-1", "user@example.com"));
+        Assertions.assertEquals("Error en la llamada a la API de Lichess.", exception.getMessage());
+    }
+
+    @Test
+    void testRequestAccessTokenSendsPkceForm() throws LichessServiceException {
+        lichess.respond("POST", "/api/token", 200,
+                "{\"token_type\":\"Bearer\",\"access_token\":\"lio_abc\",\"expires_in\":31536000}");
+
+        final LichessApiClient.AccessToken token = client.requestAccessToken("code-1", "verifier-1",
+                "http://localhost/callback", "xadreznaron.es");
+
+        Assertions.assertEquals(new LichessApiClient.AccessToken("Bearer", "lio_abc", 31_536_000L), token);
+        final RecordedRequest request = lichess.requests().get(0);
+        Assertions.assertTrue(request.contentType().startsWith("application/x-www-form-urlencoded"));
+        Assertions.assertTrue(request.body().contains("grant_type=authorization_code"));
+        Assertions.assertTrue(request.body().contains("code=code-1"));
+        Assertions.assertTrue(request.body().contains("code_verifier=verifier-1"));
+        Assertions.assertTrue(request.body().contains("client_id=xadreznaron.es"));
+    }
+
+    @Test
+    void testRequestAccessTokenRejectedThrows() {
+        lichess.respond("POST", "/api/token", 400, "{\"error\":\"invalid_grant\"}");
+
+        Assertions.assertThrows(LichessServiceException.class,
+                () -> client.requestAccessToken("bad", "verifier-1", "http://localhost/callback", "xadreznaron.es"));
+    }
+
+    @Test
+    void testGetUsersStreamsEveryProfile() throws LichessServiceException {
+        lichess.respond("POST", "/api/users", 200, "[" + ACCOUNT_JSON + ","
+                + "{\"id\":\"hikaru\",\"username\":\"Hikaru\",\"perfs\":{\"bullet\":{\"rating\":3200}}}]");
+        final List<LichessSaveProfileDto> profiles = new ArrayList<>();
+
+        client.getUsers(List.of("magnus", "hikaru", "closed"), profiles::add);
+
+        Assertions.assertEquals(2, profiles.size());
+        Assertions.assertEquals("magnus", profiles.get(0).identifier());
+        Assertions.assertNull(profiles.get(0).userEmail());
+        Assertions.assertEquals(Integer.valueOf(2100), profiles.get(0).blitz().rating());
+        Assertions.assertEquals("Hikaru", profiles.get(1).username());
+        Assertions.assertEquals(Integer.valueOf(3200), profiles.get(1).bullet().rating());
+
+        final RecordedRequest request = lichess.requests().get(0);
+        Assertions.assertEquals("magnus,hikaru,closed", request.body());
+        Assertions.assertTrue(request.contentType().startsWith("text/plain"));
+        Assertions.assertNull(request.authorization());
+    }
+
+    @Test
+    void testGetUsersRejectedThrows() {
+        lichess.respond("POST", "/api/users", 429, "{\"error\":\"Too many requests\"}");
+
+        Assertions.assertThrows(LichessServiceException.class, () -> client.getUsers(List.of("magnus"), profile -> {
+        }));
+    }
+
+    @Test
+    void testGetUsersRejectsTooManyIds() {
+        final List<String> ids = Collections.nCopies(LichessApiClient.MAX_USERS_PER_REQUEST + 1, "magnus");
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> client.getUsers(ids, profile -> {
+        }));
+        Assertions.assertTrue(lichess.requests().isEmpty());
+    }
+
+    @Test
+    void testConnectionIsReusedAcrossRequests() throws LichessServiceException {
+        lichess.respond("GET", "/api/account", 200, ACCOUNT_JSON);
+
+        client.getAccount("token-1", "first@example.com");
+        client.getAccount("token-2", "second@example.com");
+
+        final var requests = lichess.requests();
+        Assertions.assertEquals(2, requests.size());
+        Assertions.assertEquals(requests.get(0).clientPort(), requests.get(1).clientPort(),
+                "Both requests should use the same kept-alive connection");
+    }
+}
@@ -0,0 +1,201 @@
+package es.org.cxn.backapp.test.unit.services;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import es.org.cxn.backapp.model.LichessTimeControl;
+import es.org.cxn.backapp.repository.LichessEntityRepository;
+import es.org.cxn.backapp.service.dto.LichessLeaderboardDto;
+import es.org.cxn.backapp.service.dto.LichessLeaderboardEntryDto;
+import es.org.cxn.backapp.service.dto.LichessProfileDto;
+import es.org.cxn.backapp.service.dto.LichessProfileDto.GameStatistics;
+import es.org.cxn.backapp.service.dto.LichessRankedProfileDto;
+import es.org.cxn.backapp.service.impl.lichess.LichessLeaderboard;
+
+/**
+ * The Lichess leaderboard unit test cases, with a mocked repository.
+ */
+class LichessLeaderboardTest {
+
+    /**
+     * The last update of the most recently updated profile.
+     */
+    private static final LocalDateTime LATEST_UPDATE = LocalDateTime.of(2025, 3, 10, 12, 30);
+
+    /**
+     * The Lichess profile repository.
+     */
+    private LichessEntityRepository lichessEntityRepository;
+
+    /**
+     * The leaderboard under test.
+     */
+    private LichessLeaderboard leaderboard;
+
+    /**
+     * Builds a stored profile with the same statistics in every time control but
+     * puzzles, which it has none of.
+     *
+     * @param dni       the user's DNI.
+     * @param username  the Lichess username.
+     * @param rating    the rating.
+     * @param games     the games played.
+     * @param updatedAt the last update.
+     * @return the profile.
+     */
+    private static LichessRankedProfileDto profile(final String dni, final String username, final Integer rating,
+            final Integer games, final LocalDateTime updatedAt) {
+        final var statistics = new GameStatistics(games, rating, 50, 0, Boolean.FALSE);
+        return new LichessRankedProfileDto(dni, new LichessProfileDto("Name " + username, username, username,
+                updatedAt, statistics, statistics, statistics, statistics, null));
+    }
+
+    @BeforeEach
+    void setUp() {
+        lichessEntityRepository = mock(LichessEntityRepository.class);
+        leaderboard = new LichessLeaderboard(lichessEntityRepository);
+        when(lichessEntityRepository.findAllRankedProfiles()).thenReturn(List.of(
+                profile("11111111A", "bravo", 1800, 20, LATEST_UPDATE.minusDays(1)),
+                profile("22222222B", "alpha", 2000, 10, LATEST_UPDATE),
+                profile("33333333C", "charlie", 1800, 40, LATEST_UPDATE.minusDays(2)),
+                profile("44444444D", "delta", 1800, 20, LATEST_UPDATE.minusDays(3)),
+                profile("55555555E", "echo", 1500, 5, LATEST_UPDATE.minusDays(4)),
+                profile("66666666F", "unrated", null, 0, LATEST_UPDATE.plusDays(1)),
+                profile("77777777G", "idle", 2500, 0, LATEST_UPDATE.plusDays(1))));
+    }
+
+    @Test
+    void testTopIsSortedWithSharedRanks() {
+        final LichessLeaderboardDto top = leaderboard.top(LichessTimeControl.BLITZ, 10);
+
+        assertEquals(5, top.total());
+        assertEquals(List.of("alpha", "charlie", "bravo", "delta", "echo"),
+                top.entries().stream().map(LichessLeaderboardEntryDto::username).toList());
+        assertEquals(List.of(1, 2, 2, 2, 5), top.entries().stream().map(LichessLeaderboardEntryDto::rank).toList());
+        assertEquals(LATEST_UPDATE.atZone(ZoneId.systemDefault()).toInstant(), top.lastModified());
+    }
+
+    @Test
+    void testTopIsLimited() {
+        final LichessLeaderboardDto top = leaderboard.top(LichessTimeControl.RAPID, 2);
+
+        assertEquals(5, top.total());
+        assertEquals(List.of("alpha", "charlie"),
+                top.entries().stream().map(LichessLeaderboardEntryDto::username).toList());
+        assertEquals(leaderboard.top(LichessTimeControl.RAPID, 10).etag(), top.etag());
+        assertThrows(IllegalArgumentException.class, () -> leaderboard.top(LichessTimeControl.RAPID, 0));
+    }
+
+    @Test
+    void testEmptyTimeControl() {
+        final LichessLeaderboardDto top = leaderboard.top(LichessTimeControl.PUZZLE, 10);
+
+        assertEquals(0, top.total());
+        assertTrue(top.entries().isEmpty());
+        assertNull(top.lastModified());
+        assertTrue(leaderboard.rank(LichessTimeControl.PUZZLE, "22222222B").isEmpty());
+    }
+
+    @Test
+    void testRankLookup() {
+        final LichessLeaderboardEntryDto entry = leaderboard.rank(LichessTimeControl.CLASSICAL, "44444444D")
+                .orElseThrow();
+
+        assertEquals(2, entry.rank());
+        assertEquals("Name delta", entry.completeUserName());
+        assertEquals(Integer.valueOf(1800), entry.rating());
+        assertTrue(leaderboard.rank(LichessTimeControl.CLASSICAL, "77777777G").isEmpty());
+        assertTrue(leaderboard.rank(LichessTimeControl.CLASSICAL, "00000000Z").isEmpty());
+    }
+
+    @Test
+    void testReadsAreServedFromMemory() {
+        final String etag = leaderboard.top(LichessTimeControl.BLITZ, 10).etag();
+        leaderboard.top(LichessTimeControl.BULLET, 3);
+        leaderboard.rank(LichessTimeControl.RAPID, "11111111A");
+
+        assertEquals(etag, leaderboard.top(LichessTimeControl.BLITZ, 10).etag());
+        verify(lichessEntityRepository).findAllRankedProfiles();
+    }
+
+    @Test
+    void testInvalidateRebuildsOnNextRead() {
+        final String etag = leaderboard.top(LichessTimeControl.BLITZ, 10).etag();
+        when(lichessEntityRepository.findAllRankedProfiles())
+                .thenReturn(List.of(profile("11111111A", "bravo", 2100, 21, LATEST_UPDATE.plusHours(1)),
+                        profile("22222222B", "alpha", 2000, 10, LATEST_UPDATE)));
+
+        leaderboard.invalidate();
+        final LichessLeaderboardDto top = leaderboard.top(LichessTimeControl.BLITZ, 10);
+
+        assertNotEquals(etag, top.etag());
+        assertEquals("bravo", top.entries().get(0).username());
+        assertEquals(2, top.total());
+        verify(lichessEntityRepository, times(2)).findAllRankedProfiles();
+    }
+
+    @Test
+    void testInvalidateInTransactionWaitsForCommit() {
+        leaderboard.top(LichessTimeControl.BLITZ, 10);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            leaderboard.invalidate();
+            leaderboard.top(LichessTimeControl.BLITZ, 10);
+            verify(lichessEntityRepository).findAllRankedProfiles();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        leaderboard.top(LichessTimeControl.BLITZ, 10);
+        verify(lichessEntityRepository, times(2)).findAllRankedProfiles();
+    }
+
+    @Test
+    void testTimeControlFromParameter() {
+        assertEquals(LichessTimeControl.CLASSICAL, LichessTimeControl.fromParameter("Classical"));
+        assertNull(LichessTimeControl.fromParameter("correspondence"));
+    }
+}
@@ -0,0 +1,140 @@
+package es.org.cxn.backapp.test.unit.services;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import es.org.cxn.backapp.repository.LichessAuthRepository;
+import es.org.cxn.backapp.service.LichessService;
+import es.org.cxn.backapp.service.dto.LichessLinkedAccountDto;
+import es.org.cxn.backapp.service.dto.LichessRefreshStatusDto;
+import es.org.cxn.backapp.service.impl.lichess.LichessProfileRefresher;
+
+/**
+ * The Lichess profile refresher unit test cases, with a mocked repository and
+ * service.
+ */
+class LichessProfileRefresherTest {
+
+    /**
+     * The linked accounts with a valid token.
+     */
+    private static final List<LichessLinkedAccountDto> ACCOUNTS = List.of(
+            new LichessLinkedAccountDto("11111111A", "first@example.com", "token-1"),
+            new LichessLinkedAccountDto("22222222B", "second@example.com", "token-2"),
+            new LichessLinkedAccountDto("33333333C", "third@example.com", "token-3"));
+
+    /**
+     * The Lichess authorization repository.
+     */
+    private LichessAuthRepository lichessAuthRepository;
+
+    /**
+     * The Lichess service.
+     */
+    private LichessService lichessService;
+
+    /**
+     * The refresher under test.
+     */
+    private LichessProfileRefresher refresher;
+
+    @BeforeEach
+    void setUp() {
+        lichessAuthRepository = mock(LichessAuthRepository.class);
+        lichessService = mock(LichessService.class);
+        refresher = new LichessProfileRefresher(lichessAuthRepository, lichessService, true);
+    }
+
+    @Test
+    void testStatusBeforeFirstRefresh() {
+        final LichessRefreshStatusDto status = refresher.getStatus();
+
+        Assertions.assertNull(status.lastRefreshAt());
+        Assertions.assertEquals(0, status.totalRefreshes());
+    }
+
+    @Test
+    void testRefreshAllRefreshesLinkedUsersInBulk() {
+        when(lichessAuthRepository.findLinkedAccounts(any())).thenReturn(ACCOUNTS);
+        when(lichessService.refreshLichessProfiles(ACCOUNTS)).thenReturn(3);
+
+        final LichessRefreshStatusDto status = refresher.refreshAll();
+
+        Assertions.assertEquals(3, status.refreshed());
+        Assertions.assertEquals(0, status.failed());
+        Assertions.assertNotNull(status.lastRefreshAt());
+        Assertions.assertEquals(1, status.totalRefreshes());
+    }
+
+    @Test
+    void testRefreshAllCountsFailuresAndKeepsTotals() {
+        when(lichessAuthRepository.findLinkedAccounts(any())).thenReturn(ACCOUNTS);
+        when(lichessService.refreshLichessProfiles(anyCollection())).thenReturn(1);
+
+        refresher.refreshAll();
+        final LichessRefreshStatusDto status = refresher.refreshAll();
+
+        Assertions.assertEquals(1, status.refreshed());
+        Assertions.assertEquals(2, status.failed());
+        Assertions.assertEquals(4, status.totalFailures());
+        Assertions.assertEquals(2, status.totalRefreshes());
+        Assertions.assertEquals(status, refresher.getStatus());
+    }
+
+    @Test
+    void testRefreshAllWithoutLinkedUsersSkipsLichess() {
+        when(lichessAuthRepository.findLinkedAccounts(any())).thenReturn(List.of());
+
+        final LichessRefreshStatusDto status = refresher.refreshAll();
+
+        verify(lichessService, never()).refreshLichessProfiles(anyCollection());
+        Assertions.assertEquals(0, status.refreshed());
+        Assertions.assertEquals(1, status.totalRefreshes());
+    }
+
+    @Test
+    void testScheduledRefreshDisabledDoesNothing() {
+        final var disabled = new LichessProfileRefresher(lichessAuthRepository, lichessService, false);
+
+        disabled.scheduledRefresh();
+
+        verify(lichessAuthRepository, never()).findLinkedAccounts(any());
+        Assertions.assertEquals(0, disabled.getStatus().totalRefreshes());
+    }
+}
@@ -28,10 +28,15 @@ package es.org.cxn.backapp.test.unit.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -40,13 +45,18 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import es.org.cxn.backapp.model.persistence.PersistentLichessAuthEntity;
 import es.org.cxn.backapp.model.persistence.PersistentLichessProfileEntity;
@@ -57,11 +67,14 @@ import es.org.cxn.backapp.repository.LichessAuthRepository;
 import es.org.cxn.backapp.repository.LichessEntityRepository;
 import es.org.cxn.backapp.repository.OAuthAuthorizationRequestRepository;
 import es.org.cxn.backapp.repository.UserEntityRepository;
+import es.org.cxn.backapp.service.dto.LichessLinkedAccountDto;
 import es.org.cxn.backapp.service.dto.LichessProfileDto;
 import es.org.cxn.backapp.service.dto.LichessSaveProfileDto;
 import es.org.cxn.backapp.service.dto.LichessSaveProfileDto.SaveGameStatistics;
 import es.org.cxn.backapp.service.exceptions.LichessServiceException;
 import es.org.cxn.backapp.service.impl.DefaultLichessService;
+import es.org.cxn.backapp.service.impl.lichess.LichessApiClient;
+import es.org.cxn.backapp.service.impl.lichess.LichessLeaderboard;
 
 /**
  * Unit test class for {@link DefaultLichessService}. This class verifies the
@@ -357,6 +370,24 @@ class LichessServiceTest {
     @Mock
     private LichessEntityRepository lichessEntityRepository;
 
+    /**
+     * Mocked client of the Lichess API.
+     */
+    @Mock
+    private LichessApiClient lichessApiClient;
+
+    /**
+     * Mocked club leaderboard.
+     */
+    @Mock
+    private LichessLeaderboard lichessLeaderboard;
+
+    /**
+     * Mocked transaction template.
+     */
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     /**
      * Test instance of {@link PersistentUserEntity} to simulate a user entity.
      */
@@ -581,113 +612,43 @@ class LichessServiceTest {
 
     @Test
     void testGetLichessProfiles() {
-        // Sample Lichess profile entities
-        List<PersistentLichessProfileEntity> lichessProfilesEntitiesList = new ArrayList<>();
-
-        // Creating the first Lichess profile entity
-        PersistentLichessProfileEntity profile1 = new PersistentLichessProfileEntity();
-        profile1.setUserDni("123456");
-        profile1.setIdentifier("lichessId1");
-        profile1.setUsername("user1");
-        profile1.setBlitzGames(BLITZ_GAMES_1);
-        profile1.setBlitzRating(BLITZ_RATING_1);
-        profile1.setBlitzRd(BLITZ_RD_1);
-        profile1.setBlitzProg(BLITZ_PROG_1);
-        profile1.setBlitzProv(BLITZ_PROV_1);
-        profile1.setBulletGames(BULLET_GAMES_1);
-        profile1.setBulletRating(BULLET_RATING_1);
-        profile1.setBulletRd(BULLET_RD_1);
-        profile1.setBulletProg(BULLET_PROG_1);
-        profile1.setBulletProv(BULLET_PROV_1);
-        profile1.setClassicalGames(CLASSICAL_GAMES_1);
-        profile1.setClassicalRating(CLASSICAL_RATING_1);
-        profile1.setClassicalRd(CLASSICAL_RD_1);
-        profile1.setClassicalProg(CLASSICAL_PROG_1);
-        profile1.setClassicalProv(CLASSICAL_PROV_1);
-        profile1.setRapidGames(RAPID_GAMES_1);
-        profile1.setRapidRating(RAPID_RATING_1);
-        profile1.setRapidRd(RAPID_RD_1);
-        profile1.setRapidProg(RAPID_PROG_1);
-        profile1.setRapidProv(RAPID_PROV_1);
-        profile1.setPuzzleGames(PUZZLE_GAMES_1);
-        profile1.setPuzzleRating(PUZZLE_RATING_1);
-        profile1.setPuzzleRd(PUZZLE_RD_1);
-        profile1.setPuzzleProg(PUZZLE_PROG_1);
-        profile1.setPuzzleProv(PUZZLE_PROV_1);
-        profile1.setUpdatedAt(LocalDateTime.now());
-
-        // Creating the second Lichess profile entity
-        PersistentLichessProfileEntity profile2 = new PersistentLichessProfileEntity();
-        profile2.setUserDni("654321");
-        profile2.setIdentifier("lichessId2");
-        profile2.setUsername("user2");
-        profile2.setBlitzGames(BLITZ_GAMES_2);
-        profile2.setBlitzRating(BLITZ_RATING_2);
-        profile2.setBlitzRd(BLITZ_RD_2);
-        profile2.setBlitzProg(BLITZ_PROG_2);
-        profile2.setBlitzProv(BLITZ_PROV_2);
-        profile2.setBulletGames(BULLET_GAMES_2);
-        profile2.setBulletRating(BULLET_RATING_2);
-        profile2.setBulletRd(BULLET_RD_2);
-        profile2.setBulletProg(BULLET_PROG_2);
-        profile2.setBulletProv(BULLET_PROV_2);
-        profile2.setClassicalGames(CLASSICAL_GAMES_2);
-        profile2.setClassicalRating(CLASSICAL_RATING_2);
-        profile2.setClassicalRd(CLASSICAL_RD_2);
-        profile2.setClassicalProg(CLASSICAL_PROG_2);
-        profile2.setClassicalProv(CLASSICAL_PROV_2);
-        profile2.setRapidGames(RAPID_GAMES_2);
-        profile2.setRapidRating(RAPID_RATING_2);
-        profile2.setRapidRd(RAPID_RD_2);
-        profile2.setRapidProg(RAPID_PROG_2);
-        profile2.setRapidProv(RAPID_PROV_2);
-        profile2.setPuzzleGames(PUZZLE_GAMES_2);
-        profile2.setPuzzleRating(PUZZLE_RATING_2);
-        profile2.setPuzzleRd(PUZZLE_RD_2);
-        profile2.setPuzzleProg(PUZZLE_PROG_2);
-        profile2.setPuzzleProv(PUZZLE_PROV_2);
-        profile2.setUpdatedAt(LocalDateTime.now());
-
-        lichessProfilesEntitiesList.add(profile1);
-        lichessProfilesEntitiesList.add(profile2);
-
-        // Mocking the repository methods
-        when(lichessEntityRepository.findAll()).thenReturn(lichessProfilesEntitiesList);
-
-        final int yearOfBirth = 1991;
-        final int monthOfBirth = 02;
-        final int dayOfBirth = 4;
-
-        UserProfile userProfile1 = new UserProfile();
-        userProfile1.setName("User name");
-        userProfile1.setFirstSurname("first surname");
-        userProfile1.setSecondSurname("second surname");
-        userProfile1.setBirthDate(LocalDate.of(yearOfBirth, monthOfBirth, dayOfBirth));
-        userProfile1.setGender("Male");
-        PersistentUserEntity userEntity1 = new PersistentUserEntity();
-        userEntity1.setDni("123456");
-        userEntity1.setProfile(userProfile1);
-
-        UserProfile userProfile2 = new UserProfile();
-        userProfile1.setName("User name2");
-        userProfile1.setFirstSurname("first surname2");
-        userProfile1.setSecondSurname("second surname2");
-        userProfile1.setBirthDate(LocalDate.of(yearOfBirth, monthOfBirth, dayOfBirth));
-        userProfile1.setGender("Male");
-        PersistentUserEntity userEntity2 = new PersistentUserEntity();
-        userEntity2.setDni("654321");
-        userEntity2.setProfile(userProfile2);
-
-        // Mock the userEntityRepository responses
-        when(userEntityRepository.findByDni("123456")).thenReturn(Optional.of(userEntity1));
-        when(userEntityRepository.findByDni("654321")).thenReturn(Optional.of(userEntity2));
+        final LocalDateTime updatedAt = LocalDateTime.now();
+        final LichessProfileDto profile1 = new LichessProfileDto("User name first surname second surname",
+                "lichessId1", "user1", updatedAt,
+                new LichessProfileDto.GameStatistics(BLITZ_GAMES_1, BLITZ_RATING_1, BLITZ_RD_1,
+                        BLITZ_PROG_1, BLITZ_PROV_1),
+                new LichessProfileDto.GameStatistics(BULLET_GAMES_1, BULLET_RATING_1, BULLET_RD_1,
+                        BULLET_PROG_1, BULLET_PROV_1),
+                new LichessProfileDto.GameStatistics(CLASSICAL_GAMES_1, CLASSICAL_RATING_1, CLASSICAL_RD_1,
+                        CLASSICAL_PROG_1, CLASSICAL_PROV_1),
+                new LichessProfileDto.GameStatistics(RAPID_GAMES_1, RAPID_RATING_1, RAPID_RD_1,
+                        RAPID_PROG_1, RAPID_PROV_1),
+                new LichessProfileDto.GameStatistics(PUZZLE_GAMES_1, PUZZLE_RATING_1, PUZZLE_RD_1,
+                        PUZZLE_PROG_1, PUZZLE_PROV_1));
+        final LichessProfileDto profile2 = new LichessProfileDto("User name2 first surname2 second surname2",
+                "lichessId2", "user2", updatedAt,
+                new LichessProfileDto.GameStatistics(BLITZ_GAMES_2, BLITZ_RATING_2, BLITZ_RD_2,
+                        BLITZ_PROG_2, BLITZ_PROV_2),
+                new LichessProfileDto.GameStatistics(BULLET_GAMES_2, BULLET_RATING_2, BULLET_RD_2,
+                        BULLET_PROG_2, BULLET_PROV_2),
+                new LichessProfileDto.GameStatistics(CLASSICAL_GAMES_2, CLASSICAL_RATING_2, CLASSICAL_RD_2,
+                        CLASSICAL_PROG_2, CLASSICAL_PROV_2),
+                new LichessProfileDto.GameStatistics(RAPID_GAMES_2, RAPID_RATING_2, RAPID_RD_2,
+                        RAPID_PROG_2, RAPID_PROV_2),
+                new LichessProfileDto.GameStatistics(PUZZLE_GAMES_2, PUZZLE_RATING_2, PUZZLE_RD_2,
+                        PUZZLE_PROG_2, PUZZLE_PROV_2));
+        final List<LichessProfileDto> profiles = List.of(profile1, profile2);
+
+        // The profiles and user names come from a single projection query
+        when(lichessEntityRepository.findAllProfiles()).thenReturn(profiles);
 
         // Act
         List<LichessProfileDto> result = lichessService.getLichessProfiles();
 
         // Assert
-        assertNotNull(result);
-        assertEquals(2, result.size()); // Check that we got 2 profiles in the result
+        assertEquals(profiles, result);
+        verify(lichessEntityRepository, never()).findAll();
+        verify(userEntityRepository, never()).findByDni(any());
     }
 
     @Test
@@ -700,6 +661,101 @@ class LichessServiceTest {
         assertEquals("User with email: test@example.com not found.", thrown.getMessage());
     }
 
+    /**
+     * Makes the mocked transaction template run its callbacks.
+     */
+    private void runTransactionsInline() {
+        doAnswer(invocation -> {
+            final Consumer<TransactionStatus> action = invocation.getArgument(0);
+            action.accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void testRefreshLichessProfilesUpdatesKnownProfiles() throws LichessServiceException {
+        final SaveGameStatistics stats = new SaveGameStatistics(BLITZ_GAMES_2, BLITZ_RATING_2, 60, 5, false);
+        final var first = new PersistentLichessProfileEntity();
+        first.setUserDni("11111111A");
+        first.setIdentifier("first");
+        first.setUsername("oldName");
+        final var closed = new PersistentLichessProfileEntity();
+        closed.setUserDni("22222222B");
+        closed.setIdentifier("closed");
+        final List<LichessLinkedAccountDto> accounts = List.of(
+                new LichessLinkedAccountDto("11111111A", "first@example.com", "token-1"),
+                new LichessLinkedAccountDto("22222222B", "closed@example.com", "token-2"));
+
+        when(lichessEntityRepository.findAllById(any())).thenReturn(List.of(first, closed));
+        doAnswer(invocation -> {
+            final Consumer<LichessSaveProfileDto> consumer = invocation.getArgument(1);
+            consumer.accept(new LichessSaveProfileDto(null, "first", "First", LocalDateTime.now(), stats, stats,
+                    stats, stats, stats));
+            return null;
+        }).when(lichessApiClient).getUsers(any(), any());
+        runTransactionsInline();
+
+        assertEquals(1, lichessService.refreshLichessProfiles(accounts));
+
+        final ArgumentCaptor<List<String>> ids = ArgumentCaptor.captor();
+        verify(lichessApiClient).getUsers(ids.capture(), any());
+        assertEquals(Set.of("first", "closed"), Set.copyOf(ids.getValue()));
+        assertEquals("First", first.getUsername());
+        assertEquals(Integer.valueOf(BLITZ_RATING_2), first.getBlitzRating());
+        assertNull(closed.getUsername());
+        verify(lichessApiClient, never()).getAccount(any(), any());
+        verify(lichessEntityRepository).saveAll(List.of());
+        verify(lichessLeaderboard).invalidate();
+    }
+
+    @Test
+    void testRefreshLichessProfilesCreatesMissingProfilesWithTheUserToken() throws LichessServiceException {
+        final SaveGameStatistics stats = new SaveGameStatistics(BLITZ_GAMES_2, BLITZ_RATING_2, 60, 5, false);
+        final List<LichessLinkedAccountDto> accounts = List.of(
+                new LichessLinkedAccountDto("11111111A", "new@example.com", "token-1"),
+                new LichessLinkedAccountDto("22222222B", "revoked@example.com", "token-2"));
+
+        when(lichessEntityRepository.findAllById(any())).thenReturn(List.of());
+        when(lichessApiClient.getAccount("token-1", "new@example.com")).thenReturn(new LichessSaveProfileDto(
+                "new@example.com", "newcomer", "Newcomer", LocalDateTime.now(), stats, stats, stats, stats, stats));
+        when(lichessApiClient.getAccount("token-2", "revoked@example.com"))
+                .thenThrow(new LichessServiceException("Error al obtener el perfil de Lichess."));
+        runTransactionsInline();
+
+        assertEquals(1, lichessService.refreshLichessProfiles(accounts));
+
+        final ArgumentCaptor<List<PersistentLichessProfileEntity>> created = ArgumentCaptor.captor();
+        verify(lichessEntityRepository).saveAll(created.capture());
+        assertEquals(1, created.getValue().size());
+        assertEquals("11111111A", created.getValue().get(0).getUserDni());
+        assertEquals("newcomer", created.getValue().get(0).getIdentifier());
+        verify(lichessApiClient, never()).getUsers(any(), any());
+        verify(lichessLeaderboard).invalidate();
+    }
+
+    @Test
+    void testRefreshLichessProfilesSplitsRequestsAndSkipsFailedOnes() throws LichessServiceException {
+        final List<PersistentLichessProfileEntity> profiles = new ArrayList<>();
+        final List<LichessLinkedAccountDto> accounts = new ArrayList<>();
+        for (int i = 0; i < LichessApiClient.MAX_USERS_PER_REQUEST + 1; i++) {
+            final var profile = new PersistentLichessProfileEntity();
+            profile.setUserDni("dni" + i);
+            profile.setIdentifier("user" + i);
+            profiles.add(profile);
+            accounts.add(new LichessLinkedAccountDto("dni" + i, "user" + i + "@example.com", "token-" + i));
+        }
+
+        when(lichessEntityRepository.findAllById(any())).thenReturn(profiles);
+        doThrow(new LichessServiceException("Error al obtener los perfiles de Lichess.")).when(lichessApiClient)
+                .getUsers(any(), any());
+
+        assertEquals(0, lichessService.refreshLichessProfiles(accounts));
+
+        verify(lichessApiClient, times(2)).getUsers(any(), any());
+        verify(transactionTemplate, never()).executeWithoutResult(any());
+        verify(lichessLeaderboard, never()).invalidate();
+    }
+
     @Test
     void testSaveAuthTokenSuccess() throws LichessServiceException {
         when(userEntityRepository.findByEmail(userEntity.getEmail())).thenReturn(Optional.of(userEntity));
@@ -811,6 +867,7 @@ class LichessServiceTest {
 
         // Verify interactions with the repositories
         verify(lichessEntityRepository).save(any(PersistentLichessProfileEntity.class));
+        verify(lichessLeaderboard).invalidate();
     }
 
     @Test
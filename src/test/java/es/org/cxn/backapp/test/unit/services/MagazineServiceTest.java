@@ -26,7 +26,6 @@ package es.org.cxn.backapp.test.unit.services;
  * #L%
  */
 
-import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -37,6 +36,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
@@ -47,6 +47,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.web.multipart.MultipartFile;
 
 import es.org.cxn.backapp.model.form.requests.member_resources.AddMagazineRequestDto;
@@ -57,9 +58,12 @@ import es.org.cxn.backapp.repository.AuthorEntityRepository;
 import es.org.cxn.backapp.repository.MagazineEntityRepository;
 import es.org.cxn.backapp.service.ImageStorageService;
 import es.org.cxn.backapp.service.dto.MagazineDataImageDto;
+import es.org.cxn.backapp.service.dto.SavedImageDto;
+import es.org.cxn.backapp.service.dto.StoredImageDto;
 import es.org.cxn.backapp.service.exceptions.MagazineServiceException;
 import es.org.cxn.backapp.service.impl.DefaultMagazineService;
 import es.org.cxn.backapp.service.impl.storage.FileLocation;
+import es.org.cxn.backapp.service.impl.storage.ImageVariant;
 
 class MagazineServiceTest {
 
@@ -91,7 +95,7 @@ class MagazineServiceTest {
 
         when(authorRepository.findByFirstNameAndLastName("John", "Doe")).thenReturn(null);
         when(authorRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
-        when(imageStorageService.saveImage(any(), eq(FileLocation.MAGAZINE_COVERS)))
+        when(imageStorageService.storeImage(any(), eq(FileLocation.MAGAZINE_COVERS)))
                 .thenThrow(new IOException("IO error"));
 
         assertThrows(MagazineServiceException.class, () -> service.add(request, mockFile));
@@ -111,7 +115,8 @@ class MagazineServiceTest {
 
         // Mock repository behavior
         when(authorRepository.findByFirstNameAndLastName("Jane", "Doe")).thenReturn(existingAuthor);
-        when(imageStorageService.saveImage(any(), eq(FileLocation.MAGAZINE_COVERS))).thenReturn("covers/image.jpg");
+        when(imageStorageService.storeImage(any(), eq(FileLocation.MAGAZINE_COVERS)))
+                .thenReturn(new SavedImageDto("covers/image.jpg", "image/jpeg"));
 
         var savedMagazine = new PersistentMagazineEntity();
         savedMagazine.setIssn("1234-5678");
@@ -135,12 +140,14 @@ class MagazineServiceTest {
 
         when(authorRepository.findByFirstNameAndLastName("John", "Doe")).thenReturn(null);
         when(authorRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
-        when(imageStorageService.saveImage(any(), eq(FileLocation.MAGAZINE_COVERS))).thenReturn("path/to/image");
+        when(imageStorageService.storeImage(any(), eq(FileLocation.MAGAZINE_COVERS)))
+                .thenReturn(new SavedImageDto("path/to/image", "image/png"));
         when(magazineRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
 
         var result = service.add(request, mockFile);
 
         assertEquals("1234-5678", result.getIssn());
+        assertEquals("image/png", result.getCoverContentType());
         assertEquals("path/to/image", result.getCoverSrc());
         assertEquals(1, result.getAuthors().size());
     }
@@ -150,12 +157,15 @@ class MagazineServiceTest {
         var magazine = new PersistentMagazineEntity();
         magazine.setIssn("1234-5678");
         magazine.setCoverSrc("cover/path");
+        magazine.setCoverContentType("image/png");
 
         when(magazineRepository.findById("1234-5678")).thenReturn(Optional.of(magazine));
-        when(imageStorageService.loadImage("cover/path")).thenReturn(new byte[] { 1, 2, 3 });
+        final var image = new StoredImageDto(new ByteArrayResource(new byte[] { 1, 2, 3 }), 3, Instant.EPOCH,
+                "\"etag\"", "image/png");
+        when(imageStorageService.openImage("cover/path", "image/png", ImageVariant.THUMB)).thenReturn(image);
 
-        var result = service.findImage("1234-5678");
-        assertArrayEquals(new byte[] { 1, 2, 3 }, result);
+        var result = service.findImage("1234-5678", ImageVariant.THUMB);
+        assertEquals(image, result);
     }
 
     @Test
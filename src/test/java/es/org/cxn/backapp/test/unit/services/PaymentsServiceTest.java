@@ -28,12 +28,18 @@ package es.org.cxn.backapp.test.unit.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -41,18 +47,28 @@ import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.sql.ResultSet;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import es.org.cxn.backapp.model.PaymentsEntity;
 import es.org.cxn.backapp.model.persistence.payments.PaymentsCategory;
@@ -60,10 +76,13 @@ import es.org.cxn.backapp.model.persistence.payments.PaymentsState;
 import es.org.cxn.backapp.model.persistence.payments.PersistentPaymentsEntity;
 import es.org.cxn.backapp.model.persistence.user.PersistentUserEntity;
 import es.org.cxn.backapp.model.persistence.user.UserProfile;
+import es.org.cxn.backapp.model.persistence.user.UserType;
 import es.org.cxn.backapp.repository.PaymentsEntityRepository;
 import es.org.cxn.backapp.repository.UserEntityRepository;
 import es.org.cxn.backapp.service.EmailService;
+import es.org.cxn.backapp.service.dto.MembershipFeeRunDto;
 import es.org.cxn.backapp.service.dto.PaymentDetails;
+import es.org.cxn.backapp.service.dto.UserPaymentDetails;
 import es.org.cxn.backapp.service.exceptions.PaymentsServiceException;
 import es.org.cxn.backapp.service.impl.DefaultPaymentsService;
 import jakarta.mail.MessagingException;
@@ -103,6 +122,18 @@ class PaymentsServiceTest {
     @Mock
     private EmailService emailService;
 
+    /**
+     * Mocked JDBC template used by the membership fee run.
+     */
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Mocked transaction template running the membership fee chunks.
+     */
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     /**
      * Service under test that handles payment operations.
      *
@@ -267,16 +298,9 @@ class PaymentsServiceTest {
 
     @Test
     void getAllUsersWithPaymentsUsersExistNoPaymentsReturnsMapWithEmptyLists() {
-        // Arrange
-        PersistentUserEntity user1 = new PersistentUserEntity();
-        user1.setDni("12345");
-        PersistentUserEntity user2 = new PersistentUserEntity();
-        user2.setDni("67890");
-
-        // Mock the repositories
-        when(userRepository.findAll()).thenReturn(List.of(user1, user2));
-        when(paymentsRepository.findByUserDni("12345")).thenReturn(Collections.emptyList());
-        when(paymentsRepository.findByUserDni("67890")).thenReturn(Collections.emptyList());
+        // Arrange: one projection row without payment per user
+        when(paymentsRepository.findAllUsersWithPayments()).thenReturn(List.of(userWithoutPayments("12345"),
+                userWithoutPayments("67890")));
 
         // Act
         Map<String, List<PaymentDetails>> result = defaultPaymentsService.getAllUsersWithPayments();
@@ -289,9 +313,9 @@ class PaymentsServiceTest {
         assertTrue(result.get("12345").isEmpty());
         assertTrue(result.get("67890").isEmpty());
 
-        verify(userRepository, times(1)).findAll();
-        verify(paymentsRepository, times(1)).findByUserDni("12345");
-        verify(paymentsRepository, times(1)).findByUserDni("67890");
+        verify(paymentsRepository, times(1)).findAllUsersWithPayments();
+        verify(paymentsRepository, never()).findByUserDni(anyString());
+        verifyNoInteractions(userRepository);
     }
 
     @Test
@@ -299,40 +323,63 @@ class PaymentsServiceTest {
         // Arrange
         final var payment1Amount = 100.0;
         final var payment2Amount = 200.0;
-        PersistentUserEntity user1 = new PersistentUserEntity();
-        user1.setDni("12345");
-        PersistentUserEntity user2 = new PersistentUserEntity();
-        user2.setDni("67890");
-
-        PersistentPaymentsEntity payment1 = new PersistentPaymentsEntity();
-        payment1.setUserDni("12345");
-        payment1.setAmount(BigDecimal.valueOf(payment1Amount));
-
-        PersistentPaymentsEntity payment2 = new PersistentPaymentsEntity();
-        payment2.setUserDni("67890");
-        payment2.setAmount(BigDecimal.valueOf(payment2Amount));
-
-        // Mock the repositories
-        when(userRepository.findAll()).thenReturn(List.of(user1, user2));
-        when(paymentsRepository.findByUserDni("12345")).thenReturn(List.of(payment1));
-        when(paymentsRepository.findByUserDni("67890")).thenReturn(List.of(payment2));
+        final var payment3Amount = 300.0;
+        when(paymentsRepository.findAllUsersWithPayments()).thenReturn(List.of(
+                userPayment("12345", BigDecimal.valueOf(payment1Amount), PaymentsState.UNPAID),
+                userPayment("12345", BigDecimal.valueOf(payment3Amount), PaymentsState.PAID),
+                userPayment("67890", BigDecimal.valueOf(payment2Amount), PaymentsState.UNPAID)));
 
         // Act
         Map<String, List<PaymentDetails>> result = defaultPaymentsService.getAllUsersWithPayments();
 
         // Assert
         assertNotNull(result);
-        assertEquals(2, result.size());
-        assertTrue(result.containsKey("12345"));
-        assertTrue(result.containsKey("67890"));
-        assertEquals(1, result.get("12345").size());
+        assertEquals(List.of("12345", "67890"), List.copyOf(result.keySet()));
+        assertEquals(2, result.get("12345").size());
         assertEquals(1, result.get("67890").size());
         assertEquals(BigDecimal.valueOf(payment1Amount), result.get("12345").get(0).amount());
+        assertEquals(BigDecimal.valueOf(payment3Amount), result.get("12345").get(1).amount());
         assertEquals(BigDecimal.valueOf(payment2Amount), result.get("67890").get(0).amount());
 
-        verify(userRepository, times(1)).findAll();
-        verify(paymentsRepository, times(1)).findByUserDni("12345");
-        verify(paymentsRepository, times(1)).findByUserDni("67890");
+        verify(paymentsRepository, times(1)).findAllUsersWithPayments();
+        verify(paymentsRepository, never()).findByUserDni(anyString());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getUsersWithPaymentsReturnsPageOfUsersWithMatchingPayments() {
+        // Arrange
+        final var page = PageRequest.of(1, 2);
+        when(paymentsRepository.findUserDnisWithPayments(PaymentsState.UNPAID, null, page))
+                .thenReturn(List.of("12345", "67890"));
+        when(paymentsRepository.findPaymentsOfUsers(List.of("12345", "67890"), PaymentsState.UNPAID, null))
+                .thenReturn(List.of(userPayment("12345", BigDecimal.TEN, PaymentsState.UNPAID),
+                        userPayment("67890", BigDecimal.ONE, PaymentsState.UNPAID)));
+
+        // Act
+        Map<String, List<PaymentDetails>> result = defaultPaymentsService.getUsersWithPayments(PaymentsState.UNPAID,
+                null, page);
+
+        // Assert
+        assertEquals(List.of("12345", "67890"), List.copyOf(result.keySet()));
+        assertEquals(BigDecimal.TEN, result.get("12345").getFirst().amount());
+        assertEquals(BigDecimal.ONE, result.get("67890").getFirst().amount());
+    }
+
+    @Test
+    void getUsersWithPaymentsWhenNoUserMatchesSkipsPaymentsQuery() {
+        // Arrange
+        final var page = PageRequest.of(0, 10);
+        when(paymentsRepository.findUserDnisWithPayments(null, PaymentsCategory.FEDERATE_PAYMENT, page))
+                .thenReturn(List.of());
+
+        // Act
+        Map<String, List<PaymentDetails>> result = defaultPaymentsService.getUsersWithPayments(null,
+                PaymentsCategory.FEDERATE_PAYMENT, page);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(paymentsRepository, never()).findPaymentsOfUsers(any(), any(), any());
     }
 
     @Test
@@ -560,6 +607,99 @@ class PaymentsServiceTest {
         verify(paymentsRepository, times(1)).deleteById(paymentId);
     }
 
+    /**
+     * Stubs the unbilled members query with the given members of each kind,
+     * honouring its keyset and limit parameters.
+     *
+     * @param members the dnis of the unbilled members per kind.
+     */
+    @SuppressWarnings("unchecked")
+    private void stubUnbilledMembers(final Map<UserType, List<String>> members) throws Exception {
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenAnswer(invocation -> {
+            final RowMapper<Object> mapper = invocation.getArgument(1);
+            final String kind = invocation.getArgument(2);
+            final String afterDni = invocation.getArgument(3);
+            final int limit = invocation.getArgument(7);
+            final List<Object> rows = new ArrayList<>();
+            for (final String dni : members.getOrDefault(UserType.valueOf(kind), List.of())) {
+                if (dni.compareTo(afterDni) > 0 && rows.size() < limit) {
+                    final ResultSet resultSet = mock(ResultSet.class);
+                    when(resultSet.getString(anyString())).thenReturn(dni);
+                    when(resultSet.getString("email")).thenReturn(dni + "@example.com");
+                    rows.add(mapper.mapRow(resultSet, rows.size()));
+                }
+            }
+            return rows;
+        });
+    }
+
+    @Test
+    void generateMembershipFeesBillsEveryChunkOfEveryPayingKind() throws Exception {
+        final int chunk = DefaultPaymentsService.MEMBERSHIP_FEE_CHUNK_SIZE;
+        final List<String> numerarios = IntStream.range(0, chunk + 3).mapToObj(i -> String.format("N%05d", i))
+                .toList();
+        stubUnbilledMembers(Map.of(UserType.SOCIO_NUMERO, numerarios, UserType.SOCIO_ASPIRANTE,
+                List.of("A00001", "A00002"), UserType.SOCIO_HONORARIO, List.of("H00001")));
+
+        final MembershipFeeRunDto result = defaultPaymentsService.generateMembershipFees(2030);
+
+        assertEquals(2030, result.year());
+        assertEquals(chunk + 3, result.generated().get(UserType.SOCIO_NUMERO));
+        assertEquals(2, result.generated().get(UserType.SOCIO_ASPIRANTE));
+        assertNull(result.generated().get(UserType.SOCIO_HONORARIO));
+        assertEquals(chunk + 5, result.total());
+        verify(transactionTemplate, times(3)).execute(any());
+        verify(jdbcTemplate, times(3)).batchUpdate(anyString(), anyList(), eq(chunk),
+                ArgumentMatchers.<ParameterizedPreparedStatementSetter<Object>>any());
+        verify(emailService, times(3)).sendGeneratedPayments(any());
+    }
+
+    @Test
+    void generateMembershipFeesWhenEmailsCannotBeRenderedThrowsException() throws Exception {
+        stubUnbilledMembers(Map.of(UserType.SOCIO_NUMERO, List.of("N00001")));
+        doThrow(new IOException("Missing template")).when(emailService).sendGeneratedPayments(any());
+
+        assertThrows(PaymentsServiceException.class, () -> defaultPaymentsService.generateMembershipFees(2030));
+    }
+
+    @Test
+    void generateMembershipFeesWhenEveryoneIsBilledGeneratesNothing() throws Exception {
+        stubUnbilledMembers(Map.of());
+
+        final MembershipFeeRunDto result = defaultPaymentsService.generateMembershipFees(2030);
+
+        assertEquals(0, result.total());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), anyInt(),
+                ArgumentMatchers.<ParameterizedPreparedStatementSetter<Object>>any());
+        verifyNoInteractions(emailService);
+    }
+
+    /**
+     * Builds the projection row of a user without payments.
+     *
+     * @param dni the user's DNI.
+     * @return the projection row.
+     */
+    private static UserPaymentDetails userWithoutPayments(final String dni) {
+        return new UserPaymentDetails(dni, null, null, null, null, null, null, null, null);
+    }
+
+    /**
+     * Builds the projection row of a user's payment.
+     *
+     * @param dni    the user's DNI.
+     * @param amount the payment amount.
+     * @param state  the payment state.
+     * @return the projection row.
+     */
+    private static UserPaymentDetails userPayment(final String dni, final BigDecimal amount,
+            final PaymentsState state) {
+        return new UserPaymentDetails(dni, UUID.randomUUID(), "Title", "Description", amount,
+                PaymentsCategory.MEMBERSHIP_PAYMENT, state, LocalDateTime.now(), null);
+    }
+
     /**
      * Initializes mocks before each test method is executed.
      */
@@ -37,6 +37,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -50,8 +51,11 @@ import es.org.cxn.backapp.exceptions.RoleNameExistsException;
 import es.org.cxn.backapp.exceptions.RoleNameNotFoundException;
 import es.org.cxn.backapp.model.UserRoleName;
 import es.org.cxn.backapp.model.persistence.PersistentRoleEntity;
+import es.org.cxn.backapp.model.persistence.user.PersistentUserEntity;
 import es.org.cxn.backapp.repository.RoleEntityRepository;
 import es.org.cxn.backapp.repository.UserEntityRepository;
+import es.org.cxn.backapp.security.VerifiedTokenCache;
+import es.org.cxn.backapp.service.exceptions.UserServiceException;
 import es.org.cxn.backapp.service.impl.DefaultRoleService;
 
 /**
@@ -99,6 +103,12 @@ class RoleServiceTest {
     @Mock
     private UserEntityRepository userRepository;
 
+    /**
+     * Verified token cache, invalidated on role changes.
+     */
+    @Mock
+    private VerifiedTokenCache tokenCache;
+
     /**
      * The service under test.
      * <p>
@@ -284,4 +294,26 @@ class RoleServiceTest {
 
         assertEquals(ROLE_NAME, thrown.getRoleName(), "Expected exception role name to match");
     }
+
+    /**
+     * Unit test for {@link DefaultRoleService#changeUserRoles(String, List)}.
+     * <p>
+     * Verifies that changing the roles of a user clears its cached tokens, so the
+     * new authorities apply on the next request.
+     *
+     * @throws UserServiceException when the user or role is not found.
+     */
+    @Test
+    void testChangeUserRolesInvalidatesTokenCache() throws UserServiceException {
+        final var user = new PersistentUserEntity();
+        user.setDni("32721860J");
+        user.setEmail("user@example.com");
+        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
+        when(roleRepository.findByName(ROLE_NAME)).thenReturn(Optional.of(role));
+        when(userRepository.save(user)).thenReturn(user);
+
+        roleService.changeUserRoles("user@example.com", List.of(ROLE_NAME));
+
+        verify(tokenCache).invalidateUser("32721860J");
+    }
 }
@@ -0,0 +1,190 @@
+package es.org.cxn.backapp.test.unit.services;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import es.org.cxn.backapp.config.S3StorageProperties;
+import es.org.cxn.backapp.service.impl.storage.ImageObjectStore.StoredObject;
+import es.org.cxn.backapp.service.impl.storage.S3ImageObjectStore;
+
+/**
+ * The S3 image object store unit test cases, against a minimal S3 server that
+ * keeps the objects of one bucket in memory, lists them one per page and
+ * refuses unsigned requests.
+ */
+class S3ImageObjectStoreTest {
+
+    /**
+     * Temporary directory holding the local files.
+     */
+    @TempDir
+    private Path directory;
+
+    /**
+     * The objects of the fake server, by key.
+     */
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+
+    /**
+     * The fake S3 server.
+     */
+    private HttpServer server;
+
+    /**
+     * The tested store.
+     */
+    private S3ImageObjectStore store;
+
+    /**
+     * Starts the fake server and points the store to it.
+     *
+     * @throws IOException if the server cannot start.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/images/", this::handle);
+        server.start();
+        final var properties = new S3StorageProperties();
+        properties.setEndpoint("http://127.0.0.1:" + server.getAddress().getPort() + "/");
+        properties.setBucket("images");
+        properties.setAccessKey("access");
+        properties.setSecretKey("secret");
+        store = new S3ImageObjectStore(properties);
+    }
+
+    /**
+     * Stops the fake server.
+     */
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    /**
+     * Tests that files are written, read, listed across pages and deleted.
+     *
+     * @throws IOException if a local file cannot be written.
+     */
+    @Test
+    void testPutFetchListDelete() throws IOException {
+        final Path source = Files.write(directory.resolve("source"), new byte[] { 1, 2, 3 });
+        store.put("dni/sha256/ab/first file", source);
+        store.put("dni/sha256/cd/second", source);
+        store.put("book_covers/sha256/ef/third", source);
+
+        final Path target = directory.resolve("target");
+        Assertions.assertTrue(store.fetch("dni/sha256/ab/first file", target));
+        Assertions.assertArrayEquals(new byte[] { 1, 2, 3 }, Files.readAllBytes(target));
+        Assertions.assertFalse(store.fetch("dni/sha256/ab/missing", directory.resolve("missing")));
+        Assertions.assertFalse(Files.exists(directory.resolve("missing")));
+
+        Assertions.assertEquals(Set.of("dni/sha256/ab/first file", "dni/sha256/cd/second"),
+                store.list("dni/").stream().map(StoredObject::key).collect(Collectors.toSet()));
+
+        store.delete("dni/sha256/cd/second");
+        store.delete("dni/sha256/cd/second");
+        Assertions.assertEquals(1, store.list("dni/").size());
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        final String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization == null || !authorization.startsWith("AWS4-HMAC-SHA256 Credential=access/")) {
+            respond(exchange, 403, new byte[0]);
+            return;
+        }
+        final String key = exchange.getRequestURI().getPath().substring("/images/".length());
+        switch (exchange.getRequestMethod()) {
+        case "PUT" -> {
+            objects.put(key, exchange.getRequestBody().readAllBytes());
+            respond(exchange, 200, new byte[0]);
+        }
+        case "DELETE" -> {
+            objects.remove(key);
+            respond(exchange, 204, null);
+        }
+        case "GET" -> {
+            if (key.isEmpty()) {
+                respond(exchange, 200, listing(exchange.getRequestURI().getQuery()));
+            } else if (objects.containsKey(key)) {
+                respond(exchange, 200, objects.get(key));
+            } else {
+                respond(exchange, 404, "<Error/>".getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        default -> respond(exchange, 405, new byte[0]);
+        }
+    }
+
+    private byte[] listing(final String query) {
+        final Map<String, String> parameters = new ConcurrentHashMap<>();
+        for (final String parameter : query.split("&")) {
+            final String[] pair = parameter.split("=", 2);
+            parameters.put(pair[0], pair[1]);
+        }
+        final var keys = objects.keySet().stream().filter(key -> key.startsWith(parameters.get("prefix"))).sorted()
+                .filter(key -> key.compareTo(parameters.getOrDefault("continuation-token", "")) > 0).toList();
+        final StringBuilder xml = new StringBuilder(
+                "<ListBucketResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">");
+        if (!keys.isEmpty()) {
+            xml.append("<Contents><Key>").append(keys.get(0))
+                    .append("</Key><LastModified>2025-01-01T00:00:00.000Z</LastModified></Contents>");
+        }
+        xml.append("<IsTruncated>").append(keys.size() > 1).append("</IsTruncated>");
+        if (keys.size() > 1) {
+            xml.append("<NextContinuationToken>").append(keys.get(0)).append("</NextContinuationToken>");
+        }
+        return xml.append("</ListBucketResult>").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void respond(final HttpExchange exchange, final int status, final byte[] body)
+            throws IOException {
+        exchange.sendResponseHeaders(status, body == null || body.length == 0 ? -1 : body.length);
+        if (body != null && body.length > 0) {
+            exchange.getResponseBody().write(body);
+        }
+        exchange.close();
+    }
+}
@@ -28,7 +28,6 @@ package es.org.cxn.backapp.test.unit.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -39,7 +38,9 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
-import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -47,6 +48,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -57,13 +59,19 @@ import es.org.cxn.backapp.model.persistence.user.PersistentUserEntity;
 import es.org.cxn.backapp.repository.ImageProfileEntityRepository;
 import es.org.cxn.backapp.repository.UserEntityRepository;
 import es.org.cxn.backapp.service.UserService;
+import es.org.cxn.backapp.service.dto.StoredImageDto;
 import es.org.cxn.backapp.service.exceptions.UserServiceException;
 import es.org.cxn.backapp.service.impl.DefaultUserProfileImageService;
 import es.org.cxn.backapp.service.impl.storage.DefaultImageStorageService;
 import es.org.cxn.backapp.service.impl.storage.FileLocation;
+import es.org.cxn.backapp.service.impl.storage.ImageVariant;
 
 class UserProfileImageServiceTest {
 
+    private static final String DIGEST = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+    private static final String STORED_PATH = "/images/profile/sha256/9f/" + DIGEST;
+
     @Mock
     private UserEntityRepository userRepository;
 
@@ -99,7 +107,7 @@ class UserProfileImageServiceTest {
 
         PersistentProfileImageEntity profileImage = new PersistentProfileImageEntity();
         profileImage.setStored(true);
-        profileImage.setUrl("src/test/resources/sample.png");
+        profileImage.setUrl(STORED_PATH);
         profileImage.setExtension(ImageExtension.PNG);
 
         PersistentUserEntity user = new PersistentUserEntity();
@@ -107,18 +115,75 @@ class UserProfileImageServiceTest {
         user.setProfileImage(profileImage);
 
         when(userService.findByDni(dni)).thenReturn(user);
-
-        // Crear archivo de prueba
-        File testFile = new File("src/test/resources/sample.png");
-        testFile.getParentFile().mkdirs();
-        Files.write(testFile.toPath(), new byte[] { 1, 2, 3 });
+        when(imageStorageService.openImage(STORED_PATH, "image/png", ImageVariant.ORIGINAL))
+                .thenReturn(new StoredImageDto(new ByteArrayResource(new byte[] { 1, 2, 3 }), 3, Instant.EPOCH,
+                        '"' + DIGEST + '"', "image/png"));
 
         ProfileImageResponse response = userProfileImageService.getProfileImage(dni);
 
-        assertNotNull(response.url());
+        assertEquals("/api/user/profileImage/" + DIGEST, response.url());
+        assertEquals("PNG", response.imageExtension());
+        assertNull(response.file());
+    }
+
+    @Test
+    void getStoredProfileImage_shouldOpenFileWithExtensionMediaType() throws Exception {
+        PersistentProfileImageEntity profileImage = new PersistentProfileImageEntity();
+        profileImage.setStored(true);
+        profileImage.setUrl(STORED_PATH);
+        profileImage.setExtension(ImageExtension.JPG);
+
+        final var image = new StoredImageDto(new ByteArrayResource(new byte[] { 1 }), 1, Instant.EPOCH, "\"a\"",
+                "image/jpeg");
+        when(imageProfileEntityRepository.findByStoredTrueAndUrlEndingWith(DIGEST)).thenReturn(List.of(profileImage));
+        when(imageStorageService.openImage(STORED_PATH, "image/jpeg", ImageVariant.THUMB)).thenReturn(image);
+
+        assertEquals(image, userProfileImageService.getStoredProfileImage(DIGEST, ImageVariant.THUMB));
+    }
+
+    @Test
+    void getStoredProfileImage_shouldThrow_whenNoPathHasTheDigestAsName() throws Exception {
+        PersistentProfileImageEntity profileImage = new PersistentProfileImageEntity();
+        profileImage.setStored(true);
+        profileImage.setUrl("/images/profile/12345678A/photo-" + DIGEST);
+        profileImage.setExtension(ImageExtension.PNG);
+
+        when(imageProfileEntityRepository.findByStoredTrueAndUrlEndingWith(DIGEST)).thenReturn(List.of(profileImage));
+
+        assertThrows(UserServiceException.class,
+                () -> userProfileImageService.getStoredProfileImage(DIGEST, ImageVariant.THUMB));
+    }
+
+    @Test
+    void getStoredProfileImage_shouldThrow_whenFileIsMissing() throws Exception {
+        PersistentProfileImageEntity profileImage = new PersistentProfileImageEntity();
+        profileImage.setStored(true);
+        profileImage.setUrl(STORED_PATH);
+        profileImage.setExtension(ImageExtension.PNG);
+
+        when(imageProfileEntityRepository.findByStoredTrueAndUrlEndingWith(DIGEST)).thenReturn(List.of(profileImage));
+        when(imageStorageService.openImage(STORED_PATH, "image/png", ImageVariant.THUMB))
+                .thenThrow(new NoSuchFileException(STORED_PATH));
+
+        UserServiceException ex = assertThrows(UserServiceException.class,
+                () -> userProfileImageService.getStoredProfileImage(DIGEST, ImageVariant.THUMB));
+
+        assertTrue(ex.getMessage().contains("not found"));
+    }
+
+    @Test
+    void hasStoredProfileImage_shouldMatchOnlyTheImageOfTheUser() {
+        PersistentProfileImageEntity profileImage = new PersistentProfileImageEntity();
+        profileImage.setStored(true);
+        profileImage.setUrl(STORED_PATH);
+        profileImage.setExtension(ImageExtension.PNG);
+
+        when(imageProfileEntityRepository.findById("12345678A")).thenReturn(Optional.of(profileImage));
+        when(imageProfileEntityRepository.findById("87654321B")).thenReturn(Optional.empty());
 
-        // Clean up
-        testFile.delete();
+        assertTrue(userProfileImageService.hasStoredProfileImage("12345678A", DIGEST));
+        assertFalse(userProfileImageService.hasStoredProfileImage("12345678A", "0" + DIGEST.substring(1)));
+        assertFalse(userProfileImageService.hasStoredProfileImage("87654321B", DIGEST));
     }
 
     @Test
@@ -166,7 +231,7 @@ class UserProfileImageServiceTest {
 
         assertEquals(dni, result.getDni());
         verify(imageProfileEntityRepository).save(any());
-        assertFalse(oldImage.exists());
+        verify(imageStorageService).deleteImage(oldImage.getAbsolutePath());
     }
 
     @Test
@@ -35,6 +35,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -42,9 +43,12 @@ import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
@@ -57,6 +61,8 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.dao.DataAccessException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
+import es.org.cxn.backapp.model.FederateState;
+import es.org.cxn.backapp.model.UserRoleName;
 import es.org.cxn.backapp.model.persistence.PersistentCountryEntity;
 import es.org.cxn.backapp.model.persistence.PersistentCountrySubdivisionEntity;
 import es.org.cxn.backapp.model.persistence.PersistentProfileImageEntity;
@@ -68,12 +74,17 @@ import es.org.cxn.backapp.repository.CountrySubdivisionEntityRepository;
 import es.org.cxn.backapp.repository.ImageProfileEntityRepository;
 import es.org.cxn.backapp.repository.RoleEntityRepository;
 import es.org.cxn.backapp.repository.UserEntityRepository;
+import es.org.cxn.backapp.security.VerifiedTokenCache;
 import es.org.cxn.backapp.service.EmailService;
 import es.org.cxn.backapp.service.PaymentsService;
 import es.org.cxn.backapp.service.RoleService;
 import es.org.cxn.backapp.service.dto.AddressRegistrationDetailsDto;
 import es.org.cxn.backapp.service.dto.UserRegistrationDetailsDto;
+import es.org.cxn.backapp.service.dto.UserDirectoryFilterDto;
+import es.org.cxn.backapp.service.dto.UserDirectorySort;
+import es.org.cxn.backapp.service.dto.UserRoleNameDto;
 import es.org.cxn.backapp.service.dto.UserServiceUpdateDto;
+import es.org.cxn.backapp.service.dto.UserSummaryDto;
 import es.org.cxn.backapp.service.exceptions.UserServiceException;
 import es.org.cxn.backapp.service.impl.DefaultUserService;
 import es.org.cxn.backapp.service.impl.storage.DefaultImageStorageService;
@@ -175,6 +186,12 @@ class UserServiceTest {
     @Mock
     private PaymentsService paymentsService;
 
+    /**
+     * The verified token cache used by user service.
+     */
+    @Mock
+    private VerifiedTokenCache tokenCache;
+
     /**
      * Service instance being tested.
      *
@@ -901,6 +918,8 @@ class UserServiceTest {
         assertThat((newPassword.equals(result.getPassword())))
                 .withFailMessage("The new password should be correctly encoded and " + "match the encrypted value.")
                 .isTrue();
+        // Cached tokens of the user must be verified again
+        verify(tokenCache).invalidateUser("123456789");
 
     }
 
@@ -1137,6 +1156,151 @@ class UserServiceTest {
                 .containsExactly(persistentUserEntity);
     }
 
+    /**
+     * Tests that {@code getAllSummaries} merges the roles read by their own query
+     * into the user summaries, and that users without roles get an empty set.
+     */
+    @Test
+    void testGetAllSummariesMergesRoles() {
+        final var withRoles = summary("11111111H");
+        final var withoutRoles = summary("22222222J");
+        when(userRepository.findAllSummaries()).thenReturn(List.of(withRoles, withoutRoles));
+        when(userRepository.findAllRoleNames())
+                .thenReturn(List.of(new UserRoleNameDto("11111111H", UserRoleName.ROLE_SOCIO),
+                        new UserRoleNameDto("11111111H", UserRoleName.ROLE_TESORERO)));
+
+        final var result = userService.getAllSummaries();
+
+        Assertions.assertEquals(2, result.size());
+        Assertions.assertEquals(EnumSet.of(UserRoleName.ROLE_SOCIO, UserRoleName.ROLE_TESORERO),
+                result.get(0).roles());
+        Assertions.assertTrue(result.get(1).roles().isEmpty());
+        verify(userRepository, never()).findAll();
+    }
+
+    /**
+     * Tests that the streamed roles are merged into the streamed summaries they
+     * follow, and that both streams are closed.
+     */
+    @Test
+    void testForEachSummaryMergesRoleStreams() {
+        final var closed = new ArrayList<String>();
+        when(userRepository.streamAllSummaries()).thenReturn(
+                Stream.of(summary("11111111H"), summary("22222222J"), summary("33333333P"))
+                        .onClose(() -> closed.add("summaries")));
+        when(userRepository.streamAllRoleNames()).thenReturn(Stream
+                .of(new UserRoleNameDto("11111111H", UserRoleName.ROLE_SOCIO),
+                        new UserRoleNameDto("33333333P", UserRoleName.ROLE_SOCIO),
+                        new UserRoleNameDto("33333333P", UserRoleName.ROLE_SECRETARIO))
+                .onClose(() -> closed.add("roles")));
+        final var users = new ArrayList<UserSummaryDto>();
+
+        userService.forEachSummary(users::add);
+
+        Assertions.assertEquals(List.of("11111111H", "22222222J", "33333333P"),
+                users.stream().map(UserSummaryDto::dni).toList());
+        Assertions.assertEquals(EnumSet.of(UserRoleName.ROLE_SOCIO), users.get(0).roles());
+        Assertions.assertTrue(users.get(1).roles().isEmpty());
+        Assertions.assertEquals(EnumSet.of(UserRoleName.ROLE_SOCIO, UserRoleName.ROLE_SECRETARIO),
+                users.get(2).roles());
+        Assertions.assertEquals(List.of("roles", "summaries"), closed);
+    }
+
+    /**
+     * Tests that role rows of a DNI missing from the summaries are skipped and do
+     * not hold back the roles of the following users.
+     */
+    @Test
+    void testForEachSummarySkipsOrphanRoleRows() {
+        when(userRepository.streamAllSummaries())
+                .thenReturn(Stream.of(summary("11111111H"), summary("33333333P"), summary("55555555K")));
+        when(userRepository.streamAllRoleNames()).thenReturn(Stream.of(
+                new UserRoleNameDto("00000000T", UserRoleName.ROLE_ADMIN),
+                new UserRoleNameDto("11111111H", UserRoleName.ROLE_SOCIO),
+                new UserRoleNameDto("22222222J", UserRoleName.ROLE_ADMIN),
+                new UserRoleNameDto("33333333P", UserRoleName.ROLE_SECRETARIO),
+                new UserRoleNameDto("44444444A", UserRoleName.ROLE_ADMIN),
+                new UserRoleNameDto("55555555K", UserRoleName.ROLE_SOCIO)));
+        final var users = new ArrayList<UserSummaryDto>();
+
+        userService.forEachSummary(users::add);
+
+        Assertions.assertEquals(List.of("11111111H", "33333333P", "55555555K"),
+                users.stream().map(UserSummaryDto::dni).toList());
+        Assertions.assertEquals(EnumSet.of(UserRoleName.ROLE_SOCIO), users.get(0).roles());
+        Assertions.assertEquals(EnumSet.of(UserRoleName.ROLE_SECRETARIO), users.get(1).roles());
+        Assertions.assertEquals(EnumSet.of(UserRoleName.ROLE_SOCIO), users.get(2).roles());
+    }
+
+    /**
+     * Tests that a directory page reads one user more than the limit, returns a
+     * cursor resuming after its last user, and only loads the roles of the page.
+     */
+    @Test
+    void testGetDirectoryPageReturnsNextCursor() throws UserServiceException {
+        final var filter = new UserDirectoryFilterDto(null, null, Boolean.TRUE, null, null);
+        when(userRepository.findDirectoryPage(filter, UserDirectorySort.DNI, null, null, 3))
+                .thenReturn(List.of(summary("11111111H"), summary("22222222J"), summary("33333333P")));
+        when(userRepository.findRoleNamesOfUsers(List.of("11111111H", "22222222J")))
+                .thenReturn(List.of(new UserRoleNameDto("22222222J", UserRoleName.ROLE_SOCIO)));
+
+        final var page = userService.getDirectoryPage(filter, UserDirectorySort.DNI, null, 2);
+
+        Assertions.assertEquals(List.of("11111111H", "22222222J"),
+                page.users().stream().map(UserSummaryDto::dni).toList());
+        Assertions.assertEquals(EnumSet.of(UserRoleName.ROLE_SOCIO), page.users().get(1).roles());
+        Assertions.assertNotNull(page.nextCursor());
+
+        when(userRepository.findDirectoryPage(filter, UserDirectorySort.DNI, null, "22222222J", 3))
+                .thenReturn(List.of(summary("33333333P")));
+        when(userRepository.findRoleNamesOfUsers(List.of("33333333P"))).thenReturn(List.of());
+
+        final var lastPage = userService.getDirectoryPage(filter, UserDirectorySort.DNI, page.nextCursor(), 2);
+
+        Assertions.assertEquals(1, lastPage.users().size());
+        Assertions.assertNull(lastPage.nextCursor());
+    }
+
+    /**
+     * Tests that a surname cursor resumes after both the surname and the DNI of
+     * the last user of the previous page.
+     */
+    @Test
+    void testGetDirectoryPageBySurnameResumesAfterSurnameAndDni() throws UserServiceException {
+        final var filter = new UserDirectoryFilterDto(null, null, null, null, null);
+        when(userRepository.findDirectoryPage(filter, UserDirectorySort.SURNAME, null, null, 2))
+                .thenReturn(List.of(summary("11111111H"), summary("22222222J")));
+        when(userRepository.findRoleNamesOfUsers(any())).thenReturn(List.of());
+
+        final var page = userService.getDirectoryPage(filter, UserDirectorySort.SURNAME, null, 1);
+        userService.getDirectoryPage(filter, UserDirectorySort.SURNAME, page.nextCursor(), 1);
+
+        verify(userRepository).findDirectoryPage(filter, UserDirectorySort.SURNAME, "First", "11111111H", 2);
+    }
+
+    /**
+     * Tests that malformed cursors, and cursors of another order, are rejected.
+     */
+    @Test
+    void testGetDirectoryPageRejectsInvalidCursor() throws UserServiceException {
+        final var filter = new UserDirectoryFilterDto(null, null, null, null, null);
+        when(userRepository.findDirectoryPage(filter, UserDirectorySort.DNI, null, null, 2))
+                .thenReturn(List.of(summary("11111111H"), summary("22222222J")));
+        when(userRepository.findRoleNamesOfUsers(any())).thenReturn(List.of());
+        final var dniCursor = userService.getDirectoryPage(filter, UserDirectorySort.DNI, null, 1).nextCursor();
+
+        Assertions.assertThrows(UserServiceException.class,
+                () -> userService.getDirectoryPage(filter, UserDirectorySort.DNI, "not a cursor!", 1));
+        Assertions.assertThrows(UserServiceException.class,
+                () -> userService.getDirectoryPage(filter, UserDirectorySort.SURNAME, dniCursor, 1));
+    }
+
+    private static UserSummaryDto summary(final String dni) {
+        return new UserSummaryDto(dni, "Name", "First", "Second", "Male", LocalDate.of(1990, 1, 1),
+                dni + "@example.com", UserType.SOCIO_NUMERO, "15000", "1A", "B", "Street", "City", "Spain", "Burgos",
+                null, null, FederateState.NO_FEDERATE, null);
+    }
+
     @Test
     void testUnsubscribeUserFound() throws UserServiceException {
 
@@ -0,0 +1,215 @@
+package es.org.cxn.backapp.test.utils;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local stand-in for the Lichess API.
+ * <p>
+ * It serves stubbed JSON responses over real HTTP on a random local port and
+ * records the requests it receives, with the client port they came from so
+ * tests can check that connections are reused. Paths with no stub answer
+ * {@code 404}. Thread safe.
+ * </p>
+ */
+public final class FakeLichessServer implements AutoCloseable {
+
+    /**
+     * A request received by the server.
+     *
+     * @param method        the HTTP method.
+     * @param path          the path, without the query.
+     * @param query         the raw query, or {@code null}.
+     * @param authorization the {@code Authorization} header, or {@code null}.
+     * @param contentType   the {@code Content-Type} header, or {@code null}.
+     * @param body          the request body.
+     * @param clientPort    the port of the client connection.
+     */
+    public record RecordedRequest(String method, String path, String query, String authorization,
+            String contentType, String body, int clientPort) {
+    }
+
+    /**
+     * A stubbed response.
+     *
+     * @param status the HTTP status.
+     * @param body   the JSON body.
+     * @param delay  the time to wait before answering.
+     */
+    private record Stub(int status, String body, Duration delay) {
+    }
+
+    /**
+     * The HTTP server.
+     */
+    private final HttpServer server;
+
+    /**
+     * Threads handling the requests.
+     */
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Stubbed responses by method and path.
+     */
+    private final Map<String, Stub> stubs = new ConcurrentHashMap<>();
+
+    /**
+     * Requests received so far.
+     */
+    private final List<RecordedRequest> requests = new CopyOnWriteArrayList<>();
+
+    /**
+     * Starts a server on a random local port.
+     */
+    public FakeLichessServer() {
+        try {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Gets the base URL of the server, to use as {@code lichess.api.base-url}.
+     *
+     * @return the base URL.
+     */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Answers a request with its stub, and records it.
+     *
+     * @param exchange the exchange.
+     * @throws IOException if the response cannot be written.
+     */
+    private void handle(final HttpExchange exchange) throws IOException {
+        final String body;
+        try (InputStream input = exchange.getRequestBody()) {
+            body = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        final var uri = exchange.getRequestURI();
+        final var headers = exchange.getRequestHeaders();
+        requests.add(new RecordedRequest(exchange.getRequestMethod(), uri.getPath(), uri.getRawQuery(),
+                headers.getFirst("Authorization"), headers.getFirst("Content-Type"), body,
+                exchange.getRemoteAddress().getPort()));
+
+        final Stub stub = stubs.getOrDefault(key(exchange.getRequestMethod(), uri.getPath()),
+                new Stub(404, "{\"error\":\"Not found\"}", Duration.ZERO));
+        if (!stub.delay().isZero()) {
+            try {
+                Thread.sleep(stub.delay());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                exchange.close();
+                return;
+            }
+        }
+        final byte[] response = stub.body().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(stub.status(), response.length == 0 ? -1 : response.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(response);
+        }
+    }
+
+    /**
+     * Builds the key of a stub.
+     *
+     * @param method the HTTP method.
+     * @param path   the path.
+     * @return the key.
+     */
+    private static String key(final String method, final String path) {
+        return method + " " + path;
+    }
+
+    /**
+     * Gets the requests received so far.
+     *
+     * @return the requests, in arrival order.
+     */
+    public List<RecordedRequest> requests() {
+        return List.copyOf(requests);
+    }
+
+    /**
+     * Stubs the response to a method and path.
+     *
+     * @param method the HTTP method.
+     * @param path   the path.
+     * @param status the HTTP status of the response.
+     * @param json   the JSON body of the response.
+     */
+    public void respond(final String method, final String path, final int status, final String json) {
+        respond(method, path, status, json, Duration.ZERO);
+    }
+
+    /**
+     * Stubs a delayed response to a method and path.
+     *
+     * @param method the HTTP method.
+     * @param path   the path.
+     * @param status the HTTP status of the response.
+     * @param json   the JSON body of the response.
+     * @param delay  the time to wait before answering.
+     */
+    public void respond(final String method, final String path, final int status, final String json,
+            final Duration delay) {
+        stubs.put(key(method, path), new Stub(status, json, delay));
+    }
+}
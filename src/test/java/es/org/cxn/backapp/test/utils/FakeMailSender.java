@@ -0,0 +1,92 @@
+package es.org.cxn.backapp.test.utils;
+
+/*-
+ * #%L
+ * back-app
+ * %%
+ * Copyright (C) 2022 - 2025 Circulo Xadrez Naron
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Local stand-in for an SMTP server.
+ * <p>
+ * It builds real {@link MimeMessage}s like {@link JavaMailSenderImpl}, but
+ * keeps the sent messages in memory instead of connecting to a server. It can
+ * be told to fail the next sends, to test retries. Thread safe, so it can be
+ * used as the {@code JavaMailSender} bean of integration tests.
+ * </p>
+ */
+public final class FakeMailSender extends JavaMailSenderImpl {
+
+    /**
+     * Messages sent so far.
+     */
+    private final List<MimeMessage> sentMessages = new CopyOnWriteArrayList<>();
+
+    /**
+     * Number of upcoming sends that must fail.
+     */
+    private final AtomicInteger pendingFailures = new AtomicInteger();
+
+    /**
+     * Records the messages, or fails if a failure is pending.
+     *
+     * @param mimeMessages     the messages to send.
+     * @param originalMessages unused.
+     */
+    @Override
+    protected void doSend(final MimeMessage[] mimeMessages, final Object[] originalMessages) {
+        for (final MimeMessage message : mimeMessages) {
+            if (pendingFailures.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0) {
+                throw new MailSendException("Fake SMTP server rejected the message.");
+            }
+            sentMessages.add(message);
+        }
+    }
+
+    /**
+     * Makes the next sends fail.
+     *
+     * @param times the number of sends that must fail.
+     */
+    public void failNext(final int times) {
+        pendingFailures.set(times);
+    }
+
+    /**
+     * Returns the messages sent so far.
+     *
+     * @return the sent messages, in sending order.
+     */
+    public List<MimeMessage> getSentMessages() {
+        return List.copyOf(sentMessages);
+    }
+}